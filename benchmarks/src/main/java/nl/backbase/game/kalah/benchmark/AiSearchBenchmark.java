@@ -0,0 +1,85 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.KalahSearch;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.engine.SearchResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed depth searches from the start position with six stones per pit, on an empty transposition table.
+ * Reported as searches per second, the {@code nodes} counter gives the nodes per second of the search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiSearchBenchmark {
+
+    private static final long NO_LIMIT = TimeUnit.MINUTES.toNanos(1);
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    @Param({"9"})
+    private int depth;
+
+    private final PackedBoard start = PackedBoard.of(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, false, GameStatus.IN_PROGRESS);
+    private ForkJoinPool pool;
+    private KalahSearch kalahSearch;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        kalahSearch = new KalahSearch(pool, 20, depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        kalahSearch.clearTable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public SearchResult search(Nodes nodes) {
+        SearchResult result = kalahSearch.search(start, NO_LIMIT);
+        nodes.nodes += result.getNodes();
+        return result;
+    }
+
+    /**
+     * nodes visited, reported per second next to the searches
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package nl.backbase.game.kalah.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import nl.backbase.game.kalah.aop.AspectLogging;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the controller logging advice per request, compared to calling the controller directly.
+ * The loggers are at INFO and write to a no-op appender, so the formatting and MDC work is measured, not the console.
+ * {@code legacyAdvice} is the advice before sampling, {@code sampledAdvice} logs enter and exit of one in hundred
+ * requests as the prod profile does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AspectLoggingBenchmark {
+
+    private final ProceedingJoinPoint joinPoint = new ControllerJoinPoint();
+    private final LegacyAspectLogging legacyAspectLogging = new LegacyAspectLogging();
+    private final AspectLogging fullAspectLogging = new AspectLogging(1.0);
+    private final AspectLogging sampledAspectLogging = new AspectLogging(0.01);
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/12345678");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("gameId", "12345678"));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/{gameId}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        silence(AspectLogging.class);
+        silence(LegacyAspectLogging.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object noAdvice() throws Throwable {
+        return joinPoint.proceed();
+    }
+
+    @Benchmark
+    public Object legacyAdvice() throws Throwable {
+        return legacyAspectLogging.logControllers(joinPoint);
+    }
+
+    @Benchmark
+    public Object fullAdvice() throws Throwable {
+        return fullAspectLogging.logControllers(joinPoint);
+    }
+
+    @Benchmark
+    public Object sampledAdvice() throws Throwable {
+        return sampledAspectLogging.logControllers(joinPoint);
+    }
+
+    private static void silence(Class<?> loggerClass) {
+        Logger logger = (Logger) LoggerFactory.getLogger(loggerClass);
+        NOPAppender<ILoggingEvent> appender = new NOPAppender<>();
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.detachAndStopAllAppenders();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+    }
+
+    /**
+     * join point of {@code GameController.getGame} returning a fixed result
+     */
+    private static final class ControllerJoinPoint implements ProceedingJoinPoint, Signature {
+        private static final Object RESULT = new Object();
+
+        @Override
+        public Object proceed() {
+            return RESULT;
+        }
+
+        @Override
+        public Object proceed(Object[] args) {
+            return RESULT;
+        }
+
+        @Override
+        public void set$AroundClosure(AroundClosure arc) {
+        }
+
+        @Override
+        public Signature getSignature() {
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return "getGame";
+        }
+
+        @Override
+        public String getDeclaringTypeName() {
+            return "nl.backbase.game.kalah.controller.GameController";
+        }
+
+        @Override
+        public Class getDeclaringType() {
+            return null;
+        }
+
+        @Override
+        public int getModifiers() {
+            return 1;
+        }
+
+        @Override
+        public String toShortString() {
+            return getName();
+        }
+
+        @Override
+        public String toLongString() {
+            return getDeclaringTypeName() + "." + getName();
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object[] getArgs() {
+            return new Object[0];
+        }
+
+        @Override
+        public SourceLocation getSourceLocation() {
+            return null;
+        }
+
+        @Override
+        public String getKind() {
+            return JoinPoint.METHOD_EXECUTION;
+        }
+
+        @Override
+        public JoinPoint.StaticPart getStaticPart() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.controller.GameController;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Cost per created game of {@code POST games} and {@code POST games/bulk} on top of a store that keeps nothing, so
+ * the batched insert into MongoDB is not part of it. {@code methodOnUri} is the link building before the bulk endpoint,
+ * through a proxy of the controller for every game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateGameBenchmark {
+
+    private static final int GAMES_PER_BULK = 100;
+
+    private GameController gameController;
+
+    @Setup
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("POST", "/games")));
+        gameController = new GameController(new GameServiceImpl(new DiscardingGameStore(), 6));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public GameResponse createGame() {
+        return gameController.createGame();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES_PER_BULK)
+    public List<GameResponse> createGames() {
+        return gameController.createGames(GAMES_PER_BULK);
+    }
+
+    @Benchmark
+    public void methodOnUri(Blackhole blackhole) {
+        blackhole.consume(linkTo(methodOn(GameController.class).createGame()).slash("12345678").withRel("uri").getHref());
+    }
+
+    /**
+     * keeps nothing, millions of created games would otherwise fill the heap
+     */
+    private static final class DiscardingGameStore implements GameStore {
+        @Override
+        public Optional<Game> findById(String gameId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Game save(Game game) {
+            return game;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.KalahRules;
+
+/**
+ * {@link KalahRules} before boards of other sizes than six pits per side, with the board size in constants, kept as
+ * reference for {@link PlayoutBenchmark}
+ */
+final class FixedKalahRules {
+
+    private static final int NUMBER_OF_PITS = 14;
+    private static final int PITS_PER_SIDE = 6;
+    private static final int FIRST_PLAYER_KALAH_INDEX = 6;
+    private static final int SECOND_PLAYER_KALAH_INDEX = 13;
+
+    private static final int CYCLE_LENGTH = NUMBER_OF_PITS - 1;
+
+    static final FixedKalahRules STANDARD = new FixedKalahRules();
+
+    /**
+     * [side of the chosen pit][position] pit index, two cycles in a row
+     */
+    private final int[][] cycle = new int[2][2 * CYCLE_LENGTH];
+    /**
+     * [side of the chosen pit][pit index] position of the pit in the cycle
+     */
+    private final int[][] cyclePosition = new int[2][NUMBER_OF_PITS];
+    /**
+     * [pit index] 0 for the first player's pits, 1 for the second player's pits, -1 for the Kalahs
+     */
+    private final int[] owner = new int[NUMBER_OF_PITS];
+    /**
+     * [pit index] pit captured together with this pit, -1 for the Kalahs
+     */
+    private final int[] opposite = new int[NUMBER_OF_PITS];
+
+    private FixedKalahRules() {
+        for (int side = 0; side < 2; side++) {
+            int skippedKalah = side == 0 ? SECOND_PLAYER_KALAH_INDEX : FIRST_PLAYER_KALAH_INDEX;
+            int position = 0;
+            for (int index = 0; index < NUMBER_OF_PITS; index++) {
+                if (index == skippedKalah) {
+                    cyclePosition[side][index] = -1;
+                } else {
+                    cyclePosition[side][index] = position;
+                    cycle[side][position] = index;
+                    cycle[side][position + CYCLE_LENGTH] = index;
+                    position++;
+                }
+            }
+        }
+        for (int index = 0; index < NUMBER_OF_PITS; index++) {
+            if (index == FIRST_PLAYER_KALAH_INDEX || index == SECOND_PLAYER_KALAH_INDEX) {
+                owner[index] = -1;
+                opposite[index] = -1;
+            } else if (index < FIRST_PLAYER_KALAH_INDEX) {
+                owner[index] = 0;
+                opposite[index] = index + PITS_PER_SIDE + 1;
+            } else {
+                owner[index] = 1;
+                opposite[index] = index - PITS_PER_SIDE - 1;
+            }
+        }
+    }
+
+    /**
+     * @param pitId pit number 1 to 14
+     * @return true when the pit is one of the Kalahs
+     */
+    boolean isKalah(int pitId) {
+        return pitId == FIRST_PLAYER_KALAH_INDEX + 1 || pitId == SECOND_PLAYER_KALAH_INDEX + 1;
+    }
+
+    /**
+     * Moves the stones of a pit and applies the capture and end of game rules. When the game completes the status of
+     * the board is set to the result, otherwise the turn goes to the player on whose side the last stone landed.
+     * Whether the player may move this pit is up to the caller.
+     *
+     * @param board board to change
+     * @param pitId pit number 1 to 14 to move the stones from, not a Kalah and not empty
+     * @return pit number in which the last stone landed
+     */
+    int move(Board board, int pitId) {
+        int[] pits = board.pits;
+        int origin = pitId - 1;
+        int side = owner[origin];
+        int stones = pits[origin];
+        if (side < 0 || stones <= 0) {
+            throw new IllegalArgumentException("Pit " + pitId + " can not be moved");
+        }
+        int[] sideCycle = cycle[side];
+
+        int laps = stones / CYCLE_LENGTH;
+        int remainder = stones - laps * CYCLE_LENGTH;
+        if (laps > 0) {
+            for (int position = 0; position < CYCLE_LENGTH; position++) {
+                pits[sideCycle[position]] += laps;
+            }
+            board.firstPlayerStones += laps * PITS_PER_SIDE;
+            board.secondPlayerStones += laps * PITS_PER_SIDE;
+        }
+        int start = cyclePosition[side][origin];
+        for (int position = start + 1; position <= start + remainder; position++) {
+            int index = sideCycle[position];
+            pits[index]++;
+            addToSide(board, owner[index], 1);
+        }
+        int last = sideCycle[start + (remainder == 0 ? CYCLE_LENGTH : remainder)];
+
+        addToSide(board, side, -pits[origin]);
+        pits[origin] = 0;
+
+        capture(board, last);
+
+        if (board.firstPlayerStones == 0 || board.secondPlayerStones == 0) {
+            moveRemainingStonesToKalah(board);
+        } else {
+            board.isSecondPlayerMove = last > FIRST_PLAYER_KALAH_INDEX;
+        }
+        return last + 1;
+    }
+
+    /**
+     * When the last stone lands in an own empty pit, the player captures this stone and all stones in the opposite pit
+     * and puts them in his own Kalah
+     */
+    private void capture(Board board, int last) {
+        int[] pits = board.pits;
+        int side = owner[last];
+        if (side < 0 || pits[last] != 1 || (side == 1) != board.isSecondPlayerMove) {
+            return;
+        }
+        int oppositeIndex = opposite[last];
+        int captured = pits[last] + pits[oppositeIndex];
+        pits[side == 0 ? FIRST_PLAYER_KALAH_INDEX : SECOND_PLAYER_KALAH_INDEX] += captured;
+        addToSide(board, side, -pits[last]);
+        addToSide(board, owner[oppositeIndex], -pits[oppositeIndex]);
+        pits[last] = 0;
+        pits[oppositeIndex] = 0;
+    }
+
+    /**
+     * The player who still has stones in his/her pits keeps them and puts them in his/hers Kalah,
+     * then the winner is decided by the Kalahs
+     */
+    private static void moveRemainingStonesToKalah(Board board) {
+        int[] pits = board.pits;
+        pits[FIRST_PLAYER_KALAH_INDEX] += board.firstPlayerStones;
+        pits[SECOND_PLAYER_KALAH_INDEX] += board.secondPlayerStones;
+        for (int index = 0; index < PITS_PER_SIDE; index++) {
+            pits[index] = 0;
+            pits[index + PITS_PER_SIDE + 1] = 0;
+        }
+        board.firstPlayerStones = 0;
+        board.secondPlayerStones = 0;
+
+        if (pits[FIRST_PLAYER_KALAH_INDEX] > pits[SECOND_PLAYER_KALAH_INDEX]) {
+            board.gameStatus = GameStatus.FIRSTPLAYERWON;
+        } else if (pits[FIRST_PLAYER_KALAH_INDEX] < pits[SECOND_PLAYER_KALAH_INDEX]) {
+            board.gameStatus = GameStatus.SECONDPLAYERWON;
+        } else {
+            board.gameStatus = GameStatus.DRAW;
+        }
+    }
+
+    private static void addToSide(Board board, int side, int stones) {
+        if (side == 0) {
+            board.firstPlayerStones += stones;
+        } else if (side == 1) {
+            board.secondPlayerStones += stones;
+        }
+    }
+
+    /**
+     * the {@link nl.backbase.game.kalah.engine.KalahBoard} of the six pit board
+     */
+    static final class Board {
+        final int[] pits;
+        int firstPlayerStones;
+        int secondPlayerStones;
+        boolean isSecondPlayerMove;
+        GameStatus gameStatus;
+
+        Board(int[] pits, boolean isSecondPlayerMove, GameStatus gameStatus) {
+            this.pits = pits;
+            this.isSecondPlayerMove = isSecondPlayerMove;
+            this.gameStatus = gameStatus;
+            for (int index = 0; index < PITS_PER_SIDE; index++) {
+                firstPlayerStones += pits[index];
+                secondPlayerStones += pits[index + PITS_PER_SIDE + 1];
+            }
+        }
+    }
+}
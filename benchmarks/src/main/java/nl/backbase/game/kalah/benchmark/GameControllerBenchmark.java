@@ -0,0 +1,68 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.controller.GameController;
+import nl.backbase.game.kalah.controller.GameVersionIndex;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response building of {@link GameController#getGame}: pits to status map and player message,
+ * on top of an in-memory store. {@code getGameNotModified} is a poll with the latest ETag answered from the
+ * {@link GameVersionIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameControllerBenchmark {
+
+    private static final String GAME_ID = "12345678";
+
+    private GameController gameController;
+    private GameController conditionalGameController;
+
+    @Setup
+    public void setUp() {
+        GameStore gameStore = new InMemoryGameStore();
+        gameStore.save(Game.builder()
+                .id(GAME_ID)
+                .pits(new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0})
+                .isSecondPlayerMove(true)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .build());
+        GameServiceImpl gameService = new GameServiceImpl(gameStore, 6);
+        gameController = new GameController(gameService);
+        conditionalGameController = new GameController(gameService, Optional.empty(),
+                Optional.of(new GameVersionIndex(new LocalGameEventBus(), 16)));
+    }
+
+    @Benchmark
+    public GameResponse getGame() {
+        return gameController.getGame(GAME_ID, null).getBody();
+    }
+
+    @Benchmark
+    public ResponseEntity<GameResponse> getGameNotModified() {
+        return conditionalGameController.getGame(GAME_ID, "\"0\"");
+    }
+}
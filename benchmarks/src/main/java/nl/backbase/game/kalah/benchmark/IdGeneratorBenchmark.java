@@ -0,0 +1,46 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.utils.IdGeneratorUtil;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game and request id generation, run with several threads as ids are generated on every request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private final SequentialIdGenerator sequentialIdGenerator = new SequentialIdGenerator(0);
+
+    @Benchmark
+    public String generateGameId() {
+        return IdGeneratorUtil.generateGameId();
+    }
+
+    @Benchmark
+    public String generateSequentialGameId() {
+        return sequentialIdGenerator.generateGameId();
+    }
+
+    @Benchmark
+    public String generateRequestId() {
+        return IdGeneratorUtil.generateRequestId();
+    }
+}
@@ -0,0 +1,27 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.repository.GameStore;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link GameStore} without MongoDB, so the benchmarks measure the service and not the database
+ */
+public class InMemoryGameStore implements GameStore {
+
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        return Optional.ofNullable(games.get(gameId));
+    }
+
+    @Override
+    public Game save(Game game) {
+        games.put(game.getId(), game);
+        return game;
+    }
+}
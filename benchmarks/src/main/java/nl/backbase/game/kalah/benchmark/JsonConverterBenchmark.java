@@ -0,0 +1,62 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.utils.JsonConverterUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonConverterUtil#convertToJson(Object)} of a game response as sent for every move,
+ * with the status as map and straight from the pits
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+    private GameResponse gameResponse;
+    private GameResponse pitsGameResponse;
+
+    @Setup
+    public void setUp() {
+        Map<Integer, Integer> status = new HashMap<>();
+        for (int pitId = 1; pitId <= 14; pitId++) {
+            status.put(pitId, pitId == 7 || pitId == 14 ? 0 : 6);
+        }
+        gameResponse = GameResponse.builder()
+                .id("12345678")
+                .status(status)
+                .playerMessage("First Player should move the coin(s)")
+                .build();
+        pitsGameResponse = GameResponse.builder()
+                .id("12345678")
+                .pits(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0})
+                .playerMessage("First Player should move the coin(s)")
+                .build();
+    }
+
+    @Benchmark
+    public String convertToJson() {
+        return JsonConverterUtil.convertToJson(gameResponse);
+    }
+
+    @Benchmark
+    public String convertPitsToJson() {
+        return JsonConverterUtil.convertToJson(pitsGameResponse);
+    }
+}
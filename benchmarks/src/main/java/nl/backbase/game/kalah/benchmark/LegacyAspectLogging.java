@@ -0,0 +1,69 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.aop.AspectLogging;
+import nl.backbase.game.kalah.utils.GlobalConstants;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Controller advice of {@link AspectLogging} before sampling, kept as reference for {@link AspectLoggingBenchmark}
+ */
+final class LegacyAspectLogging {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyAspectLogging.class);
+
+    private static final String EXCEPTION_LOG_PATTERN = "Exception while processing a %s request on the URI %s from class %s:%s with message %s";
+    private static final String ENTER_CONTROLLER_LOG_PATTERN = "Received a {} request on the endpoint {}";
+    private static final String EXIT_CONTROLLER_LOG_PATTERN = "Success response sent to the {} {} request";
+
+    Object logControllers(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        try {
+            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder
+                    .currentRequestAttributes()).getRequest();
+            Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            String gameId = pathVariables.get("gameId");
+
+            MDC.put(GlobalConstants.GAME_ID_LOGGER_MDC_KEY, gameId == null || gameId == "" ? GlobalConstants.NOT_APPLICABLE :
+                    gameId);
+            MDC.put(GlobalConstants.REQUEST_ID_LOGGER_MDC_KEY, UUID.randomUUID().toString().replaceAll("-", ""));
+            Optional<HttpServletRequest> contextOptional = getRequestFromContext();
+            log.info(ENTER_CONTROLLER_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
+                    proceedingJoinPoint.getSignature().getName(),
+                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
+                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE);
+
+            Object result = proceedingJoinPoint.proceed();
+
+            log.info(EXIT_CONTROLLER_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
+                    proceedingJoinPoint.getSignature().getName(),
+                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
+                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE);
+            return result;
+        } catch (Throwable th) {
+            Optional<HttpServletRequest> contextOptional = getRequestFromContext();
+            log.error(String.format(EXCEPTION_LOG_PATTERN,
+                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
+                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE,
+                    proceedingJoinPoint.getSignature().getDeclaringTypeName(),
+                    proceedingJoinPoint.getSignature().getName(), th));
+            throw th;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private Optional<HttpServletRequest> getRequestFromContext() {
+        Optional<ServletRequestAttributes> attributesOptional = Optional.ofNullable((ServletRequestAttributes) RequestContextHolder.getRequestAttributes());
+        return attributesOptional.map(ServletRequestAttributes::getRequest);
+    }
+}
@@ -0,0 +1,52 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameServiceImpl#makeMove(String, int)} on an in-memory store, a random legal pit per move
+ * and a new game once a game is completed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MakeMoveBenchmark {
+
+    private GameServiceImpl gameService;
+    private SplittableRandom random;
+    private String gameId;
+
+    @Setup
+    public void setUp() {
+        gameService = new GameServiceImpl(new InMemoryGameStore(), 6);
+        random = new SplittableRandom(42);
+        gameId = gameService.createGame().getId();
+    }
+
+    @Benchmark
+    public Game makeMove() {
+        Game game = gameService.getGame(gameId);
+        Game result = gameService.makeMove(gameId, RandomPlayer.choosePit(game.getPits(), game.isSecondPlayerMove(), random));
+        if (GameStatus.IN_PROGRESS != result.getGameStatus()) {
+            gameId = gameService.createGame().getId();
+        }
+        return result;
+    }
+}
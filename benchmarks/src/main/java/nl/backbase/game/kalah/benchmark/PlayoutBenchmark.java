@@ -0,0 +1,94 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.KalahBoard;
+import nl.backbase.game.kalah.engine.KalahRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete random games from the start position with six stones per pit, reported as playouts per second.
+ * {@code playoutFixedRules} plays the six pit board with the {@link FixedKalahRules} that had the board size in
+ * constants, to compare with {@code playout}; {@code playoutBoardSize} plays boards of other sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    private static final int[] START = {6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+
+    private final int[] pits = new int[START.length];
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public GameStatus playout() {
+        System.arraycopy(START, 0, pits, 0, START.length);
+        KalahBoard board = KalahBoard.wrap(pits, false, GameStatus.IN_PROGRESS);
+        while (board.getGameStatus() == GameStatus.IN_PROGRESS) {
+            KalahRules.STANDARD.move(board, RandomPlayer.choosePit(pits, board.isSecondPlayerMove(), random));
+        }
+        return board.getGameStatus();
+    }
+
+    @Benchmark
+    public GameStatus playoutFixedRules() {
+        System.arraycopy(START, 0, pits, 0, START.length);
+        FixedKalahRules.Board board = new FixedKalahRules.Board(pits, false, GameStatus.IN_PROGRESS);
+        while (board.gameStatus == GameStatus.IN_PROGRESS) {
+            FixedKalahRules.STANDARD.move(board, RandomPlayer.choosePit(pits, board.isSecondPlayerMove, random));
+        }
+        return board.gameStatus;
+    }
+
+    @Benchmark
+    public GameStatus playoutBoardSize(BoardSize boardSize) {
+        int[] boardPits = boardSize.pits;
+        System.arraycopy(boardSize.start, 0, boardPits, 0, boardPits.length);
+        KalahBoard board = KalahBoard.wrap(boardPits, false, GameStatus.IN_PROGRESS);
+        while (board.getGameStatus() == GameStatus.IN_PROGRESS) {
+            boardSize.rules.move(board, RandomPlayer.choosePit(boardPits, board.isSecondPlayerMove(), random));
+        }
+        return board.getGameStatus();
+    }
+
+    @State(Scope.Thread)
+    public static class BoardSize {
+
+        @Param({"4", "6", "8"})
+        public int pitsPerSide;
+
+        private KalahRules rules;
+        private int[] start;
+        private int[] pits;
+
+        @Setup
+        public void setUp() {
+            BoardGeometry geometry = BoardGeometry.of(pitsPerSide);
+            rules = KalahRules.of(geometry);
+            start = geometry.newPits(6);
+            pits = new int[start.length];
+        }
+    }
+}
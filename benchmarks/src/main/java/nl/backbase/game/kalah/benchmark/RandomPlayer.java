@@ -0,0 +1,39 @@
+package nl.backbase.game.kalah.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses a random non empty pit of the player to move
+ */
+final class RandomPlayer {
+
+    private RandomPlayer() {
+    }
+
+    /**
+     * @param pits               the pits of the game, on a board of any size
+     * @param isSecondPlayerMove true when it is the second player's turn
+     * @param random             source of randomness
+     * @return pit number, -1 when the player has no stones
+     */
+    static int choosePit(int[] pits, boolean isSecondPlayerMove, SplittableRandom random) {
+        int pitsPerSide = pits.length / 2 - 1;
+        int firstPit = isSecondPlayerMove ? pitsPerSide + 2 : 1;
+        int candidates = 0;
+        for (int pitId = firstPit; pitId < firstPit + pitsPerSide; pitId++) {
+            if (pits[pitId - 1] > 0) {
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return -1;
+        }
+        int chosen = random.nextInt(candidates);
+        for (int pitId = firstPit; pitId < firstPit + pitsPerSide; pitId++) {
+            if (pits[pitId - 1] > 0 && chosen-- == 0) {
+                return pitId;
+            }
+        }
+        throw new IllegalStateException("No pit chosen");
+    }
+}
@@ -0,0 +1,138 @@
+package nl.backbase.game.kalah.benchmark;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of moves executed the way Tomcat executes requests: on a pool of {@value #PLATFORM_THREADS} platform
+ * threads, the default of {@code server.tomcat.threads.max}, or on a virtual thread per request as with
+ * {@code kalah.threads.virtual}. Every JMH thread is a client playing its own game, one move at a time, against a
+ * store that blocks for {@code storeLatencyMillis} on every call like a round trip to MongoDB.
+ * <p>
+ * Throughput is the moves per millisecond of all clients, SampleTime the latency of a move including its wait for a
+ * thread, read its p0.99. Other numbers of clients are run with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1000)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"2"})
+    public long storeLatencyMillis;
+
+    private GameServiceImpl gameService;
+    private ExecutorService requestExecutor;
+
+    @Setup
+    public void setUp() {
+        gameService = new GameServiceImpl(new BlockingGameStore(new InMemoryGameStore(), storeLatencyMillis), 6);
+        requestExecutor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Game makeMove(Client client) throws InterruptedException, ExecutionException {
+        return requestExecutor.submit(client::makeMove).get();
+    }
+
+    /**
+     * A client with its own game, so the moves of the clients do not wait for each other's game locks
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private GameServiceImpl gameService;
+        private SplittableRandom random;
+        private String gameId;
+
+        @Setup
+        public void setUp(VirtualThreadBenchmark benchmark) {
+            gameService = benchmark.gameService;
+            random = new SplittableRandom();
+            gameId = gameService.createGame().getId();
+        }
+
+        /**
+         * a random legal pit, on the request thread, and a new game once the game is completed
+         */
+        private Game makeMove() {
+            Game game = gameService.getGame(gameId);
+            Game result = gameService.makeMove(gameId, RandomPlayer.choosePit(game.getPits(), game.isSecondPlayerMove(), random));
+            if (GameStatus.IN_PROGRESS != result.getGameStatus()) {
+                gameId = gameService.createGame().getId();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * blocks the calling thread on every call, virtual threads are unmounted while they sleep
+     */
+    private static final class BlockingGameStore implements GameStore {
+        private final GameStore gameStore;
+        private final long latencyMillis;
+
+        private BlockingGameStore(GameStore gameStore, long latencyMillis) {
+            this.gameStore = gameStore;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Optional<Game> findById(String gameId) {
+            block();
+            return gameStore.findById(gameId);
+        }
+
+        @Override
+        public Game save(Game game) {
+            block();
+            return gameStore.save(game);
+        }
+
+        private void block() {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the store", e);
+            }
+        }
+    }
+}
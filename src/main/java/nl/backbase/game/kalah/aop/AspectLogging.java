@@ -4,17 +4,21 @@ import lombok.extern.slf4j.Slf4j;
 import nl.backbase.game.kalah.utils.GlobalConstants;
 import nl.backbase.game.kalah.utils.IdGeneratorUtil;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 @Slf4j
@@ -22,17 +26,34 @@ import java.util.Optional;
 @Component
 public class AspectLogging {
 
-    private static final String EXCEPTION_LOG_PATTERN = "Exception while processing a %s request on the URI %s from class %s:%s with message %s";
+    private static final String EXCEPTION_LOG_PATTERN = "Exception while processing a {} request on the URI {} from class {}:{} with message {}";
     private static final String ENTER_CONTROLLER_LOG_PATTERN = "Received a {} request on the endpoint {}";
     private static final String EXIT_CONTROLLER_LOG_PATTERN = "Success response sent to the {} {} request";
     private static final String ENTER_SERVICE_LOG_PATTERN = "ENTER :: {}.{}() :: Proccessing request";
     private static final String EXIT_SERVICE_LOG_PATTERN = "EXIT :: {}.{}() :: Processing completed";
 
+    /**
+     * share of the requests whose enter and exit are logged, exceptions are always logged
+     */
+    private final double sampleRate;
+
+    public AspectLogging() {
+        this(1.0);
+    }
+
+    @Autowired
+    public AspectLogging(@Value("${kalah.logging.sampleRate:1.0}") double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("kalah.logging.sampleRate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
 
     /**
      * This method is invokes by aspect based on execution expression. Method is
      * used to (INFO) log a Enter and exit/Exception log of a presentation Add
-     * flowId, sessionId and requestId in slf4j MDC to include in logs
+     * flowId, sessionId and requestId in slf4j MDC to include in logs.
+     * The request is resolved once, enter and exit are only logged for the sampled requests.
      *
      * @param proceedingJoinPoint {@link ProceedingJoinPoint}
      * @return output of the method
@@ -40,35 +61,28 @@ public class AspectLogging {
      */
     @Around("execution( * nl.backbase.game.kalah.controller.GameController.* (..))")
     public Object logControllers(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        HttpServletRequest request = getRequestFromContext();
+        String method = request != null ? request.getMethod() : GlobalConstants.NOT_APPLICABLE;
+        Object pattern = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : null;
+        Object endpoint = pattern != null ? pattern : GlobalConstants.NOT_APPLICABLE;
         try {
-            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder
-                    .currentRequestAttributes()).getRequest();
-            Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
-            String gameId = pathVariables.get("gameId");
-
-            MDC.put(GlobalConstants.GAME_ID_LOGGER_MDC_KEY, gameId == null || gameId == "" ? GlobalConstants.NOT_APPLICABLE :
-                    gameId);
+            MDC.put(GlobalConstants.GAME_ID_LOGGER_MDC_KEY, getGameId(request));
             MDC.put(GlobalConstants.REQUEST_ID_LOGGER_MDC_KEY, IdGeneratorUtil.generateRequestId());
-            Optional<HttpServletRequest> contextOptional = getRequestFromContext();
-            log.info(ENTER_CONTROLLER_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
-                    proceedingJoinPoint.getSignature().getName(),
-                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
-                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE);
+            boolean sampled = log.isInfoEnabled() && isSampled();
+            if (sampled) {
+                log.info(ENTER_CONTROLLER_LOG_PATTERN, method, endpoint);
+            }
 
             Object result = proceedingJoinPoint.proceed();
 
-            log.info(EXIT_CONTROLLER_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
-                    proceedingJoinPoint.getSignature().getName(),
-                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
-                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE);
+            if (sampled) {
+                log.info(EXIT_CONTROLLER_LOG_PATTERN, method, endpoint);
+            }
             return result;
         } catch (Throwable th) {
-            Optional<HttpServletRequest> contextOptional = getRequestFromContext();
-            log.error(String.format(EXCEPTION_LOG_PATTERN,
-                    contextOptional.isPresent() ? contextOptional.get().getMethod() : GlobalConstants.NOT_APPLICABLE,
-                    contextOptional.isPresent() ? contextOptional.get().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : GlobalConstants.NOT_APPLICABLE,
-                    proceedingJoinPoint.getSignature().getDeclaringTypeName(),
-                    proceedingJoinPoint.getSignature().getName(), th));
+            Signature signature = proceedingJoinPoint.getSignature();
+            log.error(EXCEPTION_LOG_PATTERN, method, endpoint, signature.getDeclaringTypeName(), signature.getName(),
+                    th.getMessage(), th);
             throw th;
         } finally {
             MDC.clear();
@@ -79,7 +93,7 @@ public class AspectLogging {
     /**
      * This method is invokes by aspect based on execution expression. Method is
      * used to (Debug) log a Enter and exit log of a services Add requestId and
-     * SessionId in slf4j MDC to include in logs
+     * SessionId in slf4j MDC to include in logs. Unless debug is enabled the method is called straight away.
      *
      * @param proceedingJoinPoint : {@link ProceedingJoinPoint}
      * @return : output of the method
@@ -87,20 +101,32 @@ public class AspectLogging {
      */
     @Around("execution( * nl.backbase.game.kalah.service.GameServiceImpl.* (..))")
     public static Object logService(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
-        log.debug(ENTER_SERVICE_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
-                proceedingJoinPoint.getSignature().getName());
+        if (!log.isDebugEnabled()) {
+            return proceedingJoinPoint.proceed();
+        }
+        Signature signature = proceedingJoinPoint.getSignature();
+        log.debug(ENTER_SERVICE_LOG_PATTERN, signature.getDeclaringTypeName(), signature.getName());
 
         Object result = proceedingJoinPoint.proceed();
 
-        log.debug(EXIT_SERVICE_LOG_PATTERN, proceedingJoinPoint.getSignature().getDeclaringTypeName(),
-                proceedingJoinPoint.getSignature().getName());
+        log.debug(EXIT_SERVICE_LOG_PATTERN, signature.getDeclaringTypeName(), signature.getName());
         return result;
 
     }
 
-    private Optional<HttpServletRequest> getRequestFromContext() {
-        Optional<ServletRequestAttributes> attributesOptional = Optional.ofNullable((ServletRequestAttributes) RequestContextHolder.getRequestAttributes());
-        return attributesOptional.map(ServletRequestAttributes::getRequest);
+    private boolean isSampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static String getGameId(HttpServletRequest request) {
+        Object pathVariables = request != null ? request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) : null;
+        Object gameId = pathVariables instanceof Map ? ((Map<?, ?>) pathVariables).get("gameId") : null;
+        return gameId == null || "".equals(gameId) ? GlobalConstants.NOT_APPLICABLE : gameId.toString();
+    }
+
+    private static HttpServletRequest getRequestFromContext() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest() : null;
     }
 
 
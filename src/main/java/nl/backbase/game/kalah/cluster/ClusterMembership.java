@@ -0,0 +1,275 @@
+package nl.backbase.game.kalah.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.utils.IdGenerator;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Nodes sharing the database and the node owning each game.
+ * <p>
+ * A game is owned by the node that created it, whose id is in the game id, so the games need sequential ids. When
+ * that node is down or not a member, the game is owned by the node following the hash of the game id on a consistent
+ * hash ring of the live nodes, so only the games of a leaving node move and they are spread over the remaining nodes.
+ * The live nodes are found by probing the health endpoint of every other node, without a coordinator: nodes may
+ * disagree on the owner for the interval of a probe, which only costs a forward, the moves are still compare-and-set
+ * on the stored game.
+ * <p>
+ * The ring is rebuilt when a node goes up or down, looking up an owner does not allocate.
+ */
+@Slf4j
+public class ClusterMembership implements AutoCloseable {
+
+    private static final String HEALTH_PATH = "/actuator/health";
+
+    private final int selfNodeId;
+    private final URI[] uris = new URI[SequentialIdGenerator.MAX_NODE_ID + 1];
+    private final int pointsPerNode;
+    private final Predicate<URI> healthCheck;
+    private final ScheduledExecutorService prober;
+    private volatile Ring ring;
+
+    /**
+     * Probes the other nodes in the background
+     *
+     * @param idGenerator         generator of the game ids of this instance, sequential with the node id of this
+     *                            instance
+     * @param nodes               base uri of every node by node id, including this one
+     * @param pointsPerNode       points of a node on the hash ring, more points spread the games more evenly
+     * @param probeIntervalMillis interval in which the other nodes are probed
+     * @param timeoutMillis       time a node has to answer a probe
+     */
+    public ClusterMembership(IdGenerator idGenerator, Map<Integer, URI> nodes, int pointsPerNode,
+                             long probeIntervalMillis, int timeoutMillis) {
+        this(sequentialNodeId(idGenerator), nodes, pointsPerNode, httpHealthCheck(timeoutMillis),
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "cluster-prober");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+        prober.scheduleWithFixedDelay(this::probe, 0, probeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Nodes are only probed by calling {@link #probe()}, all nodes start live
+     *
+     * @param healthCheck whether the node with the base uri is healthy
+     */
+    ClusterMembership(int selfNodeId, Map<Integer, URI> nodes, int pointsPerNode, Predicate<URI> healthCheck) {
+        this(selfNodeId, nodes, pointsPerNode, healthCheck, null);
+    }
+
+    private ClusterMembership(int selfNodeId, Map<Integer, URI> nodes, int pointsPerNode, Predicate<URI> healthCheck,
+                              ScheduledExecutorService prober) {
+        if (!nodes.containsKey(selfNodeId)) {
+            throw new IllegalArgumentException("kalah.cluster.nodes must contain the node id " + selfNodeId + " of this instance");
+        }
+        if (pointsPerNode < 1) {
+            throw new IllegalArgumentException("kalah.cluster.pointsPerNode must be at least 1");
+        }
+        nodes.forEach((nodeId, uri) -> uris[nodeId] = uri);
+        this.selfNodeId = selfNodeId;
+        this.pointsPerNode = pointsPerNode;
+        this.healthCheck = healthCheck;
+        this.prober = prober;
+        boolean[] live = new boolean[uris.length];
+        nodes.keySet().forEach(nodeId -> live[nodeId] = true);
+        this.ring = new Ring(live, pointsPerNode);
+    }
+
+    /**
+     * @param nodes comma separated {@code nodeId=baseUri} pairs, e.g. {@code 0=http://kalah-0,1=http://kalah-1}
+     * @return base uri by node id
+     * @throws IllegalArgumentException when a pair can not be parsed or a node id is out of range
+     */
+    public static Map<Integer, URI> parseNodes(String nodes) {
+        Map<Integer, URI> parsed = new TreeMap<>();
+        for (String node : nodes.split(",")) {
+            String[] pair = node.trim().split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("kalah.cluster.nodes must be comma separated nodeId=baseUri pairs, not " + node);
+            }
+            int nodeId = Integer.parseInt(pair[0].trim());
+            if (nodeId < 0 || nodeId > SequentialIdGenerator.MAX_NODE_ID) {
+                throw new IllegalArgumentException("Node ids must be between 0 and " + SequentialIdGenerator.MAX_NODE_ID);
+            }
+            String uri = pair[1].trim();
+            parsed.put(nodeId, URI.create(uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri));
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+
+    /**
+     * The owner of a game is read from its id, random ids would make every game owned by an arbitrary node
+     */
+    private static int sequentialNodeId(IdGenerator idGenerator) {
+        if (!(idGenerator instanceof SequentialIdGenerator)) {
+            throw new IllegalStateException("kalah.cluster.enabled needs kalah.id.mode=sequential");
+        }
+        return ((SequentialIdGenerator) idGenerator).getNodeId();
+    }
+
+    /**
+     * @param gameId id of a game created by a sequential id generator
+     * @return node id of the node owning the game, this node for ids that are not game ids
+     */
+    public int ownerOf(String gameId) {
+        int creator;
+        try {
+            creator = SequentialIdGenerator.nodeIdOf(gameId);
+        } catch (IllegalArgumentException e) {
+            return selfNodeId;
+        }
+        Ring current = ring;
+        return current.live[creator] ? creator : current.ownerOf(gameId.hashCode());
+    }
+
+    public boolean isSelf(int nodeId) {
+        return nodeId == selfNodeId;
+    }
+
+    public int getSelfNodeId() {
+        return selfNodeId;
+    }
+
+    /**
+     * @return base uri of the node
+     */
+    public URI uriOf(int nodeId) {
+        return uris[nodeId];
+    }
+
+    /**
+     * @return whether the node is a member and answered its last probe
+     */
+    public boolean isLive(int nodeId) {
+        return ring.live[nodeId];
+    }
+
+    /**
+     * Takes the node off the ring until it answers a probe again, e.g. when a forward to it could not connect
+     */
+    public void markDown(int nodeId) {
+        setLive(nodeId, false);
+    }
+
+    /**
+     * Probes all other nodes once and rebuilds the ring when a node went up or down
+     */
+    public void probe() {
+        for (int nodeId = 0; nodeId < uris.length; nodeId++) {
+            if (uris[nodeId] != null && nodeId != selfNodeId) {
+                setLive(nodeId, healthCheck.test(uris[nodeId]));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    private synchronized void setLive(int nodeId, boolean live) {
+        Ring current = ring;
+        if (nodeId == selfNodeId || uris[nodeId] == null || current.live[nodeId] == live) {
+            return;
+        }
+        log.warn("Node {} at {} is {}, moving its games", nodeId, uris[nodeId], live ? "up" : "down");
+        boolean[] changed = current.live.clone();
+        changed[nodeId] = live;
+        ring = new Ring(changed, pointsPerNode);
+    }
+
+    private static Predicate<URI> httpHealthCheck(int timeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        return uri -> {
+            try (ClientHttpResponse response = requestFactory.createRequest(uri.resolve(HEALTH_PATH), HttpMethod.GET).execute()) {
+                return response.getStatusCode().is2xxSuccessful();
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Consistent hash ring of the live nodes, immutable
+     */
+    private static final class Ring {
+        /**
+         * live by node id
+         */
+        private final boolean[] live;
+        /**
+         * sorted hashes of the points on the ring
+         */
+        private final int[] points;
+        /**
+         * node id of each point
+         */
+        private final int[] owners;
+
+        private Ring(boolean[] live, int pointsPerNode) {
+            this.live = live;
+            long[] ring = new long[0];
+            for (int nodeId = 0; nodeId < live.length; nodeId++) {
+                if (!live[nodeId]) {
+                    continue;
+                }
+                int first = ring.length;
+                ring = Arrays.copyOf(ring, first + pointsPerNode);
+                for (int point = 0; point < pointsPerNode; point++) {
+                    // the hash in the high half sorts the points, the node id in the low half breaks ties
+                    ring[first + point] = (long) mix(nodeId * 0x9E37_79B9 + point) << 32 | nodeId;
+                }
+            }
+            Arrays.sort(ring);
+            this.points = new int[ring.length];
+            this.owners = new int[ring.length];
+            for (int index = 0; index < ring.length; index++) {
+                points[index] = (int) (ring[index] >> 32);
+                owners[index] = (int) ring[index];
+            }
+        }
+
+        /**
+         * @return node id of the first point at or after the hash, wrapping around
+         */
+        private int ownerOf(int hash) {
+            int key = mix(hash);
+            int index = Arrays.binarySearch(points, key);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index == points.length ? 0 : index];
+        }
+
+        /**
+         * finalizer of murmur3, spreads similar ids over the whole ring
+         */
+        private static int mix(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85EB_CA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2_AE35;
+            hash ^= hash >>> 16;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package nl.backbase.game.kalah.cluster;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the forwarded requests, connecting to the owner before anything of the request is sent.
+ * <p>
+ * Every failure while connecting, a refused connection as well as a connect timeout or an unknown host, is thrown as
+ * a {@link ConnectException}: the owner did not get the request, so it is safe to handle it on this node. A failure
+ * after the connect is thrown as it is, the owner may have handled the request. The body is buffered and sent with its
+ * length, so a request is never sent twice by the connection itself.
+ */
+public class ForwardingRequestFactory implements ClientHttpRequestFactory {
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    public ForwardingRequestFactory(int connectTimeoutMillis, int readTimeoutMillis) {
+        if (connectTimeoutMillis < 1 || readTimeoutMillis < 1) {
+            throw new IllegalArgumentException(
+                    "kalah.cluster.connectTimeoutMillis and kalah.cluster.readTimeoutMillis must be at least 1");
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestMethod(httpMethod.name());
+        return new Request(connection, uri, httpMethod);
+    }
+
+    private static final class Request extends AbstractClientHttpRequest {
+        private final HttpURLConnection connection;
+        private final URI uri;
+        private final HttpMethod httpMethod;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        private Request(HttpURLConnection connection, URI uri, HttpMethod httpMethod) {
+            this.connection = connection;
+            this.uri = uri;
+            this.httpMethod = httpMethod;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return httpMethod.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue()) {
+                    connection.addRequestProperty(header.getKey(), value);
+                }
+            }
+            if (body.size() > 0) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.size());
+            }
+            try {
+                connection.connect();
+            } catch (IOException e) {
+                ConnectException connectException = new ConnectException("Could not connect to " + uri.getAuthority()
+                        + ": " + e.getMessage());
+                connectException.initCause(e);
+                throw connectException;
+            }
+            if (body.size() > 0) {
+                try (OutputStream out = connection.getOutputStream()) {
+                    body.writeTo(out);
+                }
+            }
+            return new Response(connection);
+        }
+    }
+
+    private static final class Response extends AbstractClientHttpResponse {
+        private final HttpURLConnection connection;
+        private HttpHeaders headers;
+        private InputStream body;
+
+        private Response(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return connection.getResponseCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            String message = connection.getResponseMessage();
+            return message != null ? message : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                // the key of the status line is null
+                for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+                    if (header.getKey() != null) {
+                        headers.put(header.getKey(), header.getValue());
+                    }
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream error = connection.getErrorStream();
+                body = error != null ? error : connection.getInputStream();
+            }
+            return body;
+        }
+
+        /**
+         * Reads the rest of the body, so the connection is kept for the next request
+         */
+        @Override
+        public void close() {
+            try {
+                InputStream in = getBody();
+                StreamUtils.drain(in);
+                in.close();
+            } catch (IOException e) {
+                // the connection is not reused
+            }
+        }
+    }
+}
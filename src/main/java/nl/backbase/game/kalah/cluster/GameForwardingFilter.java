@@ -0,0 +1,198 @@
+package nl.backbase.game.kalah.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Forwards the requests on a game to the node owning it, so the moves of a game are made on one node.
+ * <p>
+ * A forwarded request carries {@value #FORWARDED_BY_HEADER}, the node receiving it handles it itself even when it
+ * does not consider itself the owner, so a request is forwarded at most once. When the owner can not be reached
+ * it is marked down and the request is handled on this node: moves are compare-and-set on the stored game, so
+ * ownership is an optimization and never needed for correctness. Only a request that failed to connect is known not
+ * to have reached the owner, the request factory throws a {@link ConnectException} for those. A move whose forward
+ * failed after it connected may have been made by the owner, so it is answered with 503 instead of being made again.
+ * <p>
+ * Event streams are not forwarded, they stay open for a long time and would hold a thread of this node. They are
+ * redirected to the owner with 307, so the node URIs must be reachable by the clients following event streams.
+ */
+@Slf4j
+public class GameForwardingFilter extends OncePerRequestFilter {
+
+    public static final String FORWARDED_BY_HEADER = "X-Kalah-Forwarded-By";
+
+    private static final String GAMES_PATH = "/games/";
+    private static final String EVENTS_PATH = "/events";
+    private static final int GAME_ID_LENGTH = 8;
+    /**
+     * headers of one connection, they are not passed on
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length")));
+
+    private final ClusterMembership clusterMembership;
+    private final ClientHttpRequestFactory requestFactory;
+
+    /**
+     * @param requestFactory sends forwarded requests, throws a {@link ConnectException} only when a request did not
+     *                       reach the owner, like {@link ForwardingRequestFactory}
+     */
+    public GameForwardingFilter(ClusterMembership clusterMembership, ClientHttpRequestFactory requestFactory) {
+        this.clusterMembership = clusterMembership;
+        this.requestFactory = requestFactory;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(FORWARDED_BY_HEADER) != null || gameIdOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int owner = clusterMembership.ownerOf(gameIdOf(request));
+        if (clusterMembership.isSelf(owner)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (request.getRequestURI().endsWith(EVENTS_PATH)) {
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader(HttpHeaders.LOCATION, ownerUri(owner, request).toString());
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        ClientHttpResponse forwarded;
+        try {
+            forwarded = send(owner, request, body);
+        } catch (IOException e) {
+            clusterMembership.markDown(owner);
+            if (e instanceof ConnectException || HttpMethod.GET.matches(request.getMethod())) {
+                log.warn("Node {} did not answer, handling {} {} on this node", owner, request.getMethod(),
+                        request.getRequestURI(), e);
+                filterChain.doFilter(new CachedBodyRequest(request, body), response);
+            } else {
+                log.error("Node {} did not answer {} {}, it may have been handled", owner, request.getMethod(),
+                        request.getRequestURI(), e);
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "The node owning the game did not answer, please load the game and retry");
+            }
+            return;
+        }
+        try (ClientHttpResponse ownerResponse = forwarded) {
+            copy(ownerResponse, response);
+        }
+    }
+
+    private URI ownerUri(int owner, HttpServletRequest request) {
+        String query = request.getQueryString();
+        return URI.create(clusterMembership.uriOf(owner) + request.getRequestURI() + (query != null ? "?" + query : ""));
+    }
+
+    private ClientHttpResponse send(int owner, HttpServletRequest request, byte[] body) throws IOException {
+        ClientHttpRequest forward = requestFactory.createRequest(ownerUri(owner, request),
+                HttpMethod.resolve(request.getMethod()));
+        HttpHeaders headers = forward.getHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+        // links in the responses of the owner point to the host the client called
+        if (!headers.containsKey("X-Forwarded-Host") && request.getHeader(HttpHeaders.HOST) != null) {
+            headers.set("X-Forwarded-Host", request.getHeader(HttpHeaders.HOST));
+            headers.set("X-Forwarded-Proto", request.getScheme());
+        }
+        headers.set(FORWARDED_BY_HEADER, Integer.toString(clusterMembership.getSelfNodeId()));
+        if (body.length > 0) {
+            forward.getBody().write(body);
+        }
+        return forward.execute();
+    }
+
+    private static void copy(ClientHttpResponse ownerResponse, HttpServletResponse response) throws IOException {
+        response.setStatus(ownerResponse.getRawStatusCode());
+        for (Map.Entry<String, List<String>> header : ownerResponse.getHeaders().entrySet()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase())) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        StreamUtils.copy(ownerResponse.getBody(), response.getOutputStream());
+    }
+
+    /**
+     * @return the game id of a request on {@code /games/{gameId}} or below it, null for other requests
+     */
+    private static String gameIdOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int end = GAMES_PATH.length() + GAME_ID_LENGTH;
+        if (!path.startsWith(GAMES_PATH) || path.length() < end || (path.length() > end && path.charAt(end) != '/')) {
+            return null;
+        }
+        return path.substring(GAMES_PATH.length(), end);
+    }
+
+    /**
+     * The request with its body read already, handled on this node after the forward failed
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("The body was read already");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+            };
+        }
+    }
+}
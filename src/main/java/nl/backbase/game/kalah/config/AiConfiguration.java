@@ -0,0 +1,47 @@
+package nl.backbase.game.kalah.config;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.engine.EndgameDatabase;
+import nl.backbase.game.kalah.engine.KalahSearch;
+import nl.backbase.game.kalah.service.AiPlayer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wires the server side player. The search runs on its own fork/join pool, so searches do not compete with other
+ * work on the common pool. A parallelism of 0 uses all processors. The endgame database is only used when a file
+ * written by the {@code EndgameDatabaseBuilder} is configured.
+ */
+@Slf4j
+@Configuration
+public class AiConfiguration {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool kalahSearchPool(@Value("${kalah.ai.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public EndgameDatabase endgameDatabase(@Value("${kalah.ai.endgameFile:}") String endgameFile) throws IOException {
+        if (endgameFile.isEmpty()) {
+            return EndgameDatabase.empty();
+        }
+        EndgameDatabase endgameDatabase = EndgameDatabase.open(Paths.get(endgameFile));
+        log.info("Mapped the endgame database {} with positions up to {} stones", endgameFile, endgameDatabase.getMaxStones());
+        return endgameDatabase;
+    }
+
+    @Bean
+    public AiPlayer aiPlayer(ForkJoinPool kalahSearchPool,
+                             EndgameDatabase endgameDatabase,
+                             @Value("${kalah.ai.tableBits:20}") int tableBits,
+                             @Value("${kalah.ai.maxDepth:32}") int maxDepth,
+                             @Value("${kalah.ai.timeBudgetMillis:250}") long timeBudgetMillis) {
+        return new AiPlayer(new KalahSearch(kalahSearchPool, tableBits, maxDepth, endgameDatabase), timeBudgetMillis);
+    }
+}
@@ -0,0 +1,44 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.cluster.ClusterMembership;
+import nl.backbase.game.kalah.cluster.ForwardingRequestFactory;
+import nl.backbase.game.kalah.cluster.GameForwardingFilter;
+import nl.backbase.game.kalah.utils.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Routes the requests on a game to the node owning it when {@code kalah.cluster.enabled} is set. Every instance
+ * gets the same {@code kalah.cluster.nodes} and its own {@code kalah.id.nodeId}, the owner of a game is read from its
+ * sequential id, so it does not start without {@code kalah.id.mode=sequential}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "kalah.cluster.enabled", havingValue = "true")
+public class ClusterConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ClusterMembership clusterMembership(IdGenerator idGenerator,
+                                               @Value("${kalah.cluster.nodes}") String nodes,
+                                               @Value("${kalah.cluster.pointsPerNode:128}") int pointsPerNode,
+                                               @Value("${kalah.cluster.probeIntervalMillis:1000}") long probeIntervalMillis,
+                                               @Value("${kalah.cluster.connectTimeoutMillis:200}") int connectTimeoutMillis) {
+        return new ClusterMembership(idGenerator, ClusterMembership.parseNodes(nodes), pointsPerNode, probeIntervalMillis,
+                connectTimeoutMillis);
+    }
+
+    @Bean
+    public FilterRegistrationBean<GameForwardingFilter> gameForwardingFilter(ClusterMembership clusterMembership,
+                                                                             @Value("${kalah.cluster.connectTimeoutMillis:200}") int connectTimeoutMillis,
+                                                                             @Value("${kalah.cluster.readTimeoutMillis:5000}") int readTimeoutMillis) {
+        FilterRegistrationBean<GameForwardingFilter> registration = new FilterRegistrationBean<>(
+                new GameForwardingFilter(clusterMembership,
+                        new ForwardingRequestFactory(connectTimeoutMillis, readTimeoutMillis)));
+        registration.addUrlPatterns("/games/*");
+        return registration;
+    }
+}
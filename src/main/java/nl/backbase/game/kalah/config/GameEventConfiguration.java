@@ -0,0 +1,36 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.event.GameEventHub;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the game events streamed to clients.
+ * {@code kalah.events.bus} only supports the in process bus, {@code local}, another value fails the startup. It only
+ * counts as reaching every instance with {@code kalah.events.singleInstance}.
+ */
+@Configuration
+public class GameEventConfiguration {
+
+    private static final String LOCAL_BUS = "local";
+
+    @Bean
+    public GameEventBus gameEventBus(@Value("${kalah.events.bus:local}") String bus,
+                                     @Value("${kalah.events.singleInstance:false}") boolean singleInstance) {
+        if (!LOCAL_BUS.equals(bus)) {
+            throw new IllegalStateException("kalah.events.bus " + bus + " is not supported, the supported values are: "
+                    + LOCAL_BUS);
+        }
+        return new LocalGameEventBus(singleInstance);
+    }
+
+    @Bean(destroyMethod = "close")
+    public GameEventHub gameEventHub(GameEventBus gameEventBus,
+                                     @Value("${kalah.events.bufferSize:16}") int bufferSize,
+                                     @Value("${kalah.events.senderThreads:4}") int senderThreads) {
+        return new GameEventHub(gameEventBus, bufferSize, senderThreads);
+    }
+}
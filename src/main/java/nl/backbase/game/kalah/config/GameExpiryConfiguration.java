@@ -0,0 +1,40 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.GameActivityListener;
+import nl.backbase.game.kalah.repository.GameArchiver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stamps the activity times on every written game and, with {@code kalah.archive.enabled}, moves finished games to
+ * the archive. The indexes are created by {@link GameExpiryIndexes}.
+ */
+@Configuration
+public class GameExpiryConfiguration {
+
+    @Bean
+    public GameActivityListener gameActivityListener(@Value("${kalah.expiry.abandonedAfterHours:168}") long abandonedAfterHours) {
+        return new GameActivityListener(TimeUnit.HOURS.toMillis(abandonedAfterHours));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "kalah.archive.enabled", havingValue = "true")
+    public GameArchiver gameArchiver(MongoTemplate mongoTemplate,
+                                     GameMetrics gameMetrics,
+                                     @Value("${kalah.archive.finishedAfterMinutes:60}") long finishedAfterMinutes,
+                                     @Value("${kalah.archive.batchSize:1000}") int batchSize,
+                                     @Value("${kalah.archive.intervalMillis:60000}") long intervalMillis,
+                                     @Value("${kalah.archive.compressor:zlib}") String compressor,
+                                     @Value("${kalah.mongo.compact:false}") boolean compact) {
+        GameArchiver gameArchiver = new GameArchiver(mongoTemplate, gameMetrics,
+                TimeUnit.MINUTES.toMillis(finishedAfterMinutes), batchSize, compact, intervalMillis);
+        gameArchiver.createCollection(compressor);
+        return gameArchiver;
+    }
+}
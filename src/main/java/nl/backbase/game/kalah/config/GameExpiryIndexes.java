@@ -0,0 +1,61 @@
+package nl.backbase.game.kalah.config;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the TTL index that deletes games once they are abandoned, and the indexes the archiver finds finished games
+ * by: last activity, and status with last activity for the games written by the {@link CompactGameWritingConverter}.
+ * The status index only holds games with a compact status, so it costs nothing until the compact format is used.
+ * The games expire at the time stored in them, so changing {@code kalah.expiry.abandonedAfterHours} does not change
+ * the index, it applies to the games saved afterwards. With 0 the TTL index is dropped and games are kept.
+ * Games stored before the activity times were written have neither, they expire or are archived after their next
+ * save.
+ */
+@Slf4j
+@Component
+public class GameExpiryIndexes implements InitializingBean {
+
+    static final String EXPIRY_INDEX = "expiresAt_ttl";
+    static final String LAST_ACTIVITY_INDEX = "lastActivity";
+    static final String STATUS_INDEX = "status_lastActivity";
+
+    private final MongoTemplate mongoTemplate;
+    private final long abandonedAfterHours;
+
+    public GameExpiryIndexes(MongoTemplate mongoTemplate,
+                             @Value("${kalah.expiry.abandonedAfterHours:168}") long abandonedAfterHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.abandonedAfterHours = abandonedAfterHours;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Game.class);
+        indexOperations.ensureIndex(new Index().on(GameDocumentFields.LAST_ACTIVITY, Sort.Direction.ASC)
+                .named(LAST_ACTIVITY_INDEX));
+        indexOperations.ensureIndex(new Index().on(GameDocumentFields.COMPACT_STATUS, Sort.Direction.ASC)
+                .on(GameDocumentFields.LAST_ACTIVITY, Sort.Direction.ASC)
+                .named(STATUS_INDEX)
+                .partial(PartialIndexFilter.of(Criteria.where(GameDocumentFields.COMPACT_STATUS).exists(true))));
+        if (abandonedAfterHours > 0) {
+            indexOperations.ensureIndex(new Index().on(GameDocumentFields.EXPIRES_AT, Sort.Direction.ASC)
+                    .named(EXPIRY_INDEX)
+                    .expire(0));
+        } else if (indexOperations.getIndexInfo().stream().anyMatch(index -> EXPIRY_INDEX.equals(index.getName()))) {
+            indexOperations.dropIndex(EXPIRY_INDEX);
+            log.info("Abandoned games are kept, the index {} is dropped", EXPIRY_INDEX);
+        }
+    }
+}
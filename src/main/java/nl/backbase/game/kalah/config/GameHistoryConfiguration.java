@@ -0,0 +1,34 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.repository.MongoMoveLog;
+import nl.backbase.game.kalah.repository.MoveLog;
+import nl.backbase.game.kalah.service.GameHistoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+/**
+ * Records the moves of every game in the {@link MoveLog} and serves past positions, enabled with
+ * {@code kalah.history.enabled}. The snapshot interval decides where the moves are stored, it must not change
+ * once games are recorded.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "kalah.history.enabled", havingValue = "true")
+public class GameHistoryConfiguration {
+
+    @Bean
+    public MoveLog moveLog(MongoOperations mongoOperations,
+                           @Value("${kalah.history.snapshotInterval:64}") int snapshotInterval) {
+        return new MongoMoveLog(mongoOperations, snapshotInterval);
+    }
+
+    @Bean
+    public GameHistoryService gameHistoryService(MoveLog moveLog,
+                                                 @Value("${kalah.initialNumberOfStones}") int initialNumberOfStones) {
+        return new GameHistoryService(moveLog, initialNumberOfStones);
+    }
+}
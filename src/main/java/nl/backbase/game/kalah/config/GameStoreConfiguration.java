@@ -0,0 +1,62 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.CachingGameStore;
+import nl.backbase.game.kalah.repository.GameRepository;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.repository.MongoGameStore;
+import nl.backbase.game.kalah.repository.ReadThroughGameStore;
+import nl.backbase.game.kalah.service.GamePool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the {@link GameStore} used by the game service.
+ * By default every read and write goes to MongoDB, the write-behind store is enabled with
+ * {@code kalah.store.writeBehind.enabled}. Otherwise {@code kalah.store.cache.enabled} keeps the games saved and loaded
+ * by this instance in a read-through cache, invalidated by the changes of other instances on the {@link GameEventBus}.
+ * With {@code kalah.pool.enabled} games are created and stored in advance
+ * by a {@link GamePool}.
+ */
+@Configuration
+@Profile("!reactive")
+public class GameStoreConfiguration {
+
+    @Bean
+    public GameStore gameStore(GameRepository gameRepository,
+                               GameMetrics gameMetrics,
+                               GameEventBus gameEventBus,
+                               @Value("${kalah.store.writeBehind.enabled:false}") boolean writeBehindEnabled,
+                               @Value("${kalah.store.writeBehind.maxGames:100000}") int maxGames,
+                               @Value("${kalah.store.writeBehind.idleTimeoutMillis:300000}") long idleTimeoutMillis,
+                               @Value("${kalah.store.writeBehind.flushIntervalMillis:1000}") long flushIntervalMillis,
+                               @Value("${kalah.store.cache.enabled:false}") boolean cacheEnabled,
+                               @Value("${kalah.store.cache.maxGames:10000}") int cacheMaxGames) {
+        if (writeBehindEnabled) {
+            // the write-behind store serves its games from memory already
+            return new CachingGameStore(gameRepository, gameMetrics, gameEventBus, maxGames, idleTimeoutMillis,
+                    flushIntervalMillis);
+        }
+        MongoGameStore mongoGameStore = new MongoGameStore(gameRepository, gameMetrics);
+        if (cacheEnabled) {
+            return new ReadThroughGameStore(mongoGameStore, gameEventBus, gameMetrics, cacheMaxGames);
+        }
+        return mongoGameStore;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "kalah.pool.enabled", havingValue = "true")
+    public GamePool gamePool(@Value("${kalah.pool.size:1000}") int size,
+                             @Value("${kalah.pool.batchSize:500}") int batchSize,
+                             @Value("${kalah.pool.maxAgeMinutes:60}") long maxAgeMinutes,
+                             @Value("${kalah.expiry.abandonedAfterHours:168}") long abandonedAfterHours) {
+        return new GamePool(size, batchSize, TimeUnit.MINUTES.toMillis(maxAgeMinutes),
+                TimeUnit.HOURS.toMillis(abandonedAfterHours));
+    }
+}
@@ -0,0 +1,36 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.repository.GameRepository;
+import nl.backbase.game.kalah.utils.IdGenerator;
+import nl.backbase.game.kalah.utils.RandomIdGenerator;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chooses how game ids are generated with {@code kalah.id.mode}.
+ * By default ids are random and checked against the stored games. Sequential ids need every instance sharing the
+ * database to have its own {@code kalah.id.nodeId}, so that mode does not start without one.
+ */
+@Configuration
+public class IdGeneratorConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "kalah.id.mode", havingValue = "sequential")
+    public IdGenerator sequentialIdGenerator(@Value("${kalah.id.nodeId:#{null}}") Integer nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("kalah.id.mode=sequential needs kalah.id.nodeId, every instance sharing "
+                    + "the database its own");
+        }
+        return new SequentialIdGenerator(nodeId);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "kalah.id.mode", havingValue = "random", matchIfMissing = true)
+    public IdGenerator randomIdGenerator(GameRepository gameRepository,
+                                        @Value("${kalah.id.maxAttempts:5}") int maxAttempts) {
+        return new RandomIdGenerator(gameRepository::existsById, maxAttempts);
+    }
+}
@@ -0,0 +1,35 @@
+package nl.backbase.game.kalah.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.ActiveGamesCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Registers the {@link GameMetrics} in the registry of Spring Boot Actuator, which exposes them on
+ * {@code /actuator/prometheus}. The active games are counted in the game collection every
+ * {@code kalah.metrics.activeGamesIntervalMillis}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public GameMetrics gameMetrics(MeterRegistry meterRegistry, MongoTemplate mongoTemplate) {
+        GameMetrics gameMetrics = new GameMetrics(meterRegistry);
+        // read from the collection metadata, it does not count the documents
+        gameMetrics.storedGames(() -> mongoTemplate.getCollection(mongoTemplate.getCollectionName(Game.class))
+                .estimatedDocumentCount());
+        return gameMetrics;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ActiveGamesCounter activeGamesCounter(MongoTemplate mongoTemplate, GameMetrics gameMetrics,
+                                                 @Value("${kalah.expiry.abandonedAfterHours:168}") long abandonedAfterHours,
+                                                 @Value("${kalah.metrics.activeGamesIntervalMillis:60000}") long intervalMillis) {
+        return new ActiveGamesCounter(mongoTemplate, gameMetrics, abandonedAfterHours > 0, intervalMillis);
+    }
+}
@@ -0,0 +1,61 @@
+package nl.backbase.game.kalah.config;
+
+import nl.backbase.game.kalah.repository.GameFormatMigration;
+import nl.backbase.game.kalah.repository.GameVersionMigration;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import nl.backbase.game.kalah.repository.converter.GameReadingConverter;
+import nl.backbase.game.kalah.repository.converter.PackedGameWritingConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the game converters. Games are always read in the default, the packed and the compact encoding. The
+ * compact encoding is written when {@code kalah.mongo.compact} is enabled, then the games stored in another encoding
+ * are rewritten in the background. Otherwise the packed encoding is written when {@code kalah.mongo.packedBoard} is
+ * enabled. Games stored before they were versioned get a version in the background first.
+ */
+@Configuration
+public class MongoConfiguration {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(@Value("${kalah.mongo.packedBoard:false}") boolean packedBoard,
+                                                         @Value("${kalah.mongo.compact:false}") boolean compact) {
+        List<Converter<?, ?>> converters = new ArrayList<>();
+        converters.add(new GameReadingConverter());
+        if (compact) {
+            converters.add(new CompactGameWritingConverter());
+        } else if (packedBoard) {
+            converters.add(new PackedGameWritingConverter());
+        }
+        return new MongoCustomConversions(converters);
+    }
+
+    @Bean(destroyMethod = "close")
+    public GameVersionMigration gameVersionMigration(MongoTemplate mongoTemplate,
+                                                     @Value("${kalah.mongo.migrationBatchSize:1000}") int batchSize) {
+        GameVersionMigration gameVersionMigration = new GameVersionMigration(mongoTemplate, batchSize);
+        gameVersionMigration.start();
+        return gameVersionMigration;
+    }
+
+    /**
+     * Starts after the games without version got one, the rewrite only replaces games with the version it read
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "kalah.mongo.compact", havingValue = "true")
+    public GameFormatMigration gameFormatMigration(MongoTemplate mongoTemplate,
+                                                   GameVersionMigration gameVersionMigration,
+                                                   @Value("${kalah.mongo.migrationBatchSize:1000}") int batchSize) {
+        GameFormatMigration gameFormatMigration = new GameFormatMigration(mongoTemplate, batchSize);
+        gameVersionMigration.whenMigrated(gameFormatMigration::start);
+        return gameFormatMigration;
+    }
+}
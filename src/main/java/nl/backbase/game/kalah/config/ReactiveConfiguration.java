@@ -0,0 +1,21 @@
+package nl.backbase.game.kalah.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Reactive profile, serves the game API from WebFlux on Netty with the reactive MongoDB driver.
+ * Tomcat is on the classpath for the servlet stack and would be picked for a reactive application as well,
+ * so the Netty server factory is declared explicitly
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,34 @@
+package nl.backbase.game.kalah.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request on its own virtual thread when {@code kalah.threads.virtual} is set, instead of on Tomcat's pool
+ * of {@code server.tomcat.threads.max} platform threads. A request waiting on MongoDB then only holds a virtual
+ * thread, so the games in flight are bounded by the connections and the MongoDB connection pool, not by the pool.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block holds on to its carrier thread, the stores and locks
+ * of the service only block on MongoDB outside of them. Run with {@code -Djdk.tracePinnedThreads=short} to find
+ * pinned threads.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "kalah.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * The executor is not a bean, an executor bean would replace the task executor of Spring Boot. It keeps no
+     * threads, so it needs no shutdown once Tomcat has stopped.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -2,36 +2,61 @@ package nl.backbase.game.kalah.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.backbase.game.kalah.domain.Game;
-import nl.backbase.game.kalah.domain.enums.GameStatus;
-import nl.backbase.game.kalah.domain.exception.InvalidGameException;
-import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
 import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.KalahRules;
 import nl.backbase.game.kalah.service.GameService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.hateoas.Link;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
+@Profile("!reactive")
 @Slf4j
 public class GameController {
     private final GameService gameService;
+    private final GameResponseCache gameResponseCache;
+    private final GameVersionIndex gameVersionIndex;
+    private final BoardGeometry boardGeometry;
 
     @Autowired
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService,
+                          Optional<GameResponseCache> gameResponseCache,
+                          Optional<GameVersionIndex> gameVersionIndex,
+                          @Value("${kalah.pitsPerSide:6}") int pitsPerSide) {
         this.gameService = gameService;
+        this.gameResponseCache = gameResponseCache.orElse(null);
+        this.gameVersionIndex = gameVersionIndex.orElse(null);
+        this.boardGeometry = BoardGeometry.of(pitsPerSide);
+    }
+
+    public GameController(GameService gameService,
+                          Optional<GameResponseCache> gameResponseCache,
+                          Optional<GameVersionIndex> gameVersionIndex) {
+        this(gameService, gameResponseCache, gameVersionIndex, KalahRules.PITS_PER_SIDE);
+    }
+
+    public GameController(GameService gameService) {
+        this(gameService, Optional.empty(), Optional.empty());
     }
 
     /*
@@ -52,64 +77,83 @@ public class GameController {
     @ResponseStatus(HttpStatus.CREATED)
     public GameResponse createGame() {
         Game game = gameService.createGame();
-        Link link = linkTo(methodOn(GameController.class).createGame())
-                .slash(game.getId())
-                .withRel("uri");
-        return GameResponse.builder().id(game.getId()).uri(link.getHref()).build();
+        return GameControllerSupport.toCreatedResponse(game, gamesUri() + "/" + game.getId());
     }
 
+    /**
+     * Creates up to {@link GameControllerSupport#MAX_GAMES_PER_BATCH} games, which are saved in one batch
+     */
+    @PostMapping(path = "games/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<GameResponse> createGames(@RequestParam int count) {
+        GameControllerSupport.validateGameCount(count);
+
+        List<Game> games = gameService.createGames(count);
+
+        return GameControllerSupport.toCreatedResponses(games, gamesUri());
+    }
+
+    /**
+     * The move count of the game is its ETag. A poll with the latest ETag in If-None-Match is answered with 304
+     * from the {@link GameVersionIndex}, without loading the game.
+     */
     @GetMapping(path = "games/{gameId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public GameResponse getGame(@PathVariable String gameId) {
-        if (gameId.length() != 8) {
-            throw new InvalidGameException("Invalid Game ID");
+    public ResponseEntity<GameResponse> getGame(@PathVariable String gameId,
+                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GameControllerSupport.validateGameId(gameId);
+        Long knownMoveCount = ifNoneMatch != null && gameVersionIndex != null ? gameVersionIndex.moveCount(gameId) : null;
+        if (knownMoveCount != null && GameControllerSupport.matchesETag(ifNoneMatch, knownMoveCount)) {
+            return GameControllerSupport.notModified(knownMoveCount);
         }
         Game game = gameService.getGame(gameId);
-        return GameResponse.builder()
-                .id(game.getId())
-                .status(transformPlayerPitToStatus(game))
-                .playerMessage(transformPlayerMessage(game))
-                .build();
+        if (gameVersionIndex != null) {
+            gameVersionIndex.update(game);
+        }
+        return GameControllerSupport.toConditionalResponse(game, ifNoneMatch, gameResponseCache);
     }
 
     @PutMapping(path = "games/{gameId}/pits/{pitId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public GameResponse makeMove(@PathVariable String gameId, @PathVariable int pitId) {
-        if (gameId.length() != 8) {
-            throw new InvalidGameException("Invalid Game ID");
-        }
-        if (pitId > 14 || pitId < 0) {
-            throw new InvalidPitException("Invalid Pit");
-        }
-        if (pitId == 7 || pitId == 14) {
-            throw new InvalidPitException("Coins from house should not be allowed to move.Please chose pit");
-        }
-
+        GameControllerSupport.validateGameId(gameId);
         //validate pitId
+        GameControllerSupport.validatePitId(pitId, boardGeometry);
+
         Game game = gameService.makeMove(gameId, pitId);
 
-        return GameResponse.builder()
-                .id(gameId)
-                .status(transformPlayerPitToStatus(game))
-                .id(game.getId())
-                .playerMessage(transformPlayerMessage(game))
-                .build();
+        return GameControllerSupport.toResponse(game, gameResponseCache);
     }
 
-    private String transformPlayerMessage(Game game) {
-        if (GameStatus.CREATED != game.getGameStatus() && GameStatus.IN_PROGRESS != game.getGameStatus()) {
-            return "Game is completed with game status " + game.getGameStatus();
-        }
-        String playerMessage = "First Player should move the coin(s)";
-        if (game.isSecondPlayerMove()) {
-            playerMessage = "Second Player should move the coin(s)";
-        }
-        return playerMessage;
+    /**
+     * The server makes the move of the player to move, for games against the server. The move is chosen within
+     * kalah.ai.timeBudgetMillis.
+     */
+    @PutMapping(path = "games/{gameId}/ai-move", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public GameResponse makeAiMove(@PathVariable String gameId) {
+        GameControllerSupport.validateGameId(gameId);
+
+        Game game = gameService.makeAiMove(gameId);
+
+        return GameControllerSupport.toResponse(game, gameResponseCache);
     }
 
-    private Map<Integer, Integer> transformPlayerPitToStatus(Game game) {
-        Map<Integer, Integer> status = new HashMap<>();
-        for (int i = 1; i < 15; i++) {
-            status.put(i, game.getPits()[i - 1]);
-        }
-        return status;
+    /**
+     * Applies the pits in the body in order with a single load and save of the game. The moves up to the first
+     * rejected move are kept, the response tells how many moves were applied and why the next one was rejected.
+     */
+    @PutMapping(path = "games/{gameId}/moves", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public GameResponse makeMoves(@PathVariable String gameId, @RequestBody int[] pitIds) {
+        GameControllerSupport.validateGameId(gameId);
+        GameControllerSupport.validateMoves(pitIds);
+
+        MoveBatchResult result = gameService.makeMoves(gameId, pitIds);
+
+        return GameControllerSupport.toResponse(result);
+    }
+
+    /**
+     * uri of the games of the current request, built without the {@code methodOn} proxy of the controller
+     */
+    private static String gamesUri() {
+        return linkTo(GameController.class).slash("games").withRel("uri").getHref();
     }
 }
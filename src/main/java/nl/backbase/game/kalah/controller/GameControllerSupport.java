@@ -0,0 +1,178 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.InvalidGameException;
+import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request validation and responses shared by the servlet and the reactive game controller,
+ * so both expose the same contract
+ */
+final class GameControllerSupport {
+
+    static final int MAX_MOVES_PER_BATCH = 1000;
+    static final int MAX_GAMES_PER_BATCH = 1000;
+
+    private static final String FIRST_PLAYER_MESSAGE = "First Player should move the coin(s)";
+    private static final String SECOND_PLAYER_MESSAGE = "Second Player should move the coin(s)";
+    private static final Map<GameStatus, String> COMPLETED_MESSAGES = new EnumMap<>(GameStatus.class);
+
+    static {
+        for (GameStatus gameStatus : GameStatus.values()) {
+            COMPLETED_MESSAGES.put(gameStatus, "Game is completed with game status " + gameStatus);
+        }
+    }
+
+    private GameControllerSupport() {
+    }
+
+    static void validateGameId(String gameId) {
+        if (gameId.length() != 8) {
+            throw new InvalidGameException("Invalid Game ID");
+        }
+    }
+
+    /**
+     * @param boardGeometry size of the board of the games, set with {@code kalah.pitsPerSide}
+     */
+    static void validatePitId(int pitId, BoardGeometry boardGeometry) {
+        if (pitId > boardGeometry.getNumberOfPits() || pitId < 0) {
+            throw new InvalidPitException("Invalid Pit");
+        }
+        if (boardGeometry.isKalah(pitId)) {
+            throw new InvalidPitException("Coins from house should not be allowed to move.Please chose pit");
+        }
+    }
+
+    static void validateMoves(int[] pitIds) {
+        if (pitIds == null || pitIds.length == 0 || pitIds.length > MAX_MOVES_PER_BATCH) {
+            throw new InvalidPitException("Between 1 and " + MAX_MOVES_PER_BATCH + " moves are allowed in one request");
+        }
+    }
+
+    static void validateGameCount(int count) {
+        if (count < 1 || count > MAX_GAMES_PER_BATCH) {
+            throw new InvalidGameException("Between 1 and " + MAX_GAMES_PER_BATCH + " games can be created in one request");
+        }
+    }
+
+    static GameResponse toCreatedResponse(Game game, String uri) {
+        return GameResponse.builder().id(game.getId()).uri(uri).build();
+    }
+
+    /**
+     * @param gamesUri uri of the games collection, built once for all games
+     */
+    static List<GameResponse> toCreatedResponses(List<Game> games, String gamesUri) {
+        List<GameResponse> responses = new ArrayList<>(games.size());
+        for (Game game : games) {
+            responses.add(toCreatedResponse(game, gamesUri + "/" + game.getId()));
+        }
+        return responses;
+    }
+
+    static GameResponse toResponse(Game game) {
+        return toEncodedResponse(game, null);
+    }
+
+    /**
+     * @param encoded JSON of the response encoded before, null to encode the fields
+     */
+    static GameResponse toEncodedResponse(Game game, String encoded) {
+        return GameResponse.builder()
+                .id(game.getId())
+                .pits(game.getPits())
+                .playerMessage(transformPlayerMessage(game))
+                .encoded(encoded)
+                .build();
+    }
+
+    /**
+     * @param cache cache of encoded responses, null when disabled
+     */
+    static GameResponse toResponse(Game game, GameResponseCache cache) {
+        return cache != null ? cache.toResponse(game) : toResponse(game);
+    }
+
+    static GameResponse toResponse(MoveBatchResult result) {
+        Game game = result.getGame();
+        return GameResponse.builder()
+                .id(game.getId())
+                .pits(game.getPits())
+                .playerMessage(transformPlayerMessage(game))
+                .appliedMoves(result.getAppliedMoves())
+                .rejectedMoveIndex(result.getRejectedMoveIndex())
+                .rejectionMessage(result.getRejectionMessage())
+                .build();
+    }
+
+    /**
+     * Response to a get of the game with its move count as ETag, 304 without a body when the client has this
+     * state already
+     *
+     * @param ifNoneMatch If-None-Match header of the request, null when absent
+     * @param cache       cache of encoded responses, null when disabled
+     */
+    static ResponseEntity<GameResponse> toConditionalResponse(Game game, String ifNoneMatch, GameResponseCache cache) {
+        if (matchesETag(ifNoneMatch, game.getMoveCount())) {
+            return notModified(game.getMoveCount());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag(game.getMoveCount()))
+                .body(toResponse(game, cache));
+    }
+
+    static ResponseEntity<GameResponse> notModified(long moveCount) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag(moveCount))
+                .build();
+    }
+
+    /**
+     * @param ifNoneMatch If-None-Match header, a list of strong or weak ETags or {@code *}
+     * @param moveCount   move count of the game
+     * @return whether one of the ETags is the one of this move count
+     */
+    static boolean matchesETag(String ifNoneMatch, long moveCount) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String eTag = eTag(moveCount);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || eTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String eTag(long moveCount) {
+        return "\"" + moveCount + "\"";
+    }
+
+    private static String transformPlayerMessage(Game game) {
+        if (GameStatus.CREATED != game.getGameStatus() && GameStatus.IN_PROGRESS != game.getGameStatus()) {
+            return game.getGameStatus() == null
+                    ? "Game is completed with game status null" : COMPLETED_MESSAGES.get(game.getGameStatus());
+        }
+        return game.isSecondPlayerMove() ? SECOND_PLAYER_MESSAGE : FIRST_PLAYER_MESSAGE;
+    }
+}
@@ -0,0 +1,71 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.domain.exception.InvalidGameException;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventHub;
+import nl.backbase.game.kalah.event.GameSubscription;
+import nl.backbase.game.kalah.service.GameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the state of a game as server-sent events, so clients do not have to poll {@code GET games/{gameId}}
+ */
+@RestController
+@Profile("!reactive")
+public class GameEventController {
+
+    static final String EVENT_NAME = "game";
+
+    private final GameService gameService;
+    private final GameEventHub gameEventHub;
+    private final long timeoutMillis;
+
+    @Autowired
+    public GameEventController(GameService gameService,
+                               GameEventHub gameEventHub,
+                               @Value("${kalah.events.timeoutMillis:1800000}") long timeoutMillis) {
+        this.gameService = gameService;
+        this.gameEventHub = gameEventHub;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sends the current state of the game, then the new state after every committed move. An event carries the same
+     * body as {@code GET games/{gameId}}. Errors have no body, an event stream can not carry the JSON error details.
+     */
+    @GetMapping(path = "games/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGame(@PathVariable String gameId) {
+        try {
+            GameControllerSupport.validateGameId(gameId);
+        } catch (InvalidGameException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        GameSubscription subscription = gameEventHub.subscribe(gameId, event -> emitter.send(SseEmitter.event()
+                .name(EVENT_NAME)
+                .data(GameControllerSupport.toResponse(event.toGame()), MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        try {
+            // loaded after subscribing, so no move is missed between the two
+            subscription.offerInitial(GameEvent.of(gameService.getGame(gameId)));
+        } catch (GameNotFoundException e) {
+            subscription.cancel();
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,37 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.service.GameHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Past positions of a game, rebuilt from its move history. Available with {@code kalah.history.enabled}.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "kalah.history.enabled", havingValue = "true")
+public class GameHistoryController {
+    private final GameHistoryService gameHistoryService;
+
+    @Autowired
+    public GameHistoryController(GameHistoryService gameHistoryService) {
+        this.gameHistoryService = gameHistoryService;
+    }
+
+    /**
+     * The game after the given number of moves, with the same body as {@code GET games/{gameId}}
+     */
+    @GetMapping(path = "games/{gameId}/history/{moveNumber}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GameResponse getPosition(@PathVariable String gameId, @PathVariable long moveNumber) {
+        GameControllerSupport.validateGameId(gameId);
+        Game game = gameHistoryService.getPosition(gameId, moveNumber);
+        return GameControllerSupport.toResponse(game);
+    }
+}
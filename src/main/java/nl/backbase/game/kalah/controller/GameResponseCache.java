@@ -0,0 +1,114 @@
+package nl.backbase.game.kalah.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.event.GameEventBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encoded JSON of the latest response of each game, for clients polling a game.
+ * <p>
+ * An entry is only used while the game still has the state the entry was encoded for, so an entry that missed an
+ * invalidation is never sent. Entries are dropped when a game is saved, the least recently used games beyond the
+ * capacity are evicted. Games on a board of another size than the standard one do not pack into a {@link PackedBoard},
+ * their responses are encoded every time. Enabled with {@code kalah.response.cache.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.response.cache.enabled", havingValue = "true")
+@Slf4j
+public class GameResponseCache {
+
+    private final ObjectMapper objectMapper;
+    /**
+     * access ordered, guarded by itself
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    @Autowired
+    public GameResponseCache(GameEventBus gameEventBus,
+                             ObjectMapper objectMapper,
+                             @Value("${kalah.response.cache.maxGames:10000}") int maxGames) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("kalah.response.cache.maxGames must be at least 1");
+        }
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxGames;
+            }
+        };
+        gameEventBus.subscribe(event -> invalidate(event.getGameId()));
+    }
+
+    /**
+     * @param game game to respond with
+     * @return response of the game carrying its encoded JSON
+     */
+    GameResponse toResponse(Game game) {
+        PackedBoard board;
+        try {
+            board = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+        } catch (IllegalArgumentException e) {
+            return GameControllerSupport.toResponse(game);
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(game.getId());
+            if (entry != null && entry.low == board.getLow() && entry.high == board.getHigh()) {
+                return GameControllerSupport.toEncodedResponse(game, entry.json);
+            }
+        }
+        GameResponse response = GameControllerSupport.toResponse(game);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            log.warn("Response of game {} can not be encoded, it is not cached", game.getId(), e);
+            return response;
+        }
+        synchronized (entries) {
+            entries.put(game.getId(), new Entry(board.getLow(), board.getHigh(), json));
+        }
+        return GameControllerSupport.toEncodedResponse(game, json);
+    }
+
+    /**
+     * @param gameId id of the game that was saved
+     */
+    void invalidate(String gameId) {
+        synchronized (entries) {
+            entries.remove(gameId);
+        }
+    }
+
+    /**
+     * @return number of games with an encoded response
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+        private final long low;
+        private final long high;
+        private final String json;
+
+        private Entry(long low, long high, String json) {
+            this.low = low;
+            this.high = high;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latest move count of each game, so a conditional get of an unchanged game is answered without loading it.
+ * <p>
+ * The index is kept up to date by the saved games on the {@link GameEventBus} and by the games loaded for a
+ * response. Move counts only grow, so the highest known count wins and a slow response never moves an entry back,
+ * except for a correction of moves that were lost by the write-behind store. The index is only correct when every
+ * change reaches it, so it requires a bus that reaches every instance. The least recently used games beyond the
+ * capacity are evicted.
+ * <p>
+ * Games are deleted without an event, by the TTL index once they are abandoned and by the archiver once they are
+ * finished. An entry is dropped when its game may have been deleted: a game still played when nobody saved it for
+ * {@code kalah.expiry.abandonedAfterHours}, a finished game after {@code kalah.archive.finishedAfterMinutes} when
+ * the archive is enabled. Enabled with {@code kalah.etag.index.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.etag.index.enabled", havingValue = "true")
+public class GameVersionIndex {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    /**
+     * access ordered, guarded by itself
+     */
+    private final LinkedHashMap<String, Entry> entries;
+    private final long abandonedAfterMillis;
+    private final long archivedAfterMillis;
+
+    @Autowired
+    public GameVersionIndex(GameEventBus gameEventBus,
+                            @Value("${kalah.etag.index.maxGames:100000}") int maxGames,
+                            @Value("${kalah.expiry.abandonedAfterHours:168}") long abandonedAfterHours,
+                            @Value("${kalah.archive.enabled:false}") boolean archiveEnabled,
+                            @Value("${kalah.archive.finishedAfterMinutes:60}") long finishedAfterMinutes) {
+        this(gameEventBus, maxGames, TimeUnit.HOURS.toMillis(abandonedAfterHours),
+                archiveEnabled ? TimeUnit.MINUTES.toMillis(finishedAfterMinutes) : NEVER);
+    }
+
+    /**
+     * @param abandonedAfterMillis time after the last save a game still played may be deleted
+     * @param archivedAfterMillis  time after the last save a finished game may be archived, {@link Long#MAX_VALUE}
+     *                             when finished games are kept
+     */
+    public GameVersionIndex(GameEventBus gameEventBus, int maxGames, long abandonedAfterMillis, long archivedAfterMillis) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("kalah.etag.index.maxGames must be at least 1");
+        }
+        if (!gameEventBus.reachesAllInstances()) {
+            throw new IllegalStateException("kalah.etag.index.enabled needs a kalah.events.bus that reaches every "
+                    + "instance, or kalah.events.singleInstance with one instance");
+        }
+        this.abandonedAfterMillis = abandonedAfterMillis;
+        this.archivedAfterMillis = archivedAfterMillis;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxGames;
+            }
+        };
+        gameEventBus.subscribe(this::onEvent);
+    }
+
+    /**
+     * @param gameId id of the game
+     * @return latest move count of the game, null when the game is not in the index or may have been deleted
+     */
+    public Long moveCount(String gameId) {
+        synchronized (entries) {
+            Entry entry = entries.get(gameId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.deletableAt <= System.currentTimeMillis()) {
+                entries.remove(gameId);
+                return null;
+            }
+            return entry.moveCount;
+        }
+    }
+
+    /**
+     * @param game game loaded for a response, ignored when a later state is known already
+     */
+    public void update(Game game) {
+        long deletableAt;
+        if (isFinished(game.getGameStatus())) {
+            deletableAt = game.getLastActivity() != null ? after(game.getLastActivity().getTime(), archivedAfterMillis) : NEVER;
+        } else {
+            deletableAt = game.getExpiresAt() != null ? game.getExpiresAt().getTime() : NEVER;
+        }
+        merge(game.getId(), game.getMoveCount(), deletableAt);
+    }
+
+    /**
+     * @param gameId    id of the game
+     * @param moveCount move count of the stored game after later states were lost, replaces a higher known count
+     */
+    public void correct(String gameId, long moveCount, GameStatus gameStatus) {
+        synchronized (entries) {
+            entries.put(gameId, new Entry(moveCount, deletableAfterSave(gameStatus)));
+        }
+    }
+
+    /**
+     * @return number of games in the index
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void onEvent(GameEvent event) {
+        if (event.isCorrection()) {
+            correct(event.getGameId(), event.getMoveCount(), event.getGameStatus());
+        } else {
+            merge(event.getGameId(), event.getMoveCount(), deletableAfterSave(event.getGameStatus()));
+        }
+    }
+
+    private void merge(String gameId, long moveCount, long deletableAt) {
+        synchronized (entries) {
+            entries.merge(gameId, new Entry(moveCount, deletableAt), (known, update) -> {
+                if (known.moveCount != update.moveCount) {
+                    return known.moveCount > update.moveCount ? known : update;
+                }
+                return known.deletableAt >= update.deletableAt ? known : update;
+            });
+        }
+    }
+
+    /**
+     * the event is published right after the save, the time of the save starts the expiry of the game
+     */
+    private long deletableAfterSave(GameStatus gameStatus) {
+        long now = System.currentTimeMillis();
+        return after(now, isFinished(gameStatus) ? archivedAfterMillis : abandonedAfterMillis);
+    }
+
+    private static long after(long time, long millis) {
+        return millis >= NEVER - time ? NEVER : time + millis;
+    }
+
+    private static boolean isFinished(GameStatus gameStatus) {
+        return GameStatus.FIRSTPLAYERWON == gameStatus
+                || GameStatus.SECONDPLAYERWON == gameStatus
+                || GameStatus.DRAW == gameStatus;
+    }
+
+    private static final class Entry {
+        private final long moveCount;
+        /**
+         * time from which the game may have been deleted by the TTL index or the archiver
+         */
+        private final long deletableAt;
+
+        private Entry(long moveCount, long deletableAt) {
+            this.moveCount = moveCount;
+            this.deletableAt = deletableAt;
+        }
+    }
+}
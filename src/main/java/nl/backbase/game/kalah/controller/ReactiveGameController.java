@@ -0,0 +1,120 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.service.ReactiveGameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Same contract as the {@link GameController} on WebFlux, active with the reactive profile
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveGameController {
+    private final ReactiveGameService gameService;
+    private final GameResponseCache gameResponseCache;
+    private final GameVersionIndex gameVersionIndex;
+    private final BoardGeometry boardGeometry;
+
+    @Autowired
+    public ReactiveGameController(ReactiveGameService gameService,
+                                  Optional<GameResponseCache> gameResponseCache,
+                                  Optional<GameVersionIndex> gameVersionIndex,
+                                  @Value("${kalah.pitsPerSide:6}") int pitsPerSide) {
+        this.gameService = gameService;
+        this.gameResponseCache = gameResponseCache.orElse(null);
+        this.gameVersionIndex = gameVersionIndex.orElse(null);
+        this.boardGeometry = BoardGeometry.of(pitsPerSide);
+    }
+
+    @PostMapping(path = "games", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<GameResponse> createGame(ServerHttpRequest request) {
+        return gameService.createGame()
+                .map(game -> GameControllerSupport.toCreatedResponse(game, gameUri(request, game.getId())));
+    }
+
+    @PostMapping(path = "games/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<List<GameResponse>> createGames(@RequestParam int count, ServerHttpRequest request) {
+        GameControllerSupport.validateGameCount(count);
+        return gameService.createGames(count)
+                .map(games -> GameControllerSupport.toCreatedResponses(games, gamesUri(request)));
+    }
+
+    @GetMapping(path = "games/{gameId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<GameResponse>> getGame(@PathVariable String gameId,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GameControllerSupport.validateGameId(gameId);
+        Long knownMoveCount = ifNoneMatch != null && gameVersionIndex != null ? gameVersionIndex.moveCount(gameId) : null;
+        if (knownMoveCount != null && GameControllerSupport.matchesETag(ifNoneMatch, knownMoveCount)) {
+            return Mono.just(GameControllerSupport.notModified(knownMoveCount));
+        }
+        return gameService.getGame(gameId)
+                .map(game -> {
+                    if (gameVersionIndex != null) {
+                        gameVersionIndex.update(game);
+                    }
+                    return GameControllerSupport.toConditionalResponse(game, ifNoneMatch, gameResponseCache);
+                });
+    }
+
+    @PutMapping(path = "games/{gameId}/pits/{pitId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GameResponse> makeMove(@PathVariable String gameId, @PathVariable int pitId) {
+        GameControllerSupport.validateGameId(gameId);
+        GameControllerSupport.validatePitId(pitId, boardGeometry);
+        return gameService.makeMove(gameId, pitId)
+                .map(game -> GameControllerSupport.toResponse(game, gameResponseCache));
+    }
+
+    @PutMapping(path = "games/{gameId}/ai-move", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GameResponse> makeAiMove(@PathVariable String gameId) {
+        GameControllerSupport.validateGameId(gameId);
+        return gameService.makeAiMove(gameId)
+                .map(game -> GameControllerSupport.toResponse(game, gameResponseCache));
+    }
+
+    @PutMapping(path = "games/{gameId}/moves", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GameResponse> makeMoves(@PathVariable String gameId, @RequestBody int[] pitIds) {
+        GameControllerSupport.validateGameId(gameId);
+        GameControllerSupport.validateMoves(pitIds);
+        return gameService.makeMoves(gameId, pitIds)
+                .map(GameControllerSupport::toResponse);
+    }
+
+    /**
+     * uri of the game as seen by the client, forwarded headers are taken into account
+     */
+    private static String gameUri(ServerHttpRequest request, String gameId) {
+        return gamesUri(request) + "/" + gameId;
+    }
+
+    private static String gamesUri(ServerHttpRequest request) {
+        return UriComponentsBuilder.fromHttpRequest(request)
+                .replacePath(request.getPath().contextPath().value())
+                .path("/games")
+                .replaceQuery(null)
+                .toUriString();
+    }
+}
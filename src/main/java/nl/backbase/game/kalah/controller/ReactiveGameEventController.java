@@ -0,0 +1,62 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.domain.exception.InvalidGameException;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventHub;
+import nl.backbase.game.kalah.event.GameSubscription;
+import nl.backbase.game.kalah.service.ReactiveGameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same contract as the {@link GameEventController} on WebFlux, active with the reactive profile
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveGameEventController {
+
+    private final ReactiveGameService gameService;
+    private final GameEventHub gameEventHub;
+
+    @Autowired
+    public ReactiveGameEventController(ReactiveGameService gameService, GameEventHub gameEventHub) {
+        this.gameService = gameService;
+        this.gameEventHub = gameEventHub;
+    }
+
+    @GetMapping(path = "games/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<GameResponse>>>> streamGame(@PathVariable String gameId) {
+        try {
+            GameControllerSupport.validateGameId(gameId);
+        } catch (InvalidGameException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return gameService.getGame(gameId)
+                .map(game -> ResponseEntity.ok(events(gameId)))
+                .onErrorResume(GameNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * The stream only starts once the response is written, so the initial state is loaded again after subscribing,
+     * no move is missed between the two
+     */
+    private Flux<ServerSentEvent<GameResponse>> events(String gameId) {
+        return Flux.<GameEvent>create(sink -> {
+            GameSubscription subscription = gameEventHub.subscribe(gameId, sink::next);
+            sink.onDispose(subscription::cancel);
+            gameService.getGame(gameId).subscribe(game -> subscription.offerInitial(GameEvent.of(game)), sink::error);
+        }).map(event -> ServerSentEvent.builder(GameControllerSupport.toResponse(event.toGame()))
+                .event(GameEventController.EVENT_NAME)
+                .build());
+    }
+}
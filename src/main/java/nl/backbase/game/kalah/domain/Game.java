@@ -1,10 +1,14 @@
 package nl.backbase.game.kalah.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import nl.backbase.game.kalah.domain.enums.GameStatus;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+
+import java.util.Date;
 
 @Getter
 @Setter
@@ -30,4 +34,26 @@ public class Game {
      * state of the game Created / In_Progress / FirstPlayerWon / SecondPlayerWon / Draw
      */
     private GameStatus gameStatus;
+    /**
+     * number of moves applied to the game, 0 for a new game. Used as the ETag of the game
+     */
+    @JsonIgnore
+    private long moveCount;
+    /**
+     * null until the game is stored, incremented on every save.
+     * A save fails when the stored game has a different version than the one loaded
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+    /**
+     * time the game was last saved, null until the game is stored
+     */
+    @JsonIgnore
+    private Date lastActivity;
+    /**
+     * time a game that is still played is deleted unless it is saved again, null for finished games
+     */
+    @JsonIgnore
+    private Date expiresAt;
 }
@@ -0,0 +1,29 @@
+package nl.backbase.game.kalah.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class GameMove {
+    /**
+     * number of the move in its game, the first move is 1. Equal to the move count of the game after the move
+     */
+    private long moveNumber;
+    /**
+     * pit the stones were taken from
+     */
+    private int pitId;
+    /**
+     * true when the second player moved
+     */
+    private boolean secondPlayer;
+    /**
+     * lower half of the packed board after the move
+     */
+    private long boardLow;
+    /**
+     * upper half of the packed board after the move
+     */
+    private long boardHigh;
+}
@@ -0,0 +1,25 @@
+package nl.backbase.game.kalah.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class MoveBatchResult {
+    /**
+     * game after the applied moves
+     */
+    private Game game;
+    /**
+     * number of moves applied, from the start of the batch
+     */
+    private int appliedMoves;
+    /**
+     * index of the first rejected move, null when all moves were applied
+     */
+    private Integer rejectedMoveIndex;
+    /**
+     * reason why the move was rejected, null when all moves were applied
+     */
+    private String rejectionMessage;
+}
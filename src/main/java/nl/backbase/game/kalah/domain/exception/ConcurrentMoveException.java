@@ -0,0 +1,12 @@
+package nl.backbase.game.kalah.domain.exception;
+
+/**
+ * thrown when a move could not be stored because the game kept changing concurrently
+ */
+public final class ConcurrentMoveException extends RuntimeException {
+
+    public ConcurrentMoveException(String message) {
+        super(message);
+    }
+
+}
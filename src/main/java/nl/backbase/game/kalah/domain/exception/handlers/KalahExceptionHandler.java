@@ -1,30 +1,49 @@
 package nl.backbase.game.kalah.domain.exception.handlers;
 
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
 import nl.backbase.game.kalah.domain.exception.GameCompletedException;
 import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
 import nl.backbase.game.kalah.domain.exception.InvalidGameException;
 import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import java.util.Date;
+import java.util.Optional;
 
+/**
+ * Maps the game exceptions to error responses, for both the servlet and the reactive controllers, and counts the
+ * handled exceptions per type
+ */
 @ControllerAdvice
 public class KalahExceptionHandler {
+
+    private final GameMetrics gameMetrics;
+
+    public KalahExceptionHandler() {
+        this(Optional.empty());
+    }
+
+    @Autowired
+    public KalahExceptionHandler(Optional<GameMetrics> gameMetrics) {
+        this.gameMetrics = gameMetrics.orElseGet(GameMetrics::disabled);
+    }
+
     /**
      * Customize the response for GameNotFoundException.
      * <p>This method logs a warning and sets the "Allow" header
      *
      * @param ex      the exception
-     * @param request the current request
      * @return a {@code ResponseEntity} instance
      */
     @ExceptionHandler(GameNotFoundException.class)
-    private ResponseEntity<Object> handleGameNotFoundException(RuntimeException ex, WebRequest request) {
+    private ResponseEntity<Object> handleGameNotFoundException(RuntimeException ex) {
+        gameMetrics.exceptionHandled(ex.getClass());
         return new ResponseEntity<>(ErrorDetails.builder()
                 .timestamp(new Date())
                 .message(
@@ -41,11 +60,11 @@ public class KalahExceptionHandler {
      * <p>This method logs a warning and sets the "Allow" header
      *
      * @param ex      the exception
-     * @param request the current request
      * @return a {@code ResponseEntity} instance
      */
     @ExceptionHandler(InvalidPitException.class)
-    private ResponseEntity<Object> handleInvalidPitException(RuntimeException ex, WebRequest request) {
+    private ResponseEntity<Object> handleInvalidPitException(RuntimeException ex) {
+        gameMetrics.exceptionHandled(ex.getClass());
         return new ResponseEntity<>(ErrorDetails.builder()
                 .timestamp(new Date())
                 .message(
@@ -62,11 +81,11 @@ public class KalahExceptionHandler {
      * <p>This method logs a warning and sets the "Allow" header
      *
      * @param ex      the exception
-     * @param request the current request
      * @return a {@code ResponseEntity} instance
      */
     @ExceptionHandler(InvalidGameException.class)
-    private ResponseEntity<Object> handleInvalidGameException(RuntimeException ex, WebRequest request) {
+    private ResponseEntity<Object> handleInvalidGameException(RuntimeException ex) {
+        gameMetrics.exceptionHandled(ex.getClass());
         return new ResponseEntity<>(ErrorDetails.builder()
                 .timestamp(new Date())
                 .message(
@@ -83,11 +102,11 @@ public class KalahExceptionHandler {
      * <p>This method logs a warning and sets the "Allow" header
      *
      * @param ex      the exception
-     * @param request the current request
      * @return a {@code ResponseEntity} instance
      */
     @ExceptionHandler(GameCompletedException.class)
-    private ResponseEntity<Object> handleGameCompletedException(RuntimeException ex, WebRequest request) {
+    private ResponseEntity<Object> handleGameCompletedException(RuntimeException ex) {
+        gameMetrics.exceptionHandled(ex.getClass());
         return new ResponseEntity<>(ErrorDetails.builder()
                 .timestamp(new Date())
                 .message(
@@ -99,4 +118,25 @@ public class KalahExceptionHandler {
                 HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Customize the response for ConcurrentMoveException.
+     * <p>The game was changed by another request, the client may load the game and retry
+     *
+     * @param ex      the exception
+     * @return a {@code ResponseEntity} instance
+     */
+    @ExceptionHandler(ConcurrentMoveException.class)
+    private ResponseEntity<Object> handleConcurrentMoveException(RuntimeException ex) {
+        gameMetrics.exceptionHandled(ex.getClass());
+        return new ResponseEntity<>(ErrorDetails.builder()
+                .timestamp(new Date())
+                .message(
+                        ex.getMessage() != null && !ex.getMessage().isEmpty() ?
+                                ex.getMessage() : "Game was changed concurrently, please retry"
+                )
+                .build(),
+                new HttpHeaders(),
+                HttpStatus.CONFLICT);
+    }
+
 }
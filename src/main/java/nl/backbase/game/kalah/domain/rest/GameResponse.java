@@ -1,6 +1,7 @@
 package nl.backbase.game.kalah.domain.rest;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -9,6 +10,7 @@ import java.util.*;
 @Getter
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(using = GameResponseSerializer.class)
 public class GameResponse {
     /**
      * unique identifier of a game
@@ -22,8 +24,42 @@ public class GameResponse {
      * Number of coins in each pit
      */
     private Map<Integer, Integer> status;
+    /**
+     * Number of coins in each pit, pit 1 first. Written as status without building the map
+     */
+    private int[] pits;
     /**
      * Message about which player should move
      */
     private String playerMessage;
+    /**
+     * number of moves of a batch that were applied, only set for a batch of moves
+     */
+    private Integer appliedMoves;
+    /**
+     * index of the first move of a batch that was rejected, the moves from this index on were not applied
+     */
+    private Integer rejectedMoveIndex;
+    /**
+     * reason why the move at rejectedMoveIndex was rejected
+     */
+    private String rejectionMessage;
+    /**
+     * JSON of this response encoded before, written as is instead of the fields
+     */
+    private String encoded;
+
+    /**
+     * @return number of coins by pit number
+     */
+    public Map<Integer, Integer> getStatus() {
+        if (status != null || pits == null) {
+            return status;
+        }
+        Map<Integer, Integer> pitStatus = new HashMap<>();
+        for (int i = 1; i <= pits.length; i++) {
+            pitStatus.put(i, pits[i - 1]);
+        }
+        return pitStatus;
+    }
 }
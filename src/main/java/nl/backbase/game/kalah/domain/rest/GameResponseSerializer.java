@@ -0,0 +1,103 @@
+package nl.backbase.game.kalah.domain.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes a {@link GameResponse} field by field, with the same JSON the bean serializer produced.
+ * <p>
+ * The pits are written straight from the array as the status object, without a map or boxed values, and all
+ * field names are encoded once. A response that was encoded before is written as is.
+ */
+public class GameResponseSerializer extends StdSerializer<GameResponse> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString URI = new SerializedString("uri");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString PLAYER_MESSAGE = new SerializedString("playerMessage");
+    private static final SerializedString APPLIED_MOVES = new SerializedString("appliedMoves");
+    private static final SerializedString REJECTED_MOVE_INDEX = new SerializedString("rejectedMoveIndex");
+    private static final SerializedString REJECTION_MESSAGE = new SerializedString("rejectionMessage");
+    /**
+     * field names of pit 1 to 32
+     */
+    private static final SerializedString[] PIT_NAMES = new SerializedString[32];
+
+    static {
+        for (int index = 0; index < PIT_NAMES.length; index++) {
+            PIT_NAMES[index] = new SerializedString(Integer.toString(index + 1));
+        }
+    }
+
+    public GameResponseSerializer() {
+        super(GameResponse.class);
+    }
+
+    @Override
+    public void serialize(GameResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value.getEncoded() != null) {
+            gen.writeRawValue(value.getEncoded());
+            return;
+        }
+        gen.writeStartObject(value);
+        writeString(gen, ID, value.getId());
+        writeString(gen, URI, value.getUri());
+        if (value.getPits() != null) {
+            writePits(gen, value.getPits());
+        } else if (value.getStatus() != null) {
+            writeStatus(gen, value.getStatus());
+        }
+        writeString(gen, PLAYER_MESSAGE, value.getPlayerMessage());
+        writeNumber(gen, APPLIED_MOVES, value.getAppliedMoves());
+        writeNumber(gen, REJECTED_MOVE_INDEX, value.getRejectedMoveIndex());
+        writeString(gen, REJECTION_MESSAGE, value.getRejectionMessage());
+        gen.writeEndObject();
+    }
+
+    private static void writePits(JsonGenerator gen, int[] pits) throws IOException {
+        gen.writeFieldName(STATUS);
+        gen.writeStartObject();
+        for (int index = 0; index < pits.length; index++) {
+            if (index < PIT_NAMES.length) {
+                gen.writeFieldName(PIT_NAMES[index]);
+            } else {
+                gen.writeFieldName(Integer.toString(index + 1));
+            }
+            gen.writeNumber(pits[index]);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeStatus(JsonGenerator gen, Map<Integer, Integer> status) throws IOException {
+        gen.writeFieldName(STATUS);
+        gen.writeStartObject();
+        for (Map.Entry<Integer, Integer> entry : status.entrySet()) {
+            gen.writeFieldName(String.valueOf(entry.getKey()));
+            if (entry.getValue() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(entry.getValue());
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializedString name, Integer value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package nl.backbase.game.kalah.engine;
+
+/**
+ * Size of a Kalah board: the pits per side, between {@value #MIN_PITS_PER_SIDE} and {@value #MAX_PITS_PER_SIDE}.
+ * <p>
+ * The pits of a side are followed by the Kalah of its player, so a board of {@code n} pits per side has
+ * {@code 2n + 2} pits: pit numbers {@code 1..n} and {@code n+2..2n+1} are pits, {@code n+1} and {@code 2n+2} are the
+ * Kalahs of player one and player two. The standard board with six pits per side has its Kalahs at 7 and 14.
+ * <p>
+ * There is one instance per size, so the geometry of a game follows from the length of its pits without allocating.
+ */
+public final class BoardGeometry {
+
+    public static final int MIN_PITS_PER_SIDE = 4;
+    public static final int MAX_PITS_PER_SIDE = 8;
+    public static final int MAX_NUMBER_OF_PITS = 2 * MAX_PITS_PER_SIDE + 2;
+
+    /**
+     * [number of pits] geometry with that many pits, null for the lengths of no board
+     */
+    private static final BoardGeometry[] BY_NUMBER_OF_PITS = new BoardGeometry[MAX_NUMBER_OF_PITS + 1];
+
+    static {
+        for (int pitsPerSide = MIN_PITS_PER_SIDE; pitsPerSide <= MAX_PITS_PER_SIDE; pitsPerSide++) {
+            BY_NUMBER_OF_PITS[2 * pitsPerSide + 2] = new BoardGeometry(pitsPerSide);
+        }
+    }
+
+    /**
+     * the board with six pits per side
+     */
+    public static final BoardGeometry STANDARD = of(6);
+
+    private final int pitsPerSide;
+    private final int numberOfPits;
+    private final int firstPlayerKalahIndex;
+    private final int secondPlayerKalahIndex;
+
+    private BoardGeometry(int pitsPerSide) {
+        this.pitsPerSide = pitsPerSide;
+        this.numberOfPits = 2 * pitsPerSide + 2;
+        this.firstPlayerKalahIndex = pitsPerSide;
+        this.secondPlayerKalahIndex = numberOfPits - 1;
+    }
+
+    /**
+     * @param pitsPerSide pits in front of each player, without the Kalah
+     * @return geometry of the board
+     * @throws IllegalArgumentException when no board has this many pits per side
+     */
+    public static BoardGeometry of(int pitsPerSide) {
+        if (pitsPerSide < MIN_PITS_PER_SIDE || pitsPerSide > MAX_PITS_PER_SIDE) {
+            throw new IllegalArgumentException("kalah.pitsPerSide must be between " + MIN_PITS_PER_SIDE + " and " + MAX_PITS_PER_SIDE);
+        }
+        return BY_NUMBER_OF_PITS[2 * pitsPerSide + 2];
+    }
+
+    /**
+     * @param pits pits of a game, including the Kalahs
+     * @return geometry of the board the pits belong to
+     * @throws IllegalArgumentException when no board has this many pits
+     */
+    public static BoardGeometry ofPits(int[] pits) {
+        BoardGeometry geometry = pits != null && pits.length <= MAX_NUMBER_OF_PITS ? BY_NUMBER_OF_PITS[pits.length] : null;
+        if (geometry == null) {
+            throw new IllegalArgumentException("A board needs between " + (2 * MIN_PITS_PER_SIDE + 2) + " and "
+                    + MAX_NUMBER_OF_PITS + " pits, an even number");
+        }
+        return geometry;
+    }
+
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * @return pits including the two Kalahs
+     */
+    public int getNumberOfPits() {
+        return numberOfPits;
+    }
+
+    public int getFirstPlayerKalahIndex() {
+        return firstPlayerKalahIndex;
+    }
+
+    public int getSecondPlayerKalahIndex() {
+        return secondPlayerKalahIndex;
+    }
+
+    /**
+     * @param pitId pit number 1 to {@link #getNumberOfPits()}
+     * @return true when the pit is one of the Kalahs
+     */
+    public boolean isKalah(int pitId) {
+        return pitId == firstPlayerKalahIndex + 1 || pitId == numberOfPits;
+    }
+
+    /**
+     * @param pitId pit number 1 to {@link #getNumberOfPits()}
+     * @return true when the pit is on the second player's side, the second player's Kalah included
+     */
+    public boolean isSecondPlayerPit(int pitId) {
+        return pitId > firstPlayerKalahIndex + 1;
+    }
+
+    /**
+     * @return whether this is the board with six pits per side, the only one the packed formats and the AI hold
+     */
+    public boolean isStandard() {
+        return this == STANDARD;
+    }
+
+    /**
+     * @param stones stones in every pit
+     * @return pits at the start of a game, the Kalahs empty
+     */
+    public int[] newPits(int stones) {
+        int[] pits = new int[numberOfPits];
+        for (int index = 0; index < pitsPerSide; index++) {
+            pits[index] = stones;
+            pits[index + pitsPerSide + 1] = stones;
+        }
+        return pits;
+    }
+
+    @Override
+    public String toString() {
+        return "Kalah(" + pitsPerSide + ")";
+    }
+}
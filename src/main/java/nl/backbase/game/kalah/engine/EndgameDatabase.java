@@ -0,0 +1,119 @@
+package nl.backbase.game.kalah.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Perfect play values of all positions with at most {@code maxStones} stones left in the pits, as written by the
+ * {@link EndgameDatabaseBuilder}.
+ * <p>
+ * The value of a position is the difference between the stones the player to move and the opponent still put in
+ * their Kalahs when both play perfectly. It does not depend on the stones already in the Kalahs, so the final Kalah
+ * difference is the current difference plus the value. The values are read from a memory mapped file, one byte per
+ * position numbered by the {@link PositionIndex}, so a lookup does not allocate and the table is not on the heap.
+ * <p>
+ * The file starts with a header of four ints: {@link #MAGIC}, {@link #FORMAT_VERSION}, the pits per side and
+ * {@code maxStones}. A value {@code v} is stored as the unsigned byte {@code v + 128}, 0 marks a position the
+ * builder did not solve yet.
+ */
+public final class EndgameDatabase {
+
+    static final int MAGIC = 0x4B45_4442;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 4 * Integer.BYTES;
+    static final int VALUE_OFFSET = 128;
+    /**
+     * C(25 + 12, 12) positions still fit in one mapped buffer
+     */
+    public static final int MAX_STONES = 25;
+
+    private static final EndgameDatabase EMPTY = new EndgameDatabase(ByteBuffer.allocate(0), -1);
+
+    private final ByteBuffer values;
+    private final int maxStones;
+    private final PositionIndex positionIndex;
+
+    EndgameDatabase(ByteBuffer values, int maxStones) {
+        this.values = values;
+        this.maxStones = maxStones;
+        this.positionIndex = new PositionIndex(Math.max(maxStones, 0));
+    }
+
+    /**
+     * @return database without positions, for a search without endgame database
+     */
+    public static EndgameDatabase empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Maps the file read only, the values are paged in by the operating system when they are used
+     *
+     * @param file file written by the {@link EndgameDatabaseBuilder}
+     * @return the database of the file
+     * @throws IOException              when the file can not be read
+     * @throws IllegalArgumentException when the file is not an endgame database of this version
+     */
+    public static EndgameDatabase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION
+                    || header.getInt() != KalahRules.PITS_PER_SIDE) {
+                throw new IllegalArgumentException(file + " is not an endgame database of version " + FORMAT_VERSION);
+            }
+            int maxStones = header.getInt();
+            if (maxStones < 0 || maxStones > MAX_STONES) {
+                throw new IllegalArgumentException(file + " holds positions up to " + maxStones + " stones");
+            }
+            long size = new PositionIndex(maxStones).size();
+            if (channel.size() != HEADER_SIZE + size) {
+                throw new IllegalArgumentException(file + " is incomplete, expected " + (HEADER_SIZE + size) + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            return new EndgameDatabase(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size), maxStones);
+        }
+    }
+
+    /**
+     * @return most stones in the pits of a position in the database, -1 for the empty database
+     */
+    public int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * @param board position with the player to move
+     * @return true when the database has the value of the position
+     */
+    public boolean contains(PackedBoard board) {
+        return maxStones >= 0 && PositionIndex.stonesInPits(board) <= maxStones;
+    }
+
+    /**
+     * @param board position in the database
+     * @return difference between the stones the player to move and the opponent still put in their Kalahs
+     * @throws IllegalArgumentException when the position is not in the database
+     */
+    public int value(PackedBoard board) {
+        int stones = PositionIndex.stonesInPits(board);
+        if (maxStones < 0 || stones > maxStones) {
+            throw new IllegalArgumentException("The endgame database holds positions up to " + maxStones + " stones");
+        }
+        return decode(values.get((int) positionIndex.indexOf(board, stones)));
+    }
+
+    static int decode(byte stored) {
+        return (stored & 0xFF) - VALUE_OFFSET;
+    }
+
+    static byte encode(int value) {
+        return (byte) (value + VALUE_OFFSET);
+    }
+}
@@ -0,0 +1,199 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the {@link EndgameDatabase} by solving all positions with up to {@code maxStones} stones in the pits.
+ * <p>
+ * Stones only leave the pits, and a move that keeps all stones in the pits sows within the own side and moves the
+ * stones closer to the Kalah. So positions are solved by number of stones, fewest first: a move either leads to a
+ * position with fewer stones, which is solved already, or to a position with as many stones that is solved on the
+ * spot. The positions with the same number of stones are split over the fork/join pool. Two threads may solve the
+ * same position, they write the same value. The values are written straight into the memory mapped file.
+ * <p>
+ * Usage: {@code EndgameDatabaseBuilder <file> <maxStones> [parallelism]}
+ */
+public final class EndgameDatabaseBuilder {
+
+    /**
+     * positions a task solves without splitting
+     */
+    private static final int POSITIONS_PER_TASK = 1 << 14;
+
+    private final int maxStones;
+    private final PositionIndex positionIndex;
+    private ByteBuffer values;
+
+    /**
+     * @param maxStones most stones in the pits of a position in the database
+     */
+    public EndgameDatabaseBuilder(int maxStones) {
+        if (maxStones < 0 || maxStones > EndgameDatabase.MAX_STONES) {
+            throw new IllegalArgumentException("maxStones must be between 0 and " + EndgameDatabase.MAX_STONES);
+        }
+        this.maxStones = maxStones;
+        this.positionIndex = new PositionIndex(maxStones);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: EndgameDatabaseBuilder <file> <maxStones> [parallelism]");
+            System.exit(1);
+        }
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            EndgameDatabaseBuilder builder = new EndgameDatabaseBuilder(Integer.parseInt(args[1]));
+            builder.build(Paths.get(args[0]), pool);
+            System.out.println("Solved " + builder.positionIndex.size() + " positions in "
+                    + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves all positions and writes them to the file, an existing file is replaced
+     *
+     * @param file file to write
+     * @param pool pool solving the positions
+     * @throws IOException when the file can not be written
+     */
+    public void build(Path file, ForkJoinPool pool) throws IOException {
+        long size = positionIndex.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, EndgameDatabase.HEADER_SIZE + size);
+            mapped.position(EndgameDatabase.HEADER_SIZE);
+            values = mapped.slice();
+            for (int stones = 0; stones <= maxStones; stones++) {
+                pool.invoke(new SolveTask(positionIndex.firstOf(stones), positionIndex.firstOf(stones + 1), stones));
+            }
+            // the header is written last, an interrupted build leaves a file that is not opened
+            mapped.putInt(0, EndgameDatabase.MAGIC);
+            mapped.putInt(Integer.BYTES, EndgameDatabase.FORMAT_VERSION);
+            mapped.putInt(2 * Integer.BYTES, KalahRules.PITS_PER_SIDE);
+            mapped.putInt(3 * Integer.BYTES, maxStones);
+            mapped.force();
+        } finally {
+            values = null;
+        }
+    }
+
+    private final class SolveTask extends RecursiveAction {
+        private final long from;
+        private final long to;
+        private final int stones;
+
+        private SolveTask(long from, long to, int stones) {
+            this.from = from;
+            this.to = to;
+            this.stones = stones;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > POSITIONS_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new SolveTask(from, middle, stones), new SolveTask(middle, to, stones));
+                return;
+            }
+            Solver solver = new Solver(stones);
+            int[] pits = new int[PositionIndex.PITS];
+            for (long index = from; index < to; index++) {
+                if (values.get((int) index) == 0) {
+                    positionIndex.positionOf(index, stones, pits);
+                    solver.solve(index, pits);
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves positions of one task, with a board per move so it does not allocate. Every move that keeps the stones in
+     * the pits gets closer to the Kalah, so there are at most {@code 5 * stones} of them in a row. Moves and the end of
+     * the game are applied by the {@link KalahRules} of the game service, on one unpacked board.
+     */
+    private final class Solver {
+        private final PackedBoard[] boards;
+        private final int[] pits = new int[PackedBoard.NUMBER_OF_PITS];
+        private final KalahBoard scratch = KalahBoard.wrap(new int[PackedBoard.NUMBER_OF_PITS], false, GameStatus.IN_PROGRESS);
+
+        private Solver(int stones) {
+            boards = new PackedBoard[(KalahRules.PITS_PER_SIDE - 1) * stones + 2];
+            for (int ply = 0; ply < boards.length; ply++) {
+                boards[ply] = PackedBoard.of(0L, 0L);
+            }
+        }
+
+        private void solve(long index, int[] position) {
+            for (int pit = 0; pit < PositionIndex.PITS; pit++) {
+                pits[PositionIndex.pitOf(pit, false) - 1] = position[pit];
+            }
+            pits[KalahRules.FIRST_PLAYER_KALAH_INDEX] = 0;
+            pits[KalahRules.SECOND_PLAYER_KALAH_INDEX] = 0;
+            PackedBoard board = PackedBoard.of(pits, false, GameStatus.IN_PROGRESS);
+            values.put((int) index, EndgameDatabase.encode(solve(board.getLow(), board.getHigh(), 0)));
+        }
+
+        /**
+         * @return value of the position for the first player, who is to move and has empty Kalahs
+         */
+        private int solve(long low, long high, int ply) {
+            PackedBoard board = boards[ply];
+            board.set(low, high);
+            KalahBoard unpacked = board.unpackTo(scratch);
+            if (KalahRules.STANDARD.completeIfSideEmpty(unpacked)) {
+                return unpacked.getStones(KalahRules.FIRST_PLAYER_KALAH_INDEX + 1)
+                        - unpacked.getStones(PackedBoard.NUMBER_OF_PITS);
+            }
+            int best = Integer.MIN_VALUE;
+            for (int pit = 1; pit <= KalahRules.PITS_PER_SIDE; pit++) {
+                board.set(low, high);
+                if (board.getStones(pit) == 0) {
+                    continue;
+                }
+                board.move(pit, scratch);
+                int value = kalahDifference(board);
+                if (board.getGameStatus() == GameStatus.IN_PROGRESS) {
+                    int next = valueOf(board, ply);
+                    value += board.isSecondPlayerMove() ? -next : next;
+                }
+                best = Math.max(best, value);
+            }
+            return best;
+        }
+
+        /**
+         * @return value of the position after a move for the player to move, solved now when it is not solved yet
+         */
+        private int valueOf(PackedBoard board, int ply) {
+            int stones = PositionIndex.stonesInPits(board);
+            int index = (int) positionIndex.indexOf(board, stones);
+            byte stored = values.get(index);
+            if (stored != 0) {
+                return EndgameDatabase.decode(stored);
+            }
+            // a position with as many stones, only the first player moved and the Kalahs are still empty
+            int value = solve(board.getLow(), board.getHigh(), ply + 1);
+            values.put(index, EndgameDatabase.encode(value));
+            return value;
+        }
+
+        private int kalahDifference(PackedBoard board) {
+            return board.getStones(KalahRules.FIRST_PLAYER_KALAH_INDEX + 1) - board.getStones(PackedBoard.NUMBER_OF_PITS);
+        }
+    }
+}
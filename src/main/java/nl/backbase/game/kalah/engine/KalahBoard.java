@@ -0,0 +1,97 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+/**
+ * Mutable board on which {@link KalahRules} applies moves.
+ * <p>
+ * Wraps the pits of a game and keeps the number of stones on each player's side next to them, so the rules can
+ * detect the end of the game without summing the pits after every move.
+ */
+public final class KalahBoard {
+
+    final int[] pits;
+    int firstPlayerStones;
+    int secondPlayerStones;
+    boolean isSecondPlayerMove;
+    GameStatus gameStatus;
+
+    private KalahBoard(int[] pits, int pitsPerSide, boolean isSecondPlayerMove, GameStatus gameStatus) {
+        this.pits = pits;
+        this.isSecondPlayerMove = isSecondPlayerMove;
+        this.gameStatus = gameStatus;
+        for (int index = 0; index < pitsPerSide; index++) {
+            firstPlayerStones += pits[index];
+            secondPlayerStones += pits[index + pitsPerSide + 1];
+        }
+    }
+
+    /**
+     * Creates a board on top of the given pits, moves change the array in place
+     *
+     * @param pits               pits as stored in the game, the Kalahs follow the pits of each side, see {@link BoardGeometry}
+     * @param isSecondPlayerMove true when it is the second player's turn
+     * @param gameStatus         state of the game
+     * @return board backed by the given pits
+     * @throws IllegalArgumentException when no board has this many pits
+     */
+    public static KalahBoard wrap(int[] pits, boolean isSecondPlayerMove, GameStatus gameStatus) {
+        return new KalahBoard(pits, BoardGeometry.ofPits(pits).getPitsPerSide(), isSecondPlayerMove, gameStatus);
+    }
+
+    /**
+     * Puts the board back to the start of a game, for simulations that play many games on one board
+     *
+     * @param initialPits pits at the start of the game, of the same board size, copied into the pits of this board
+     */
+    void reset(int[] initialPits) {
+        System.arraycopy(initialPits, 0, pits, 0, pits.length);
+        recount(false, GameStatus.IN_PROGRESS);
+    }
+
+    /**
+     * Counts the stones on each side again after the pits were written directly, for boards reused for other positions
+     */
+    void recount(boolean isSecondPlayerMove, GameStatus gameStatus) {
+        int pitsPerSide = pits.length / 2 - 1;
+        firstPlayerStones = 0;
+        secondPlayerStones = 0;
+        for (int index = 0; index < pitsPerSide; index++) {
+            firstPlayerStones += pits[index];
+            secondPlayerStones += pits[index + pitsPerSide + 1];
+        }
+        this.isSecondPlayerMove = isSecondPlayerMove;
+        this.gameStatus = gameStatus;
+    }
+
+    /**
+     * @return the pits backing this board
+     */
+    public int[] getPits() {
+        return pits;
+    }
+
+    /**
+     * @param pitId pit number 1 to the number of pits
+     * @return number of stones in the pit
+     */
+    public int getStones(int pitId) {
+        return pits[pitId - 1];
+    }
+
+    public int getFirstPlayerStones() {
+        return firstPlayerStones;
+    }
+
+    public int getSecondPlayerStones() {
+        return secondPlayerStones;
+    }
+
+    public boolean isSecondPlayerMove() {
+        return isSecondPlayerMove;
+    }
+
+    public GameStatus getGameStatus() {
+        return gameStatus;
+    }
+}
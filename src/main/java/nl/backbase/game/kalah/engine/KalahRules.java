@@ -0,0 +1,256 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+/**
+ * Table driven Kalah rules, one instance per {@link BoardGeometry}.
+ * <p>
+ * Sowing visits every pit except the opponent's Kalah, so for each side there is a fixed cycle of all pits but one.
+ * The cycles are precomputed twice in a row, which turns "the k-th pit after this one" into a single table lookup.
+ * Whole laps around the board are added arithmetically, only the remaining stones are sown one pit at a time.
+ * The stones on each side are tracked by the {@link KalahBoard}, so the end of the game is detected without
+ * summing the pits. The tables of every geometry are built once, so a board of any size is played with the same
+ * lookups as the standard one.
+ * <p>
+ * The rules are the ones the game service always applied:
+ * <ul>
+ * <li>the opponent's Kalah is decided by the side of the chosen pit</li>
+ * <li>the chosen pit is emptied after sowing, stones sown into it on a full lap are dropped</li>
+ * <li>the last stone in an own empty pit captures the pit one side length plus one
+ * further, own is decided by whose turn it is</li>
+ * <li>when the game continues, the player on whose side the last stone landed moves next</li>
+ * </ul>
+ */
+public final class KalahRules {
+
+    /**
+     * pits of the standard board, the only one the packed formats and the AI hold
+     */
+    public static final int NUMBER_OF_PITS = 14;
+    public static final int PITS_PER_SIDE = 6;
+    public static final int FIRST_PLAYER_KALAH_INDEX = 6;
+    public static final int SECOND_PLAYER_KALAH_INDEX = 13;
+
+    /**
+     * [number of pits] rules of the board with that many pits
+     */
+    private static final KalahRules[] BY_NUMBER_OF_PITS = new KalahRules[BoardGeometry.MAX_NUMBER_OF_PITS + 1];
+
+    static {
+        for (int pitsPerSide = BoardGeometry.MIN_PITS_PER_SIDE; pitsPerSide <= BoardGeometry.MAX_PITS_PER_SIDE; pitsPerSide++) {
+            BoardGeometry geometry = BoardGeometry.of(pitsPerSide);
+            BY_NUMBER_OF_PITS[geometry.getNumberOfPits()] = new KalahRules(geometry);
+        }
+    }
+
+    /**
+     * rules of the standard board with six pits per side
+     */
+    public static final KalahRules STANDARD = of(BoardGeometry.STANDARD);
+
+    private final BoardGeometry geometry;
+    private final int numberOfPits;
+    private final int pitsPerSide;
+    private final int cycleLength;
+    private final int firstPlayerKalahIndex;
+    private final int secondPlayerKalahIndex;
+    /**
+     * [side of the chosen pit][position] pit index, two cycles in a row
+     */
+    private final int[][] cycle;
+    /**
+     * [side of the chosen pit][pit index] position of the pit in the cycle
+     */
+    private final int[][] cyclePosition;
+    /**
+     * [pit index] 0 for the first player's pits, 1 for the second player's pits, -1 for the Kalahs
+     */
+    private final int[] owner;
+    /**
+     * [pit index] pit captured together with this pit, -1 for the Kalahs
+     */
+    private final int[] opposite;
+
+    private KalahRules(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.numberOfPits = geometry.getNumberOfPits();
+        this.pitsPerSide = geometry.getPitsPerSide();
+        this.cycleLength = numberOfPits - 1;
+        this.firstPlayerKalahIndex = geometry.getFirstPlayerKalahIndex();
+        this.secondPlayerKalahIndex = geometry.getSecondPlayerKalahIndex();
+        this.cycle = new int[2][2 * cycleLength];
+        this.cyclePosition = new int[2][numberOfPits];
+        this.owner = new int[numberOfPits];
+        this.opposite = new int[numberOfPits];
+        for (int side = 0; side < 2; side++) {
+            int skippedKalah = side == 0 ? secondPlayerKalahIndex : firstPlayerKalahIndex;
+            int position = 0;
+            for (int index = 0; index < numberOfPits; index++) {
+                if (index == skippedKalah) {
+                    cyclePosition[side][index] = -1;
+                } else {
+                    cyclePosition[side][index] = position;
+                    cycle[side][position] = index;
+                    cycle[side][position + cycleLength] = index;
+                    position++;
+                }
+            }
+        }
+        for (int index = 0; index < numberOfPits; index++) {
+            if (index == firstPlayerKalahIndex || index == secondPlayerKalahIndex) {
+                owner[index] = -1;
+                opposite[index] = -1;
+            } else if (index < firstPlayerKalahIndex) {
+                owner[index] = 0;
+                opposite[index] = index + pitsPerSide + 1;
+            } else {
+                owner[index] = 1;
+                opposite[index] = index - pitsPerSide - 1;
+            }
+        }
+    }
+
+    /**
+     * @param geometry size of the board
+     * @return rules of boards of this size
+     */
+    public static KalahRules of(BoardGeometry geometry) {
+        return BY_NUMBER_OF_PITS[geometry.getNumberOfPits()];
+    }
+
+    /**
+     * @param pits pits of a game, including the Kalahs
+     * @return rules of the board the pits belong to
+     * @throws IllegalArgumentException when no board has this many pits
+     */
+    public static KalahRules forPits(int[] pits) {
+        return of(BoardGeometry.ofPits(pits));
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @param pitId pit number 1 to the number of pits
+     * @return true when the pit is one of the Kalahs
+     */
+    public boolean isKalah(int pitId) {
+        return geometry.isKalah(pitId);
+    }
+
+    /**
+     * Moves the stones of a pit and applies the capture and end of game rules. When the game completes the status of
+     * the board is set to the result, otherwise the turn goes to the player on whose side the last stone landed.
+     * Whether the player may move this pit is up to the caller.
+     *
+     * @param board board of this geometry to change
+     * @param pitId pit number to move the stones from, not a Kalah and not empty
+     * @return pit number in which the last stone landed
+     */
+    public int move(KalahBoard board, int pitId) {
+        int[] pits = board.pits;
+        if (pits.length != numberOfPits) {
+            throw new IllegalArgumentException("The rules of " + geometry + " need " + numberOfPits + " pits");
+        }
+        int origin = pitId - 1;
+        int side = owner[origin];
+        int stones = pits[origin];
+        if (side < 0 || stones <= 0) {
+            throw new IllegalArgumentException("Pit " + pitId + " can not be moved");
+        }
+        int[] sideCycle = cycle[side];
+
+        int laps = stones / cycleLength;
+        int remainder = stones - laps * cycleLength;
+        if (laps > 0) {
+            for (int position = 0; position < cycleLength; position++) {
+                pits[sideCycle[position]] += laps;
+            }
+            board.firstPlayerStones += laps * pitsPerSide;
+            board.secondPlayerStones += laps * pitsPerSide;
+        }
+        int start = cyclePosition[side][origin];
+        for (int position = start + 1; position <= start + remainder; position++) {
+            int index = sideCycle[position];
+            pits[index]++;
+            addToSide(board, owner[index], 1);
+        }
+        int last = sideCycle[start + (remainder == 0 ? cycleLength : remainder)];
+
+        addToSide(board, side, -pits[origin]);
+        pits[origin] = 0;
+
+        capture(board, last);
+
+        if (!completeIfSideEmpty(board)) {
+            board.isSecondPlayerMove = last > firstPlayerKalahIndex;
+        }
+        return last + 1;
+    }
+
+    /**
+     * Applies the end of game rule, also to positions that were not reached by a move
+     *
+     * @param board board of this geometry to change
+     * @return true when a side is empty and the game is completed
+     */
+    boolean completeIfSideEmpty(KalahBoard board) {
+        if (board.firstPlayerStones != 0 && board.secondPlayerStones != 0) {
+            return false;
+        }
+        moveRemainingStonesToKalah(board);
+        return true;
+    }
+
+    /**
+     * When the last stone lands in an own empty pit, the player captures this stone and all stones in the opposite pit
+     * and puts them in his own Kalah
+     */
+    private void capture(KalahBoard board, int last) {
+        int[] pits = board.pits;
+        int side = owner[last];
+        if (side < 0 || pits[last] != 1 || (side == 1) != board.isSecondPlayerMove) {
+            return;
+        }
+        int oppositeIndex = opposite[last];
+        int captured = pits[last] + pits[oppositeIndex];
+        pits[side == 0 ? firstPlayerKalahIndex : secondPlayerKalahIndex] += captured;
+        addToSide(board, side, -pits[last]);
+        addToSide(board, owner[oppositeIndex], -pits[oppositeIndex]);
+        pits[last] = 0;
+        pits[oppositeIndex] = 0;
+    }
+
+    /**
+     * The player who still has stones in his/her pits keeps them and puts them in his/hers Kalah,
+     * then the winner is decided by the Kalahs
+     */
+    private void moveRemainingStonesToKalah(KalahBoard board) {
+        int[] pits = board.pits;
+        pits[firstPlayerKalahIndex] += board.firstPlayerStones;
+        pits[secondPlayerKalahIndex] += board.secondPlayerStones;
+        for (int index = 0; index < pitsPerSide; index++) {
+            pits[index] = 0;
+            pits[index + pitsPerSide + 1] = 0;
+        }
+        board.firstPlayerStones = 0;
+        board.secondPlayerStones = 0;
+
+        if (pits[firstPlayerKalahIndex] > pits[secondPlayerKalahIndex]) {
+            board.gameStatus = GameStatus.FIRSTPLAYERWON;
+        } else if (pits[firstPlayerKalahIndex] < pits[secondPlayerKalahIndex]) {
+            board.gameStatus = GameStatus.SECONDPLAYERWON;
+        } else {
+            board.gameStatus = GameStatus.DRAW;
+        }
+    }
+
+    private static void addToSide(KalahBoard board, int side, int stones) {
+        if (side == 0) {
+            board.firstPlayerStones += stones;
+        } else if (side == 1) {
+            board.secondPlayerStones += stones;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chooses a move for the player to move with an iterative-deepening alpha-beta search.
+ * <p>
+ * Positions are kept as {@link PackedBoard}s, moves are applied with the {@link KalahRules} of the game service, and
+ * a move that gives the player another turn is searched without switching sides. Each iteration starts with the best move of
+ * the previous one. Positions are kept in a {@link TranspositionTable} shared by all searches, its best pit is tried
+ * first, then the moves ending in the own Kalah and then the pits closest to the Kalah.
+ * <p>
+ * An iteration searches the first root move on the calling task to get a bound, then searches the other root moves in
+ * parallel on the fork/join pool with that bound. The search stops at the time budget, the result of the unfinished
+ * iteration is dropped. The first iteration is always completed, so there always is a move.
+ * <p>
+ * Positions in the {@link EndgameDatabase} are not searched, their value is looked up. A root position in the
+ * database is answered after the first iteration.
+ */
+public final class KalahSearch {
+
+    /**
+     * score of a won game, the final Kalah difference is added to it
+     */
+    public static final int WIN = 10_000;
+    /**
+     * the depth is stored in 8 bits of the transposition table
+     */
+    public static final int MAX_DEPTH = 200;
+
+    private static final int INFINITY = 1_000_000;
+    private static final int CYCLE_LENGTH = PackedBoard.NUMBER_OF_PITS - 1;
+    private static final int NODES_BETWEEN_CLOCK_CHECKS = 1024;
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final int maxDepth;
+    private final EndgameDatabase endgameDatabase;
+
+    /**
+     * @param pool      pool searching the root moves in parallel
+     * @param tableBits the transposition table has 2^tableBits entries of 24 bytes
+     * @param maxDepth  deepest iteration, in moves
+     */
+    public KalahSearch(ForkJoinPool pool, int tableBits, int maxDepth) {
+        this(pool, tableBits, maxDepth, EndgameDatabase.empty());
+    }
+
+    /**
+     * @param pool            pool searching the root moves in parallel
+     * @param tableBits       the transposition table has 2^tableBits entries of 24 bytes
+     * @param maxDepth        deepest iteration, in moves
+     * @param endgameDatabase perfect play values of the positions with few stones left
+     */
+    public KalahSearch(ForkJoinPool pool, int tableBits, int maxDepth, EndgameDatabase endgameDatabase) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("kalah.ai.maxDepth must be between 1 and " + MAX_DEPTH);
+        }
+        this.pool = pool;
+        this.table = new TranspositionTable(tableBits);
+        this.maxDepth = maxDepth;
+        this.endgameDatabase = endgameDatabase;
+    }
+
+    /**
+     * @param board           position to move in, created or in progress
+     * @param timeBudgetNanos time after which no new iteration is started and the running one is aborted
+     * @return the best move of the deepest completed iteration
+     */
+    public SearchResult search(PackedBoard board, long timeBudgetNanos) {
+        long start = System.nanoTime();
+        if (board.getGameStatus() != GameStatus.CREATED && board.getGameStatus() != GameStatus.IN_PROGRESS) {
+            throw new IllegalArgumentException("Game is already completed." + board.getGameStatus());
+        }
+        PackedBoard root = PackedBoard.of(board.getLow(), board.getHigh());
+        root.setGameStatus(GameStatus.IN_PROGRESS);
+        int[] moves = new int[KalahRules.PITS_PER_SIDE];
+        long entry = table.probe(root.getLow(), root.getHigh());
+        int count = orderMoves(root, entry != 0 ? TranspositionTable.pitIdOf(entry) : 0, moves);
+        if (count == 0) {
+            throw new IllegalArgumentException("The player to move has no stones");
+        }
+        SearchState state = new SearchState(start + timeBudgetNanos);
+        int bestPit = moves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        // the first iteration looks up the values of all moves
+        int lastDepth = endgameDatabase.contains(root) ? 1 : maxDepth;
+        for (int depth = 1; count > 1 && depth <= lastDepth; depth++) {
+            RootTask task = new RootTask(root.getLow(), root.getHigh(), moves, count, depth, state, depth > 1);
+            pool.invoke(task);
+            if (state.stopped) {
+                break;
+            }
+            bestPit = task.bestPit;
+            bestScore = task.bestScore;
+            completedDepth = depth;
+            moveToFront(moves, count, bestPit);
+            if (Math.abs(bestScore) >= WIN) {
+                // the result of the game is known
+                break;
+            }
+        }
+        return new SearchResult(bestPit, bestScore, completedDepth, state.nodes.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Same as {@link #search} on the fork/join pool, so the caller's thread is not blocked
+     */
+    public CompletableFuture<SearchResult> searchAsync(PackedBoard board, long timeBudgetNanos) {
+        return CompletableFuture.supplyAsync(() -> search(board, timeBudgetNanos), pool);
+    }
+
+    /**
+     * Forgets all searched positions
+     */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * @param board   position with the player to move
+     * @param firstPit pit to try first, 0 for none
+     * @param moves   receives the pits with stones of the player to move, in the order to search them
+     * @return number of moves
+     */
+    static int orderMoves(PackedBoard board, int firstPit, int[] moves) {
+        boolean isSecondPlayerMove = board.isSecondPlayerMove();
+        int kalah = isSecondPlayerMove ? PackedBoard.NUMBER_OF_PITS : KalahRules.FIRST_PLAYER_KALAH_INDEX + 1;
+        int firstOfSide = kalah - KalahRules.PITS_PER_SIDE;
+        int count = 0;
+        if (firstPit >= firstOfSide && firstPit < kalah && board.getStones(firstPit) > 0) {
+            moves[count++] = firstPit;
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int pit = kalah - 1; pit >= firstOfSide; pit--) {
+                int stones = board.getStones(pit);
+                boolean endsInKalah = stones % CYCLE_LENGTH == kalah - pit;
+                if (stones > 0 && pit != firstPit && endsInKalah == (pass == 0)) {
+                    moves[count++] = pit;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void moveToFront(int[] moves, int count, int pit) {
+        for (int index = 0; index < count; index++) {
+            if (moves[index] == pit) {
+                System.arraycopy(moves, 0, moves, 1, index);
+                moves[0] = pit;
+                return;
+            }
+        }
+    }
+
+    /**
+     * shared by the tasks of one search
+     */
+    private static final class SearchState {
+        private final long deadline;
+        private final LongAdder nodes = new LongAdder();
+        private volatile boolean stopped;
+
+        private SearchState(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    private final class RootTask extends RecursiveAction {
+        private final long low;
+        private final long high;
+        private final int[] moves;
+        private final int count;
+        private final int depth;
+        private final SearchState state;
+        private final boolean checkClock;
+        private int bestPit;
+        private int bestScore;
+
+        private RootTask(long low, long high, int[] moves, int count, int depth, SearchState state, boolean checkClock) {
+            this.low = low;
+            this.high = high;
+            this.moves = moves;
+            this.count = count;
+            this.depth = depth;
+            this.state = state;
+            this.checkClock = checkClock;
+        }
+
+        @Override
+        protected void compute() {
+            Searcher searcher = new Searcher(state, checkClock);
+            bestPit = moves[0];
+            bestScore = searcher.moveValue(low, high, moves[0], depth, -INFINITY, INFINITY);
+            searcher.flushNodes();
+            MoveTask[] siblings = new MoveTask[count - 1];
+            for (int index = 1; index < count; index++) {
+                siblings[index - 1] = new MoveTask(low, high, moves[index], depth, bestScore, state, checkClock);
+            }
+            invokeAll(siblings);
+            for (MoveTask sibling : siblings) {
+                // a sibling only has an exact value when it is better than the first move
+                if (sibling.value > bestScore) {
+                    bestScore = sibling.value;
+                    bestPit = sibling.pitId;
+                }
+            }
+            if (!state.stopped) {
+                table.store(low, high, depth, bestScore, TranspositionTable.EXACT, bestPit);
+            }
+        }
+    }
+
+    private final class MoveTask extends RecursiveAction {
+        private final long low;
+        private final long high;
+        private final int pitId;
+        private final int depth;
+        private final int alpha;
+        private final SearchState state;
+        private final boolean checkClock;
+        private int value;
+
+        private MoveTask(long low, long high, int pitId, int depth, int alpha, SearchState state, boolean checkClock) {
+            this.low = low;
+            this.high = high;
+            this.pitId = pitId;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.state = state;
+            this.checkClock = checkClock;
+        }
+
+        @Override
+        protected void compute() {
+            Searcher searcher = new Searcher(state, checkClock);
+            value = searcher.moveValue(low, high, pitId, depth, alpha, INFINITY);
+            searcher.flushNodes();
+        }
+    }
+
+    /**
+     * Alpha-beta search of one task, with a board and a move list per ply so the search does not allocate. Every move
+     * is applied on the same unpacked board.
+     */
+    private final class Searcher {
+        private final SearchState state;
+        private final boolean checkClock;
+        private final PackedBoard[] boards = new PackedBoard[maxDepth + 2];
+        private final int[][] moves = new int[maxDepth + 2][KalahRules.PITS_PER_SIDE];
+        private final KalahBoard scratch = KalahBoard.wrap(new int[PackedBoard.NUMBER_OF_PITS], false, GameStatus.IN_PROGRESS);
+        private long nodes;
+
+        private Searcher(SearchState state, boolean checkClock) {
+            this.state = state;
+            this.checkClock = checkClock;
+            for (int ply = 0; ply < boards.length; ply++) {
+                boards[ply] = PackedBoard.of(0L, 0L);
+            }
+        }
+
+        /**
+         * @return value of moving the pit for the player to move on the given board
+         */
+        private int moveValue(long low, long high, int pitId, int depth, int alpha, int beta) {
+            boards[0].set(low, high);
+            return childValue(low, high, boards[0].isSecondPlayerMove(), pitId, depth, alpha, beta, 0);
+        }
+
+        private int negamax(long low, long high, int depth, int alpha, int beta, int ply) {
+            if (aborted()) {
+                return 0;
+            }
+            PackedBoard board = boards[ply];
+            board.set(low, high);
+            boolean isSecondPlayerMove = board.isSecondPlayerMove();
+            if (endgameDatabase.contains(board)) {
+                return finalScore(kalahDifference(board, isSecondPlayerMove) + endgameDatabase.value(board));
+            }
+            if (depth == 0) {
+                return kalahDifference(board, isSecondPlayerMove);
+            }
+            int alphaOriginal = alpha;
+            int firstPit = 0;
+            long entry = table.probe(low, high);
+            if (entry != 0) {
+                firstPit = TranspositionTable.pitIdOf(entry);
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    int value = TranspositionTable.valueOf(entry);
+                    int bound = TranspositionTable.boundOf(entry);
+                    if (bound == TranspositionTable.EXACT) {
+                        return value;
+                    } else if (bound == TranspositionTable.LOWER_BOUND) {
+                        alpha = Math.max(alpha, value);
+                    } else {
+                        beta = Math.min(beta, value);
+                    }
+                    if (alpha >= beta) {
+                        return value;
+                    }
+                }
+            }
+            int[] plyMoves = moves[ply];
+            int count = orderMoves(board, firstPit, plyMoves);
+            int best = -INFINITY;
+            int bestPit = 0;
+            for (int index = 0; index < count; index++) {
+                int value = childValue(low, high, isSecondPlayerMove, plyMoves[index], depth, alpha, beta, ply);
+                if (state.stopped) {
+                    return 0;
+                }
+                if (value > best) {
+                    best = value;
+                    bestPit = plyMoves[index];
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            int bound = best <= alphaOriginal ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(low, high, depth, best, bound, bestPit);
+            return best;
+        }
+
+        /**
+         * value of the move for the player who made it, the opponent's value is negated
+         */
+        private int childValue(long low, long high, boolean isSecondPlayerMove, int pitId, int depth, int alpha, int beta, int ply) {
+            PackedBoard child = boards[ply + 1];
+            child.set(low, high);
+            child.move(pitId, scratch);
+            if (child.getGameStatus() != GameStatus.IN_PROGRESS) {
+                return finalScore(kalahDifference(child, isSecondPlayerMove));
+            }
+            if (child.isSecondPlayerMove() == isSecondPlayerMove) {
+                return negamax(child.getLow(), child.getHigh(), depth - 1, alpha, beta, ply + 1);
+            }
+            return -negamax(child.getLow(), child.getHigh(), depth - 1, -beta, -alpha, ply + 1);
+        }
+
+        private boolean aborted() {
+            if (++nodes % NODES_BETWEEN_CLOCK_CHECKS == 0) {
+                state.nodes.add(NODES_BETWEEN_CLOCK_CHECKS);
+                if (checkClock && System.nanoTime() - state.deadline > 0) {
+                    state.stopped = true;
+                }
+            }
+            return state.stopped;
+        }
+
+        private void flushNodes() {
+            state.nodes.add(nodes % NODES_BETWEEN_CLOCK_CHECKS);
+            nodes -= nodes % NODES_BETWEEN_CLOCK_CHECKS;
+        }
+    }
+
+    private static int finalScore(int kalahDifference) {
+        return Integer.signum(kalahDifference) * WIN + kalahDifference;
+    }
+
+    private static int kalahDifference(PackedBoard board, boolean isSecondPlayerMove) {
+        int difference = board.getStones(KalahRules.FIRST_PLAYER_KALAH_INDEX + 1) - board.getStones(PackedBoard.NUMBER_OF_PITS);
+        return isSecondPlayerMove ? -difference : difference;
+    }
+}
@@ -0,0 +1,218 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+/**
+ * Kalah board packed into two longs.
+ * <p>
+ * Every pit takes one byte, pit 1 to 8 live in {@code low} and pit 9 to 14 in the lower 48 bits of {@code high}.
+ * Bit 48 of {@code high} is set when it is the second player's turn and bits 49 to 51 hold the ordinal of the
+ * {@link GameStatus}. Pit numbers are the same as in the REST API: 1 to 6 and 8 to 13 are pits, 7 and 14 are the
+ * Kalahs of player one and player two.
+ * <p>
+ * Reading and writing the state changes the board in place. Moves are not sown in the packed form: the pits are
+ * unpacked to a scratch {@link KalahBoard} of the caller, moved by the {@link KalahRules} of the standard board and
+ * packed back, so there is one implementation of the rules and a move does not allocate.
+ */
+public final class PackedBoard {
+
+    public static final int NUMBER_OF_PITS = 14;
+    public static final int MAX_STONES_IN_PIT = 0xFF;
+
+    private static final int PITS_IN_LOW = 8;
+    private static final int SECOND_PLAYER_MOVE_BIT = 48;
+    private static final int STATUS_SHIFT = 49;
+    private static final long STATUS_MASK = 0x7L;
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private long low;
+    private long high;
+
+    private PackedBoard(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * @param low  lower half as returned by {@link #getLow()}
+     * @param high upper half as returned by {@link #getHigh()}
+     * @return board for the packed representation
+     */
+    public static PackedBoard of(long low, long high) {
+        return new PackedBoard(low, high);
+    }
+
+    /**
+     * @param pits               14 pits as stored in the game, index 6 and 13 are the Kalahs
+     * @param isSecondPlayerMove true when it is the second player's turn
+     * @param gameStatus         state of the game, may be null
+     * @return board holding the same state
+     * @throws IllegalArgumentException when the pits do not fit into the board
+     */
+    public static PackedBoard of(int[] pits, boolean isSecondPlayerMove, GameStatus gameStatus) {
+        if (pits == null || pits.length != NUMBER_OF_PITS) {
+            throw new IllegalArgumentException("A board needs " + NUMBER_OF_PITS + " pits");
+        }
+        PackedBoard board = new PackedBoard(0L, 0L);
+        for (int pit = 1; pit <= NUMBER_OF_PITS; pit++) {
+            int stones = pits[pit - 1];
+            if (stones < 0 || stones > MAX_STONES_IN_PIT) {
+                throw new IllegalArgumentException("Pit " + pit + " holds " + stones + " stones, a board holds at most " + MAX_STONES_IN_PIT);
+            }
+            board.setStones(pit, stones);
+        }
+        board.setSecondPlayerMove(isSecondPlayerMove);
+        board.setGameStatus(gameStatus);
+        return board;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * @param pit pit number 1 to 14
+     * @return number of stones in the pit
+     */
+    public int getStones(int pit) {
+        int index = pit - 1;
+        if (index < PITS_IN_LOW) {
+            return (int) (low >>> (index << 3)) & MAX_STONES_IN_PIT;
+        }
+        return (int) (high >>> ((index - PITS_IN_LOW) << 3)) & MAX_STONES_IN_PIT;
+    }
+
+    public boolean isSecondPlayerMove() {
+        return (high & (1L << SECOND_PLAYER_MOVE_BIT)) != 0;
+    }
+
+    /**
+     * @return status of the game, null when the board was created without status
+     */
+    public GameStatus getGameStatus() {
+        int value = (int) ((high >>> STATUS_SHIFT) & STATUS_MASK);
+        return value == 0 ? null : STATUSES[value - 1];
+    }
+
+    public void setGameStatus(GameStatus gameStatus) {
+        long value = gameStatus == null ? 0L : gameStatus.ordinal() + 1L;
+        high = (high & ~(STATUS_MASK << STATUS_SHIFT)) | (value << STATUS_SHIFT);
+    }
+
+    /**
+     * Copies the pits into the given array
+     *
+     * @param pits array of 14 pits
+     * @return the given array
+     */
+    public int[] copyPitsTo(int[] pits) {
+        for (int pit = 1; pit <= NUMBER_OF_PITS; pit++) {
+            pits[pit - 1] = getStones(pit);
+        }
+        return pits;
+    }
+
+    /**
+     * @param scratch board of the standard size, its state is replaced
+     * @return the given board holding the state of this board
+     */
+    KalahBoard unpackTo(KalahBoard scratch) {
+        copyPitsTo(scratch.pits);
+        scratch.recount(isSecondPlayerMove(), getGameStatus());
+        return scratch;
+    }
+
+    /**
+     * @return new array with the 14 pits
+     */
+    public int[] toPits() {
+        return copyPitsTo(new int[NUMBER_OF_PITS]);
+    }
+
+    /**
+     * Moves the stones of a pit by the {@link KalahRules} of the standard board. When the game completes the status is
+     * set to the result, otherwise the turn goes to the player on whose side the last stone landed.
+     *
+     * @param pitId   pit to move the stones from, not a Kalah and not empty
+     * @param scratch board of the standard size the move is applied on, its state is replaced
+     * @return pit in which the last stone landed
+     */
+    public int move(int pitId, KalahBoard scratch) {
+        int lastPit = KalahRules.STANDARD.move(unpackTo(scratch), pitId);
+        for (int pit = 1; pit <= NUMBER_OF_PITS; pit++) {
+            setStones(pit, scratch.pits[pit - 1]);
+        }
+        setSecondPlayerMove(scratch.isSecondPlayerMove);
+        setGameStatus(scratch.gameStatus);
+        return lastPit;
+    }
+
+    private void setSecondPlayerMove(boolean isSecondPlayerMove) {
+        if (isSecondPlayerMove) {
+            high |= 1L << SECOND_PLAYER_MOVE_BIT;
+        } else {
+            high &= ~(1L << SECOND_PLAYER_MOVE_BIT);
+        }
+    }
+
+    private void setStones(int pit, int stones) {
+        if (stones > MAX_STONES_IN_PIT) {
+            throw new IllegalStateException("Pit " + pit + " overflows with " + stones + " stones");
+        }
+        int index = pit - 1;
+        if (index < PITS_IN_LOW) {
+            int shift = index << 3;
+            low = (low & ~(0xFFL << shift)) | ((long) stones << shift);
+        } else {
+            int shift = (index - PITS_IN_LOW) << 3;
+            high = (high & ~(0xFFL << shift)) | ((long) stones << shift);
+        }
+    }
+
+    /**
+     * 32 bit hash of the whole board, stored with every move in the history to verify a replay. Unlike
+     * {@link #hashCode()} it mixes all bits, so boards differing in a single pit rarely share a fingerprint.
+     *
+     * @return fingerprint of the board
+     */
+    public int fingerprint() {
+        return fingerprint(low, high);
+    }
+
+    static int fingerprint(long low, long high) {
+        long hash = low * 0x9E37_79B9_7F4A_7C15L ^ Long.rotateLeft(high * 0xC2B2_AE3D_27D4_EB4FL, 31);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51_AFD7_ED55_8CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    /**
+     * Replaces the state of this board, so the search can reuse one board per ply
+     */
+    void set(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PackedBoard)) {
+            return false;
+        }
+        PackedBoard board = (PackedBoard) other;
+        return low == board.low && high == board.high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(low * 31 + high);
+    }
+}
@@ -0,0 +1,161 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays random games offline to compare the openings and numbers of stones of a board size.
+ * <p>
+ * Every opening pit of player one is played a given number of times, after the opening both players choose a random
+ * non empty pit of their side until the game is over. The games are played with {@link KalahRules} on a reused
+ * {@link KalahBoard}, without games, stores or logging, so a playout does not allocate. The playouts are split over
+ * the fork/join pool, each task with its own {@link SplittableRandom} split from the one of its parent, so the same
+ * seed gives the same statistics with any parallelism.
+ * <p>
+ * Usage: {@code PlayoutSimulator <file> <playoutsPerOpening> <stones>[,<stones>...] [pitsPerSide] [seed] [parallelism]}
+ * writes the {@link PlayoutStatistics} of every number of stones as CSV, each as soon as it is played.
+ */
+public final class PlayoutSimulator {
+
+    /**
+     * playouts a task plays without splitting
+     */
+    private static final int PLAYOUTS_PER_TASK = 1 << 12;
+
+    private final KalahRules kalahRules;
+    private final int pitsPerSide;
+
+    /**
+     * @param boardGeometry size of the board the games are played on
+     */
+    public PlayoutSimulator(BoardGeometry boardGeometry) {
+        this.kalahRules = KalahRules.of(boardGeometry);
+        this.pitsPerSide = boardGeometry.getPitsPerSide();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PlayoutSimulator <file> <playoutsPerOpening> <stones>[,<stones>...] [pitsPerSide] [seed] [parallelism]");
+            System.exit(1);
+        }
+        long playoutsPerOpening = Long.parseLong(args[1]);
+        int pitsPerSide = args.length > 3 ? Integer.parseInt(args[3]) : KalahRules.PITS_PER_SIDE;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int parallelism = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        PlayoutSimulator simulator = new PlayoutSimulator(BoardGeometry.of(pitsPerSide));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            writer.write(PlayoutStatistics.CSV_HEADER);
+            writer.write('\n');
+            for (String stones : args[2].split(",")) {
+                long start = System.nanoTime();
+                PlayoutStatistics statistics = simulator.simulate(Integer.parseInt(stones.trim()), playoutsPerOpening, seed, pool);
+                statistics.writeCsv(writer);
+                writer.flush();
+                long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                long playouts = playoutsPerOpening * pitsPerSide;
+                System.out.println("Played " + playouts + " games with " + statistics.getStones() + " stones in "
+                        + millis + " ms, " + playouts * 60_000 / millis + " per minute");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param stones             stones in every pit at the start of a game
+     * @param playoutsPerOpening games played from every opening pit of player one
+     * @param seed               seed of the random choices
+     * @param pool               pool playing the games
+     * @return counts of the results and lengths of the games by opening
+     */
+    public PlayoutStatistics simulate(int stones, long playoutsPerOpening, long seed, ForkJoinPool pool) {
+        if (stones < 1) {
+            throw new IllegalArgumentException("stones must be at least 1");
+        }
+        if (playoutsPerOpening < 1) {
+            throw new IllegalArgumentException("playoutsPerOpening must be at least 1");
+        }
+        int[] initialPits = kalahRules.getGeometry().newPits(stones);
+        return pool.invoke(new PlayoutTask(initialPits, playoutsPerOpening, 0, playoutsPerOpening * pitsPerSide,
+                new SplittableRandom(seed)));
+    }
+
+    /**
+     * Plays the games {@code from} to {@code to}, game {@code i} starts with pit {@code i / playoutsPerOpening + 1}
+     */
+    private final class PlayoutTask extends RecursiveTask<PlayoutStatistics> {
+        private final int[] initialPits;
+        private final long playoutsPerOpening;
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        private PlayoutTask(int[] initialPits, long playoutsPerOpening, long from, long to, SplittableRandom random) {
+            this.initialPits = initialPits;
+            this.playoutsPerOpening = playoutsPerOpening;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected PlayoutStatistics compute() {
+            if (to - from > PLAYOUTS_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                PlayoutTask first = new PlayoutTask(initialPits, playoutsPerOpening, from, middle, random.split());
+                PlayoutTask second = new PlayoutTask(initialPits, playoutsPerOpening, middle, to, random);
+                first.fork();
+                PlayoutStatistics statistics = second.compute();
+                statistics.merge(first.join());
+                return statistics;
+            }
+            PlayoutStatistics statistics = new PlayoutStatistics(pitsPerSide, initialPits[0]);
+            KalahBoard board = KalahBoard.wrap(initialPits.clone(), false, GameStatus.IN_PROGRESS);
+            int[] candidates = new int[pitsPerSide];
+            for (long game = from; game < to; game++) {
+                int opening = (int) (game / playoutsPerOpening) + 1;
+                statistics.add(opening, play(board, opening, candidates), board.gameStatus);
+            }
+            return statistics;
+        }
+
+        /**
+         * @return moves until the game was over, the opening included
+         */
+        private int play(KalahBoard board, int opening, int[] candidates) {
+            board.reset(initialPits);
+            kalahRules.move(board, opening);
+            int moves = 1;
+            while (GameStatus.IN_PROGRESS == board.gameStatus) {
+                kalahRules.move(board, randomPit(board, candidates));
+                moves++;
+            }
+            return moves;
+        }
+
+        /**
+         * @return a random non empty pit of the player to move, who always has one while the game is in progress
+         */
+        private int randomPit(KalahBoard board, int[] candidates) {
+            int[] pits = board.pits;
+            int firstPit = board.isSecondPlayerMove ? pitsPerSide + 2 : 1;
+            int count = 0;
+            for (int pitId = firstPit; pitId < firstPit + pitsPerSide; pitId++) {
+                if (pits[pitId - 1] > 0) {
+                    candidates[count++] = pitId;
+                }
+            }
+            return candidates[random.nextInt(count)];
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Results of random playouts from the openings of player one, for one board size and number of stones.
+ * <p>
+ * The games are counted by opening pit, number of moves and result, so both the win rates of an opening and the
+ * distribution of the game lengths follow from the counts. Statistics of parts of a simulation are merged into one.
+ */
+public final class PlayoutStatistics {
+
+    /**
+     * header of the rows written by {@link #writeCsv(Writer)}
+     */
+    public static final String CSV_HEADER = "pitsPerSide,stones,opening,moves,games,firstPlayerWins,secondPlayerWins,draws";
+
+    private static final int FIRST_PLAYER_WON = 0;
+    private static final int SECOND_PLAYER_WON = 1;
+    private static final int DRAW = 2;
+    private static final int RESULTS = 3;
+    /**
+     * moves counted before the counts of an opening grow
+     */
+    private static final int INITIAL_MOVES = 128;
+
+    private final int pitsPerSide;
+    private final int stones;
+    /**
+     * [opening pit - 1][moves * RESULTS + result] games
+     */
+    private final long[][] counts;
+
+    PlayoutStatistics(int pitsPerSide, int stones) {
+        this.pitsPerSide = pitsPerSide;
+        this.stones = stones;
+        this.counts = new long[pitsPerSide][INITIAL_MOVES * RESULTS];
+    }
+
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    public int getStones() {
+        return stones;
+    }
+
+    /**
+     * @param opening pit player one started with, 1 to the pits per side
+     * @return games played from the opening
+     */
+    public long getGames(int opening) {
+        long games = 0;
+        for (long count : counts[opening - 1]) {
+            games += count;
+        }
+        return games;
+    }
+
+    /**
+     * @param opening pit player one started with
+     * @param moves   moves of the game, the opening included
+     * @return games from the opening that ended after this many moves
+     */
+    public long getGames(int opening, int moves) {
+        long[] openingCounts = counts[opening - 1];
+        int offset = moves * RESULTS;
+        if (offset >= openingCounts.length) {
+            return 0;
+        }
+        return openingCounts[offset + FIRST_PLAYER_WON] + openingCounts[offset + SECOND_PLAYER_WON] + openingCounts[offset + DRAW];
+    }
+
+    public long getFirstPlayerWins(int opening) {
+        return sum(opening, FIRST_PLAYER_WON);
+    }
+
+    public long getSecondPlayerWins(int opening) {
+        return sum(opening, SECOND_PLAYER_WON);
+    }
+
+    public long getDraws(int opening) {
+        return sum(opening, DRAW);
+    }
+
+    /**
+     * @param opening    pit player one started with
+     * @param moves      moves of the game, the opening included
+     * @param gameStatus result of the game
+     */
+    void add(int opening, int moves, GameStatus gameStatus) {
+        long[] openingCounts = counts[opening - 1];
+        int offset = moves * RESULTS;
+        if (offset >= openingCounts.length) {
+            openingCounts = grow(opening, offset + RESULTS);
+        }
+        openingCounts[offset + resultOf(gameStatus)]++;
+    }
+
+    /**
+     * @param other statistics of the same board size and stones, added to these
+     */
+    void merge(PlayoutStatistics other) {
+        for (int opening = 1; opening <= pitsPerSide; opening++) {
+            long[] otherCounts = other.counts[opening - 1];
+            long[] openingCounts = counts[opening - 1];
+            if (otherCounts.length > openingCounts.length) {
+                openingCounts = grow(opening, otherCounts.length);
+            }
+            for (int index = 0; index < otherCounts.length; index++) {
+                openingCounts[index] += otherCounts[index];
+            }
+        }
+    }
+
+    /**
+     * Writes a row per opening and number of moves that occurred, without the header
+     *
+     * @param writer receives the rows
+     * @throws IOException when the rows can not be written
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        StringBuilder row = new StringBuilder(64);
+        for (int opening = 1; opening <= pitsPerSide; opening++) {
+            long[] openingCounts = counts[opening - 1];
+            for (int offset = 0; offset < openingCounts.length; offset += RESULTS) {
+                long games = openingCounts[offset + FIRST_PLAYER_WON] + openingCounts[offset + SECOND_PLAYER_WON]
+                        + openingCounts[offset + DRAW];
+                if (games == 0) {
+                    continue;
+                }
+                row.setLength(0);
+                row.append(pitsPerSide).append(',')
+                        .append(stones).append(',')
+                        .append(opening).append(',')
+                        .append(offset / RESULTS).append(',')
+                        .append(games).append(',')
+                        .append(openingCounts[offset + FIRST_PLAYER_WON]).append(',')
+                        .append(openingCounts[offset + SECOND_PLAYER_WON]).append(',')
+                        .append(openingCounts[offset + DRAW]).append('\n');
+                writer.append(row);
+            }
+        }
+    }
+
+    private long sum(int opening, int result) {
+        long[] openingCounts = counts[opening - 1];
+        long games = 0;
+        for (int offset = result; offset < openingCounts.length; offset += RESULTS) {
+            games += openingCounts[offset];
+        }
+        return games;
+    }
+
+    private long[] grow(int opening, int minLength) {
+        long[] openingCounts = counts[opening - 1];
+        int length = openingCounts.length;
+        while (length < minLength) {
+            length *= 2;
+        }
+        counts[opening - 1] = Arrays.copyOf(openingCounts, length);
+        return counts[opening - 1];
+    }
+
+    private static int resultOf(GameStatus gameStatus) {
+        if (GameStatus.FIRSTPLAYERWON == gameStatus) {
+            return FIRST_PLAYER_WON;
+        } else if (GameStatus.SECONDPLAYERWON == gameStatus) {
+            return SECOND_PLAYER_WON;
+        } else if (GameStatus.DRAW == gameStatus) {
+            return DRAW;
+        }
+        throw new IllegalArgumentException("Game is not finished: " + gameStatus);
+    }
+}
@@ -0,0 +1,114 @@
+package nl.backbase.game.kalah.engine;
+
+/**
+ * Dense numbering of the positions of the {@link EndgameDatabase}.
+ * <p>
+ * A position is the number of stones in the twelve pits, listed from the point of view of the player to move: first
+ * the own pits from the left, then the opponent's pits. The Kalahs and the side to move are not part of it, the rules
+ * are the same for both players. Positions are numbered by their number of stones, all positions with fewer stones
+ * come first, and within the same number of stones in the combinatorial number system, so {@code maxStones} stones
+ * need C(maxStones + 12, 12) numbers without gaps.
+ */
+final class PositionIndex {
+
+    static final int PITS = 2 * KalahRules.PITS_PER_SIDE;
+
+    /**
+     * binomials[n][k] is n over k
+     */
+    private final long[][] binomials;
+    private final int maxStones;
+
+    PositionIndex(int maxStones) {
+        this.maxStones = maxStones;
+        this.binomials = new long[maxStones + PITS + 1][PITS + 1];
+        for (int n = 0; n < binomials.length; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, PITS); k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+    }
+
+    /**
+     * @return number of positions with at most {@code maxStones} stones
+     */
+    long size() {
+        return firstOf(maxStones + 1);
+    }
+
+    /**
+     * @return number of the first position with the given number of stones
+     */
+    long firstOf(int stones) {
+        return binomials[stones + PITS - 1][PITS];
+    }
+
+    /**
+     * @return total number of stones in the pits of the board
+     */
+    static int stonesInPits(PackedBoard board) {
+        int stones = 0;
+        for (int position = 0; position < PITS; position++) {
+            stones += board.getStones(pitOf(position, false));
+        }
+        return stones;
+    }
+
+    /**
+     * @param board  board with at most {@code maxStones} stones in its pits
+     * @param stones the stones in the pits of the board
+     * @return number of the position of the board, seen from the player to move
+     */
+    long indexOf(PackedBoard board, int stones) {
+        boolean isSecondPlayerMove = board.isSecondPlayerMove();
+        long index = firstOf(stones);
+        int remaining = stones;
+        for (int position = 0; position < PITS - 1 && remaining > 0; position++) {
+            int inPit = board.getStones(pitOf(position, isSecondPlayerMove));
+            int pitsAfter = PITS - 1 - position;
+            // positions with fewer stones in this pit come first
+            index += binomials[remaining + pitsAfter][pitsAfter] - binomials[remaining - inPit + pitsAfter][pitsAfter];
+            remaining -= inPit;
+        }
+        return index;
+    }
+
+    /**
+     * Inverse of {@link #indexOf}
+     *
+     * @param index  number of a position with the given stones
+     * @param stones the stones in the pits of the position
+     * @param pits   receives the stones of the twelve pits, own pits first
+     */
+    void positionOf(long index, int stones, int[] pits) {
+        long rest = index - firstOf(stones);
+        int remaining = stones;
+        for (int position = 0; position < PITS - 1; position++) {
+            int pitsAfter = PITS - 1 - position;
+            long all = binomials[remaining + pitsAfter][pitsAfter];
+            int inPit = 0;
+            while (all - binomials[remaining - inPit - 1 + pitsAfter][pitsAfter] <= rest) {
+                inPit++;
+            }
+            rest -= all - binomials[remaining - inPit + pitsAfter][pitsAfter];
+            pits[position] = inPit;
+            remaining -= inPit;
+        }
+        pits[PITS - 1] = remaining;
+    }
+
+    /**
+     * @param position          0 to 5 for the own pits, 6 to 11 for the opponent's pits
+     * @param isSecondPlayerMove whose turn it is
+     * @return pit number on the board
+     */
+    static int pitOf(int position, boolean isSecondPlayerMove) {
+        int pit = position < KalahRules.PITS_PER_SIDE ? position + 1 : position + 2;
+        if (!isSecondPlayerMove) {
+            return pit;
+        }
+        return pit < KalahRules.FIRST_PLAYER_KALAH_INDEX + 1 ? pit + KalahRules.FIRST_PLAYER_KALAH_INDEX + 1
+                : pit - KalahRules.FIRST_PLAYER_KALAH_INDEX - 1;
+    }
+}
@@ -0,0 +1,53 @@
+package nl.backbase.game.kalah.engine;
+
+/**
+ * Move chosen by the {@link KalahSearch} and how much was searched to find it
+ */
+public final class SearchResult {
+
+    private final int pitId;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    SearchResult(int pitId, int score, int depth, long nodes, long elapsedNanos) {
+        this.pitId = pitId;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return pit number to move
+     */
+    public int getPitId() {
+        return pitId;
+    }
+
+    /**
+     * @return expected Kalah difference for the player to move, beyond {@link KalahSearch#WIN} when the game is won
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return depth of the last completed iteration, 0 when there was only one move to choose from
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return number of positions visited, including the aborted iteration
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
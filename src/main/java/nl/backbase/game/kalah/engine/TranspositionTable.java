@@ -0,0 +1,88 @@
+package nl.backbase.game.kalah.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size table of searched positions, shared by all search threads and requests. The value of a position does
+ * not depend on the game it is part of, so every search profits from the positions searched before.
+ * <p>
+ * Each slot holds the board XOR-ed with the packed entry, followed by the entry itself. Slots are written without a
+ * lock, a slot torn by two concurrent writes no longer matches its board and is read as a miss. A new entry always
+ * replaces the old one.
+ */
+final class TranspositionTable {
+
+    static final int EXACT = 0;
+    static final int LOWER_BOUND = 1;
+    static final int UPPER_BOUND = 2;
+
+    private static final int SLOT_SIZE = 3;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param sizeBits the table has 2^sizeBits slots of 24 bytes
+     */
+    TranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 26) {
+            throw new IllegalArgumentException("kalah.ai.tableBits must be between 1 and 26");
+        }
+        this.slots = new AtomicLongArray(SLOT_SIZE << sizeBits);
+        this.mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * @return the packed entry of the board, 0 when the board is not in the table
+     */
+    long probe(long low, long high) {
+        int slot = slotOf(low, high);
+        long entry = slots.get(slot + 2);
+        if (entry != 0 && (slots.get(slot) ^ entry) == low && (slots.get(slot + 1) ^ entry) == high) {
+            return entry;
+        }
+        return 0;
+    }
+
+    void store(long low, long high, int depth, int value, int bound, int pitId) {
+        long entry = pack(depth, value, bound, pitId);
+        int slot = slotOf(low, high);
+        slots.set(slot + 2, entry);
+        slots.set(slot, low ^ entry);
+        slots.set(slot + 1, high ^ entry);
+    }
+
+    void clear() {
+        for (int index = 0; index < slots.length(); index++) {
+            slots.set(index, 0);
+        }
+    }
+
+    /**
+     * bits 0 to 31 hold the value, 32 to 39 the depth, 40 to 41 the bound and 42 to 46 the best pit. Bit 47 is set,
+     * so no entry is 0.
+     */
+    static long pack(int depth, int value, int bound, int pitId) {
+        return (value & 0xFFFF_FFFFL) | (long) depth << 32 | (long) bound << 40 | (long) pitId << 42 | 1L << 47;
+    }
+
+    static int valueOf(long entry) {
+        return (int) entry;
+    }
+
+    static int depthOf(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    static int boundOf(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    static int pitIdOf(long entry) {
+        return (int) (entry >>> 42) & 0x1F;
+    }
+
+    private int slotOf(long low, long high) {
+        return (PackedBoard.fingerprint(low, high) & mask) * SLOT_SIZE;
+    }
+}
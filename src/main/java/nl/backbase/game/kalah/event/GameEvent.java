@@ -0,0 +1,83 @@
+package nl.backbase.game.kalah.event;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+/**
+ * State of a game after a committed change. Holds a copy of the board, so later moves do not change the event.
+ * A correction is the stored state of a game whose published states were never written, it may have a lower move
+ * count than the events before it.
+ */
+public final class GameEvent {
+
+    private final String gameId;
+    private final int[] pits;
+    private final boolean isSecondPlayerMove;
+    private final GameStatus gameStatus;
+    private final long moveCount;
+    private final boolean correction;
+
+    private GameEvent(String gameId, int[] pits, boolean isSecondPlayerMove, GameStatus gameStatus, long moveCount,
+                      boolean correction) {
+        this.gameId = gameId;
+        this.pits = pits;
+        this.isSecondPlayerMove = isSecondPlayerMove;
+        this.gameStatus = gameStatus;
+        this.moveCount = moveCount;
+        this.correction = correction;
+    }
+
+    /**
+     * @param game game as it was saved
+     * @return event holding a copy of the game's state
+     */
+    public static GameEvent of(Game game) {
+        return new GameEvent(game.getId(), game.getPits().clone(), game.isSecondPlayerMove(), game.getGameStatus(),
+                game.getMoveCount(), false);
+    }
+
+    /**
+     * @param game game as it is stored, after states published before could not be written
+     * @return event replacing the states published before
+     */
+    public static GameEvent correction(Game game) {
+        return new GameEvent(game.getId(), game.getPits().clone(), game.isSecondPlayerMove(), game.getGameStatus(),
+                game.getMoveCount(), true);
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public GameStatus getGameStatus() {
+        return gameStatus;
+    }
+
+    public boolean isSecondPlayerMove() {
+        return isSecondPlayerMove;
+    }
+
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return whether this event replaces the states published before instead of following them
+     */
+    public boolean isCorrection() {
+        return correction;
+    }
+
+    /**
+     * @return new game with the state of this event
+     */
+    public Game toGame() {
+        return Game.builder()
+                .id(gameId)
+                .pits(pits.clone())
+                .isSecondPlayerMove(isSecondPlayerMove)
+                .gameStatus(gameStatus)
+                .moveCount(moveCount)
+                .build();
+    }
+}
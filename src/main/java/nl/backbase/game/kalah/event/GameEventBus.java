@@ -0,0 +1,33 @@
+package nl.backbase.game.kalah.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Propagates committed game changes to every instance serving the game API.
+ * <p>
+ * The {@link LocalGameEventBus} only reaches listeners of this instance, it is the only bus {@code kalah.events.bus}
+ * supports. A bus reaching more than one instance, backed by MongoDB change streams or a message broker, has to
+ * implement this interface.
+ */
+public interface GameEventBus {
+
+    /**
+     * Publishes the state of a game after it is saved. Never fails the caller, delivery is best effort.
+     *
+     * @param event state of the game
+     */
+    void publish(GameEvent event);
+
+    /**
+     * @param listener receives the events of all games, including the ones published by this instance
+     */
+    void subscribe(Consumer<GameEvent> listener);
+
+    /**
+     * @return whether the events of every instance changing games reach the listeners of this instance, which the
+     * indexes answering requests without loading the game rely on
+     */
+    default boolean reachesAllInstances() {
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+package nl.backbase.game.kalah.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans out the events of the {@link GameEventBus} to the subscribers of each game.
+ * <p>
+ * Every subscriber has a bounded buffer. When a subscriber can not keep up, the oldest events are dropped: an event
+ * holds the whole board, so the newest one is all a subscriber needs. Events are sent by the sender threads, so a
+ * slow subscriber never holds up the move that published the event, and at most one thread sends to a subscriber
+ * at a time, so a subscriber gets the events of its game in the order they were published.
+ */
+@Slf4j
+public class GameEventHub implements AutoCloseable {
+
+    private final ConcurrentHashMap<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final Executor sender;
+    private final ExecutorService ownedSender;
+
+    /**
+     * @param gameEventBus  bus delivering the events of all games
+     * @param bufferSize    number of events buffered per subscriber
+     * @param senderThreads number of threads sending events to subscribers
+     */
+    public GameEventHub(GameEventBus gameEventBus, int bufferSize, int senderThreads) {
+        this(gameEventBus, bufferSize, newSender(senderThreads));
+    }
+
+    GameEventHub(GameEventBus gameEventBus, int bufferSize, Executor sender) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("kalah.events.bufferSize must be at least 1");
+        }
+        this.bufferSize = bufferSize;
+        this.sender = sender;
+        this.ownedSender = sender instanceof ExecutorService ? (ExecutorService) sender : null;
+        gameEventBus.subscribe(this::onEvent);
+    }
+
+    /**
+     * @param gameId id of the game
+     * @param sink   receives the events of the game until the subscription is cancelled
+     * @return subscription to cancel when the subscriber is gone
+     */
+    public GameSubscription subscribe(String gameId, GameEventSink sink) {
+        Subscription subscription = new Subscription(gameId, sink);
+        subscriptions.compute(gameId, (id, subscribers) -> {
+            Set<Subscription> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscription);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * @return number of open subscriptions
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (ownedSender != null) {
+            ownedSender.shutdownNow();
+        }
+    }
+
+    private void onEvent(GameEvent event) {
+        Set<Subscription> subscribers = subscriptions.get(event.getGameId());
+        if (subscribers != null) {
+            subscribers.forEach(subscription -> subscription.offer(event, false));
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.gameId, (id, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private static ExecutorService newSender(int senderThreads) {
+        if (senderThreads < 1) {
+            throw new IllegalArgumentException("kalah.events.senderThreads must be at least 1");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "game-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final class Subscription implements GameSubscription {
+        private final String gameId;
+        private final GameEventSink sink;
+        /**
+         * guarded by this subscription
+         */
+        private final ArrayDeque<GameEvent> buffer = new ArrayDeque<>();
+        private boolean sending;
+        private boolean received;
+        private boolean cancelled;
+
+        private Subscription(String gameId, GameEventSink sink) {
+            this.gameId = gameId;
+            this.sink = sink;
+        }
+
+        @Override
+        public void offerInitial(GameEvent event) {
+            offer(event, true);
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                buffer.clear();
+            }
+            remove(this);
+        }
+
+        private void offer(GameEvent event, boolean initial) {
+            synchronized (this) {
+                if (cancelled || (initial && received)) {
+                    return;
+                }
+                received = true;
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    log.debug("Subscriber of game {} is too slow, dropped the oldest event", gameId);
+                }
+                buffer.addLast(event);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                sender.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                log.warn("Events of game {} can not be sent, cancelling the subscription", gameId);
+                cancel();
+            }
+        }
+
+        private void send() {
+            while (true) {
+                GameEvent event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null || cancelled) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    sink.send(event);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Subscriber of game {} is gone, cancelling the subscription", gameId, e);
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+}
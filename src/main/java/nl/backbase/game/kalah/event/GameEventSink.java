@@ -0,0 +1,16 @@
+package nl.backbase.game.kalah.event;
+
+import java.io.IOException;
+
+/**
+ * Sends game events to one subscriber, for example an SSE connection
+ */
+@FunctionalInterface
+public interface GameEventSink {
+
+    /**
+     * @param event state of the game
+     * @throws IOException when the subscriber is gone, the subscription is cancelled
+     */
+    void send(GameEvent event) throws IOException;
+}
@@ -0,0 +1,20 @@
+package nl.backbase.game.kalah.event;
+
+/**
+ * Subscription to the events of one game, see {@link GameEventHub#subscribe(String, GameEventSink)}
+ */
+public interface GameSubscription {
+
+    /**
+     * Sends the state the subscriber starts from, unless an event of the game arrived since the subscription was
+     * made. Such an event is at least as new as a state loaded after subscribing.
+     *
+     * @param event state of the game loaded after subscribing
+     */
+    void offerInitial(GameEvent event);
+
+    /**
+     * Stops sending events, pending events are dropped
+     */
+    void cancel();
+}
@@ -0,0 +1,50 @@
+package nl.backbase.game.kalah.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In process {@link GameEventBus}, listeners are called on the publishing thread. It only reaches every instance when
+ * there is a single one.
+ */
+@Slf4j
+public class LocalGameEventBus implements GameEventBus {
+
+    private final List<Consumer<GameEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final boolean singleInstance;
+
+    public LocalGameEventBus() {
+        this(false);
+    }
+
+    /**
+     * @param singleInstance whether this is the only instance changing games
+     */
+    public LocalGameEventBus(boolean singleInstance) {
+        this.singleInstance = singleInstance;
+    }
+
+    @Override
+    public void publish(GameEvent event) {
+        for (Consumer<GameEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Exception while publishing an event of game {}", event.getGameId(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<GameEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean reachesAllInstances() {
+        return singleInstance;
+    }
+}
@@ -0,0 +1,260 @@
+package nl.backbase.game.kalah.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Meters of the game service, the game store, the read cache, the exception handler and the archiver.
+ * <p>
+ * All meters are registered once, the hot path only takes {@link System#nanoTime()} and records the elapsed time on a
+ * timer held in a field, so recording does not allocate. Status transition and exception counters are registered on
+ * their first use and looked up without allocating afterwards. Percentile histograms of the timers are switched on
+ * with {@code management.metrics.distribution.percentiles-histogram.kalah}.
+ * <p>
+ * The active games gauge is the number of stored games that are still played and not abandoned, as last counted in
+ * the game collection, so every instance reports the same number. It is 0 until the first count.
+ */
+public class GameMetrics {
+
+    public static final String SERVICE_TIMER = "kalah.service";
+    public static final String REPOSITORY_TIMER = "kalah.repository";
+    public static final String TRANSITION_COUNTER = "kalah.game.transitions";
+    public static final String EXCEPTION_COUNTER = "kalah.exceptions";
+    public static final String ACTIVE_GAMES_GAUGE = "kalah.games.active";
+    public static final String ARCHIVED_COUNTER = "kalah.games.archived";
+    public static final String STORED_GAMES_GAUGE = "kalah.games.stored";
+    public static final String QUARANTINED_COUNTER = "kalah.games.quarantined";
+    public static final String CONFLICT_COUNTER = "kalah.store.conflicts";
+    public static final String CACHE_GETS_COUNTER = "kalah.cache.gets";
+    public static final String CACHE_EVICTIONS_COUNTER = "kalah.cache.evictions";
+
+    /**
+     * from tag of a transition into {@link GameStatus#CREATED}
+     */
+    static final String NEW_GAME = "NONE";
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final MeterRegistry registry;
+    private final Timer createGameTimer;
+    private final Timer makeMoveTimer;
+    private final Timer getGameTimer;
+    private final Timer findByIdTimer;
+    private final Timer saveTimer;
+    private final Timer saveAllTimer;
+    private final Counter archivedCounter;
+    private final Counter quarantinedCounter;
+    private final Counter conflictCounter;
+    private final Counter cacheHitCounter;
+    private final Counter cacheMissCounter;
+    private final Counter cacheSizeEvictionCounter;
+    private final Counter cacheInvalidationCounter;
+    /**
+     * indexed by the ordinal of the from status plus one, times the number of statuses, plus the ordinal of the to
+     * status. From index 0 is a new game
+     */
+    private final AtomicReferenceArray<Counter> transitions;
+    private final Map<Class<?>, Counter> exceptions = new ConcurrentHashMap<>();
+    /**
+     * last count of the active games, held here, the registry only keeps a weak reference to the gauge's number
+     */
+    private final AtomicLong activeGames;
+
+    public GameMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.createGameTimer = timer(SERVICE_TIMER, "createGame");
+        this.makeMoveTimer = timer(SERVICE_TIMER, "makeMove");
+        this.getGameTimer = timer(SERVICE_TIMER, "getGame");
+        this.findByIdTimer = timer(REPOSITORY_TIMER, "findById");
+        this.saveTimer = timer(REPOSITORY_TIMER, "save");
+        this.saveAllTimer = timer(REPOSITORY_TIMER, "saveAll");
+        this.archivedCounter = Counter.builder(ARCHIVED_COUNTER).register(registry);
+        this.quarantinedCounter = Counter.builder(QUARANTINED_COUNTER).register(registry);
+        this.conflictCounter = Counter.builder(CONFLICT_COUNTER).register(registry);
+        this.cacheHitCounter = counter(CACHE_GETS_COUNTER, "result", "hit");
+        this.cacheMissCounter = counter(CACHE_GETS_COUNTER, "result", "miss");
+        this.cacheSizeEvictionCounter = counter(CACHE_EVICTIONS_COUNTER, "cause", "size");
+        this.cacheInvalidationCounter = counter(CACHE_EVICTIONS_COUNTER, "cause", "invalidated");
+        this.transitions = new AtomicReferenceArray<>((STATUSES.length + 1) * STATUSES.length);
+        this.activeGames = registry.gauge(ACTIVE_GAMES_GAUGE, new AtomicLong());
+    }
+
+    /**
+     * @return metrics whose meters are not published anywhere, for services created outside of Spring
+     */
+    public static GameMetrics disabled() {
+        return new GameMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordCreateGame(long startNanos) {
+        record(createGameTimer, startNanos);
+    }
+
+    public void recordMakeMove(long startNanos) {
+        record(makeMoveTimer, startNanos);
+    }
+
+    public void recordGetGame(long startNanos) {
+        record(getGameTimer, startNanos);
+    }
+
+    public void recordFindById(long startNanos) {
+        record(findByIdTimer, startNanos);
+    }
+
+    public void recordSave(long startNanos) {
+        record(saveTimer, startNanos);
+    }
+
+    public void recordSaveAll(long startNanos) {
+        record(saveAllTimer, startNanos);
+    }
+
+    /**
+     * @param count number of new games handed out
+     */
+    public void gamesCreated(int count) {
+        transitionCounter(null, GameStatus.CREATED).increment(count);
+    }
+
+    /**
+     * Counts a saved change of the status of a game, nothing when the status did not change
+     *
+     * @param from status before the moves
+     * @param to   status after the moves
+     */
+    public void transition(GameStatus from, GameStatus to) {
+        if (from == to || to == null) {
+            return;
+        }
+        transitionCounter(from, to).increment();
+    }
+
+    /**
+     * @param exceptionType type of the exception mapped to an error response
+     */
+    public void exceptionHandled(Class<?> exceptionType) {
+        Counter counter = exceptions.get(exceptionType);
+        if (counter == null) {
+            counter = exceptions.computeIfAbsent(exceptionType, type -> Counter.builder(EXCEPTION_COUNTER)
+                    .tag("exception", type.getSimpleName())
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * @param count number of games moved to the archive
+     */
+    public void gamesArchived(int count) {
+        archivedCounter.increment(count);
+    }
+
+    /**
+     * A new game of the write-behind store that was not inserted because another game has its id
+     */
+    public void gameQuarantined() {
+        quarantinedCounter.increment();
+    }
+
+    /**
+     * Moves of the write-behind store that were answered but not written, because another instance changed the game
+     */
+    public void writeConflict() {
+        conflictCounter.increment();
+    }
+
+    /**
+     * A game read from the read cache
+     */
+    public void cacheHit() {
+        cacheHitCounter.increment();
+    }
+
+    /**
+     * A game read that went to the store behind the read cache
+     */
+    public void cacheMiss() {
+        cacheMissCounter.increment();
+    }
+
+    /**
+     * A least recently used game evicted from the read cache to stay within its capacity
+     */
+    public void cacheEvicted() {
+        cacheSizeEvictionCounter.increment();
+    }
+
+    /**
+     * A game dropped from the read cache because it was changed elsewhere or its save failed
+     */
+    public void cacheInvalidated() {
+        cacheInvalidationCounter.increment();
+    }
+
+    /**
+     * Registers the gauge of the games in the game collection, it is read on every scrape
+     *
+     * @param storedGames estimated number of stored games
+     */
+    public void storedGames(LongSupplier storedGames) {
+        Gauge.builder(STORED_GAMES_GAUGE, storedGames, LongSupplier::getAsLong)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * @param count stored games that are still played and not abandoned
+     */
+    public void activeGamesCounted(long count) {
+        activeGames.set(count);
+    }
+
+    /**
+     * @return last count of the active games
+     */
+    public long getActiveGames() {
+        return activeGames.get();
+    }
+
+    private Counter transitionCounter(GameStatus from, GameStatus to) {
+        int index = (from == null ? 0 : from.ordinal() + 1) * STATUSES.length + to.ordinal();
+        Counter counter = transitions.get(index);
+        if (counter == null) {
+            // the registry returns the same counter to threads registering it at the same time
+            counter = Counter.builder(TRANSITION_COUNTER)
+                    .tag("from", from == null ? NEW_GAME : from.name())
+                    .tag("to", to.name())
+                    .register(registry);
+            transitions.set(index, counter);
+        }
+        return counter;
+    }
+
+    private Counter counter(String name, String tag, String value) {
+        return Counter.builder(name)
+                .tag(tag, value)
+                .register(registry);
+    }
+
+    private Timer timer(String name, String method) {
+        return Timer.builder(name)
+                .tag("method", method)
+                .register(registry);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
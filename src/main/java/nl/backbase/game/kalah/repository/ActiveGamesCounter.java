@@ -0,0 +1,93 @@
+package nl.backbase.game.kalah.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the active games in the game collection for the {@link GameMetrics}, every interval.
+ * <p>
+ * Games that are still played have an expiry time, finished games have none, see {@link GameActivityListener}. So the
+ * games expiring after now are the active ones: finished games, abandoned games and games deleted by the TTL index are
+ * not counted, whichever instance changed them. The count is a range on the TTL index. When games are never
+ * abandoned all games with an expiry time are counted, there is no index then and the count reads the collection.
+ * Games stored before they got an expiry time are not counted until their next save.
+ */
+@Slf4j
+public class ActiveGamesCounter implements AutoCloseable {
+
+    private final MongoOperations mongoOperations;
+    private final GameMetrics gameMetrics;
+    private final boolean abandoned;
+    private final ScheduledExecutorService counter;
+
+    /**
+     * Counts in the background, right away and then every interval
+     *
+     * @param abandoned      games still played expire once they are abandoned, {@code kalah.expiry.abandonedAfterHours}
+     *                       is not 0
+     * @param intervalMillis interval in which the games are counted
+     */
+    public ActiveGamesCounter(MongoOperations mongoOperations, GameMetrics gameMetrics, boolean abandoned,
+                              long intervalMillis) {
+        this(mongoOperations, gameMetrics, abandoned, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "active-games-counter");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("kalah.metrics.activeGamesIntervalMillis must be at least 1");
+        }
+        counter.scheduleWithFixedDelay(this::countQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Only counts when {@link #count()} is called
+     */
+    ActiveGamesCounter(MongoOperations mongoOperations, GameMetrics gameMetrics, boolean abandoned) {
+        this(mongoOperations, gameMetrics, abandoned, (ScheduledExecutorService) null);
+    }
+
+    private ActiveGamesCounter(MongoOperations mongoOperations, GameMetrics gameMetrics, boolean abandoned,
+                               ScheduledExecutorService counter) {
+        this.mongoOperations = mongoOperations;
+        this.gameMetrics = gameMetrics;
+        this.abandoned = abandoned;
+        this.counter = counter;
+    }
+
+    /**
+     * @return number of active games, also set on the gauge
+     */
+    public long count() {
+        Criteria expiresAt = Criteria.where(GameDocumentFields.EXPIRES_AT);
+        long active = mongoOperations.count(
+                Query.query(abandoned ? expiresAt.gt(new Date()) : expiresAt.exists(true)), Game.class);
+        gameMetrics.activeGamesCounted(active);
+        return active;
+    }
+
+    @Override
+    public void close() {
+        if (counter != null) {
+            counter.shutdownNow();
+        }
+    }
+
+    private void countQuietly() {
+        try {
+            count();
+        } catch (RuntimeException e) {
+            log.error("Exception while counting the active games, keeping the last count", e);
+        }
+    }
+}
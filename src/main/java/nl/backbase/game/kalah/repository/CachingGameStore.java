@@ -0,0 +1,583 @@
+package nl.backbase.game.kalah.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind {@link GameStore} in front of the {@link GameRepository}.
+ * <p>
+ * Active games are kept in a bounded, access ordered map. Saves only mark a game dirty, a background task
+ * writes all dirty games to MongoDB in one batch every flush interval. Games that finished are written at once
+ * and evicted. Idle games and games above the capacity are evicted by the flush task, but only once their
+ * latest state is in MongoDB, so a read after an eviction never sees an older state.
+ * <p>
+ * Games are held as a {@link PackedBoard} instead of a {@link Game}, so a cached game takes a few dozen bytes. Games on
+ * a board of another size than the standard one do not pack, they hold a copy of their pits.
+ * Callers always get a new game, so mutating a loaded game does not change the cache until it is saved.
+ * <p>
+ * Each cached game remembers the version stored in MongoDB, writes are compare-and-set on that version. Moves on
+ * one game are serialized by the game service, so the cache itself does not compare versions on save. When a write
+ * finds the game changed by another instance, the moves saved since the game was loaded are lost although they were
+ * answered: the conflict is counted, the cached state is dropped, the stored state is published as a correction on
+ * the {@link GameEventBus}, and the actions waiting for the write, such as appending the moves to the history, are
+ * dropped with it. The next read loads the stored game.
+ * A new game whose id is taken by another game in MongoDB is quarantined: it is logged, counted and kept out of the
+ * cache, so it does not fail every following flush.
+ * Only the calls that reach the repository are timed.
+ */
+@Slf4j
+public class CachingGameStore implements GameStore, AutoCloseable {
+
+    private final GameRepository gameRepository;
+    private final GameMetrics gameMetrics;
+    private final GameEventBus gameEventBus;
+    private final int maxGames;
+    private final long idleTimeoutMillis;
+    /**
+     * access ordered, the eldest entry is the least recently used game. Guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> games = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * new games whose id was taken by another game, at most maxGames. Guarded by games.
+     */
+    private final LinkedHashMap<String, Game> quarantined;
+    /**
+     * serializes all writes to the repository so an older state never overwrites a newer one
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    public CachingGameStore(GameRepository gameRepository, int maxGames, long idleTimeoutMillis, long flushIntervalMillis) {
+        this(gameRepository, GameMetrics.disabled(), new LocalGameEventBus(), maxGames, idleTimeoutMillis,
+                flushIntervalMillis);
+    }
+
+    public CachingGameStore(GameRepository gameRepository, GameMetrics gameMetrics, GameEventBus gameEventBus,
+                            int maxGames, long idleTimeoutMillis, long flushIntervalMillis) {
+        this.gameRepository = gameRepository;
+        this.gameMetrics = gameMetrics;
+        this.gameEventBus = gameEventBus;
+        this.maxGames = maxGames;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.quarantined = new LinkedHashMap<String, Game>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Game> eldest) {
+                return size() > maxGames;
+            }
+        };
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-store-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        synchronized (games) {
+            Entry entry = games.get(gameId);
+            if (entry != null) {
+                entry.lastAccess = System.currentTimeMillis();
+                return Optional.of(entry.toGame());
+            }
+        }
+        long start = System.nanoTime();
+        Optional<Game> loaded;
+        try {
+            loaded = gameRepository.findById(gameId);
+        } finally {
+            gameMetrics.recordFindById(start);
+        }
+        if (!loaded.isPresent()) {
+            return loaded;
+        }
+        synchronized (games) {
+            // another thread may have loaded or saved the game in the meantime, the cached state wins
+            Entry entry = games.get(gameId);
+            if (entry == null) {
+                entry = new Entry(loaded.get(), false, loaded.get().getVersion());
+                games.put(gameId, entry);
+            }
+            return Optional.of(entry.toGame());
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        return save(game, null);
+    }
+
+    /**
+     * The action runs once a flush wrote this state or a later one, and is dropped with the state when the write
+     * finds the game changed by another instance
+     */
+    @Override
+    public Game save(Game game, Runnable afterWrite) {
+        Entry entry;
+        boolean overCapacity;
+        synchronized (games) {
+            // the stored version may have moved on by a flush since the game was loaded
+            Entry cached = games.get(game.getId());
+            entry = new Entry(game, true, cached != null ? cached.version : game.getVersion());
+            if (cached != null && !cached.written) {
+                // the earlier states are written with this one
+                entry.afterWrite.addAll(cached.afterWrite);
+                cached.afterWrite.clear();
+            }
+            if (afterWrite != null) {
+                entry.afterWrite.add(afterWrite);
+            }
+            games.put(game.getId(), entry);
+            overCapacity = games.size() > maxGames;
+        }
+        if (isFinished(game.getGameStatus())) {
+            writeThrough(entry);
+        } else if (overCapacity) {
+            flusher.execute(this::flushQuietly);
+        }
+        return game;
+    }
+
+    /**
+     * New games are only marked dirty, the next flush inserts them in one batch
+     */
+    @Override
+    public List<Game> saveAll(List<Game> newGames) {
+        boolean overCapacity;
+        synchronized (games) {
+            for (Game game : newGames) {
+                games.put(game.getId(), new Entry(game, true, null));
+            }
+            overCapacity = games.size() > maxGames;
+        }
+        if (overCapacity) {
+            flusher.execute(this::flushQuietly);
+        }
+        return newGames;
+    }
+
+    /**
+     * Writes all dirty games to the repository in one batch and evicts idle games and games above the capacity.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<Entry> dirty = new ArrayList<>();
+            List<Game> batch = new ArrayList<>();
+            synchronized (games) {
+                for (Entry entry : games.values()) {
+                    if (entry.dirty) {
+                        entry.dirty = false;
+                        dirty.add(entry);
+                        batch.add(entry.toGame());
+                    }
+                }
+            }
+            if (!dirty.isEmpty()) {
+                writeBatch(dirty, batch);
+            }
+            evict();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes all dirty games and stops the background flush task.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * @return new games that could not be inserted because another game has their id, the most recent last
+     */
+    public List<Game> getQuarantined() {
+        synchronized (games) {
+            return new ArrayList<>(quarantined.values());
+        }
+    }
+
+    /**
+     * @return number of games currently held in memory
+     */
+    public int size() {
+        synchronized (games) {
+            return games.size();
+        }
+    }
+
+    private void writeThrough(Entry entry) {
+        writeLock.lock();
+        Game game = null;
+        try {
+            synchronized (games) {
+                if (games.get(entry.id) != entry) {
+                    // a newer state was saved in the meantime, it will be written instead
+                    return;
+                }
+                entry.dirty = false;
+                game = entry.toGame();
+            }
+            timedSave(game);
+            written(entry);
+            synchronized (games) {
+                games.remove(entry.id, entry);
+            }
+            log.debug("Finished game {} is written and evicted", entry.id);
+        } catch (OptimisticLockingFailureException e) {
+            conflict(entry.id, game.getVersion());
+            throw e;
+        } catch (RuntimeException e) {
+            synchronized (games) {
+                entry.dirty = true;
+            }
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * New games are inserted in one batch. Stored games are compare-and-set one by one, so a game changed by
+     * another instance only drops that game instead of failing the whole batch. A game that can not be written stays
+     * dirty for the next flush without holding up the others.
+     */
+    private void writeBatch(List<Entry> dirty, List<Game> batch) {
+        List<Entry> createdEntries = new ArrayList<>();
+        List<Game> created = new ArrayList<>();
+        List<Entry> storedEntries = new ArrayList<>();
+        List<Game> stored = new ArrayList<>();
+        for (int index = 0; index < dirty.size(); index++) {
+            if (batch.get(index).getVersion() == null) {
+                createdEntries.add(dirty.get(index));
+                created.add(batch.get(index));
+            } else {
+                storedEntries.add(dirty.get(index));
+                stored.add(batch.get(index));
+            }
+        }
+        RuntimeException failure = null;
+        if (!created.isEmpty()) {
+            try {
+                insertAll(createdEntries, created);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        for (int index = 0; index < stored.size(); index++) {
+            try {
+                writeVersioned(storedEntries.get(index), stored.get(index));
+            } catch (RuntimeException e) {
+                markDirty(storedEntries.get(index));
+                failure = failure != null ? failure : e;
+            }
+        }
+        log.debug("{} dirty games are written", dirty.size());
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * When the batch insert fails, the games are inserted one by one, so one game that can not be inserted does not
+     * keep the others out of MongoDB. A game whose id is taken by another game can never be inserted, it is
+     * quarantined instead of being retried on every flush.
+     */
+    private void insertAll(List<Entry> entries, List<Game> games) {
+        long start = System.nanoTime();
+        try {
+            List<Game> inserted = gameRepository.saveAll(games);
+            for (Game saved : inserted) {
+                updateStored(null, saved);
+            }
+            entries.forEach(this::written);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("{} new games could not be inserted in one batch, inserting them one by one", games.size(), e);
+        } finally {
+            gameMetrics.recordSaveAll(start);
+        }
+        RuntimeException failure = null;
+        for (int index = 0; index < games.size(); index++) {
+            Game game = games.get(index);
+            try {
+                insert(entries.get(index), game);
+            } catch (RuntimeException e) {
+                markDirty(entries.get(index));
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void insert(Entry entry, Game game) {
+        long start = System.nanoTime();
+        try {
+            Game inserted = gameRepository.insert(game);
+            updateStored(null, inserted);
+            written(entry);
+        } catch (DuplicateKeyException e) {
+            // the failed batch may have inserted the game before it stopped
+            Optional<Game> stored = gameRepository.findById(game.getId());
+            if (stored.isPresent() && isSameState(stored.get(), game)) {
+                updateStored(null, stored.get());
+                written(entry);
+            } else {
+                quarantine(game);
+            }
+        } finally {
+            gameMetrics.recordSave(start);
+        }
+    }
+
+    private void quarantine(Game game) {
+        log.error("GameId {} is taken by another game, quarantined the new game with moves {} and pits {}",
+                game.getId(), game.getMoveCount(), Arrays.toString(game.getPits()));
+        synchronized (games) {
+            Entry cached = games.get(game.getId());
+            if (cached != null && cached.version == null) {
+                games.remove(game.getId());
+            }
+            quarantined.put(game.getId(), game);
+        }
+        gameMetrics.gameQuarantined();
+    }
+
+    private void writeVersioned(Entry entry, Game game) {
+        Long version = game.getVersion();
+        try {
+            Game saved = timedSave(game);
+            updateStored(version, saved);
+            written(entry);
+        } catch (OptimisticLockingFailureException e) {
+            conflict(game.getId(), version);
+        }
+    }
+
+    /**
+     * Runs the actions waiting for the written state, on the thread holding the write lock, so they run in the order
+     * of the writes
+     */
+    private void written(Entry entry) {
+        List<Runnable> actions;
+        synchronized (games) {
+            entry.written = true;
+            actions = new ArrayList<>(entry.afterWrite);
+            entry.afterWrite.clear();
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.error("Exception after GameId {} was written", entry.id, e);
+            }
+        }
+    }
+
+    /**
+     * The moves saved since the game was loaded were already answered and published, but another instance changed
+     * the stored game in the meantime. The cached state and the actions waiting for its write are dropped, the
+     * conflict is counted and the stored state is published as a correction, so subscribers and the caches of other
+     * instances stop showing the moves that were lost.
+     */
+    private void conflict(String gameId, Long version) {
+        int lostActions = dropConflicting(gameId, version);
+        gameMetrics.writeConflict();
+        log.warn("GameId {} was changed by another instance, dropped the cached state and {} pending history writes",
+                gameId, lostActions);
+        try {
+            long start = System.nanoTime();
+            Optional<Game> stored;
+            try {
+                stored = gameRepository.findById(gameId);
+            } finally {
+                gameMetrics.recordFindById(start);
+            }
+            stored.ifPresent(game -> gameEventBus.publish(GameEvent.correction(game)));
+        } catch (RuntimeException e) {
+            log.error("Stored state of GameId {} could not be published after a conflict", gameId, e);
+        }
+    }
+
+    private Game timedSave(Game game) {
+        long start = System.nanoTime();
+        try {
+            return gameRepository.save(game);
+        } finally {
+            gameMetrics.recordSave(start);
+        }
+    }
+
+    /**
+     * Takes the version and the times stamped by the write. Entries saved after the game was written still carry the
+     * version the write replaced.
+     */
+    private void updateStored(Long writtenVersion, Game stored) {
+        synchronized (games) {
+            Entry entry = games.get(stored.getId());
+            if (entry != null && Objects.equals(entry.version, writtenVersion)) {
+                entry.version = stored.getVersion();
+                entry.lastActivity = stored.getLastActivity();
+                entry.expiresAt = stored.getExpiresAt();
+            }
+        }
+    }
+
+    /**
+     * @return number of dropped actions waiting for the write
+     */
+    private int dropConflicting(String gameId, Long version) {
+        synchronized (games) {
+            Entry entry = games.get(gameId);
+            if (entry != null && Objects.equals(entry.version, version)) {
+                games.remove(gameId);
+                return entry.afterWrite.size();
+            }
+            return 0;
+        }
+    }
+
+    private void markDirty(Entry entry) {
+        synchronized (games) {
+            entry.dirty = true;
+        }
+    }
+
+    private void evict() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (games) {
+            int excess = games.size() - maxGames;
+            Iterator<Map.Entry<String, Entry>> iterator = games.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next().getValue();
+                if (entry.dirty) {
+                    continue;
+                }
+                if (excess > 0) {
+                    iterator.remove();
+                    excess--;
+                } else if (entry.lastAccess <= idleSince) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Exception while writing dirty games, retrying on the next flush", e);
+        }
+    }
+
+    private static boolean isSameState(Game stored, Game game) {
+        return stored.getMoveCount() == game.getMoveCount()
+                && stored.isSecondPlayerMove() == game.isSecondPlayerMove()
+                && Arrays.equals(stored.getPits(), game.getPits());
+    }
+
+    private static boolean isFinished(GameStatus gameStatus) {
+        return GameStatus.FIRSTPLAYERWON == gameStatus
+                || GameStatus.SECONDPLAYERWON == gameStatus
+                || GameStatus.DRAW == gameStatus;
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final long low;
+        private final long high;
+        /**
+         * copy of the pits of a board that does not pack, null when the board is packed into low and high
+         */
+        private final int[] pits;
+        private final boolean isSecondPlayerMove;
+        private final GameStatus gameStatus;
+        private final long moveCount;
+        /**
+         * times of the last write, or set by the caller such as the later expiry of a pooled game, kept so a flush
+         * does not replace them with the defaults
+         */
+        private Date lastActivity;
+        private Date expiresAt;
+        private boolean dirty;
+        /**
+         * whether this state is in the repository, a dirty state stays unwritten until a flush wrote it
+         */
+        private boolean written;
+        /**
+         * run once this state or a later one is written
+         */
+        private final List<Runnable> afterWrite = new ArrayList<>(0);
+        private long lastAccess;
+        /**
+         * version stored in the repository, null until the game is written for the first time
+         */
+        private Long version;
+
+        private Entry(Game game, boolean dirty, Long version) {
+            this.id = game.getId();
+            if (BoardGeometry.ofPits(game.getPits()).isStandard()) {
+                PackedBoard board = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+                this.low = board.getLow();
+                this.high = board.getHigh();
+                this.pits = null;
+            } else {
+                this.low = 0L;
+                this.high = 0L;
+                this.pits = game.getPits().clone();
+            }
+            this.isSecondPlayerMove = game.isSecondPlayerMove();
+            this.gameStatus = game.getGameStatus();
+            this.moveCount = game.getMoveCount();
+            this.lastActivity = game.getLastActivity();
+            this.expiresAt = game.getExpiresAt();
+            this.dirty = dirty;
+            this.written = !dirty;
+            this.lastAccess = System.currentTimeMillis();
+            this.version = version;
+        }
+
+        private Game toGame() {
+            return Game.builder()
+                    .id(id)
+                    .pits(pits != null ? pits.clone() : PackedBoard.of(low, high).toPits())
+                    .isSecondPlayerMove(isSecondPlayerMove)
+                    .gameStatus(gameStatus)
+                    .moveCount(moveCount)
+                    .version(version)
+                    .lastActivity(lastActivity)
+                    .expiresAt(expiresAt)
+                    .build();
+        }
+    }
+}
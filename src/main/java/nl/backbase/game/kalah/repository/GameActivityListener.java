@@ -0,0 +1,44 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.Date;
+
+/**
+ * Stamps the last activity on every game written to MongoDB, by any store and in both encodings.
+ * <p>
+ * Games that are still played also get the time they count as abandoned, a TTL index on it deletes the games nobody
+ * saved for {@code abandonedAfterMillis}. Finished games have no expiry time, which is how the {@link GameArchiver}
+ * finds them in both encodings. A later expiry time set by the caller is kept, games stored for the game pool expire
+ * after the time they may wait in the pool and the abandon time.
+ */
+public class GameActivityListener extends AbstractMongoEventListener<Game> {
+
+    private final long abandonedAfterMillis;
+
+    /**
+     * @param abandonedAfterMillis time after which a game that is still played is abandoned
+     */
+    public GameActivityListener(long abandonedAfterMillis) {
+        if (abandonedAfterMillis < 0) {
+            throw new IllegalArgumentException("kalah.expiry.abandonedAfterHours must not be negative");
+        }
+        this.abandonedAfterMillis = abandonedAfterMillis;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Game> event) {
+        Game game = event.getSource();
+        long now = System.currentTimeMillis();
+        game.setLastActivity(new Date(now));
+        boolean active = GameStatus.CREATED == game.getGameStatus() || GameStatus.IN_PROGRESS == game.getGameStatus();
+        if (!active) {
+            game.setExpiresAt(null);
+        } else if (game.getExpiresAt() == null || game.getExpiresAt().getTime() < now + abandonedAfterMillis) {
+            game.setExpiresAt(new Date(now + abandonedAfterMillis));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package nl.backbase.game.kalah.repository;
+
+import com.mongodb.MongoCommandException;
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished games out of the game collection into {@value #COLLECTION}, in batches.
+ * <p>
+ * A game is archived once it is finished for {@code finishedAfterMillis}, so clients still get its final state for a
+ * while. An archived game is a document of its id, its {@link PackedBoard}, its move count and the time it finished,
+ * in a collection created with block compression. A batch is first upserted into the archive and then deleted from
+ * the games, so a batch interrupted in between is archived again by the next run. Several instances may archive at
+ * the same time, they write the same documents. A game on a board of another size than the standard one is archived
+ * with its pits and status instead of the packed board.
+ * <p>
+ * Finished games are found by their missing expiry time, or with {@code compact} by the status written by the
+ * {@link CompactGameWritingConverter} and the index on status and last activity.
+ */
+@Slf4j
+public class GameArchiver implements AutoCloseable {
+
+    public static final String COLLECTION = "gameArchive";
+
+    private static final String BOARD = "board";
+    private static final String MOVE_COUNT = "moveCount";
+    private static final String FINISHED_AT = "finishedAt";
+    /**
+     * error code of creating a collection that exists already
+     */
+    private static final int NAMESPACE_EXISTS = 48;
+    private static final List<Integer> FINISHED_STATUSES = Arrays.asList(GameStatus.FIRSTPLAYERWON.ordinal(),
+            GameStatus.SECONDPLAYERWON.ordinal(), GameStatus.DRAW.ordinal());
+
+    private final MongoOperations mongoOperations;
+    private final GameMetrics gameMetrics;
+    private final long finishedAfterMillis;
+    private final int batchSize;
+    private final boolean compact;
+    private final ScheduledExecutorService archiver;
+
+    /**
+     * Archives in the background, every interval until no finished game is left
+     *
+     * @param finishedAfterMillis time a finished game stays in the game collection
+     * @param batchSize           most games moved in one batch
+     * @param compact             games are written in the compact format, finished games are found by status
+     * @param intervalMillis      interval in which the archiver runs
+     */
+    public GameArchiver(MongoOperations mongoOperations, GameMetrics gameMetrics, long finishedAfterMillis,
+                        int batchSize, boolean compact, long intervalMillis) {
+        this(mongoOperations, gameMetrics, finishedAfterMillis, batchSize, compact,
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "game-archiver");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+        archiver.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Only archives when {@link #archive()} is called
+     */
+    GameArchiver(MongoOperations mongoOperations, GameMetrics gameMetrics, long finishedAfterMillis, int batchSize,
+                 boolean compact) {
+        this(mongoOperations, gameMetrics, finishedAfterMillis, batchSize, compact, null);
+    }
+
+    private GameArchiver(MongoOperations mongoOperations, GameMetrics gameMetrics, long finishedAfterMillis,
+                         int batchSize, boolean compact, ScheduledExecutorService archiver) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("kalah.archive.batchSize must be at least 1");
+        }
+        this.mongoOperations = mongoOperations;
+        this.gameMetrics = gameMetrics;
+        this.finishedAfterMillis = finishedAfterMillis;
+        this.batchSize = batchSize;
+        this.compact = compact;
+        this.archiver = archiver;
+    }
+
+    /**
+     * Creates the archive collection with the block compressor, unless it exists already
+     *
+     * @param compressor block compressor of WiredTiger, e.g. {@code zlib} or {@code zstd}
+     */
+    public void createCollection(String compressor) {
+        if (mongoOperations.collectionExists(COLLECTION)) {
+            return;
+        }
+        try {
+            mongoOperations.executeCommand(new Document("create", COLLECTION)
+                    .append("storageEngine", new Document("wiredTiger",
+                            new Document("configString", "block_compressor=" + compressor))));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Archives batches until fewer games than a batch are left
+     *
+     * @return number of archived games
+     */
+    public int archive() {
+        int archived = 0;
+        for (int batch = archiveBatch(); batch > 0; batch = archiveBatch()) {
+            archived += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    @Override
+    public void close() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of archived games
+     */
+    private int archiveBatch() {
+        Date finishedBefore = new Date(System.currentTimeMillis() - finishedAfterMillis);
+        // only finished games have no expiry time, the status is checked again to be sure
+        Criteria finished = compact
+                ? Criteria.where(GameDocumentFields.COMPACT_STATUS).in(FINISHED_STATUSES)
+                : Criteria.where(GameDocumentFields.EXPIRES_AT).exists(false);
+        List<Game> games = mongoOperations.find(Query.query(finished
+                .and(GameDocumentFields.LAST_ACTIVITY).lt(finishedBefore)).limit(batchSize), Game.class);
+        if (games.isEmpty()) {
+            return 0;
+        }
+        List<String> gameIds = new ArrayList<>(games.size());
+        BulkOperations archive = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        for (Game game : games) {
+            if (isFinished(game.getGameStatus())) {
+                gameIds.add(game.getId());
+                archive.replaceOne(Query.query(Criteria.where(GameDocumentFields.ID).is(game.getId())),
+                        toArchived(game), FindAndReplaceOptions.options().upsert());
+            }
+        }
+        if (gameIds.isEmpty()) {
+            return 0;
+        }
+        archive.execute();
+        mongoOperations.remove(Query.query(Criteria.where(GameDocumentFields.ID).in(gameIds)
+                .and(GameDocumentFields.EXPIRES_AT).exists(false)), Game.class);
+        gameMetrics.gamesArchived(gameIds.size());
+        log.debug("{} finished games are archived", gameIds.size());
+        return gameIds.size();
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("Exception while archiving finished games, retrying on the next run", e);
+        }
+    }
+
+    private static Document toArchived(Game game) {
+        Document archived = new Document(GameDocumentFields.ID, game.getId());
+        if (BoardGeometry.ofPits(game.getPits()).isStandard()) {
+            PackedBoard board = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+            archived.append(BOARD, Arrays.asList(board.getLow(), board.getHigh()));
+        } else {
+            List<Integer> pits = new ArrayList<>(game.getPits().length);
+            for (int stones : game.getPits()) {
+                pits.add(stones);
+            }
+            archived.append(GameDocumentFields.PITS, pits)
+                    .append(GameDocumentFields.GAME_STATUS, game.getGameStatus().name());
+        }
+        return archived
+                .append(MOVE_COUNT, game.getMoveCount())
+                .append(FINISHED_AT, game.getLastActivity());
+    }
+
+    private static boolean isFinished(GameStatus gameStatus) {
+        return GameStatus.FIRSTPLAYERWON == gameStatus
+                || GameStatus.SECONDPLAYERWON == gameStatus
+                || GameStatus.DRAW == gameStatus;
+    }
+}
@@ -0,0 +1,284 @@
+package nl.backbase.game.kalah.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the finished games of the game collection or the archive to a file of fixed width records.
+ * <p>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: {@link #MAGIC}, {@link #FORMAT_VERSION} and
+ * {@value #RECORD_SIZE}, the size of a record, as int32. Every record is the stones of pit 1 to 14 as unsigned bytes
+ * followed by the ordinal of the {@link GameStatus}. Games on boards of other sizes are skipped. With gzip the file is
+ * a series of gzip members, which {@link java.util.zip.GZIPInputStream} reads as one stream.
+ * <p>
+ * The games are read with a cursor in the order of their ids, {@code batchSize} documents per round trip and only
+ * the fields of the board, so the export runs in constant memory however many games there are. After every batch the
+ * file is forced to disk and the id of the last game read and the length of the file are written to a checkpoint next
+ * to the file. An export that is started again resumes from the checkpoint: the file is cut back to the checkpointed
+ * length and the games after the checkpointed id are exported. The checkpoint is deleted once the export completes.
+ * <p>
+ * Usage: {@code GameExporter <mongoUri> <database> <file> [games|archive] [gzip] [batchSize]}. Add
+ * {@code readPreference=secondaryPreferred} to the URI to read from the secondaries instead of the primary.
+ */
+@Slf4j
+public class GameExporter {
+
+    public static final int MAGIC = 0x4B474558;
+    public static final int FORMAT_VERSION = 1;
+    public static final int RECORD_SIZE = PackedBoard.NUMBER_OF_PITS + 1;
+    public static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final String LAST_ID = "lastId";
+    private static final String OFFSET = "offset";
+    private static final String EXPORTED = "exported";
+    private static final String GZIP = "gzip";
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private final MongoOperations mongoOperations;
+    private final String collectionName;
+    private final int batchSize;
+    private final int[] pits = new int[PackedBoard.NUMBER_OF_PITS];
+
+    /**
+     * @param collectionName collection of the games, the game collection or {@link GameArchiver#COLLECTION}
+     * @param batchSize      documents read per round trip and records written between checkpoints
+     */
+    public GameExporter(MongoOperations mongoOperations, String collectionName, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: GameExporter <mongoUri> <database> <file> [games|archive] [gzip] [batchSize]");
+            System.exit(1);
+        }
+        boolean archive = args.length > 3 && "archive".equals(args[3]);
+        boolean gzip = args.length > 4 && Boolean.parseBoolean(args[4]);
+        int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_BATCH_SIZE;
+        try (MongoClient mongoClient = MongoClients.create(args[0])) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, args[1]);
+            String collectionName = archive ? GameArchiver.COLLECTION : mongoTemplate.getCollectionName(Game.class);
+            long exported = new GameExporter(mongoTemplate, collectionName, batchSize).export(Paths.get(args[2]), gzip);
+            System.out.println("Exported " + exported + " finished games of " + collectionName + " to " + args[2]);
+        }
+    }
+
+    /**
+     * @param file file to write, resumed when its checkpoint exists and replaced otherwise
+     * @return number of games in the file
+     * @throws IOException              when the file or the checkpoint can not be written
+     * @throws IllegalArgumentException when the checkpoint was written with another compression
+     */
+    public long export(Path file, boolean gzip) throws IOException {
+        Path checkpointFile = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+        Properties checkpoint = readCheckpoint(checkpointFile);
+        ByteBuffer records = ByteBuffer.allocate(Math.max(HEADER_SIZE, batchSize * RECORD_SIZE));
+        String lastId;
+        long exported;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (checkpoint == null) {
+                channel.truncate(0);
+                records.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(RECORD_SIZE);
+                lastId = null;
+                exported = 0;
+                writeBatch(channel, records, gzip, checkpointFile, null, 0);
+            } else {
+                if (Boolean.parseBoolean(checkpoint.getProperty(GZIP)) != gzip) {
+                    throw new IllegalArgumentException("The export of " + file + " was started " + (gzip ? "without" : "with") + " gzip");
+                }
+                long offset = Long.parseLong(checkpoint.getProperty(OFFSET));
+                channel.truncate(offset);
+                channel.position(offset);
+                lastId = checkpoint.getProperty(LAST_ID);
+                exported = Long.parseLong(checkpoint.getProperty(EXPORTED));
+                log.info("Resuming the export to {} after game {} with {} games exported", file, lastId, exported);
+            }
+
+            try (CloseableIterator<Document> games = mongoOperations.stream(queryAfter(lastId), Document.class, collectionName)) {
+                int read = 0;
+                while (games.hasNext()) {
+                    Document game = games.next();
+                    lastId = game.getString(GameDocumentFields.ID);
+                    if (append(game, records)) {
+                        exported++;
+                    }
+                    if (++read == batchSize) {
+                        writeBatch(channel, records, gzip, checkpointFile, lastId, exported);
+                        read = 0;
+                    }
+                }
+                if (read > 0) {
+                    writeBatch(channel, records, gzip, checkpointFile, lastId, exported);
+                }
+            }
+        }
+        Files.deleteIfExists(checkpointFile);
+        return exported;
+    }
+
+    /**
+     * Finished games have no expiry time, the status is checked on every game read
+     */
+    private Query queryAfter(String lastId) {
+        Criteria criteria = Criteria.where(GameDocumentFields.EXPIRES_AT).exists(false);
+        if (lastId != null) {
+            criteria = criteria.and(GameDocumentFields.ID).gt(lastId);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(GameDocumentFields.ID))
+                .cursorBatchSize(batchSize);
+        query.fields()
+                .include(GameDocumentFields.COMPACT_BOARD)
+                .include(GameDocumentFields.COMPACT_STATUS)
+                .include(GameDocumentFields.PACKED_BOARD)
+                .include(GameDocumentFields.PITS)
+                .include(GameDocumentFields.GAME_STATUS);
+        return query;
+    }
+
+    /**
+     * @return true when the game is finished and on the standard board and was added to the records
+     */
+    private boolean append(Document game, ByteBuffer records) {
+        GameStatus gameStatus;
+        byte[] compactBoard = CompactGameWritingConverter.getBoard(game);
+        List<?> packedBoard = game.get(GameDocumentFields.PACKED_BOARD, List.class);
+        if (compactBoard != null) {
+            Integer status = game.getInteger(GameDocumentFields.COMPACT_STATUS);
+            if (compactBoard.length != PackedBoard.NUMBER_OF_PITS + 1 || status == null) {
+                return false;
+            }
+            for (int index = 0; index < pits.length; index++) {
+                pits[index] = compactBoard[index] & 0xFF;
+            }
+            gameStatus = STATUSES[status];
+        } else if (packedBoard != null) {
+            PackedBoard board = PackedBoard.of(((Number) packedBoard.get(0)).longValue(), ((Number) packedBoard.get(1)).longValue());
+            board.copyPitsTo(pits);
+            gameStatus = board.getGameStatus();
+        } else {
+            List<?> values = game.get(GameDocumentFields.PITS, List.class);
+            String status = game.getString(GameDocumentFields.GAME_STATUS);
+            if (values == null || values.size() != PackedBoard.NUMBER_OF_PITS || status == null) {
+                return false;
+            }
+            for (int index = 0; index < pits.length; index++) {
+                pits[index] = ((Number) values.get(index)).intValue();
+            }
+            gameStatus = GameStatus.valueOf(status);
+        }
+        if (!isFinished(gameStatus)) {
+            return false;
+        }
+        for (int stones : pits) {
+            records.put((byte) stones);
+        }
+        records.put((byte) gameStatus.ordinal());
+        return true;
+    }
+
+    /**
+     * Writes the records, forces them to disk and checkpoints the export after them
+     */
+    private void writeBatch(FileChannel channel, ByteBuffer records, boolean gzip, Path checkpointFile,
+                            String lastId, long exported) throws IOException {
+        records.flip();
+        if (records.hasRemaining()) {
+            if (gzip) {
+                GzipMember member = new GzipMember(Channels.newOutputStream(channel));
+                member.write(records.array(), records.arrayOffset() + records.position(), records.remaining());
+                member.finishMember();
+            } else {
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+            }
+            channel.force(false);
+        }
+        records.clear();
+
+        Properties checkpoint = new Properties();
+        if (lastId != null) {
+            checkpoint.setProperty(LAST_ID, lastId);
+        }
+        checkpoint.setProperty(OFFSET, Long.toString(channel.position()));
+        checkpoint.setProperty(EXPORTED, Long.toString(exported));
+        checkpoint.setProperty(GZIP, Boolean.toString(gzip));
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Properties readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+
+    private static boolean isFinished(GameStatus gameStatus) {
+        return GameStatus.FIRSTPLAYERWON == gameStatus
+                || GameStatus.SECONDPLAYERWON == gameStatus
+                || GameStatus.DRAW == gameStatus;
+    }
+
+    /**
+     * One gzip member of a batch. Finishing it releases its deflater without closing the channel it writes to.
+     */
+    private static final class GzipMember extends GZIPOutputStream {
+
+        private GzipMember(OutputStream out) throws IOException {
+            super(out, 1 << 16);
+        }
+
+        private void finishMember() throws IOException {
+            try {
+                finish();
+                flush();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package nl.backbase.game.kalah.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import nl.backbase.game.kalah.repository.converter.GameReadingConverter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rewrites the games stored with the default mapping or the packed board in the compact format, in batches.
+ * <p>
+ * The games are read with the {@link GameReadingConverter}, which reads every format, and replaced by the document of
+ * the {@link CompactGameWritingConverter} as long as they still have the version that was read. A game saved in the
+ * meantime keeps what was saved, which is written in the compact format as well. The version and the activity times
+ * are kept, so the migration does not make moves fail on the optimistic locking.
+ */
+@Slf4j
+public class GameFormatMigration implements AutoCloseable {
+
+    private final MongoOperations mongoOperations;
+    private final CompactGameWritingConverter converter = new CompactGameWritingConverter();
+    private final int batchSize;
+    private ExecutorService migration;
+
+    /**
+     * @param batchSize most games rewritten in one bulk write
+     */
+    public GameFormatMigration(MongoOperations mongoOperations, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("kalah.mongo.migrationBatchSize must be at least 1");
+        }
+        this.mongoOperations = mongoOperations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Migrates once in the background
+     */
+    public synchronized void start() {
+        if (migration == null) {
+            migration = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-format-migration");
+                thread.setDaemon(true);
+                return thread;
+            });
+            migration.execute(this::migrateQuietly);
+        }
+    }
+
+    /**
+     * Migrates the games batch by batch in the order of their ids, so every batch continues where the last one ended
+     *
+     * @return number of rewritten games
+     */
+    public long migrate() {
+        long migrated = 0;
+        String lastId = null;
+        while (true) {
+            Criteria criteria = Criteria.where(GameDocumentFields.COMPACT_BOARD).exists(false);
+            if (lastId != null) {
+                criteria = criteria.and(GameDocumentFields.ID).gt(lastId);
+            }
+            List<Game> games = mongoOperations.find(Query.query(criteria)
+                    .with(Sort.by(GameDocumentFields.ID))
+                    .limit(batchSize), Game.class);
+            if (games.isEmpty()) {
+                return migrated;
+            }
+            BulkOperations replacements = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Game.class);
+            for (Game game : games) {
+                replacements.replaceOne(Query.query(Criteria.where(GameDocumentFields.ID).is(game.getId())
+                        .and(GameDocumentFields.VERSION).is(game.getVersion())), converter.convert(game));
+            }
+            int replaced = replacements.execute().getModifiedCount();
+            migrated += replaced;
+            log.debug("{} games are rewritten in the compact format", replaced);
+            if (games.size() < batchSize) {
+                return migrated;
+            }
+            lastId = games.get(games.size() - 1).getId();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (migration != null) {
+            migration.shutdownNow();
+        }
+    }
+
+    private void migrateQuietly() {
+        try {
+            log.info("{} games are rewritten in the compact format", migrate());
+        } catch (RuntimeException e) {
+            log.error("Exception while rewriting games in the compact format, retrying on the next start", e);
+        }
+    }
+}
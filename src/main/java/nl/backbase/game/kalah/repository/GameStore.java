@@ -0,0 +1,54 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.Game;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage used by the game service to load and persist games.
+ * Implementations may go straight to MongoDB or keep hot games in memory.
+ */
+public interface GameStore {
+
+    /**
+     * function to load a game by its unique id
+     *
+     * @param gameId unique identifier of a game
+     * @return the game, empty when the game is not known
+     */
+    Optional<Game> findById(String gameId);
+
+    /**
+     * function to persist the current state of a game
+     *
+     * @param game game to persist
+     * @return the persisted game
+     */
+    Game save(Game game);
+
+    /**
+     * function to persist the current state of a game and act once it is written. Stores that write later run the
+     * action after the write, and never when the state is dropped before it is written.
+     *
+     * @param game       game to persist
+     * @param afterWrite action run once the state is in MongoDB
+     * @return the persisted game
+     */
+    default Game save(Game game, Runnable afterWrite) {
+        Game saved = save(game);
+        afterWrite.run();
+        return saved;
+    }
+
+    /**
+     * function to persist new games in one batch
+     *
+     * @param games games which are not stored yet
+     * @return the persisted games
+     */
+    default List<Game> saveAll(List<Game> games) {
+        games.forEach(this::save);
+        return games;
+    }
+}
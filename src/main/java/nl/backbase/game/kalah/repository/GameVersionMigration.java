@@ -0,0 +1,131 @@
+package nl.backbase.game.kalah.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.repository.converter.GameDocumentFields;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Games stored before they were versioned have no version field. Such a game is read with version 0, but its next
+ * save would not find it by that version, so they get version 0 in the background, in batches.
+ * <p>
+ * The games are visited in the order of their ids, so every batch continues where the last one ended on the id index.
+ * Once all games have a version a marker document is stored in {@value #COLLECTION}, later starts only read the marker.
+ * Instances starting at the same time may migrate the same games, they write the same version.
+ */
+@Slf4j
+public class GameVersionMigration implements AutoCloseable {
+
+    public static final String COLLECTION = "migration";
+    static final String MARKER_ID = "gameVersion";
+
+    private final MongoOperations mongoOperations;
+    private final int batchSize;
+    /**
+     * completed when the migration ended, also when it failed
+     */
+    private final CompletableFuture<Void> migrated = new CompletableFuture<>();
+    private ExecutorService migration;
+
+    /**
+     * @param batchSize most games updated in one write
+     */
+    public GameVersionMigration(MongoOperations mongoOperations, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("kalah.mongo.migrationBatchSize must be at least 1");
+        }
+        this.mongoOperations = mongoOperations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Migrates once in the background
+     */
+    public synchronized void start() {
+        if (migration == null) {
+            migration = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-version-migration");
+                thread.setDaemon(true);
+                return thread;
+            });
+            migration.execute(this::migrateQuietly);
+        }
+    }
+
+    /**
+     * @param action run once the migration ended, right away when it ended already
+     */
+    public void whenMigrated(Runnable action) {
+        migrated.thenRun(action);
+    }
+
+    /**
+     * Sets version 0 on the games without version batch by batch, unless the marker says it was done before
+     *
+     * @return number of updated games
+     */
+    public long migrate() {
+        if (mongoOperations.findById(MARKER_ID, Document.class, COLLECTION) != null) {
+            return 0;
+        }
+        String collection = mongoOperations.getCollectionName(Game.class);
+        long updated = 0;
+        String lastId = null;
+        while (true) {
+            Criteria criteria = Criteria.where(GameDocumentFields.VERSION).exists(false);
+            if (lastId != null) {
+                criteria = criteria.and(GameDocumentFields.ID).gt(lastId);
+            }
+            Query query = Query.query(criteria).with(Sort.by(GameDocumentFields.ID)).limit(batchSize);
+            query.fields().include(GameDocumentFields.ID);
+            List<Document> games = mongoOperations.find(query, Document.class, collection);
+            if (!games.isEmpty()) {
+                List<Object> ids = new ArrayList<>(games.size());
+                for (Document game : games) {
+                    ids.add(game.get(GameDocumentFields.ID));
+                }
+                updated += mongoOperations.updateMulti(
+                        Query.query(Criteria.where(GameDocumentFields.ID).in(ids).and(GameDocumentFields.VERSION).exists(false)),
+                        Update.update(GameDocumentFields.VERSION, 0L), collection).getModifiedCount();
+            }
+            if (games.size() < batchSize) {
+                mongoOperations.save(new Document(GameDocumentFields.ID, MARKER_ID).append("completedAt", new Date()),
+                        COLLECTION);
+                return updated;
+            }
+            lastId = String.valueOf(games.get(games.size() - 1).get(GameDocumentFields.ID));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (migration != null) {
+            migration.shutdownNow();
+        }
+    }
+
+    private void migrateQuietly() {
+        try {
+            long updated = migrate();
+            if (updated > 0) {
+                log.info("{} games without version are set to version 0", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Exception while setting the version of games without one, retrying on the next start", e);
+        } finally {
+            migrated.complete(null);
+        }
+    }
+}
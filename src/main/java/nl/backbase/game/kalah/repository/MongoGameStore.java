@@ -0,0 +1,58 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link GameStore} which reads and writes every game directly through the {@link GameRepository}, timing every call
+ */
+public class MongoGameStore implements GameStore {
+
+    private final GameRepository gameRepository;
+    private final GameMetrics gameMetrics;
+
+    public MongoGameStore(GameRepository gameRepository) {
+        this(gameRepository, GameMetrics.disabled());
+    }
+
+    public MongoGameStore(GameRepository gameRepository, GameMetrics gameMetrics) {
+        this.gameRepository = gameRepository;
+        this.gameMetrics = gameMetrics;
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        long start = System.nanoTime();
+        try {
+            return gameRepository.findById(gameId);
+        } finally {
+            gameMetrics.recordFindById(start);
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        long start = System.nanoTime();
+        try {
+            return gameRepository.save(game);
+        } finally {
+            gameMetrics.recordSave(start);
+        }
+    }
+
+    /**
+     * New games are inserted in one bulk write, without checking whether they exist already
+     */
+    @Override
+    public List<Game> saveAll(List<Game> games) {
+        long start = System.nanoTime();
+        try {
+            return gameRepository.insert(games);
+        } finally {
+            gameMetrics.recordSaveAll(start);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.GameMove;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link MoveLog} with one MongoDB document per segment: {@code {_id: "<gameId>:<segment>", gameId, segment,
+ * snapshot: [low, high], moves: [int64]}}. A move is appended with a {@code $push} of a few bytes instead of
+ * rewriting the game. The pushed moves are kept sorted, so moves appended out of order by different instances
+ * still end up in the order they were played.
+ */
+public class MongoMoveLog implements MoveLog {
+
+    public static final String COLLECTION = "gameHistory";
+
+    private static final String ID = "_id";
+    private static final String GAME_ID = "gameId";
+    private static final String SEGMENT = "segment";
+    private static final String SNAPSHOT = "snapshot";
+    private static final String MOVES = "moves";
+
+    private final MongoOperations mongoOperations;
+    private final int snapshotInterval;
+
+    public MongoMoveLog(MongoOperations mongoOperations, int snapshotInterval) {
+        if (snapshotInterval < 1 || snapshotInterval > MoveLogSegment.MAX_SNAPSHOT_INTERVAL) {
+            throw new IllegalArgumentException("kalah.history.snapshotInterval must be between 1 and " + MoveLogSegment.MAX_SNAPSHOT_INTERVAL);
+        }
+        this.mongoOperations = mongoOperations;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void append(String gameId, long boardBeforeLow, long boardBeforeHigh, List<GameMove> moves) {
+        Map<Long, Update> updates = new LinkedHashMap<>();
+        Map<Long, List<Long>> encoded = new LinkedHashMap<>();
+        long beforeLow = boardBeforeLow;
+        long beforeHigh = boardBeforeHigh;
+        for (GameMove move : moves) {
+            long segment = (move.getMoveNumber() - 1) / snapshotInterval;
+            int offset = (int) ((move.getMoveNumber() - 1) % snapshotInterval);
+            Update update = updates.computeIfAbsent(segment, key -> new Update()
+                    .setOnInsert(GAME_ID, gameId)
+                    .setOnInsert(SEGMENT, key));
+            if (offset == 0) {
+                update.set(SNAPSHOT, Arrays.asList(beforeLow, beforeHigh));
+            }
+            encoded.computeIfAbsent(segment, key -> new ArrayList<>()).add(MoveLogSegment.encode(offset, move));
+            beforeLow = move.getBoardLow();
+            beforeHigh = move.getBoardHigh();
+        }
+        updates.forEach((segment, update) -> {
+            update.push(MOVES).sort(Sort.Direction.ASC).each(encoded.get(segment).toArray());
+            mongoOperations.upsert(byId(gameId, segment), update, COLLECTION);
+        });
+    }
+
+    @Override
+    public Optional<MoveLogSegment> findSegment(String gameId, long segment) {
+        Document document = mongoOperations.findOne(byId(gameId, segment), Document.class, COLLECTION);
+        if (document == null) {
+            return Optional.empty();
+        }
+        List<?> snapshot = document.get(SNAPSHOT, List.class);
+        List<?> moves = document.get(MOVES, List.class);
+        long[] values = new long[moves == null ? 0 : moves.size()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = ((Number) moves.get(index)).longValue();
+        }
+        if (snapshot == null) {
+            return Optional.of(new MoveLogSegment(false, 0L, 0L, values));
+        }
+        return Optional.of(new MoveLogSegment(true,
+                ((Number) snapshot.get(0)).longValue(), ((Number) snapshot.get(1)).longValue(), values));
+    }
+
+    @Override
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    private static Query byId(String gameId, long segment) {
+        return Query.query(Criteria.where(ID).is(gameId + ":" + segment));
+    }
+}
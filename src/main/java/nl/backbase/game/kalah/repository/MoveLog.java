@@ -0,0 +1,36 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.GameMove;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only history of the moves of each game.
+ * <p>
+ * The moves of a game are grouped in segments of {@link #getSnapshotInterval()} moves, segment {@code n} holds moves
+ * {@code n * interval + 1} to {@code (n + 1) * interval} and a snapshot of the board before its first move. A position
+ * is rebuilt from the snapshot of its segment, so a replay applies fewer moves than the interval.
+ */
+public interface MoveLog {
+
+    /**
+     * @param gameId          id of the game
+     * @param boardBeforeLow  lower half of the packed board before the first of the moves
+     * @param boardBeforeHigh upper half of the packed board before the first of the moves
+     * @param moves           moves in the order they were applied
+     */
+    void append(String gameId, long boardBeforeLow, long boardBeforeHigh, List<GameMove> moves);
+
+    /**
+     * @param gameId  id of the game
+     * @param segment number of the segment, 0 for the first moves
+     * @return the segment, empty when none of its moves is recorded
+     */
+    Optional<MoveLogSegment> findSegment(String gameId, long segment);
+
+    /**
+     * @return number of moves per segment
+     */
+    int getSnapshotInterval();
+}
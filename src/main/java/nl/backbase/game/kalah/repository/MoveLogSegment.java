@@ -0,0 +1,103 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.engine.PackedBoard;
+
+import java.util.Arrays;
+
+/**
+ * Recorded moves of one segment of a game's history.
+ * <p>
+ * A move is stored as one int64: bits 0 to 31 hold the {@link PackedBoard#fingerprint()} of the board after the move,
+ * bits 32 to 39 the pit, bit 40 is set for a move of the second player and bits 48 to 62 hold the offset of the move
+ * in its segment. The offset is the most significant part, so sorting the values orders the moves.
+ */
+public final class MoveLogSegment {
+
+    /**
+     * the offset has 15 bits
+     */
+    public static final int MAX_SNAPSHOT_INTERVAL = 1 << 15;
+
+    private static final int PIT_SHIFT = 32;
+    private static final int SECOND_PLAYER_BIT = 40;
+    private static final int OFFSET_SHIFT = 48;
+
+    private final boolean hasSnapshot;
+    private final long snapshotLow;
+    private final long snapshotHigh;
+    private final long[] moves;
+
+    /**
+     * @param hasSnapshot  false when the first move of the segment is not recorded
+     * @param snapshotLow  lower half of the packed board before the first move of the segment
+     * @param snapshotHigh upper half of the packed board before the first move of the segment
+     * @param moves        encoded moves sorted by their offset, only the moves up to the first gap are kept
+     */
+    public MoveLogSegment(boolean hasSnapshot, long snapshotLow, long snapshotHigh, long[] moves) {
+        this.hasSnapshot = hasSnapshot;
+        this.snapshotLow = snapshotLow;
+        this.snapshotHigh = snapshotHigh;
+        int size = 0;
+        while (size < moves.length && offsetOf(moves[size]) == size) {
+            size++;
+        }
+        this.moves = size == moves.length ? moves : Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @param offset offset of the move in its segment
+     * @param move   move to encode
+     * @return move as stored in the segment
+     */
+    public static long encode(int offset, GameMove move) {
+        int fingerprint = PackedBoard.of(move.getBoardLow(), move.getBoardHigh()).fingerprint();
+        return (long) offset << OFFSET_SHIFT
+                | (move.isSecondPlayer() ? 1L << SECOND_PLAYER_BIT : 0L)
+                | (long) (move.getPitId() & 0xFF) << PIT_SHIFT
+                | (fingerprint & 0xFFFF_FFFFL);
+    }
+
+    public static int offsetOf(long move) {
+        return (int) (move >>> OFFSET_SHIFT);
+    }
+
+    public static int pitIdOf(long move) {
+        return (int) (move >>> PIT_SHIFT) & 0xFF;
+    }
+
+    public static boolean isSecondPlayer(long move) {
+        return (move & 1L << SECOND_PLAYER_BIT) != 0;
+    }
+
+    public static int fingerprintOf(long move) {
+        return (int) move;
+    }
+
+    public boolean hasSnapshot() {
+        return hasSnapshot;
+    }
+
+    public long getSnapshotLow() {
+        return snapshotLow;
+    }
+
+    public long getSnapshotHigh() {
+        return snapshotHigh;
+    }
+
+    /**
+     * @return number of moves recorded without a gap from the start of the segment
+     */
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * @param offset offset of the move in the segment, below {@link #size()}
+     * @return the encoded move
+     */
+    public long getMove(int offset) {
+        return moves[offset];
+    }
+}
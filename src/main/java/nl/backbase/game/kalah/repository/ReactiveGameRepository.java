@@ -0,0 +1,8 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.Game;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveGameRepository extends ReactiveMongoRepository<Game, String> {
+
+}
@@ -0,0 +1,205 @@
+package nl.backbase.game.kalah.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of another {@link GameStore}, so a game saved or loaded by this instance is read again
+ * without a round trip to MongoDB.
+ * <p>
+ * Every game saved, created or loaded is kept as a copy in a bounded, access ordered map, the least recently used
+ * games beyond the capacity are evicted. Writes always go to the wrapped store, and a game is only cached once its
+ * save succeeded, so a read after a move on this instance sees that move. A save that fails drops the game, the next
+ * read loads the stored game, which lets a move that lost the compare-and-set on the version retry on the latest state.
+ * <p>
+ * Games changed by other instances are invalidated through the {@link GameEventBus}: an event with a higher move count
+ * than the cached game drops it, the events of the saves of this instance carry the cached move count and keep it.
+ * A correction always drops it. A load that overlaps an invalidation of its game is not cached, loads of other games
+ * are not affected. The cache is only correct when the bus reaches every instance changing the games, so it requires
+ * such a bus. Callers always get a new game, so mutating a loaded game does not change the cache until it is saved.
+ */
+@Slf4j
+public class ReadThroughGameStore implements GameStore {
+
+    private final GameStore gameStore;
+    private final GameMetrics gameMetrics;
+    /**
+     * access ordered, the eldest entry is the least recently used game. Guarded by itself.
+     */
+    private final LinkedHashMap<String, Game> games;
+    /**
+     * loads in flight by game id, an invalidation of the game marks its load and removes it, later loads of the game
+     * start a new one. Guarded by games.
+     */
+    private final HashMap<String, Load> loads = new HashMap<>();
+
+    public ReadThroughGameStore(GameStore gameStore, GameEventBus gameEventBus, int maxGames) {
+        this(gameStore, gameEventBus, GameMetrics.disabled(), maxGames);
+    }
+
+    public ReadThroughGameStore(GameStore gameStore, GameEventBus gameEventBus, GameMetrics gameMetrics, int maxGames) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("kalah.store.cache.maxGames must be at least 1");
+        }
+        if (!gameEventBus.reachesAllInstances()) {
+            throw new IllegalStateException("kalah.store.cache.enabled needs a kalah.events.bus that reaches every "
+                    + "instance, or kalah.events.singleInstance with one instance");
+        }
+        this.gameStore = gameStore;
+        this.gameMetrics = gameMetrics;
+        this.games = new LinkedHashMap<String, Game>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Game> eldest) {
+                if (size() > maxGames) {
+                    gameMetrics.cacheEvicted();
+                    return true;
+                }
+                return false;
+            }
+        };
+        gameEventBus.subscribe(this::invalidate);
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        Load load;
+        synchronized (games) {
+            Game cached = games.get(gameId);
+            if (cached != null) {
+                gameMetrics.cacheHit();
+                return Optional.of(copy(cached));
+            }
+            load = loads.get(gameId);
+            if (load == null) {
+                load = new Load();
+                loads.put(gameId, load);
+            }
+            load.loaders++;
+        }
+        gameMetrics.cacheMiss();
+        Optional<Game> loaded = Optional.empty();
+        try {
+            loaded = gameStore.findById(gameId);
+            return loaded;
+        } finally {
+            synchronized (games) {
+                // a game saved in the meantime is newer than the loaded one, a game invalidated in the meantime may be
+                if (loaded.isPresent() && !load.invalidated && !games.containsKey(gameId)) {
+                    games.put(gameId, copy(loaded.get()));
+                }
+                if (--load.loaders == 0) {
+                    loads.remove(gameId, load);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        return save(game, null);
+    }
+
+    @Override
+    public Game save(Game game, Runnable afterWrite) {
+        Game saved;
+        try {
+            saved = afterWrite != null ? gameStore.save(game, afterWrite) : gameStore.save(game);
+        } catch (RuntimeException e) {
+            drop(game.getId());
+            throw e;
+        }
+        synchronized (games) {
+            games.put(saved.getId(), copy(saved));
+        }
+        return saved;
+    }
+
+    @Override
+    public List<Game> saveAll(List<Game> newGames) {
+        List<Game> saved = gameStore.saveAll(newGames);
+        synchronized (games) {
+            for (Game game : saved) {
+                games.put(game.getId(), copy(game));
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * @return number of games currently held in memory
+     */
+    public int size() {
+        synchronized (games) {
+            return games.size();
+        }
+    }
+
+    /**
+     * Drops the game when the event is of a later state than the cached one or corrects it
+     *
+     * @param event state of a game saved by any instance
+     */
+    void invalidate(GameEvent event) {
+        synchronized (games) {
+            Game cached = games.get(event.getGameId());
+            if (cached != null && cached.getMoveCount() >= event.getMoveCount() && !event.isCorrection()) {
+                return;
+            }
+            invalidateLoad(event.getGameId());
+            if (cached != null) {
+                games.remove(event.getGameId());
+                gameMetrics.cacheInvalidated();
+                log.debug("GameId {} was changed by another instance, dropping the cached state", event.getGameId());
+            }
+        }
+    }
+
+    private void drop(String gameId) {
+        synchronized (games) {
+            invalidateLoad(gameId);
+            if (games.remove(gameId) != null) {
+                gameMetrics.cacheInvalidated();
+            }
+        }
+    }
+
+    /**
+     * Keeps the loads of the game in flight from caching what they load, guarded by games
+     */
+    private void invalidateLoad(String gameId) {
+        Load load = loads.remove(gameId);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    private static Game copy(Game game) {
+        return Game.builder()
+                .id(game.getId())
+                .pits(game.getPits().clone())
+                .isSecondPlayerMove(game.isSecondPlayerMove())
+                .gameStatus(game.getGameStatus())
+                .moveCount(game.getMoveCount())
+                .version(game.getVersion())
+                .lastActivity(game.getLastActivity())
+                .expiresAt(game.getExpiresAt())
+                .build();
+    }
+
+    /**
+     * loads of one game in flight at the same time, guarded by games
+     */
+    private static final class Load {
+        private int loaders;
+        private boolean invalidated;
+    }
+}
@@ -0,0 +1,85 @@
+package nl.backbase.game.kalah.repository.converter;
+
+import nl.backbase.game.kalah.domain.Game;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Writes a game as its id, its board as one binary field, the ordinal of its status and its move count under one
+ * letter field names, followed by its version and activity times.
+ * <p>
+ * The board is a byte per pit followed by a byte that is 1 when it is the second player's turn, so a board of any
+ * size is stored, 15 bytes for the standard board. The status is an int32 of its own so games can be found by status.
+ * The version and the activity times keep their names: the optimistic locking of Spring Data, the TTL index and the
+ * archiver refer to them.
+ */
+@WritingConverter
+public class CompactGameWritingConverter implements Converter<Game, Document> {
+
+    @Override
+    public Document convert(Game game) {
+        Document document = new Document(GameDocumentFields.ID, game.getId());
+        document.put(GameDocumentFields.COMPACT_BOARD, new Binary(toBoard(game.getPits(), game.isSecondPlayerMove())));
+        if (game.getGameStatus() != null) {
+            document.put(GameDocumentFields.COMPACT_STATUS, game.getGameStatus().ordinal());
+        }
+        document.put(GameDocumentFields.COMPACT_MOVE_COUNT, game.getMoveCount());
+        if (game.getVersion() != null) {
+            document.put(GameDocumentFields.VERSION, game.getVersion());
+        }
+        if (game.getLastActivity() != null) {
+            document.put(GameDocumentFields.LAST_ACTIVITY, game.getLastActivity());
+        }
+        if (game.getExpiresAt() != null) {
+            document.put(GameDocumentFields.EXPIRES_AT, game.getExpiresAt());
+        }
+        return document;
+    }
+
+    /**
+     * @throws IllegalArgumentException when a pit holds more stones than a byte
+     */
+    static byte[] toBoard(int[] pits, boolean isSecondPlayerMove) {
+        byte[] board = new byte[pits.length + 1];
+        for (int index = 0; index < pits.length; index++) {
+            if (pits[index] < 0 || pits[index] > 0xFF) {
+                throw new IllegalArgumentException("Pit " + (index + 1) + " holds " + pits[index] + " stones, a board holds at most " + 0xFF);
+            }
+            board[index] = (byte) pits[index];
+        }
+        board[pits.length] = (byte) (isSecondPlayerMove ? 1 : 0);
+        return board;
+    }
+
+    /**
+     * @param document game document in any format
+     * @return binary board of the document, null when it was written in another format
+     */
+    public static byte[] getBoard(Document document) {
+        Object board = document.get(GameDocumentFields.COMPACT_BOARD);
+        // the driver reads binary fields as Binary, documents built in memory may hold the bytes
+        return board instanceof Binary ? ((Binary) board).getData() : (byte[]) board;
+    }
+
+    /**
+     * @param board binary board as written by this converter
+     * @return pits of the board
+     */
+    public static int[] toPits(byte[] board) {
+        int[] pits = new int[board.length - 1];
+        for (int index = 0; index < pits.length; index++) {
+            pits[index] = board[index] & 0xFF;
+        }
+        return pits;
+    }
+
+    /**
+     * @param board binary board as written by this converter
+     * @return true when it is the second player's turn
+     */
+    public static boolean isSecondPlayerMove(byte[] board) {
+        return board[board.length - 1] != 0;
+    }
+}
@@ -0,0 +1,27 @@
+package nl.backbase.game.kalah.repository.converter;
+
+/**
+ * Field names of the game document in MongoDB
+ */
+public final class GameDocumentFields {
+
+    private GameDocumentFields() {
+    }
+
+    public static final String ID = "_id";
+    public static final String PACKED_BOARD = "board";
+    public static final String PITS = "pits";
+    public static final String IS_SECOND_PLAYER_MOVE = "isSecondPlayerMove";
+    public static final String GAME_STATUS = "gameStatus";
+    public static final String MOVE_COUNT = "moveCount";
+    public static final String VERSION = "version";
+    public static final String LAST_ACTIVITY = "lastActivity";
+    public static final String EXPIRES_AT = "expiresAt";
+
+    /**
+     * fields of the {@link CompactGameWritingConverter}
+     */
+    public static final String COMPACT_BOARD = "b";
+    public static final String COMPACT_STATUS = "s";
+    public static final String COMPACT_MOVE_COUNT = "m";
+}
@@ -0,0 +1,84 @@
+package nl.backbase.game.kalah.repository.converter;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.util.List;
+
+/**
+ * Reads a game written with the default mapping, the {@link PackedGameWritingConverter} or the
+ * {@link CompactGameWritingConverter}, so an encoding can be switched on without migrating the stored games first
+ */
+@ReadingConverter
+public class GameReadingConverter implements Converter<Document, Game> {
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    @Override
+    public Game convert(Document document) {
+        byte[] compactBoard = CompactGameWritingConverter.getBoard(document);
+        if (compactBoard != null) {
+            Integer gameStatus = document.getInteger(GameDocumentFields.COMPACT_STATUS);
+            return Game.builder()
+                    .id(document.getString(GameDocumentFields.ID))
+                    .pits(CompactGameWritingConverter.toPits(compactBoard))
+                    .isSecondPlayerMove(CompactGameWritingConverter.isSecondPlayerMove(compactBoard))
+                    .gameStatus(gameStatus == null ? null : STATUSES[gameStatus])
+                    .moveCount(toMoveCount(document.get(GameDocumentFields.COMPACT_MOVE_COUNT)))
+                    .version(toVersion(document.get(GameDocumentFields.VERSION)))
+                    .lastActivity(document.getDate(GameDocumentFields.LAST_ACTIVITY))
+                    .expiresAt(document.getDate(GameDocumentFields.EXPIRES_AT))
+                    .build();
+        }
+        List<?> packedBoard = document.get(GameDocumentFields.PACKED_BOARD, List.class);
+        if (packedBoard != null) {
+            PackedBoard board = PackedBoard.of(((Number) packedBoard.get(0)).longValue(), ((Number) packedBoard.get(1)).longValue());
+            return Game.builder()
+                    .id(document.getString(GameDocumentFields.ID))
+                    .pits(board.toPits())
+                    .isSecondPlayerMove(board.isSecondPlayerMove())
+                    .gameStatus(board.getGameStatus())
+                    .moveCount(toMoveCount(document.get(GameDocumentFields.MOVE_COUNT)))
+                    .version(toVersion(document.get(GameDocumentFields.VERSION)))
+                    .lastActivity(document.getDate(GameDocumentFields.LAST_ACTIVITY))
+                    .expiresAt(document.getDate(GameDocumentFields.EXPIRES_AT))
+                    .build();
+        }
+        String gameStatus = document.getString(GameDocumentFields.GAME_STATUS);
+        return Game.builder()
+                .id(document.getString(GameDocumentFields.ID))
+                .pits(toPits(document.get(GameDocumentFields.PITS, List.class)))
+                .isSecondPlayerMove(Boolean.TRUE.equals(document.getBoolean(GameDocumentFields.IS_SECOND_PLAYER_MOVE)))
+                .gameStatus(gameStatus == null ? null : GameStatus.valueOf(gameStatus))
+                .moveCount(toMoveCount(document.get(GameDocumentFields.MOVE_COUNT)))
+                .version(toVersion(document.get(GameDocumentFields.VERSION)))
+                .lastActivity(document.getDate(GameDocumentFields.LAST_ACTIVITY))
+                .expiresAt(document.getDate(GameDocumentFields.EXPIRES_AT))
+                .build();
+    }
+
+    private static Long toVersion(Object value) {
+        // games stored before they were versioned are migrated to version 0
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static long toMoveCount(Object value) {
+        // games stored before moves were counted start counting from 0
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static int[] toPits(List<?> values) {
+        if (values == null) {
+            return null;
+        }
+        int[] pits = new int[values.size()];
+        for (int i = 0; i < pits.length; i++) {
+            pits[i] = ((Number) values.get(i)).intValue();
+        }
+        return pits;
+    }
+}
@@ -0,0 +1,51 @@
+package nl.backbase.game.kalah.repository.converter;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a game as its id and a {@link PackedBoard}, two int64 values holding the pits, the turn and the status,
+ * its move count, its version and its activity times. A game on a board of another size than the standard one keeps
+ * the fields of the default mapping for its pits, turn and status.
+ */
+@WritingConverter
+public class PackedGameWritingConverter implements Converter<Game, Document> {
+
+    @Override
+    public Document convert(Game game) {
+        Document document = new Document(GameDocumentFields.ID, game.getId());
+        if (BoardGeometry.ofPits(game.getPits()).isStandard()) {
+            PackedBoard board = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+            document.put(GameDocumentFields.PACKED_BOARD, Arrays.asList(board.getLow(), board.getHigh()));
+        } else {
+            List<Integer> pits = new ArrayList<>(game.getPits().length);
+            for (int stones : game.getPits()) {
+                pits.add(stones);
+            }
+            document.put(GameDocumentFields.PITS, pits);
+            document.put(GameDocumentFields.IS_SECOND_PLAYER_MOVE, game.isSecondPlayerMove());
+            if (game.getGameStatus() != null) {
+                document.put(GameDocumentFields.GAME_STATUS, game.getGameStatus().name());
+            }
+        }
+        document.put(GameDocumentFields.MOVE_COUNT, game.getMoveCount());
+        if (game.getVersion() != null) {
+            document.put(GameDocumentFields.VERSION, game.getVersion());
+        }
+        if (game.getLastActivity() != null) {
+            document.put(GameDocumentFields.LAST_ACTIVITY, game.getLastActivity());
+        }
+        if (game.getExpiresAt() != null) {
+            document.put(GameDocumentFields.EXPIRES_AT, game.getExpiresAt());
+        }
+        return document;
+    }
+}
@@ -0,0 +1,79 @@
+package nl.backbase.game.kalah.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.exception.InvalidGameException;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.KalahSearch;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.engine.SearchResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side player, chooses the move of the player to move with the {@link KalahSearch} within a time budget
+ */
+@Slf4j
+public class AiPlayer {
+
+    private static final int DEFAULT_TABLE_BITS = 16;
+    private static final int DEFAULT_MAX_DEPTH = 24;
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 250;
+
+    private final KalahSearch kalahSearch;
+    private final long timeBudgetNanos;
+
+    /**
+     * @param kalahSearch      search choosing the moves
+     * @param timeBudgetMillis time a move may take, the search is cut off after it
+     */
+    public AiPlayer(KalahSearch kalahSearch, long timeBudgetMillis) {
+        if (timeBudgetMillis < 1) {
+            throw new IllegalArgumentException("kalah.ai.timeBudgetMillis must be at least 1");
+        }
+        this.kalahSearch = kalahSearch;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * @return player searching on the common fork/join pool with a small transposition table
+     */
+    static AiPlayer withDefaults() {
+        return new AiPlayer(new KalahSearch(ForkJoinPool.commonPool(), DEFAULT_TABLE_BITS, DEFAULT_MAX_DEPTH),
+                DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param game game which is not completed
+     * @return pit to move for the player to move
+     */
+    int choosePit(Game game) {
+        return logged(game, kalahSearch.search(boardOf(game), timeBudgetNanos));
+    }
+
+    /**
+     * Same as {@link #choosePit}, without blocking the caller's thread
+     */
+    CompletableFuture<Integer> choosePitAsync(Game game) {
+        return kalahSearch.searchAsync(boardOf(game), timeBudgetNanos).thenApply(result -> logged(game, result));
+    }
+
+    /**
+     * @throws InvalidGameException when the game is not on the standard board, the only one the search plays
+     */
+    private static PackedBoard boardOf(Game game) {
+        if (!BoardGeometry.ofPits(game.getPits()).isStandard()) {
+            throw new InvalidGameException("AI moves are only made on the board with "
+                    + BoardGeometry.STANDARD.getPitsPerSide() + " pits per side");
+        }
+        return PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+    }
+
+    private static int logged(Game game, SearchResult result) {
+        log.debug("AI moves pit {} in GameId {}: score {} at depth {}, {} nodes in {} ms", result.getPitId(), game.getId(),
+                result.getScore(), result.getDepth(), result.getNodes(), TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()));
+        return result.getPitId();
+    }
+}
@@ -0,0 +1,90 @@
+package nl.backbase.game.kalah.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.exception.GameCompletedException;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.domain.exception.InvalidGameException;
+import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.repository.MoveLog;
+import nl.backbase.game.kalah.repository.MoveLogSegment;
+
+import java.util.Optional;
+
+/**
+ * Rebuilds past positions of a game from its {@link MoveLog}. A position is replayed with the same rules as the
+ * game service from the snapshot of its segment, so at most one segment of moves is applied and one segment is read.
+ * Every replayed move is checked against the fingerprint of the board recorded with it. Only games on the standard
+ * board are recorded.
+ */
+@Slf4j
+public class GameHistoryService {
+
+    private final MoveLog moveLog;
+    private final GameMoves gameMoves;
+
+    public GameHistoryService(MoveLog moveLog, int initialNumberOfStones) {
+        this.moveLog = moveLog;
+        this.gameMoves = new GameMoves(BoardGeometry.STANDARD, initialNumberOfStones);
+    }
+
+    /**
+     * @param gameId     Unique Id of the game
+     * @param moveNumber number of moves applied to the position, 0 for the start of the game
+     * @return the game as it was after the move
+     */
+    public Game getPosition(String gameId, long moveNumber) {
+        if (moveNumber < 0) {
+            throw new InvalidGameException("Invalid move number");
+        }
+        int interval = moveLog.getSnapshotInterval();
+        long segmentNumber = moveNumber / interval;
+        int movesToApply = (int) (moveNumber % interval);
+        Optional<MoveLogSegment> segment = findSnapshot(gameId, segmentNumber);
+        if (!segment.isPresent() && movesToApply == 0 && segmentNumber > 0) {
+            // the last move of a segment, the next segment is not started yet
+            segmentNumber--;
+            movesToApply = interval;
+            segment = findSnapshot(gameId, segmentNumber);
+        }
+        if (!segment.isPresent() || segment.get().size() < movesToApply) {
+            throw new GameNotFoundException("Move " + moveNumber + " of GameId: " + gameId + " is not recorded");
+        }
+        return replay(gameId, segment.get(), segmentNumber * interval, movesToApply);
+    }
+
+    private Optional<MoveLogSegment> findSnapshot(String gameId, long segmentNumber) {
+        return moveLog.findSegment(gameId, segmentNumber).filter(MoveLogSegment::hasSnapshot);
+    }
+
+    private Game replay(String gameId, MoveLogSegment segment, long firstMoveCount, int movesToApply) {
+        PackedBoard snapshot = PackedBoard.of(segment.getSnapshotLow(), segment.getSnapshotHigh());
+        Game game = Game.builder()
+                .id(gameId)
+                .pits(snapshot.toPits())
+                .isSecondPlayerMove(snapshot.isSecondPlayerMove())
+                .gameStatus(snapshot.getGameStatus())
+                .moveCount(firstMoveCount)
+                .build();
+        for (int offset = 0; offset < movesToApply; offset++) {
+            long move = segment.getMove(offset);
+            try {
+                gameMoves.apply(game, MoveLogSegment.pitIdOf(move));
+            } catch (InvalidPitException | GameCompletedException e) {
+                throw corrupted(gameId, firstMoveCount + offset + 1, e.getMessage());
+            }
+            int fingerprint = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus()).fingerprint();
+            if (fingerprint != MoveLogSegment.fingerprintOf(move)) {
+                throw corrupted(gameId, game.getMoveCount(), "the board differs from the recorded board");
+            }
+        }
+        return game;
+    }
+
+    private static IllegalStateException corrupted(String gameId, long moveNumber, String reason) {
+        log.error("Move {} of GameId {} can not be replayed: {}", moveNumber, gameId, reason);
+        return new IllegalStateException("Move " + moveNumber + " of GameId: " + gameId + " can not be replayed: " + reason);
+    }
+}
@@ -0,0 +1,46 @@
+package nl.backbase.game.kalah.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks for games.
+ * <p>
+ * A game id always maps to the same lock, so moves on one game are serialized within this instance while moves on
+ * different games rarely share a lock. The number of locks is fixed, so no lock is ever created or removed per game.
+ */
+@Component
+public class GameLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes number of locks, rounded up to a power of two
+     */
+    public GameLocks(@Value("${kalah.concurrency.lockStripes:1024}") int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("kalah.concurrency.lockStripes must be between 1 and " + (1 << 16));
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int index = 0; index < size; index++) {
+            locks[index] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param gameId id of the game
+     * @return lock guarding the game
+     */
+    public ReentrantLock lockFor(String gameId) {
+        int hash = gameId.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
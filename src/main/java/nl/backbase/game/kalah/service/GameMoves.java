@@ -0,0 +1,169 @@
+package nl.backbase.game.kalah.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.GameCompletedException;
+import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.KalahBoard;
+import nl.backbase.game.kalah.engine.KalahRules;
+import nl.backbase.game.kalah.engine.PackedBoard;
+
+import java.util.List;
+
+/**
+ * Creates games and applies moves to them, shared by the blocking and the reactive game service.
+ * Loading and storing the game is up to the caller.
+ */
+@Slf4j
+final class GameMoves {
+
+    /**
+     * pits of a new game, copied for every game
+     */
+    private final int[] initialPits;
+
+    /**
+     * @param boardGeometry         size of the board of new games, moves are made on the board of the game
+     * @param initialNumberOfStones stones in every pit of a new game, on the standard board all stones have to fit
+     *                              into one pit of a {@link PackedBoard}
+     */
+    GameMoves(BoardGeometry boardGeometry, int initialNumberOfStones) {
+        if (initialNumberOfStones < 1) {
+            throw new IllegalArgumentException("kalah.initialNumberOfStones must be at least 1");
+        }
+        // only games on the standard board are packed
+        int playablePits = 2 * boardGeometry.getPitsPerSide();
+        if (boardGeometry.isStandard() && initialNumberOfStones * playablePits > PackedBoard.MAX_STONES_IN_PIT) {
+            throw new IllegalArgumentException("kalah.initialNumberOfStones must be between 1 and "
+                    + PackedBoard.MAX_STONES_IN_PIT / playablePits + " on the standard board");
+        }
+        this.initialPits = boardGeometry.newPits(initialNumberOfStones);
+    }
+
+    /**
+     * @param gameId id of the new game
+     * @return game in status CREATED with the initial number of stones in every pit
+     */
+    Game newGame(String gameId) {
+        return Game.builder()
+                .id(gameId)
+                .pits(initialPits.clone())
+                .isSecondPlayerMove(false)
+                .gameStatus(GameStatus.CREATED)
+                .build();
+    }
+
+    /**
+     * Validates the move and applies it to the game in place. A rejected move leaves the game unchanged.
+     *
+     * @param game  game to change
+     * @param pitId chosen Pit number to move coins by the player
+     */
+    void apply(Game game, int pitId) {
+        apply(game, pitId, null);
+    }
+
+    /**
+     * @param recorded receives the applied move for the history, null when the history is not recorded. Only games
+     *                 on the standard board can be recorded
+     */
+    void apply(Game game, int pitId, List<GameMove> recorded) {
+        int[] pits = game.getPits();
+        KalahRules kalahRules = KalahRules.forPits(pits);
+        BoardGeometry geometry = kalahRules.getGeometry();
+
+        requireNotCompleted(game);
+        if (GameStatus.IN_PROGRESS == game.getGameStatus()) {
+            if (game.isSecondPlayerMove() && !geometry.isSecondPlayerPit(pitId)) {
+                throw new InvalidPitException("Player one is not allowed to move");
+            } else if (!game.isSecondPlayerMove() && geometry.isSecondPlayerPit(pitId)) {
+                throw new InvalidPitException("Player two is not allowed to move");
+            }
+        }
+
+
+        if (pitId < 1 || pitId > geometry.getNumberOfPits()) {
+            throw new InvalidPitException("Invalid Pit");
+        }
+        if (kalahRules.isKalah(pitId)) {
+            throw new InvalidPitException("Coins from house should not be allowed to move.Please chose pit");
+        }
+        if (pits[pitId - 1] <= 0) {
+            throw new InvalidPitException("No coins are present in selected pit.Please choose another pit");
+        }
+        if (GameStatus.CREATED == game.getGameStatus()) {
+            game.setGameStatus(GameStatus.IN_PROGRESS);
+        }
+
+        KalahBoard board = KalahBoard.wrap(pits, game.isSecondPlayerMove(), game.getGameStatus());
+        int lastPit = kalahRules.move(board, pitId);
+        if (board.getGameStatus() != game.getGameStatus()) {
+            game.setGameStatus(board.getGameStatus());
+            log.debug("Game is completed with game status {}", game.getGameStatus());
+        } else if (board.isSecondPlayerMove()) {
+            log.debug("Second player should move the coins manually, last coin landed in pit {}", lastPit);
+        } else {
+            log.debug("First player should move the coins manually, last coin landed in pit {}", lastPit);
+        }
+        game.setSecondPlayerMove(board.isSecondPlayerMove());
+        game.setMoveCount(game.getMoveCount() + 1);
+        if (recorded != null) {
+            PackedBoard after = PackedBoard.of(pits, game.isSecondPlayerMove(), game.getGameStatus());
+            recorded.add(GameMove.builder()
+                    .moveNumber(game.getMoveCount())
+                    .pitId(pitId)
+                    .secondPlayer(geometry.isSecondPlayerPit(pitId))
+                    .boardLow(after.getLow())
+                    .boardHigh(after.getHigh())
+                    .build());
+        }
+    }
+
+    /**
+     * @param game game to move in
+     * @throws GameCompletedException when the game is completed
+     */
+    void requireNotCompleted(Game game) {
+        if (GameStatus.CREATED != game.getGameStatus() && GameStatus.IN_PROGRESS != game.getGameStatus()) {
+            throw new GameCompletedException("Game is already completed." + game.getGameStatus());
+        }
+    }
+
+    /**
+     * Applies the moves in order and stops at the first rejected move, the game keeps the moves applied before it
+     *
+     * @param game   game to change
+     * @param pitIds chosen Pit numbers in the order they are played
+     * @return the game and how many moves were applied
+     */
+    MoveBatchResult applyAll(Game game, int[] pitIds) {
+        return applyAll(game, pitIds, null);
+    }
+
+    /**
+     * @param recorded receives the applied moves for the history, null when the history is not recorded
+     */
+    MoveBatchResult applyAll(Game game, int[] pitIds, List<GameMove> recorded) {
+        for (int index = 0; index < pitIds.length; index++) {
+            try {
+                apply(game, pitIds[index], recorded);
+            } catch (InvalidPitException | GameCompletedException e) {
+                log.debug("Move {} of the batch is rejected: {}", index, e.getMessage());
+                return MoveBatchResult.builder()
+                        .game(game)
+                        .appliedMoves(index)
+                        .rejectedMoveIndex(index)
+                        .rejectionMessage(e.getMessage())
+                        .build();
+            }
+        }
+        return MoveBatchResult.builder()
+                .game(game)
+                .appliedMoves(pitIds.length)
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package nl.backbase.game.kalah.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Warm pool of games which are created and stored already, so creating a game only has to claim one.
+ * <p>
+ * When half of the pool is claimed, a background thread creates the missing games in batches of at most
+ * {@code batchSize}. A claim on an empty pool returns null and the caller creates the game itself. Games still in the
+ * pool at shutdown stay stored without ever being handed out, until the TTL index deletes them.
+ * <p>
+ * A claimed game counts as active from the claim, although it is not saved again. Pooled games are stored with an
+ * expiry time {@code maxAgeMillis} later than other games, and a game that waited longer than {@code maxAgeMillis} is
+ * not handed out, so a claimed game is never deleted by the TTL index before it is abandoned for
+ * {@code abandonedAfterMillis}.
+ */
+@Slf4j
+public class GamePool implements AutoCloseable {
+
+    private static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DEFAULT_ABANDONED_AFTER_MILLIS = TimeUnit.HOURS.toMillis(168);
+
+    /**
+     * not bounded, so every stored game of a batch is kept, the capacity only limits how many games are created
+     */
+    private final LinkedBlockingQueue<Pooled> games = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final int batchSize;
+    private final long maxAgeMillis;
+    private final long abandonedAfterMillis;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final Executor refiller;
+
+    /**
+     * @param capacity  number of games kept ready
+     * @param batchSize most games created and stored in one batch
+     */
+    public GamePool(int capacity, int batchSize) {
+        this(capacity, batchSize, DEFAULT_MAX_AGE_MILLIS, DEFAULT_ABANDONED_AFTER_MILLIS);
+    }
+
+    /**
+     * @param maxAgeMillis         longest time a game waits in the pool
+     * @param abandonedAfterMillis time after which a game nobody saved is deleted by the TTL index
+     */
+    public GamePool(int capacity, int batchSize, long maxAgeMillis, long abandonedAfterMillis) {
+        this(capacity, batchSize, maxAgeMillis, abandonedAfterMillis, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-pool-refiller");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    GamePool(int capacity, int batchSize, Executor refiller) {
+        this(capacity, batchSize, DEFAULT_MAX_AGE_MILLIS, DEFAULT_ABANDONED_AFTER_MILLIS, refiller);
+    }
+
+    /**
+     * @param refiller runs the refills, one at a time
+     */
+    GamePool(int capacity, int batchSize, long maxAgeMillis, long abandonedAfterMillis, Executor refiller) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("kalah.pool.size and kalah.pool.batchSize must be at least 1");
+        }
+        if (maxAgeMillis < 1) {
+            throw new IllegalArgumentException("kalah.pool.maxAgeMinutes must be at least 1");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxAgeMillis = maxAgeMillis;
+        this.abandonedAfterMillis = abandonedAfterMillis;
+        this.refiller = refiller;
+    }
+
+    /**
+     * @return expiry time of a game stored for the pool now, which lasts while it waits in the pool and after it is
+     * claimed
+     */
+    Date expiresAt() {
+        return new Date(System.currentTimeMillis() + maxAgeMillis + abandonedAfterMillis);
+    }
+
+    /**
+     * @param creator creates and stores the given number of games, used when the pool runs low
+     * @return a stored game nobody claimed before, null when the pool is empty
+     */
+    Game claim(IntFunction<List<Game>> creator) {
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        Pooled pooled = games.poll();
+        while (pooled != null && pooled.storedAt <= oldest) {
+            // left to the TTL index, its expiry does not cover a full abandon time from now
+            log.debug("GameId {} waited too long in the pool, skipping it", pooled.game.getId());
+            pooled = games.poll();
+        }
+        if (games.size() <= capacity / 2) {
+            refill(creator);
+        }
+        return pooled != null ? pooled.game : null;
+    }
+
+    /**
+     * Fills the pool in the background, unless it is being filled already
+     *
+     * @param creator creates and stores the given number of games
+     */
+    void refill(IntFunction<List<Game>> creator) {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        refiller.execute(() -> {
+            try {
+                for (int missing = capacity - games.size(); missing > 0; missing = capacity - games.size()) {
+                    long storedAt = System.currentTimeMillis();
+                    for (Game game : creator.apply(Math.min(missing, batchSize))) {
+                        games.add(new Pooled(game, storedAt));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Exception while creating games for the pool, retrying on the next claim", e);
+            } finally {
+                refilling.set(false);
+            }
+        });
+    }
+
+    /**
+     * @return number of games ready to be claimed
+     */
+    public int size() {
+        return games.size();
+    }
+
+    @Override
+    public void close() {
+        if (refiller instanceof ExecutorService) {
+            ((ExecutorService) refiller).shutdownNow();
+        }
+    }
+
+    private static final class Pooled {
+        private final Game game;
+        /**
+         * time the batch of the game was created, its expiry time is later than that
+         */
+        private final long storedAt;
+
+        private Pooled(Game game, long storedAt) {
+            this.game = game;
+            this.storedAt = storedAt;
+        }
+    }
+}
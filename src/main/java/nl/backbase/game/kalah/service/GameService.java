@@ -1,6 +1,9 @@
 package nl.backbase.game.kalah.service;
 
 import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+
+import java.util.List;
 
 public interface GameService {
     /**
@@ -10,6 +13,14 @@ public interface GameService {
      */
     Game createGame();
 
+    /**
+     * function to create many Kalah game resources, which are saved in one batch
+     *
+     * @param count number of games to create
+     * @return returns the new games
+     */
+    List<Game> createGames(int count);
+
     /**
      * function makes a move based on pit ID
      *
@@ -19,6 +30,25 @@ public interface GameService {
      */
     Game makeMove(String gameId, int pitId);
 
+    /**
+     * function makes a sequence of moves on a game with a single load and a single save.
+     * The moves are applied in order until the first rejected move, the moves before it are kept
+     *
+     * @param gameId Unique Id of the game
+     * @param pitIds chosen Pit numbers in the order they are played
+     * @return returns game data after the applied moves and the index of the first rejected move
+     */
+    MoveBatchResult makeMoves(String gameId, int[] pitIds);
+
+    /**
+     * function lets the server choose and make the move of the player to move, for games against the server.
+     * The move is only made when nobody moved while it was chosen
+     *
+     * @param gameId Unique Id of the game
+     * @return returns game data after the move
+     */
+    Game makeAiMove(String gameId);
+
     /**
      * function get game data based on unique game Id
      *
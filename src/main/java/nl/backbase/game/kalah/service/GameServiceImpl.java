@@ -2,185 +2,279 @@ package nl.backbase.game.kalah.service;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
 import nl.backbase.game.kalah.domain.enums.GameStatus;
-import nl.backbase.game.kalah.domain.exception.GameCompletedException;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
 import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
-import nl.backbase.game.kalah.domain.exception.InvalidPitException;
-import nl.backbase.game.kalah.repository.GameRepository;
-import nl.backbase.game.kalah.utils.IdGeneratorUtil;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.repository.MoveLog;
+import nl.backbase.game.kalah.utils.IdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.util.stream.IntStream;
+import javax.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 @Service
+@Profile("!reactive")
 @Slf4j
 public class GameServiceImpl implements GameService {
 
-    private GameRepository gameRepository;
-    private int initialNumberOfStones;
+    private final GameMoves gameMoves;
+    /**
+     * creates the games of the pool, kept so claiming a game does not create a method reference
+     */
+    private final IntFunction<List<Game>> poolCreator = this::storePooledGames;
+    private GameStore gameStore;
+    private GameLocks gameLocks;
+    private GameEventBus gameEventBus;
+    private IdGenerator idGenerator;
+    private MoveLog moveLog;
+    private AiPlayer aiPlayer;
+    private GamePool gamePool;
+    private GameMetrics gameMetrics;
+    private int maxMoveAttempts;
+    private long lockTimeoutMillis;
 
-    public GameServiceImpl(GameRepository gameRepository,
-                           @Value("${kalah.initialNumberOfStones}") int initialNumberOfStones) {
-        this.gameRepository = gameRepository;
-        this.initialNumberOfStones = initialNumberOfStones;
+    @Autowired
+    public GameServiceImpl(GameStore gameStore,
+                           GameLocks gameLocks,
+                           GameEventBus gameEventBus,
+                           IdGenerator idGenerator,
+                           Optional<MoveLog> moveLog,
+                           AiPlayer aiPlayer,
+                           Optional<GamePool> gamePool,
+                           GameMetrics gameMetrics,
+                           @Value("${kalah.initialNumberOfStones}") int initialNumberOfStones,
+                           @Value("${kalah.pitsPerSide:6}") int pitsPerSide,
+                           @Value("${kalah.concurrency.maxMoveAttempts:3}") int maxMoveAttempts,
+                           @Value("${kalah.concurrency.lockTimeoutMillis:2000}") long lockTimeoutMillis) {
+        if (maxMoveAttempts < 1) {
+            throw new IllegalArgumentException("kalah.concurrency.maxMoveAttempts must be at least 1");
+        }
+        this.gameStore = gameStore;
+        this.gameLocks = gameLocks;
+        this.gameEventBus = gameEventBus;
+        this.idGenerator = idGenerator;
+        this.moveLog = moveLog.orElse(null);
+        this.aiPlayer = aiPlayer;
+        this.gamePool = gamePool.orElse(null);
+        this.gameMetrics = gameMetrics;
+        this.gameMoves = new GameMoves(BoardGeometry.of(pitsPerSide), initialNumberOfStones);
+        this.maxMoveAttempts = maxMoveAttempts;
+        this.lockTimeoutMillis = lockTimeoutMillis;
     }
 
-    @Override
-    public Game createGame() {
-        //initialize player
-
-        Game game = Game.builder()
-                .id(IdGeneratorUtil.generateGameId())
-                .pits(getInitializedPits())
-                .isSecondPlayerMove(false)
-                .gameStatus(GameStatus.CREATED)
-                .build();
-        gameRepository.save(game);
-        return game;
+    /**
+     * Fills the game pool once the application is started, instead of on the first created game
+     */
+    @PostConstruct
+    public void fillGamePool() {
+        if (gamePool != null) {
+            gamePool.refill(poolCreator);
+        }
     }
 
-
+    /**
+     * With the game pool enabled a game created in advance is handed out, a new game is only created and saved when
+     * the pool is empty
+     */
     @Override
-    public Game makeMove(String gameId, int pitId) {
-        Game game = gameRepository.findById(gameId).orElseThrow(
-                () -> new GameNotFoundException("GameId: " + gameId + " is not known while fetching game"));
-        int[] pits = game.getPits();
-
-        if (GameStatus.CREATED == game.getGameStatus()) {
-            game.setGameStatus(GameStatus.IN_PROGRESS);
-        } else if (GameStatus.IN_PROGRESS != game.getGameStatus()) {
-            throw new GameCompletedException("Game is already completed." + game.getGameStatus());
-        } else {
-            if (game.isSecondPlayerMove() && pitId <= 7) {
-                throw new InvalidPitException("Player one is not allowed to move");
-            } else if (!game.isSecondPlayerMove() && pitId > 7) {
-                throw new InvalidPitException("Player two is not allowed to move");
+    public Game createGame() {
+        long start = System.nanoTime();
+        try {
+            Game pooled = gamePool != null ? gamePool.claim(poolCreator) : null;
+            if (pooled != null) {
+                gameMetrics.gamesCreated(1);
+                return pooled;
             }
-        }
+            //initialize player
 
-
-        int numberOfCoinsInPit = pits[pitId - 1];
-        if (numberOfCoinsInPit <= 0) {
-            throw new InvalidPitException("No coins are present in selected pit.Please choose another pit");
-        }
-
-        for (int i = 1; i <= numberOfCoinsInPit; i++) {
-            int nextPit = pitId + i > 14 ? pitId + i - 14 : pitId + i;
-            //  No stones are put in the opponent's' Kalah.()
-            boolean isNextPitOpponentKalah = (pitId < 7 && nextPit == 14) || (pitId > 7 && nextPit == 7);
-            if (isNextPitOpponentKalah) {
-                numberOfCoinsInPit++;
-            } else {
-                pits[nextPit - 1] += 1;
-                //the last coin in move
-                if (i == numberOfCoinsInPit) {
-                    pits[pitId - 1] = 0;
-                    /* When the last stone lands in an own empty pit, the player captures this stone and all stones in the opposite pit (the other players' pit) and puts them in his own Kalah  */
-                    handleLastStoneLandsInOwnEmptyPit(game.isSecondPlayerMove(), pits, nextPit);
-                    if (isGameCompleted(pits)) {
-                        pits = moveRemainingCoins(pits);
-                        game.setGameStatus(getGameStatus(pits));
-                        log.debug("Game is completed with game status {}", game.getGameStatus());
-                    } else {
-                        if (nextPit <= 7) {
-                            game.setSecondPlayerMove(false);
-                            log.debug("First player should move the coins manually");
-                        } else {
-                            game.setSecondPlayerMove(true);
-                            log.debug("Second player should move the coins manually");
-                        }
-                    }
-                }
-            }
+            Game game = gameMoves.newGame(idGenerator.generateGameId());
+            gameStore.save(game);
+            gameMetrics.gamesCreated(1);
+            return game;
+        } finally {
+            gameMetrics.recordCreateGame(start);
         }
+    }
 
-        game.setPits(pits);
-        gameRepository.save(game);
-        return game;
+    @Override
+    public List<Game> createGames(int count) {
+        List<Game> games = storeNewGames(count);
+        gameMetrics.gamesCreated(count);
+        return games;
     }
 
     /**
-     * This method checks last stone lands in an own empty pit
-     * then the player captures this stone and all stones in the opposite pit (the other players' pit) and puts them in his own Kalah
-     *
-     * @param isSecondPlayerMove is the pit moved by second player.
-     * @param pits               current pit values
-     * @param nextPit            nextpit number
+     * Games of the pool are only counted as created once they are claimed
      */
-    private void handleLastStoneLandsInOwnEmptyPit(boolean isSecondPlayerMove, int[] pits, int nextPit) {
-        if (pits[nextPit - 1] == 1 && nextPit != 7 && nextPit != 14) {
-            //check if it is own
-
-            if (!isSecondPlayerMove && nextPit < 7) {
-                //move all coins from opposite pit
-                int oppositePitNumber = nextPit + 7;
-                moveCoinsFromOppositePitAndPitToKalah(pits, 7, nextPit, oppositePitNumber);
-            }
-            if (isSecondPlayerMove && nextPit > 7) {
-                //move all coins from opposite pit
-                int oppositePitNumber = nextPit - 7;
-                moveCoinsFromOppositePitAndPitToKalah(pits, 14, nextPit, oppositePitNumber);
-            }
+    private List<Game> storeNewGames(int count) {
+        List<Game> games = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            games.add(gameMoves.newGame(idGenerator.generateGameId()));
         }
+        return gameStore.saveAll(games);
     }
 
-    /*
-    When the last stone lands in an own empty pit, the player captures this stone and all stones in the opposite pit (the
-    other players' pit) and puts them in his own Kalah.
+    /**
+     * Games of the pool expire later than other games, they may wait in the pool before they are played
      */
-    private void moveCoinsFromOppositePitAndPitToKalah(int[] pits, int kalahNumber, int nextPit, int oppositePitNumber) {
-        pits[kalahNumber - 1] += pits[nextPit - 1] + pits[oppositePitNumber - 1];
-        pits[nextPit - 1] = 0;
-        pits[oppositePitNumber - 1] = 0;
-        log.debug("all coins from opposite pit {} are moved to pit {}", oppositePitNumber, nextPit);
+    private List<Game> storePooledGames(int count) {
+        List<Game> games = new ArrayList<>(count);
+        Date expiresAt = gamePool.expiresAt();
+        for (int index = 0; index < count; index++) {
+            Game game = gameMoves.newGame(idGenerator.generateGameId());
+            game.setExpiresAt(expiresAt);
+            games.add(game);
+        }
+        return gameStore.saveAll(games);
+    }
+
+
+    @Override
+    public Game makeMove(String gameId, int pitId) {
+        long start = System.nanoTime();
+        try {
+            return update(gameId, (game, recorded) -> {
+                gameMoves.apply(game, pitId, recorded);
+                return game;
+            }, game -> true);
+        } finally {
+            gameMetrics.recordMakeMove(start);
+        }
     }
 
     @Override
-    public Game getGame(String gameId) {
-        return gameRepository.findById(gameId).orElseThrow(
-                () -> new GameNotFoundException("GameId: " + gameId + " is not known while fetching game"));
+    public MoveBatchResult makeMoves(String gameId, int[] pitIds) {
+        return update(gameId, (game, recorded) -> gameMoves.applyAll(game, pitIds, recorded),
+                result -> result.getAppliedMoves() > 0);
     }
 
+    /**
+     * The move is chosen without holding the lock of the game, so other requests on the game do not wait for the search.
+     * It is only made when the game still has the move count it was chosen for.
+     */
+    @Override
+    public Game makeAiMove(String gameId) {
+        Game game = loadGame(gameId);
+        gameMoves.requireNotCompleted(game);
+        int pitId = aiPlayer.choosePit(game);
+        long moveCount = game.getMoveCount();
+        return update(gameId, (current, recorded) -> {
+            if (current.getMoveCount() != moveCount) {
+                throw new ConcurrentMoveException("GameId: " + gameId + " was changed while the move was chosen, please retry");
+            }
+            gameMoves.apply(current, pitId, recorded);
+            return current;
+        }, current -> true);
+    }
 
-    private boolean isGameCompleted(int[] pits) {
-        int playerOneCoinsInPit = IntStream.range(0, 6).map(pitNumber -> pits[pitNumber]).sum();
-        int playerTwoCoinsInPit = IntStream.range(7, 13).map(pitNumber -> pits[pitNumber]).sum();
-        if (playerOneCoinsInPit == 0 || playerTwoCoinsInPit == 0) {
-            log.debug("Game is completed.coins in player one pits are {} and coins in player two pits are {}", playerOneCoinsInPit, playerTwoCoinsInPit);
-            return true;
+    /**
+     * Moves on one game are serialized by a striped lock, so requests for the same game on this instance never
+     * race. The save is compare-and-set on the version of the game, when another instance changed the game in the
+     * meantime the moves are validated and applied again on the stored game, up to kalah.concurrency.maxMoveAttempts
+     * times. Once saved the new state is published while still holding the lock, so the events of a game are
+     * published in the order of its moves. With the move history enabled the applied moves of games on the standard
+     * board are appended to the {@link MoveLog} once the game is written, which the write-behind store only does on
+     * its next flush.
+     *
+     * @param gameId  Unique Id of the game
+     * @param moves   applies the moves to the loaded game and adds them to the list of recorded moves, which is null
+     *                without history
+     * @param changed whether the game has to be saved
+     * @return result of the moves
+     */
+    private <T> T update(String gameId, BiFunction<Game, List<GameMove>, T> moves, Predicate<T> changed) {
+        ReentrantLock lock = gameLocks.lockFor(gameId);
+        acquire(lock, gameId);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Game game = gameStore.findById(gameId).orElseThrow(
+                        () -> new GameNotFoundException("GameId: " + gameId + " is not known while fetching game"));
+                boolean history = moveLog != null && BoardGeometry.ofPits(game.getPits()).isStandard();
+                PackedBoard before = history
+                        ? PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus()) : null;
+                List<GameMove> recorded = history ? new ArrayList<>() : null;
+                GameStatus statusBefore = game.getGameStatus();
+                T result = moves.apply(game, recorded);
+                if (!changed.test(result)) {
+                    return result;
+                }
+                try {
+                    if (history) {
+                        gameStore.save(game, () -> appendHistory(gameId, before, recorded));
+                    } else {
+                        gameStore.save(game);
+                    }
+                    gameMetrics.transition(statusBefore, game.getGameStatus());
+                    gameEventBus.publish(GameEvent.of(game));
+                    return result;
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxMoveAttempts) {
+                        throw new ConcurrentMoveException("GameId: " + gameId + " was changed concurrently, please retry");
+                    }
+                    log.debug("GameId {} was changed concurrently, moving again (attempt {})", gameId, attempt);
+                }
+            }
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
-    private int[] moveRemainingCoins(int[] pits) {
-        //The player who still has stones in his/her pits keeps them and puts them in his/hers Kalah.
-        pits[13] += IntStream.range(7, 13).map(pitNumber -> pits[pitNumber]).sum();
-        pits[7] = pits[8] = pits[9] = pits[10] = pits[11] = pits[12] = 0;
-        //The player who still has stones in his/her pits keeps them and puts them in his/hers Kalah.
-        pits[6] += IntStream.range(0, 6).map(pitNumber -> pits[pitNumber]).sum();
-        pits[0] = pits[1] = pits[2] = pits[3] = pits[4] = pits[5] = 0;
-
-        return pits;
+    /**
+     * The game is saved already, a history that can not be written must not fail the move
+     */
+    private void appendHistory(String gameId, PackedBoard before, List<GameMove> recorded) {
+        try {
+            moveLog.append(gameId, before.getLow(), before.getHigh(), recorded);
+        } catch (RuntimeException e) {
+            log.error("Moves {} to {} of GameId {} could not be added to the history", recorded.get(0).getMoveNumber(),
+                    recorded.get(recorded.size() - 1).getMoveNumber(), gameId, e);
+        }
     }
 
-    private GameStatus getGameStatus(int[] pits) {
-        if (pits[6] > pits[13]) {
-            return GameStatus.FIRSTPLAYERWON;
-        } else if (pits[6] < pits[13]) {
-            return GameStatus.SECONDPLAYERWON;
-        } else {
-            return GameStatus.DRAW;
+    private void acquire(ReentrantLock lock, String gameId) {
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ConcurrentMoveException("GameId: " + gameId + " is busy with another move, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentMoveException("GameId: " + gameId + " is busy with another move, please retry");
         }
     }
 
+    @Override
+    public Game getGame(String gameId) {
+        long start = System.nanoTime();
+        try {
+            return loadGame(gameId);
+        } finally {
+            gameMetrics.recordGetGame(start);
+        }
+    }
 
-    private int[] getInitializedPits() {
-        return new int[]{
-                initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones,
-                0,
-                initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones, initialNumberOfStones,
-                0
-        };
+    private Game loadGame(String gameId) {
+        return gameStore.findById(gameId).orElseThrow(
+                () -> new GameNotFoundException("GameId: " + gameId + " is not known while fetching game"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package nl.backbase.game.kalah.service;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non blocking variant of the {@link GameService}, used by the reactive profile
+ */
+public interface ReactiveGameService {
+    /**
+     * function to create a new Kalah game resource
+     *
+     * @return emits the new game once it is saved
+     */
+    Mono<Game> createGame();
+
+    /**
+     * function to create many Kalah game resources, which are inserted in one batch
+     *
+     * @param count number of games to create
+     * @return emits the new games once they are saved
+     */
+    Mono<List<Game>> createGames(int count);
+
+    /**
+     * function makes a move based on pit ID
+     *
+     * @param gameId Unique Id of the game
+     * @param pitId  chosen Pit number to move coins by the player
+     * @return emits the game data after the move once it is saved
+     */
+    Mono<Game> makeMove(String gameId, int pitId);
+
+    /**
+     * function makes a sequence of moves on a game with a single load and a single save.
+     * The moves are applied in order until the first rejected move, the moves before it are kept
+     *
+     * @param gameId Unique Id of the game
+     * @param pitIds chosen Pit numbers in the order they are played
+     * @return emits the game data after the applied moves and the index of the first rejected move
+     */
+    Mono<MoveBatchResult> makeMoves(String gameId, int[] pitIds);
+
+    /**
+     * function lets the server choose and make the move of the player to move, for games against the server.
+     * The move is only made when nobody moved while it was chosen
+     *
+     * @param gameId Unique Id of the game
+     * @return emits the game data after the move once it is saved
+     */
+    Mono<Game> makeAiMove(String gameId);
+
+    /**
+     * function get game data based on unique game Id
+     *
+     * @param gameId unique identifier of a game
+     * @return emits the game data
+     */
+    Mono<Game> getGame(String gameId);
+}
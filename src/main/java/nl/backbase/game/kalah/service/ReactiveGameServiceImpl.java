@@ -0,0 +1,186 @@
+package nl.backbase.game.kalah.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.KalahRules;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.ReactiveGameRepository;
+import nl.backbase.game.kalah.utils.IdGenerator;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveGameServiceImpl implements ReactiveGameService {
+
+    private final GameMoves gameMoves;
+    private final ReactiveGameRepository gameRepository;
+    private final GameEventBus gameEventBus;
+    private final IdGenerator idGenerator;
+    private final AiPlayer aiPlayer;
+    private final GameMetrics gameMetrics;
+    private final int maxMoveAttempts;
+
+    @Autowired
+    public ReactiveGameServiceImpl(ReactiveGameRepository gameRepository,
+                                   GameEventBus gameEventBus,
+                                   IdGenerator idGenerator,
+                                   AiPlayer aiPlayer,
+                                   GameMetrics gameMetrics,
+                                   @Value("${kalah.initialNumberOfStones}") int initialNumberOfStones,
+                                   @Value("${kalah.pitsPerSide:6}") int pitsPerSide,
+                                   @Value("${kalah.concurrency.maxMoveAttempts:3}") int maxMoveAttempts) {
+        if (maxMoveAttempts < 1) {
+            throw new IllegalArgumentException("kalah.concurrency.maxMoveAttempts must be at least 1");
+        }
+        this.gameRepository = gameRepository;
+        this.gameEventBus = gameEventBus;
+        this.idGenerator = idGenerator;
+        this.aiPlayer = aiPlayer;
+        this.gameMetrics = gameMetrics;
+        this.gameMoves = new GameMoves(BoardGeometry.of(pitsPerSide), initialNumberOfStones);
+        this.maxMoveAttempts = maxMoveAttempts;
+    }
+
+    public ReactiveGameServiceImpl(ReactiveGameRepository gameRepository, int initialNumberOfStones, int maxMoveAttempts) {
+        this(gameRepository, new LocalGameEventBus(), new SequentialIdGenerator(0), AiPlayer.withDefaults(),
+                GameMetrics.disabled(), initialNumberOfStones, KalahRules.PITS_PER_SIDE, maxMoveAttempts);
+    }
+
+    @Override
+    public Mono<Game> createGame() {
+        return timed(() -> offEventLoop(Mono.fromSupplier(() -> gameMoves.newGame(idGenerator.generateGameId())))
+                .flatMap(gameRepository::save)
+                .doOnNext(game -> gameMetrics.gamesCreated(1)), gameMetrics::recordCreateGame);
+    }
+
+    @Override
+    public Mono<List<Game>> createGames(int count) {
+        return offEventLoop(Mono.fromSupplier(() -> {
+            List<Game> games = new ArrayList<>(count);
+            for (int index = 0; index < count; index++) {
+                games.add(gameMoves.newGame(idGenerator.generateGameId()));
+            }
+            return games;
+        })).flatMap(games -> gameRepository.insert(games).collectList())
+                .doOnNext(games -> gameMetrics.gamesCreated(games.size()));
+    }
+
+    /**
+     * Ids checked against the stored games are generated with a blocking query, which must not run on the event loop
+     */
+    private <T> Mono<T> offEventLoop(Mono<T> ids) {
+        return idGenerator.isBlocking() ? ids.subscribeOn(Schedulers.boundedElastic()) : ids;
+    }
+
+    /**
+     * Records the time from the subscription until the call ended, also when it failed
+     */
+    private static <T> Mono<T> timed(Supplier<Mono<T>> call, LongConsumer record) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doFinally(signal -> record.accept(start));
+        });
+    }
+
+    @Override
+    public Mono<Game> makeMove(String gameId, int pitId) {
+        return timed(() -> update(gameId, game -> {
+            gameMoves.apply(game, pitId);
+            return game;
+        }, game -> true), gameMetrics::recordMakeMove);
+    }
+
+    @Override
+    public Mono<MoveBatchResult> makeMoves(String gameId, int[] pitIds) {
+        return update(gameId, game -> gameMoves.applyAll(game, pitIds), result -> result.getAppliedMoves() > 0);
+    }
+
+    /**
+     * The search runs on the fork/join pool of the {@link AiPlayer}, the move is only made when the game still has the
+     * move count it was chosen for
+     */
+    @Override
+    public Mono<Game> makeAiMove(String gameId) {
+        return findGame(gameId)
+                .flatMap(game -> {
+                    gameMoves.requireNotCompleted(game);
+                    long moveCount = game.getMoveCount();
+                    return Mono.fromFuture(aiPlayer.choosePitAsync(game))
+                            .flatMap(pitId -> update(gameId, current -> {
+                                if (current.getMoveCount() != moveCount) {
+                                    throw new ConcurrentMoveException("GameId: " + gameId + " was changed while the move was chosen, please retry");
+                                }
+                                gameMoves.apply(current, pitId);
+                                return current;
+                            }, current -> true));
+                });
+    }
+
+    /**
+     * Blocking a thread on a lock is not an option here, so moves on the same game only rely on the compare-and-set
+     * save. When the game was changed in the meantime, the game is loaded again and the moves are validated and
+     * applied again, up to kalah.concurrency.maxMoveAttempts times. The new state is published once it is saved.
+     *
+     * @param gameId  Unique Id of the game
+     * @param moves   applies the moves to the loaded game
+     * @param changed whether the game has to be saved
+     * @return emits the result of the moves once the game is saved
+     */
+    private <T> Mono<T> update(String gameId, Function<Game, T> moves, Predicate<T> changed) {
+        return findGame(gameId)
+                .flatMap(game -> {
+                    GameStatus statusBefore = game.getGameStatus();
+                    T result = moves.apply(game);
+                    return changed.test(result) ? gameRepository.save(game)
+                            .doOnNext(saved -> {
+                                gameMetrics.transition(statusBefore, saved.getGameStatus());
+                                gameEventBus.publish(GameEvent.of(saved));
+                            })
+                            .map(saved -> result) : Mono.just(result);
+                })
+                .retryWhen(Retry.max(maxMoveAttempts - 1L)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("GameId {} was changed concurrently, moving again (attempt {})",
+                                gameId, signal.totalRetries() + 1))
+                        .onRetryExhaustedThrow((spec, signal) ->
+                                new ConcurrentMoveException("GameId: " + gameId + " was changed concurrently, please retry")));
+    }
+
+    @Override
+    public Mono<Game> getGame(String gameId) {
+        return timed(() -> findGame(gameId), gameMetrics::recordGetGame);
+    }
+
+    /**
+     * deferred, so every retry loads the game again
+     */
+    private Mono<Game> findGame(String gameId) {
+        return Mono.defer(() -> gameRepository.findById(gameId))
+                .switchIfEmpty(Mono.defer(() -> Mono.error(
+                        new GameNotFoundException("GameId: " + gameId + " is not known while fetching game"))));
+    }
+}
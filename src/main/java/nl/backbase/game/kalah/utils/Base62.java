@@ -0,0 +1,60 @@
+package nl.backbase.game.kalah.utils;
+
+/**
+ * Fixed length base62 encoding of game ids. The digits are in ASCII order, so ids of the same length sort like the
+ * numbers they encode.
+ */
+final class Base62 {
+
+    static final int GAME_ID_LENGTH = 8;
+    /**
+     * 62^8, number of distinct game ids
+     */
+    static final long GAME_ID_SPACE = 218_340_105_584_896L;
+
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private Base62() {
+    }
+
+    /**
+     * @param value number between 0 and {@link #GAME_ID_SPACE}
+     * @return the value as 8 base62 digits, left padded with zeros
+     */
+    static String encodeGameId(long value) {
+        char[] chars = new char[GAME_ID_LENGTH];
+        for (int index = GAME_ID_LENGTH - 1; index >= 0; index--) {
+            chars[index] = DIGITS[(int) (value % 62)];
+            value /= 62;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param gameId 8 base62 digits
+     * @return the number the id encodes
+     */
+    static long decodeGameId(String gameId) {
+        if (gameId.length() != GAME_ID_LENGTH) {
+            throw new IllegalArgumentException("A game id has " + GAME_ID_LENGTH + " characters");
+        }
+        long value = 0;
+        for (int index = 0; index < GAME_ID_LENGTH; index++) {
+            value = value * 62 + digit(gameId.charAt(index));
+        }
+        return value;
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        throw new IllegalArgumentException("Not a base62 digit: " + c);
+    }
+}
@@ -0,0 +1,19 @@
+package nl.backbase.game.kalah.utils;
+
+/**
+ * Generates the ids of new games, selected with {@code kalah.id.mode}
+ */
+public interface IdGenerator {
+
+    /**
+     * @return a 8 character long alphanumeric String, not used by any other game
+     */
+    String generateGameId();
+
+    /**
+     * @return whether generating an id waits for the database, so reactive callers move it off the event loop
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+}
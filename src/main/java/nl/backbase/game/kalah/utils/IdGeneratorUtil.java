@@ -1,31 +1,44 @@
 package nl.backbase.game.kalah.utils;
 
-import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Util class to generate unique ids
  */
 public class IdGeneratorUtil {
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private IdGeneratorUtil() {
     }
 
     /**
-     * Generates a new unique Id
+     * Generates a new unique Id from 128 random bits, without blocking on the secure random
      *
      * @return a 32 character long alphanumeric String
      */
     public static String generateRequestId() {
-        return UUID.randomUUID().toString().replaceAll("-", "");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[32];
+        appendHex(chars, 0, random.nextLong());
+        appendHex(chars, 16, random.nextLong());
+        return new String(chars);
     }
 
     /**
-     * Generates a new game Id
+     * Generates a random game Id. Nothing checks whether the id is used already,
+     * the game service uses the configured {@link IdGenerator}
      *
      * @return a 8 character long alphanumeric String
      */
     public static String generateGameId() {
-        return UUID.randomUUID().toString().replaceAll("-", "").substring(0, 8);
+        return Base62.encodeGameId(ThreadLocalRandom.current().nextLong(Base62.GAME_ID_SPACE));
     }
 
+    private static void appendHex(char[] chars, int offset, long value) {
+        for (int index = offset + 15; index >= offset; index--) {
+            chars[index] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
 }
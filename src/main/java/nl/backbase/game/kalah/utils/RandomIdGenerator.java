@@ -0,0 +1,41 @@
+package nl.backbase.game.kalah.utils;
+
+import java.util.function.Predicate;
+
+/**
+ * {@link IdGenerator} drawing random ids and checking each one against the stored games, for deployments that can
+ * not give every instance its own node id. The check is a blocking query.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    private final Predicate<String> exists;
+    private final int maxAttempts;
+
+    /**
+     * @param exists      whether a game with the id exists
+     * @param maxAttempts number of ids tried before giving up
+     */
+    public RandomIdGenerator(Predicate<String> exists, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("kalah.id.maxAttempts must be at least 1");
+        }
+        this.exists = exists;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public String generateGameId() {
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            String gameId = IdGeneratorUtil.generateGameId();
+            if (!exists.test(gameId)) {
+                return gameId;
+            }
+        }
+        throw new IllegalStateException("No free game id found in " + maxAttempts + " attempts");
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package nl.backbase.game.kalah.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non blocking {@link IdGenerator} packing a timestamp, a counter and the node id into 8 base62 characters.
+ * <p>
+ * The id is {@code sequence * 256 + nodeId}. The sequence counts 1024 ids per second since 2020 and takes the next
+ * free value when more ids are generated, so the ids of a node are strictly increasing and different nodes never
+ * generate the same id. A node can generate 1024 ids per second on average until 2046, bursts borrow from the
+ * coming seconds. A node restarting after a long burst could reuse ids it borrowed, the {@link RandomIdGenerator}
+ * checks every id instead.
+ */
+public class SequentialIdGenerator implements IdGenerator {
+
+    public static final int MAX_NODE_ID = 255;
+
+    private static final long EPOCH_MILLIS = 1_577_836_800_000L;
+    private static final int NODE_BITS = 8;
+    private static final long MAX_SEQUENCE = Base62.GAME_ID_SPACE >> NODE_BITS;
+
+    private final int nodeId;
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    /**
+     * @param nodeId id between 0 and 255, unique for every instance sharing the database
+     */
+    public SequentialIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("kalah.id.nodeId must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * @return node id in the generated game ids
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String generateGameId() {
+        long now = ((System.currentTimeMillis() - EPOCH_MILLIS) << 10) / 1000;
+        long sequence = lastSequence.updateAndGet(last -> Math.max(last + 1, now));
+        if (sequence >= MAX_SEQUENCE) {
+            throw new IllegalStateException("Game ids of node " + nodeId + " are exhausted");
+        }
+        return Base62.encodeGameId(sequence << NODE_BITS | nodeId);
+    }
+
+    /**
+     * @param gameId id generated by a sequential generator
+     * @return id of the node that generated the game id
+     */
+    public static int nodeIdOf(String gameId) {
+        return (int) (Base62.decodeGameId(gameId) & MAX_NODE_ID);
+    }
+}
@@ -62,9 +62,9 @@ public class AspectLoggingTest implements WithBDDMockito {
         request.setMethod("GET");
         Map<String, String> pathVariables = new HashMap<>();
         request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, pathVariables);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/{gameId}");
         ServletRequestAttributes attributes = new ServletRequestAttributes(request);
         RequestContextHolder.setRequestAttributes(attributes);
-        given(proceedingJoinPoint.getSignature()).willReturn(signature);
         logger.setLevel(Level.DEBUG);
 
         // when
@@ -72,10 +72,29 @@ public class AspectLoggingTest implements WithBDDMockito {
 
         //then
         assertEquals(2, listAppender.list.size());
+        assertEquals("Received a GET request on the endpoint /games/{gameId}", listAppender.list.get(0).getFormattedMessage());
+        assertEquals("Success response sent to the GET /games/{gameId} request", listAppender.list.get(1).getFormattedMessage());
+        verify(proceedingJoinPoint).proceed();
+        verifyNoMoreInteractions(signature, proceedingJoinPoint);
+    }
+
+    @Test
+    @DisplayName("SHOULD not log enter and exit logs WHEN the request is not sampled")
+    void testLogControllers_not_sampled() throws Throwable {
+        // given
+        underTest = new AspectLogging(0);
+        request.setRequestURI("/games/12341234");
+        request.setMethod("GET");
+        ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+        logger.setLevel(Level.DEBUG);
+
+        // when
+        underTest.logControllers(proceedingJoinPoint);
+
+        //then
+        assertEquals(0, listAppender.list.size());
         verify(proceedingJoinPoint).proceed();
-        verify(proceedingJoinPoint, times(4)).getSignature();
-        verify(signature, times(2)).getDeclaringTypeName();
-        verify(signature, times(2)).getName();
         verifyNoMoreInteractions(signature, proceedingJoinPoint);
     }
 
@@ -90,13 +109,17 @@ public class AspectLoggingTest implements WithBDDMockito {
         RequestContextHolder.setRequestAttributes(attributes);
         Exception exception = new RuntimeException("message");
         given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        given(proceedingJoinPoint.proceed()).willThrow(exception);
         logger.setLevel(Level.DEBUG);
 
         // when - then
 
         assertThrows(exception.getClass(), () -> underTest.logControllers(proceedingJoinPoint));
-        assertEquals(1, listAppender.list.size());
-        verify(proceedingJoinPoint, times(2)).getSignature();
+        assertEquals(2, listAppender.list.size());
+        assertEquals(Level.ERROR, listAppender.list.get(1).getLevel());
+        assertEquals("message", listAppender.list.get(1).getThrowableProxy().getMessage());
+        verify(proceedingJoinPoint).proceed();
+        verify(proceedingJoinPoint).getSignature();
         verify(signature).getDeclaringTypeName();
         verify(signature).getName();
         verifyNoMoreInteractions(signature, proceedingJoinPoint);
@@ -122,6 +145,7 @@ public class AspectLoggingTest implements WithBDDMockito {
         assertEquals(object, resultObject);
         assertNotNull(listAppender.list.get(0));
         assertNotNull(listAppender.list.get(1));
+        verify(proceedingJoinPoint).getSignature();
         verify(signature, times(2)).getDeclaringTypeName();
         verify(signature, times(2)).getName();
         verify(proceedingJoinPoint).proceed();
@@ -137,7 +161,6 @@ public class AspectLoggingTest implements WithBDDMockito {
         request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/");
         ServletRequestAttributes attributes = new ServletRequestAttributes(request);
         RequestContextHolder.setRequestAttributes(attributes);
-        given(proceedingJoinPoint.getSignature()).willReturn(signature);
         given(proceedingJoinPoint.proceed()).willReturn(object);
         logger.setLevel(Level.INFO);
 
@@ -147,8 +170,6 @@ public class AspectLoggingTest implements WithBDDMockito {
         // then
         assertEquals(object, resultObject);
         assertEquals(0, listAppender.list.size());
-        verify(signature, times(2)).getDeclaringTypeName();
-        verify(signature, times(2)).getName();
         verify(proceedingJoinPoint).proceed();
         verifyNoMoreInteractions(signature, proceedingJoinPoint);
     }
@@ -162,15 +183,12 @@ public class AspectLoggingTest implements WithBDDMockito {
         request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/");
         ServletRequestAttributes attributes = new ServletRequestAttributes(request);
         RequestContextHolder.setRequestAttributes(attributes);
-        given(proceedingJoinPoint.getSignature()).willReturn(signature);
         given(proceedingJoinPoint.proceed()).willThrow(exception);
         logger.setLevel(Level.INFO);
 
         // when then
         assertThrows(exception.getClass(), () -> AspectLogging.logService(proceedingJoinPoint));
         assertEquals(0, listAppender.list.size());
-        verify(signature, times(1)).getDeclaringTypeName();
-        verify(signature, times(1)).getName();
         verify(proceedingJoinPoint).proceed();
         verifyNoMoreInteractions(signature, proceedingJoinPoint, exception);
     }
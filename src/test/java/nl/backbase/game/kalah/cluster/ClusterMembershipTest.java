@@ -0,0 +1,116 @@
+package nl.backbase.game.kalah.cluster;
+
+import nl.backbase.game.kalah.utils.RandomIdGenerator;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterMembershipTest {
+
+    private static final Map<Integer, URI> NODES = ClusterMembership.parseNodes("0=http://kalah-0,1=http://kalah-1/,2=http://kalah-2");
+
+    private final Set<URI> stopped = new HashSet<>();
+
+    @Test
+    @DisplayName("Should let the node that created a game own it on every node")
+    void creatorOwnsGame() {
+        //given
+        List<ClusterMembership> cluster = cluster();
+        String gameId = new SequentialIdGenerator(1).generateGameId();
+
+        //when
+        //then
+        for (ClusterMembership underTest : cluster) {
+            assertEquals(1, underTest.ownerOf(gameId));
+        }
+        assertEquals(URI.create("http://kalah-1"), cluster.get(0).uriOf(1));
+    }
+
+    @Test
+    @DisplayName("Should spread the games of a node that is down over the live nodes and give them back once it is up")
+    void movesGamesOfNodeThatIsDown() {
+        //given
+        List<ClusterMembership> cluster = cluster();
+        List<String> gameIds = new ArrayList<>();
+        for (int nodeId = 0; nodeId < 3; nodeId++) {
+            SequentialIdGenerator idGenerator = new SequentialIdGenerator(nodeId);
+            for (int index = 0; index < 300; index++) {
+                gameIds.add(idGenerator.generateGameId());
+            }
+        }
+
+        //when
+        stopped.add(NODES.get(1));
+        cluster.get(0).probe();
+        cluster.get(2).probe();
+
+        //then
+        int[] owned = new int[3];
+        for (String gameId : gameIds) {
+            int owner = cluster.get(0).ownerOf(gameId);
+            assertEquals(owner, cluster.get(2).ownerOf(gameId));
+            assertNotEquals(1, owner);
+            if (SequentialIdGenerator.nodeIdOf(gameId) != 1) {
+                assertEquals(SequentialIdGenerator.nodeIdOf(gameId), owner);
+            }
+            owned[owner]++;
+        }
+        assertTrue(owned[0] > 400 && owned[2] > 400, () -> owned[0] + " and " + owned[2]);
+        assertFalse(cluster.get(0).isLive(1));
+
+        //when
+        stopped.clear();
+        cluster.get(0).probe();
+
+        //then
+        assertEquals(1, cluster.get(0).ownerOf(gameIds.get(300)));
+    }
+
+    @Test
+    @DisplayName("Should handle requests that are not on a game id itself")
+    void ownsOtherIds() {
+        //given
+        ClusterMembership underTest = cluster().get(2);
+
+        //when
+        //then
+        assertEquals(2, underTest.ownerOf("bulk"));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterMembership(3, NODES, 16, uri -> true));
+        assertThrows(IllegalArgumentException.class, () -> ClusterMembership.parseNodes("0=http://kalah-0,http://kalah-1"));
+    }
+
+    @Test
+    @DisplayName("Should take the node id of the sequential ids and not start with random ids")
+    void requiresSequentialIds() {
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new ClusterMembership(new RandomIdGenerator(gameId -> false, 5), NODES, 16, 60_000, 200));
+
+        //then
+        assertTrue(exception.getMessage().contains("kalah.id.mode=sequential"));
+        try (ClusterMembership underTest = new ClusterMembership(new SequentialIdGenerator(1), NODES, 16, 60_000, 200)) {
+            assertTrue(underTest.isSelf(1));
+        }
+    }
+
+    private List<ClusterMembership> cluster() {
+        List<ClusterMembership> cluster = new ArrayList<>();
+        for (int nodeId = 0; nodeId < 3; nodeId++) {
+            cluster.add(new ClusterMembership(nodeId, NODES, 64, uri -> !stopped.contains(uri)));
+        }
+        return cluster;
+    }
+}
@@ -0,0 +1,55 @@
+package nl.backbase.game.kalah.cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForwardingRequestFactoryTest {
+
+    private final ForwardingRequestFactory underTest = new ForwardingRequestFactory(200, 200);
+
+    @Test
+    @DisplayName("Should throw a connect exception when the owner does not connect")
+    void failsToConnect() throws Exception {
+        //given
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        ClientHttpRequest request = underTest.createRequest(URI.create("http://localhost:" + port + "/games/12341234/pits/3"),
+                HttpMethod.PUT);
+        request.getBody().write("{}".getBytes(StandardCharsets.UTF_8));
+
+        //when //then
+        assertThrows(ConnectException.class, request::execute);
+    }
+
+    @Test
+    @DisplayName("Should not throw a connect exception when the owner connected but did not answer")
+    void failsToRead() throws Exception {
+        // connections are accepted by the backlog, nothing is ever read or answered
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            //given
+            ClientHttpRequest request = underTest.createRequest(
+                    URI.create("http://localhost:" + serverSocket.getLocalPort() + "/games/12341234/pits/3"), HttpMethod.PUT);
+            request.getBody().write("{}".getBytes(StandardCharsets.UTF_8));
+
+            //when
+            IOException exception = assertThrows(IOException.class, () -> request.execute().getRawStatusCode());
+
+            //then
+            assertTrue(exception instanceof SocketTimeoutException);
+        }
+    }
+}
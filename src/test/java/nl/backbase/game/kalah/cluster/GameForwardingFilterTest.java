@@ -0,0 +1,197 @@
+package nl.backbase.game.kalah.cluster;
+
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Three nodes in process, connected by a request factory that hands the forwarded requests to the filter of the node
+ */
+class GameForwardingFilterTest {
+
+    private static final Map<Integer, URI> NODES = ClusterMembership.parseNodes("0=http://kalah-0,1=http://kalah-1,2=http://kalah-2");
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Set<Integer> stopped = new HashSet<>();
+    private final Set<Integer> hanging = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int nodeId = 0; nodeId < NODES.size(); nodeId++) {
+            nodes.add(new Node(nodeId));
+        }
+    }
+
+    @Test
+    @DisplayName("Should forward a request on a game to the node that created it")
+    void forwardsToOwner() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(1).generateGameId();
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/games/" + gameId + "/moves");
+        request.setContent("[1,2]".getBytes(StandardCharsets.UTF_8));
+
+        //when
+        MockHttpServletResponse response = nodes.get(0).handle(request);
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("1 [1,2]", response.getContentAsString());
+        assertEquals("0", nodes.get(1).forwardedBy);
+    }
+
+    @Test
+    @DisplayName("Should handle a request on this node when it owns the game or the request is not on a game")
+    void handlesOwnGames() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(2).generateGameId();
+
+        //when
+        MockHttpServletResponse own = nodes.get(2).handle(new MockHttpServletRequest("GET", "/games/" + gameId));
+        MockHttpServletResponse bulk = nodes.get(0).handle(new MockHttpServletRequest("POST", "/games/bulk"));
+
+        //then
+        assertEquals("2 ", own.getContentAsString());
+        assertEquals("0 ", bulk.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should not forward a forwarded request again when the nodes disagree on the owner")
+    void forwardsOnce() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(2).generateGameId();
+        nodes.get(1).membership.markDown(2);
+
+        //when
+        MockHttpServletResponse response = nodes.get(0).handle(new MockHttpServletRequest("GET", "/games/" + gameId));
+
+        //then
+        assertEquals("2 ", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should handle the request on this node and take the owner off the ring when it does not connect")
+    void handlesLocallyWhenOwnerIsDown() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(1).generateGameId();
+        stopped.add(1);
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/games/" + gameId + "/pits/3");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+
+        //when
+        MockHttpServletResponse response = nodes.get(0).handle(request);
+
+        //then
+        assertEquals("0 {}", response.getContentAsString());
+        assertFalse(nodes.get(0).membership.isLive(1));
+        assertTrue(nodes.get(0).membership.ownerOf(gameId) != 1);
+    }
+
+    @Test
+    @DisplayName("Should answer a move with 503 when the owner got it but did not answer")
+    void doesNotRepeatUnansweredMove() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(1).generateGameId();
+        hanging.add(1);
+
+        //when
+        MockHttpServletResponse response = nodes.get(0).handle(new MockHttpServletRequest("PUT", "/games/" + gameId + "/pits/3"));
+
+        //then
+        assertEquals(503, response.getStatus());
+        assertNull(nodes.get(0).handledBody);
+    }
+
+    @Test
+    @DisplayName("Should redirect an event stream to the owner instead of holding a thread for it")
+    void redirectsEventStreams() throws Exception {
+        //given
+        String gameId = new SequentialIdGenerator(1).generateGameId();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/" + gameId + "/events");
+        request.setQueryString("since=3");
+
+        //when
+        MockHttpServletResponse response = nodes.get(0).handle(request);
+
+        //then
+        assertEquals(307, response.getStatus());
+        assertEquals("http://kalah-1/games/" + gameId + "/events?since=3", response.getHeader("Location"));
+        assertNull(nodes.get(1).handledBody);
+    }
+
+    private final class Node {
+        private final ClusterMembership membership;
+        private final GameForwardingFilter underTest;
+        private String forwardedBy;
+        private String handledBody;
+
+        private Node(int nodeId) {
+            membership = new ClusterMembership(nodeId, NODES, 16, uri -> true);
+            ClientHttpRequestFactory network = (uri, method) -> new MockClientHttpRequest(method, uri) {
+                @Override
+                protected ClientHttpResponse executeInternal() throws IOException {
+                    int target = Integer.parseInt(uri.getHost().substring("kalah-".length()));
+                    if (stopped.contains(target)) {
+                        throw new ConnectException("Connection refused");
+                    }
+                    if (hanging.contains(target)) {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                    MockHttpServletRequest request = new MockHttpServletRequest(method.name(), uri.getPath());
+                    getHeaders().forEach((name, values) -> values.forEach(value -> request.addHeader(name, value)));
+                    request.setContent(getBodyAsBytes());
+                    MockHttpServletResponse response;
+                    try {
+                        response = nodes.get(target).handle(request);
+                    } catch (ServletException e) {
+                        throw new IOException(e);
+                    }
+                    return new MockClientHttpResponse(response.getContentAsByteArray(), HttpStatus.valueOf(response.getStatus()));
+                }
+            };
+            underTest = new GameForwardingFilter(membership, network);
+        }
+
+        private MockHttpServletResponse handle(MockHttpServletRequest request) throws IOException, ServletException {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            underTest.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    forwardedBy = request.getHeader(GameForwardingFilter.FORWARDED_BY_HEADER);
+                    handledBody = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+                    response.getWriter().write(membership.getSelfNodeId() + " " + handledBody);
+                }
+            }));
+            return response;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package nl.backbase.game.kalah.controller;
 
 import info.solidsoft.mockito.java8.api.WithBDDMockito;
 import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
 import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
 import nl.backbase.game.kalah.service.GameService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,8 +18,11 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -29,6 +34,8 @@ public class GameControllerMvcTest implements WithBDDMockito {
     private MockMvc mockMvc;
     @MockBean
     private GameService gameService;
+    @MockBean
+    private GameVersionIndex gameVersionIndex;
 
     @Test
     @DisplayName("Should respond with 201 and return GameResponse with ID & uri")
@@ -68,6 +75,44 @@ public class GameControllerMvcTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameService);
     }
 
+    @Test
+    @DisplayName("Should respond with 201 and return the ID & uri of every created game")
+    void createGamesHappy() throws Exception {
+        //given
+        given(gameService.createGames(2)).willReturn(Arrays.asList(
+                Game.builder().id("12341234").build(), Game.builder().id("43214321").build()));
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(post("/games/bulk?count=2")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(201, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"uri\":\"http://localhost/games/12341234\""));
+        assertTrue(response.getContentAsString().contains("\"uri\":\"http://localhost/games/43214321\""));
+        verify(gameService).createGames(2);
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when more games are requested than allowed in one request")
+    void createGamesUnHappy_when_count_too_large() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(post("/games/bulk?count=1001")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("games can be created in one request"));
+        verifyNoMoreInteractions(gameService);
+    }
+
     @Test
     @DisplayName("Should respond with 201 and return GameResponse with ID & uri")
     void getGameHappy() throws Exception {
@@ -90,6 +135,103 @@ public class GameControllerMvcTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameService);
     }
 
+    @Test
+    @DisplayName("Should respond with the move count of the game as ETag")
+    void getGameHappy_with_etag() throws Exception {
+        //given
+        Game game = Game.builder().id("12345678")
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{0, 5, 5, 5, 5, 5, 0, 4, 4, 4, 4, 4, 4, 0})
+                .moveCount(1)
+                .build();
+        given(gameService.getGame("12345678")).willReturn(game);
+        given(gameVersionIndex.moveCount("12345678")).willReturn(null);
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/games/12345678")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("\"1\"", response.getHeader(HttpHeaders.ETAG));
+        verify(gameVersionIndex).update(game);
+    }
+
+    @Test
+    @DisplayName("Should respond with 304 from the version index without loading the game")
+    void getGameNotModified_from_index() throws Exception {
+        //given
+        given(gameVersionIndex.moveCount("12345678")).willReturn(3L);
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/games/12345678")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(304, response.getStatus());
+        assertEquals("\"3\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("", response.getContentAsString());
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 304 when the loaded game is not changed and the index does not know the game")
+    void getGameNotModified_after_load() throws Exception {
+        //given
+        Game game = Game.builder().id("12345678")
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{0, 5, 5, 5, 5, 5, 0, 4, 4, 4, 4, 4, 4, 0})
+                .moveCount(1)
+                .build();
+        given(gameService.getGame("12345678")).willReturn(game);
+        given(gameVersionIndex.moveCount("12345678")).willReturn(null);
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/games/12345678")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\", \"1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(304, response.getStatus());
+        verify(gameService).getGame("12345678");
+        verify(gameVersionIndex).update(game);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and the game after the move made by the server")
+    void makeAiMoveHappy() throws Exception {
+        //given
+        Game game = Game.builder().id("12345678")
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .isSecondPlayerMove(true)
+                .build();
+        given(gameService.makeAiMove("12345678")).willReturn(game);
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(put("/games/12345678/ai-move")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Second Player should move the coin(s)"));
+        verify(gameService).makeAiMove("12345678");
+    }
+
     @Test
     @DisplayName("Should respond with 201 and return GameResponse with ID & uri")
     void getGameUnHappy_when_invalid_gameid() throws Exception {
@@ -241,4 +383,71 @@ public class GameControllerMvcTest implements WithBDDMockito {
         assertTrue(response.getContentAsString().contains("Coins from house should not be allowed to move"));
         verifyNoMoreInteractions(gameService);
     }
+
+    @Test
+    @DisplayName("Should respond with 409 when the game was changed concurrently")
+    void makeMoveUnHappy_when_game_changed_concurrently() throws Exception {
+        //given
+        given(gameService.makeMove("12345678", 1)).willThrow(new ConcurrentMoveException("GameId: 12345678 was changed concurrently, please retry"));
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(put("/games/12345678/pits/1")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(409, response.getStatus());
+        assertTrue(response.getContentAsString().contains("was changed concurrently"));
+        verify(gameService).makeMove("12345678", 1);
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and return the game after the moves and the first rejected move")
+    void makeMovesHappy() throws Exception {
+        //given
+        Game game = Game.builder().id("12345678")
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .build();
+        given(gameService.makeMoves(eq("12345678"), any(int[].class))).willReturn(MoveBatchResult.builder()
+                .game(game)
+                .appliedMoves(1)
+                .rejectedMoveIndex(1)
+                .rejectionMessage("Player two is not allowed to move")
+                .build());
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(put("/games/12345678/moves")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("[1, 8]"))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"appliedMoves\":1,\"rejectedMoveIndex\":1"));
+        verify(gameService).makeMoves(eq("12345678"), aryEq(new int[]{1, 8}));
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when no moves are sent")
+    void makeMovesUnHappy_when_no_moves() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(put("/games/12345678/moves")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("moves are allowed in one request"));
+        verifyNoMoreInteractions(gameService);
+    }
 }
@@ -0,0 +1,100 @@
+package nl.backbase.game.kalah.controller;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventHub;
+import nl.backbase.game.kalah.event.GameEventSink;
+import nl.backbase.game.kalah.event.GameSubscription;
+import nl.backbase.game.kalah.service.GameService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(value = GameEventController.class)
+public class GameEventControllerMvcTest implements WithBDDMockito {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private GameService gameService;
+    @MockBean
+    private GameEventHub gameEventHub;
+
+    private final GameSubscription gameSubscription = mock(GameSubscription.class);
+
+    @Test
+    @DisplayName("Should open the event stream and start with the current state of the game")
+    void streamGameHappy() throws Exception {
+        //given
+        Game game = Game.builder().id("12345678")
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+        given(gameEventHub.subscribe(eq("12345678"), any(GameEventSink.class))).willReturn(gameSubscription);
+        given(gameService.getGame("12345678")).willReturn(game);
+        ArgumentCaptor<GameEvent> initial = ArgumentCaptor.forClass(GameEvent.class);
+
+        //when
+        MvcResult result = mockMvc
+                .perform(get("/games/12345678/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        //then
+        assertTrue(result.getRequest().isAsyncStarted());
+        assertEquals(200, result.getResponse().getStatus());
+        verify(gameSubscription).offerInitial(initial.capture());
+        assertEquals(Arrays.toString(game.getPits()), Arrays.toString(initial.getValue().toGame().getPits()));
+        verify(gameSubscription, never()).cancel();
+    }
+
+    @Test
+    @DisplayName("Should respond with 404 and cancel the subscription when the game is not known")
+    void streamGameUnHappy_when_game_not_found() throws Exception {
+        //given
+        given(gameEventHub.subscribe(eq("12345678"), any(GameEventSink.class))).willReturn(gameSubscription);
+        given(gameService.getGame("12345678")).willThrow(new GameNotFoundException("GameId: 12345678 is not known"));
+
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/games/12345678/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(404, response.getStatus());
+        verify(gameSubscription).cancel();
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when the game id is invalid")
+    void streamGameUnHappy_when_invalid_gameId() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/games/1234/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn().getResponse();
+
+        //then
+        assertEquals(400, response.getStatus());
+        verifyNoMoreInteractions(gameService, gameEventHub);
+    }
+}
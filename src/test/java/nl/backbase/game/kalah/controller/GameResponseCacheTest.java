@@ -0,0 +1,64 @@
+package nl.backbase.game.kalah.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.rest.GameResponse;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LocalGameEventBus gameEventBus = new LocalGameEventBus();
+    private final GameResponseCache underTest = new GameResponseCache(gameEventBus, objectMapper, 2);
+
+    @Test
+    @DisplayName("Should reuse the encoded response while the game is unchanged")
+    void reusesEncodedResponse() throws Exception {
+        GameResponse first = underTest.toResponse(game("12345678", 4));
+        GameResponse second = underTest.toResponse(game("12345678", 4));
+
+        assertSame(first.getEncoded(), second.getEncoded());
+        assertEquals(objectMapper.writeValueAsString(GameControllerSupport.toResponse(game("12345678", 4))),
+                objectMapper.writeValueAsString(second));
+    }
+
+    @Test
+    @DisplayName("Should encode again when the game changed, even without an invalidation")
+    void encodesChangedGame() {
+        GameResponse first = underTest.toResponse(game("12345678", 4));
+        GameResponse changed = underTest.toResponse(game("12345678", 5));
+
+        assertNotSame(first.getEncoded(), changed.getEncoded());
+        assertTrue(changed.getEncoded().contains("\"1\":5"));
+    }
+
+    @Test
+    @DisplayName("Should drop the encoded response when the game is saved and evict beyond the capacity")
+    void invalidatesAndEvicts() {
+        underTest.toResponse(game("12345678", 4));
+        underTest.toResponse(game("23456789", 4));
+        underTest.toResponse(game("34567890", 4));
+        assertEquals(2, underTest.size());
+
+        gameEventBus.publish(GameEvent.of(game("34567890", 4)));
+
+        assertEquals(1, underTest.size());
+    }
+
+    private static Game game(String gameId, int firstPit) {
+        return Game.builder()
+                .id(gameId)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{firstPit, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package nl.backbase.game.kalah.controller;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameVersionIndexTest {
+
+    private final LocalGameEventBus gameEventBus = new LocalGameEventBus(true);
+
+    private GameVersionIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new GameVersionIndex(gameEventBus, 2, 60_000, 60_000);
+    }
+
+    @Test
+    @DisplayName("Should follow the move count of the saved games")
+    void followsSavedGames() {
+        //when
+        gameEventBus.publish(event("12341234", 1));
+        gameEventBus.publish(event("12341234", 2));
+
+        //then
+        assertEquals(Long.valueOf(2), underTest.moveCount("12341234"));
+        assertNull(underTest.moveCount("43214321"));
+    }
+
+    @Test
+    @DisplayName("Should keep the latest move count when an older state is loaded afterwards")
+    void keepsLatestMoveCount() {
+        //given
+        gameEventBus.publish(event("12341234", 3));
+
+        //when
+        underTest.update(game("12341234", 2, GameStatus.IN_PROGRESS));
+
+        //then
+        assertEquals(Long.valueOf(3), underTest.moveCount("12341234"));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used games above the capacity")
+    void evictsLeastRecentlyUsed() {
+        //given
+        underTest.update(game("11111111", 1, GameStatus.IN_PROGRESS));
+        underTest.update(game("22222222", 1, GameStatus.IN_PROGRESS));
+        underTest.moveCount("11111111");
+
+        //when
+        underTest.update(game("33333333", 1, GameStatus.IN_PROGRESS));
+
+        //then
+        assertEquals(2, underTest.size());
+        assertEquals(Long.valueOf(1), underTest.moveCount("11111111"));
+        assertNull(underTest.moveCount("22222222"));
+    }
+
+    @Test
+    @DisplayName("Should not start on a bus that does not reach every instance")
+    void requiresBusReachingAllInstances() {
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new GameVersionIndex(new LocalGameEventBus(), 2, 60_000, 60_000));
+
+        //then
+        assertTrue(exception.getMessage().contains("kalah.events.singleInstance"));
+    }
+
+    @Test
+    @DisplayName("Should drop games that may have been deleted by the TTL index or archived")
+    void dropsDeletableGames() {
+        //given
+        underTest = new GameVersionIndex(gameEventBus, 10, 0, 60_000);
+        Game archived = game("33333333", 40, GameStatus.DRAW);
+        archived.setLastActivity(new Date(System.currentTimeMillis() - 120_000));
+        Game expired = game("44444444", 3, GameStatus.IN_PROGRESS);
+        expired.setExpiresAt(new Date(System.currentTimeMillis() - 1));
+
+        //when
+        gameEventBus.publish(event("11111111", 2));
+        gameEventBus.publish(GameEvent.of(game("22222222", 40, GameStatus.FIRSTPLAYERWON)));
+        underTest.update(archived);
+        underTest.update(expired);
+
+        //then
+        assertNull(underTest.moveCount("11111111"));
+        assertEquals(Long.valueOf(40), underTest.moveCount("22222222"));
+        assertNull(underTest.moveCount("33333333"));
+        assertNull(underTest.moveCount("44444444"));
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    @DisplayName("Should replace a higher move count by a correction")
+    void appliesCorrection() {
+        //given
+        gameEventBus.publish(event("12341234", 5));
+
+        //when
+        gameEventBus.publish(GameEvent.correction(game("12341234", 3, GameStatus.IN_PROGRESS)));
+
+        //then
+        assertEquals(Long.valueOf(3), underTest.moveCount("12341234"));
+    }
+
+    private static GameEvent event(String gameId, long moveCount) {
+        return GameEvent.of(game(gameId, moveCount, GameStatus.IN_PROGRESS));
+    }
+
+    private static Game game(String gameId, long moveCount, GameStatus gameStatus) {
+        return Game.builder()
+                .id(gameId)
+                .gameStatus(gameStatus)
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .moveCount(moveCount)
+                .build();
+    }
+}
@@ -0,0 +1,293 @@
+package nl.backbase.game.kalah.controller;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.service.ReactiveGameService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+
+/**
+ * Same scenarios as {@link GameControllerMvcTest} against the reactive stack
+ */
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(controllers = ReactiveGameController.class)
+@ActiveProfiles("reactive")
+public class ReactiveGameControllerTest implements WithBDDMockito {
+    @Autowired
+    private WebTestClient webTestClient;
+    @MockBean
+    private ReactiveGameService gameService;
+
+    @Test
+    @DisplayName("Should respond with 201 and return GameResponse with ID & uri")
+    void createGameHappy() {
+        //given
+        Game game = Game.builder().id("12344").build();
+        given(gameService.createGame()).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .post().uri("/games")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(201, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("\"id\":\"12344\""));
+        assertTrue(response.getResponseBody().contains("/games/12344\""));
+        verify(gameService).createGame();
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 415 when content type is not present in headers")
+    void createGameUnHappy_when_no_contentType() {
+        //given
+        Game game = Game.builder().id("12344").build();
+        given(gameService.createGame()).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .post().uri("/games")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(415, response.getStatus().value());
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and return GameResponse with ID & status")
+    void getGameHappy() {
+        //given
+        Game game = Game.builder().id("12345678")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+        given(gameService.getGame("12345678")).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .get().uri("/games/12345678")
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(200, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("\"1\":4"));
+        verify(gameService).getGame("12345678");
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when game id is not 8 characters")
+    void getGameUnHappy_when_invalid_gameid() {
+        //given
+        Game game = Game.builder().id("1234")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+        given(gameService.getGame("1234")).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .get().uri("/games/1234")
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(400, response.getStatus().value());
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 404 when the game is not known")
+    void getGameUnHappy_when_game_not_found() {
+        //given
+        given(gameService.getGame("12345678")).willReturn(Mono.error(new GameNotFoundException("GameId: 12345678 is not known while fetching game")));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .get().uri("/games/12345678")
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(404, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("is not known"));
+        verify(gameService).getGame("12345678");
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 405 when games are listed")
+    void getGameUnHappy_when_no_contentType() {
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .get().uri("/games")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(405, response.getStatus().value());
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and return GameResponse with ID & status")
+    void makeMoveHappy() {
+        //given
+        Game game = Game.builder().id("12345678")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+        given(gameService.makeMove("12345678", 1)).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = put("/games/12345678/pits/1");
+
+        //then
+        assertEquals(200, response.getStatus().value());
+        verify(gameService).makeMove("12345678", 1);
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and ask the second player to move")
+    void makeMoveHappy_when_secondplayer_move() {
+        //given
+        Game game = Game.builder().id("12345678")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .isSecondPlayerMove(true)
+                .build();
+        given(gameService.makeMove("12345678", 8)).willReturn(Mono.just(game));
+
+        //when
+        EntityExchangeResult<String> response = put("/games/12345678/pits/8");
+
+        //then
+        assertEquals(200, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("Second Player should move the coin(s)"));
+        verify(gameService).makeMove("12345678", 8);
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when pit id is more than 14")
+    void makeMoveUnHappy_InvalidPit() {
+        //when
+        EntityExchangeResult<String> response = put("/games/12345678/pits/46");
+
+        //then
+        assertEquals(400, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("Invalid Pit"));
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when game id is not 8 characters")
+    void makeMoveUnHappy_InvalidGameId() {
+        //when
+        EntityExchangeResult<String> response = put("/games/1234567811111/pits/4");
+
+        //then
+        assertEquals(400, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("Invalid Game ID"));
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 400 when pit id is house")
+    void makeMoveUnHappy_when_pit_id_is_kalah() {
+        //when
+        EntityExchangeResult<String> response = put("/games/12341234/pits/7");
+
+        //then
+        assertEquals(400, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("Coins from house should not be allowed to move"));
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 409 when the game was changed concurrently")
+    void makeMoveUnHappy_when_game_changed_concurrently() {
+        //given
+        given(gameService.makeMove("12345678", 1)).willReturn(Mono.error(new ConcurrentMoveException("GameId: 12345678 was changed concurrently, please retry")));
+
+        //when
+        EntityExchangeResult<String> response = put("/games/12345678/pits/1");
+
+        //then
+        assertEquals(409, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("was changed concurrently"));
+        verify(gameService).makeMove("12345678", 1);
+        verifyNoMoreInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Should respond with 200 and return the game after the moves and the first rejected move")
+    void makeMovesHappy() {
+        //given
+        Game game = Game.builder().id("12345678")
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .build();
+        given(gameService.makeMoves(eq("12345678"), any(int[].class))).willReturn(Mono.just(MoveBatchResult.builder()
+                .game(game)
+                .appliedMoves(1)
+                .rejectedMoveIndex(1)
+                .rejectionMessage("Player two is not allowed to move")
+                .build()));
+
+        //when
+        EntityExchangeResult<String> response = webTestClient
+                .put().uri("/games/12345678/moves")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, 8]")
+                .exchange()
+                .expectBody(String.class).returnResult();
+
+        //then
+        assertEquals(200, response.getStatus().value());
+        assertTrue(response.getResponseBody().contains("\"appliedMoves\":1,\"rejectedMoveIndex\":1"));
+        verify(gameService).makeMoves(eq("12345678"), aryEq(new int[]{1, 8}));
+        verifyNoMoreInteractions(gameService);
+    }
+
+    private EntityExchangeResult<String> put(String uri) {
+        return webTestClient
+                .put().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBody(String.class).returnResult();
+    }
+}
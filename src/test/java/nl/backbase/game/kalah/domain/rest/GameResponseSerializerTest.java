@@ -0,0 +1,78 @@
+package nl.backbase.game.kalah.domain.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GameResponseSerializerTest {
+
+    private static final String GAME_JSON = "{\"id\":\"12345678\",\"status\":{\"1\":0,\"2\":7,\"3\":7,\"4\":7,\"5\":7,"
+            + "\"6\":7,\"7\":1,\"8\":6,\"9\":6,\"10\":6,\"11\":6,\"12\":6,\"13\":6,\"14\":0},"
+            + "\"playerMessage\":\"Second Player should move the coin(s)\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should write the pits as status object in pit order")
+    void serializePits() throws Exception {
+        GameResponse response = GameResponse.builder()
+                .id("12345678")
+                .pits(new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0})
+                .playerMessage("Second Player should move the coin(s)")
+                .build();
+
+        assertEquals(GAME_JSON, objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    @DisplayName("Should write a status map the same way as the pits")
+    void serializeStatusMap() throws Exception {
+        int[] pits = {0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0};
+        Map<Integer, Integer> status = new HashMap<>();
+        for (int pitId = 1; pitId <= 14; pitId++) {
+            status.put(pitId, pits[pitId - 1]);
+        }
+        GameResponse response = GameResponse.builder()
+                .id("12345678")
+                .status(status)
+                .playerMessage("Second Player should move the coin(s)")
+                .build();
+
+        assertEquals(GAME_JSON, objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    @DisplayName("Should leave out the fields that are not set")
+    void serializeCreatedAndBatchResponses() throws Exception {
+        GameResponse created = GameResponse.builder().id("12345678").uri("http://localhost/games/12345678").build();
+        GameResponse batch = GameResponse.builder()
+                .id("12345678")
+                .pits(new int[]{1, 2})
+                .appliedMoves(1)
+                .rejectedMoveIndex(1)
+                .rejectionMessage("Player two is not allowed to move")
+                .build();
+
+        assertEquals("{\"id\":\"12345678\",\"uri\":\"http://localhost/games/12345678\"}",
+                objectMapper.writeValueAsString(created));
+        assertEquals("{\"id\":\"12345678\",\"status\":{\"1\":1,\"2\":2},\"appliedMoves\":1,\"rejectedMoveIndex\":1,"
+                + "\"rejectionMessage\":\"Player two is not allowed to move\"}", objectMapper.writeValueAsString(batch));
+    }
+
+    @Test
+    @DisplayName("Should write an encoded response as is")
+    void serializeEncoded() throws Exception {
+        GameResponse response = GameResponse.builder()
+                .id("12345678")
+                .pits(new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0})
+                .encoded(GAME_JSON)
+                .build();
+
+        assertEquals("[" + GAME_JSON + "]", objectMapper.writeValueAsString(new GameResponse[]{response}));
+    }
+}
@@ -0,0 +1,133 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndgameDatabaseTest {
+
+    private static final int MAX_STONES = 5;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("endgame", ".db");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdownNow();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Should hold the perfect play value of every position up to the maximum stones")
+    void solvesAllPositions() throws IOException {
+        //given
+        new EndgameDatabaseBuilder(MAX_STONES).build(file, pool);
+        PositionIndex positionIndex = new PositionIndex(MAX_STONES);
+        int[] position = new int[PositionIndex.PITS];
+
+        //when
+        EndgameDatabase underTest = EndgameDatabase.open(file);
+
+        //then
+        assertEquals(MAX_STONES, underTest.getMaxStones());
+        for (int stones = 0; stones <= MAX_STONES; stones++) {
+            for (long index = positionIndex.firstOf(stones); index < positionIndex.firstOf(stones + 1); index++) {
+                positionIndex.positionOf(index, stones, position);
+                for (boolean isSecondPlayerMove : new boolean[]{false, true}) {
+                    PackedBoard board = boardOf(position, isSecondPlayerMove);
+                    assertEquals(index, positionIndex.indexOf(board, stones));
+                    assertEquals(perfectPlay(board), underTest.value(board), () -> Arrays.toString(board.toPits()));
+                }
+            }
+        }
+        assertFalse(underTest.contains(PackedBoard.of(new int[]{1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0}, false, GameStatus.IN_PROGRESS)));
+    }
+
+    @Test
+    @DisplayName("Should answer a search from the database after the first iteration")
+    void searchLooksUpValues() throws IOException {
+        //given
+        new EndgameDatabaseBuilder(MAX_STONES).build(file, pool);
+        KalahSearch underTest = new KalahSearch(pool, 10, KalahSearch.MAX_DEPTH, EndgameDatabase.open(file));
+        PackedBoard board = PackedBoard.of(new int[]{0, 0, 0, 0, 2, 1, 30, 0, 1, 0, 0, 0, 1, 36}, true, GameStatus.IN_PROGRESS);
+
+        //when
+        SearchResult result = underTest.search(board, TimeUnit.SECONDS.toNanos(60));
+
+        //then
+        int finalDifference = 36 - 30 + perfectPlay(board);
+        assertEquals(Integer.signum(finalDifference) * KalahSearch.WIN + finalDifference, result.getScore());
+        assertEquals(1, result.getDepth());
+        assertTrue(result.getPitId() >= 8 && result.getPitId() <= 13);
+    }
+
+    @Test
+    @DisplayName("Should not open a file which is not a complete endgame database")
+    void rejectsOtherFiles() throws IOException {
+        //given
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> EndgameDatabase.open(file));
+    }
+
+    private static PackedBoard boardOf(int[] position, boolean isSecondPlayerMove) {
+        int[] pits = new int[PackedBoard.NUMBER_OF_PITS];
+        for (int index = 0; index < PositionIndex.PITS; index++) {
+            pits[PositionIndex.pitOf(index, isSecondPlayerMove) - 1] = position[index];
+        }
+        return PackedBoard.of(pits, isSecondPlayerMove, GameStatus.IN_PROGRESS);
+    }
+
+    /**
+     * plain minimax until the end of the game, the stones the player to move gains more than the opponent
+     */
+    private static int perfectPlay(PackedBoard board) {
+        boolean isSecondPlayerMove = board.isSecondPlayerMove();
+        KalahBoard end = KalahBoard.wrap(board.toPits(), isSecondPlayerMove, GameStatus.IN_PROGRESS);
+        if (KalahRules.STANDARD.completeIfSideEmpty(end)) {
+            return kalahGain(board, PackedBoard.of(end.getPits(), isSecondPlayerMove, end.getGameStatus()), isSecondPlayerMove);
+        }
+        int firstPit = isSecondPlayerMove ? 8 : 1;
+        int best = Integer.MIN_VALUE;
+        for (int pit = firstPit; pit < firstPit + KalahRules.PITS_PER_SIDE; pit++) {
+            if (board.getStones(pit) == 0) {
+                continue;
+            }
+            PackedBoard child = PackedBoard.of(board.getLow(), board.getHigh());
+            child.move(pit, KalahBoard.wrap(new int[KalahRules.NUMBER_OF_PITS], false, GameStatus.IN_PROGRESS));
+            int value = kalahGain(board, child, isSecondPlayerMove);
+            if (child.getGameStatus() == GameStatus.IN_PROGRESS) {
+                int next = perfectPlay(child);
+                value += child.isSecondPlayerMove() == isSecondPlayerMove ? next : -next;
+            }
+            best = Math.max(best, value);
+        }
+        return best;
+    }
+
+    private static int kalahGain(PackedBoard before, PackedBoard after, boolean isSecondPlayerMove) {
+        int gain = after.getStones(7) - before.getStones(7) - (after.getStones(14) - before.getStones(14));
+        return isSecondPlayerMove ? -gain : gain;
+    }
+}
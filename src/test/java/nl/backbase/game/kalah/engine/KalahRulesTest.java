@@ -0,0 +1,294 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KalahRulesTest {
+
+    private final KalahRules underTest = KalahRules.STANDARD;
+
+    @Test
+    @DisplayName("Should apply the same rules as the stone by stone implementation on random games")
+    void differentialAgainstLegacyRules() {
+        Random random = new Random(20200610L);
+        KalahBoard scratch = KalahBoard.wrap(new int[KalahRules.NUMBER_OF_PITS], false, GameStatus.IN_PROGRESS);
+        int comparedMoves = 0;
+        for (int game = 0; game < 20_000; game++) {
+            int[] pits = randomPits(random);
+            LegacyRules legacy = new LegacyRules(pits.clone(), random.nextBoolean());
+            KalahBoard board = KalahBoard.wrap(pits, legacy.isSecondPlayerMove, GameStatus.IN_PROGRESS);
+
+            while (legacy.gameStatus == GameStatus.IN_PROGRESS) {
+                int pitId = randomPit(random, legacy);
+                if (pitId < 0 || !legacy.canMove(pitId)) {
+                    break;
+                }
+                PackedBoard packedBoard = PackedBoard.of(pits, board.isSecondPlayerMove(), board.getGameStatus());
+
+                legacy.makeMove(pitId);
+                underTest.move(board, pitId);
+                packedBoard.move(pitId, scratch);
+                comparedMoves++;
+
+                assertArrayEquals(legacy.pits, board.getPits(), () -> "pits differ after moving pit " + pitId);
+                assertEquals(legacy.isSecondPlayerMove, board.isSecondPlayerMove());
+                assertEquals(legacy.gameStatus, board.getGameStatus());
+                assertEquals(IntStream.range(0, 6).map(index -> legacy.pits[index]).sum(), board.getFirstPlayerStones());
+                assertEquals(IntStream.range(7, 13).map(index -> legacy.pits[index]).sum(), board.getSecondPlayerStones());
+                assertArrayEquals(legacy.pits, packedBoard.toPits());
+                assertEquals(legacy.isSecondPlayerMove, packedBoard.isSecondPlayerMove());
+                assertEquals(legacy.gameStatus, packedBoard.getGameStatus());
+            }
+        }
+        assertTrue(comparedMoves > 100_000);
+    }
+
+    @Test
+    @DisplayName("Should add full laps at once and drop the stones sown into the chosen pit")
+    void fullLaps() {
+        int[] pits = {0, 0, 0, 0, 0, 28, 0, 0, 0, 0, 0, 0, 1, 0};
+        KalahBoard board = KalahBoard.wrap(pits, false, GameStatus.IN_PROGRESS);
+
+        int lastPit = underTest.move(board, 6);
+
+        assertEquals(8, lastPit);
+        assertEquals(Arrays.toString(new int[]{2, 2, 2, 2, 2, 0, 3, 3, 2, 2, 2, 2, 3, 0}), Arrays.toString(pits));
+        assertTrue(board.isSecondPlayerMove());
+        assertEquals(10, board.getFirstPlayerStones());
+        assertEquals(14, board.getSecondPlayerStones());
+    }
+
+    @Test
+    @DisplayName("Should not move a Kalah or an empty pit")
+    void rejectsKalahAndEmptyPit() {
+        KalahBoard board = KalahBoard.wrap(new int[]{0, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0}, false, GameStatus.IN_PROGRESS);
+
+        assertThrows(IllegalArgumentException.class, () -> underTest.move(board, 7));
+        assertThrows(IllegalArgumentException.class, () -> underTest.move(board, 1));
+        assertTrue(underTest.isKalah(14));
+    }
+
+    @Test
+    @DisplayName("Should play boards of every size like sowing stone by stone")
+    void differentialOnEveryBoardSize() {
+        Random random = new Random(20201018L);
+        for (int pitsPerSide = BoardGeometry.MIN_PITS_PER_SIDE; pitsPerSide <= BoardGeometry.MAX_PITS_PER_SIDE; pitsPerSide++) {
+            BoardGeometry geometry = BoardGeometry.of(pitsPerSide);
+            KalahRules rules = KalahRules.of(geometry);
+            for (int game = 0; game < 2_000; game++) {
+                int[] pits = geometry.newPits(1 + random.nextInt(6));
+                int[] expected = pits.clone();
+                boolean[] expectedSecondPlayerMove = {false};
+                KalahBoard board = KalahBoard.wrap(pits, false, GameStatus.IN_PROGRESS);
+
+                while (board.getGameStatus() == GameStatus.IN_PROGRESS) {
+                    int pitId = randomOwnPit(random, geometry, pits, board.isSecondPlayerMove());
+                    GameStatus expectedStatus = sowStoneByStone(geometry, expected, expectedSecondPlayerMove, pitId);
+                    rules.move(board, pitId);
+
+                    assertArrayEquals(expected, pits, () -> geometry + " differs after moving pit " + pitId);
+                    assertEquals(expectedStatus, board.getGameStatus());
+                    if (expectedStatus == GameStatus.IN_PROGRESS) {
+                        assertEquals(expectedSecondPlayerMove[0], board.isSecondPlayerMove());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should only know boards with 4 to 8 pits per side")
+    void rejectsUnknownBoardSizes() {
+        assertEquals(10, BoardGeometry.of(4).getNumberOfPits());
+        assertTrue(BoardGeometry.ofPits(new int[14]).isStandard());
+        assertTrue(KalahRules.of(BoardGeometry.of(8)).isKalah(9));
+        assertThrows(IllegalArgumentException.class, () -> BoardGeometry.of(3));
+        assertThrows(IllegalArgumentException.class, () -> BoardGeometry.of(9));
+        assertThrows(IllegalArgumentException.class, () -> KalahBoard.wrap(new int[13], false, GameStatus.IN_PROGRESS));
+        assertThrows(IllegalArgumentException.class, () -> KalahBoard.wrap(new int[20], false, GameStatus.IN_PROGRESS));
+        KalahBoard smallBoard = KalahBoard.wrap(BoardGeometry.of(4).newPits(4), false, GameStatus.IN_PROGRESS);
+        assertThrows(IllegalArgumentException.class, () -> underTest.move(smallBoard, 1));
+    }
+
+    private static int randomOwnPit(Random random, BoardGeometry geometry, int[] pits, boolean isSecondPlayerMove) {
+        int firstPit = isSecondPlayerMove ? geometry.getFirstPlayerKalahIndex() + 2 : 1;
+        int[] candidates = new int[geometry.getPitsPerSide()];
+        int count = 0;
+        for (int pitId = firstPit; pitId < firstPit + geometry.getPitsPerSide(); pitId++) {
+            if (pits[pitId - 1] > 0) {
+                candidates[count++] = pitId;
+            }
+        }
+        return candidates[random.nextInt(count)];
+    }
+
+    /**
+     * One stone at a time around a board of any size, with the rules of the game service
+     *
+     * @return status after the move
+     */
+    private static GameStatus sowStoneByStone(BoardGeometry geometry, int[] pits, boolean[] isSecondPlayerMove, int pitId) {
+        int pitsPerSide = geometry.getPitsPerSide();
+        int firstKalah = geometry.getFirstPlayerKalahIndex();
+        int secondKalah = geometry.getSecondPlayerKalahIndex();
+        int origin = pitId - 1;
+        int skippedKalah = origin < firstKalah ? secondKalah : firstKalah;
+        int index = origin;
+        for (int stones = pits[origin]; stones > 0; stones--) {
+            do {
+                index = (index + 1) % pits.length;
+            } while (index == skippedKalah);
+            pits[index]++;
+        }
+        pits[origin] = 0;
+
+        boolean ownPit = index != firstKalah && index != secondKalah && (index > firstKalah) == isSecondPlayerMove[0];
+        if (ownPit && pits[index] == 1) {
+            int opposite = index < firstKalah ? index + pitsPerSide + 1 : index - pitsPerSide - 1;
+            pits[index < firstKalah ? firstKalah : secondKalah] += pits[index] + pits[opposite];
+            pits[index] = 0;
+            pits[opposite] = 0;
+        }
+
+        int firstPlayerStones = IntStream.range(0, firstKalah).map(pit -> pits[pit]).sum();
+        int secondPlayerStones = IntStream.range(firstKalah + 1, secondKalah).map(pit -> pits[pit]).sum();
+        if (firstPlayerStones > 0 && secondPlayerStones > 0) {
+            isSecondPlayerMove[0] = index > firstKalah;
+            return GameStatus.IN_PROGRESS;
+        }
+        for (int pit = 0; pit < pitsPerSide; pit++) {
+            pits[pit] = 0;
+            pits[pit + pitsPerSide + 1] = 0;
+        }
+        pits[firstKalah] += firstPlayerStones;
+        pits[secondKalah] += secondPlayerStones;
+        return pits[firstKalah] > pits[secondKalah] ? GameStatus.FIRSTPLAYERWON
+                : pits[firstKalah] < pits[secondKalah] ? GameStatus.SECONDPLAYERWON : GameStatus.DRAW;
+    }
+
+    private static int[] randomPits(Random random) {
+        int stones = 1 + random.nextInt(10);
+        int[] pits = new int[14];
+        for (int index = 0; index < 14; index++) {
+            if (index != 6 && index != 13) {
+                pits[index] = random.nextInt(4) == 0 ? random.nextInt(2 * stones + 1) : stones;
+            }
+        }
+        return pits;
+    }
+
+    /**
+     * mostly pits of the player to move, sometimes a pit of the opponent as allowed on the first move
+     */
+    private static int randomPit(Random random, LegacyRules legacy) {
+        int[] candidates = new int[12];
+        int count = 0;
+        boolean anySide = random.nextInt(8) == 0;
+        for (int pitId = 1; pitId <= 13; pitId++) {
+            boolean ownPit = legacy.isSecondPlayerMove ? pitId > 7 : pitId < 7;
+            if (pitId != 7 && legacy.pits[pitId - 1] > 0 && (anySide || ownPit)) {
+                candidates[count++] = pitId;
+            }
+        }
+        return count == 0 ? -1 : candidates[random.nextInt(count)];
+    }
+
+    /**
+     * Stone by stone implementation the game service used before the table driven rules, kept as reference
+     */
+    private static final class LegacyRules {
+        private final int[] pits;
+        private boolean isSecondPlayerMove;
+        private GameStatus gameStatus = GameStatus.IN_PROGRESS;
+
+        private LegacyRules(int[] pits, boolean isSecondPlayerMove) {
+            this.pits = pits;
+            this.isSecondPlayerMove = isSecondPlayerMove;
+        }
+
+        /**
+         * the old loop indexes past the board once the stones go around it more than twice
+         */
+        private boolean canMove(int pitId) {
+            try {
+                new LegacyRules(pits.clone(), isSecondPlayerMove).makeMove(pitId);
+                return true;
+            } catch (ArrayIndexOutOfBoundsException e) {
+                return false;
+            }
+        }
+
+        private void makeMove(int pitId) {
+            int numberOfCoinsInPit = pits[pitId - 1];
+            for (int i = 1; i <= numberOfCoinsInPit; i++) {
+                int nextPit = pitId + i > 14 ? pitId + i - 14 : pitId + i;
+                boolean isNextPitOpponentKalah = (pitId < 7 && nextPit == 14) || (pitId > 7 && nextPit == 7);
+                if (isNextPitOpponentKalah) {
+                    numberOfCoinsInPit++;
+                } else {
+                    pits[nextPit - 1] += 1;
+                    if (i == numberOfCoinsInPit) {
+                        pits[pitId - 1] = 0;
+                        handleLastStoneLandsInOwnEmptyPit(nextPit);
+                        if (isGameCompleted()) {
+                            moveRemainingCoins();
+                            gameStatus = getGameStatus();
+                        } else {
+                            isSecondPlayerMove = nextPit > 7;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void handleLastStoneLandsInOwnEmptyPit(int nextPit) {
+            if (pits[nextPit - 1] == 1 && nextPit != 7 && nextPit != 14) {
+                if (!isSecondPlayerMove && nextPit < 7) {
+                    moveCoinsFromOppositePitAndPitToKalah(7, nextPit, nextPit + 7);
+                }
+                if (isSecondPlayerMove && nextPit > 7) {
+                    moveCoinsFromOppositePitAndPitToKalah(14, nextPit, nextPit - 7);
+                }
+            }
+        }
+
+        private void moveCoinsFromOppositePitAndPitToKalah(int kalahNumber, int nextPit, int oppositePitNumber) {
+            pits[kalahNumber - 1] += pits[nextPit - 1] + pits[oppositePitNumber - 1];
+            pits[nextPit - 1] = 0;
+            pits[oppositePitNumber - 1] = 0;
+        }
+
+        private boolean isGameCompleted() {
+            int playerOneCoinsInPit = IntStream.range(0, 6).map(pitNumber -> pits[pitNumber]).sum();
+            int playerTwoCoinsInPit = IntStream.range(7, 13).map(pitNumber -> pits[pitNumber]).sum();
+            return playerOneCoinsInPit == 0 || playerTwoCoinsInPit == 0;
+        }
+
+        private void moveRemainingCoins() {
+            pits[13] += IntStream.range(7, 13).map(pitNumber -> pits[pitNumber]).sum();
+            pits[7] = pits[8] = pits[9] = pits[10] = pits[11] = pits[12] = 0;
+            pits[6] += IntStream.range(0, 6).map(pitNumber -> pits[pitNumber]).sum();
+            pits[0] = pits[1] = pits[2] = pits[3] = pits[4] = pits[5] = 0;
+        }
+
+        private GameStatus getGameStatus() {
+            if (pits[6] > pits[13]) {
+                return GameStatus.FIRSTPLAYERWON;
+            } else if (pits[6] < pits[13]) {
+                return GameStatus.SECONDPLAYERWON;
+            } else {
+                return GameStatus.DRAW;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KalahSearchTest {
+
+    private static final long NO_LIMIT = TimeUnit.SECONDS.toNanos(60);
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should capture the opposite pit when the last stone lands in an own empty pit")
+    void takesCapture() {
+        //given
+        KalahSearch underTest = new KalahSearch(pool, 10, 1);
+        PackedBoard board = PackedBoard.of(new int[]{1, 0, 0, 0, 0, 3, 0, 4, 10, 4, 4, 4, 4, 0}, false, GameStatus.IN_PROGRESS);
+
+        //when
+        SearchResult result = underTest.search(board, NO_LIMIT);
+
+        //then
+        assertEquals(1, result.getPitId());
+        assertEquals(11, result.getScore());
+        assertEquals(1, result.getDepth());
+    }
+
+    @Test
+    @DisplayName("Should see that the game is won before the maximum depth")
+    void findsWonGame() {
+        //given
+        KalahSearch underTest = new KalahSearch(pool, 10, 40);
+        PackedBoard board = PackedBoard.of(new int[]{0, 0, 0, 0, 1, 1, 20, 0, 0, 0, 0, 0, 2, 12}, false, GameStatus.IN_PROGRESS);
+
+        //when
+        SearchResult result = underTest.search(board, NO_LIMIT);
+
+        //then
+        assertTrue(result.getScore() >= KalahSearch.WIN);
+        assertTrue(result.getDepth() < 40);
+    }
+
+    @Test
+    @DisplayName("Should move a pit of the second player when it is the second player's turn")
+    void movesForPlayerToMove() {
+        //given
+        KalahSearch underTest = new KalahSearch(pool, 12, 6);
+        PackedBoard board = PackedBoard.of(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, true, GameStatus.CREATED);
+
+        //when
+        SearchResult result = underTest.search(board, NO_LIMIT);
+
+        //then
+        assertTrue(result.getPitId() >= 8 && result.getPitId() <= 13);
+        assertEquals(6, result.getDepth());
+    }
+
+    @Test
+    @DisplayName("Should stop at the time budget with the best move of the last completed depth")
+    void stopsAtTimeBudget() {
+        //given
+        KalahSearch underTest = new KalahSearch(pool, 16, KalahSearch.MAX_DEPTH);
+        PackedBoard board = PackedBoard.of(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, false, GameStatus.IN_PROGRESS);
+
+        //when
+        SearchResult result = underTest.search(board, TimeUnit.MILLISECONDS.toNanos(50));
+
+        //then
+        assertTrue(result.getElapsedNanos() < TimeUnit.SECONDS.toNanos(2));
+        assertTrue(result.getDepth() >= 1 && result.getDepth() < KalahSearch.MAX_DEPTH);
+        assertTrue(result.getPitId() >= 1 && result.getPitId() <= 6);
+    }
+
+    @Test
+    @DisplayName("Should not search a completed game")
+    void rejectsCompletedGame() {
+        KalahSearch underTest = new KalahSearch(pool, 10, 4);
+        PackedBoard board = PackedBoard.of(new int[]{0, 0, 0, 0, 0, 0, 40, 0, 0, 0, 0, 0, 0, 32}, false, GameStatus.FIRSTPLAYERWON);
+
+        assertThrows(IllegalArgumentException.class, () -> underTest.search(board, NO_LIMIT));
+    }
+}
@@ -0,0 +1,86 @@
+package nl.backbase.game.kalah.engine;
+
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedBoardTest {
+
+    private final KalahBoard scratch = KalahBoard.wrap(new int[PackedBoard.NUMBER_OF_PITS], false, GameStatus.IN_PROGRESS);
+
+    @Test
+    @DisplayName("Should keep pits, turn and status when packing and unpacking")
+    void packAndUnpack() {
+        int[] pits = {1, 2, 3, 4, 5, 6, 70, 8, 9, 10, 11, 12, 13, 255};
+
+        PackedBoard board = PackedBoard.of(pits, true, GameStatus.IN_PROGRESS);
+        PackedBoard copy = PackedBoard.of(board.getLow(), board.getHigh());
+
+        assertEquals(Arrays.toString(pits), Arrays.toString(copy.toPits()));
+        assertTrue(copy.isSecondPlayerMove());
+        assertEquals(GameStatus.IN_PROGRESS, copy.getGameStatus());
+        assertEquals(board, copy);
+        assertNull(PackedBoard.of(pits, false, null).getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Should not accept pits that do not fit into a byte")
+    void rejectsOverflow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedBoard.of(new int[]{256, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, false, null));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.of(new int[7], false, null));
+    }
+
+    @Test
+    @DisplayName("Should sow the stones and skip the opponent's Kalah")
+    void moveSkipsOpponentKalah() {
+        PackedBoard board = PackedBoard.of(new int[]{1, 0, 0, 0, 0, 8, 15, 4, 4, 4, 4, 4, 4, 0}, false, GameStatus.IN_PROGRESS);
+
+        int lastPit = board.move(6, scratch);
+
+        assertEquals(1, lastPit);
+        assertEquals(Arrays.toString(new int[]{2, 0, 0, 0, 0, 0, 16, 5, 5, 5, 5, 5, 5, 0}), Arrays.toString(board.toPits()));
+        assertFalse(board.isSecondPlayerMove());
+    }
+
+    @Test
+    @DisplayName("Should capture the opposite pit when the last stone lands in an own empty pit")
+    void moveCaptures() {
+        PackedBoard board = PackedBoard.of(new int[]{1, 0, 0, 0, 0, 9, 14, 4, 4, 4, 4, 4, 4, 0}, false, GameStatus.IN_PROGRESS);
+
+        board.move(6, scratch);
+
+        assertEquals(Arrays.toString(new int[]{2, 0, 0, 0, 0, 0, 21, 5, 0, 5, 5, 5, 5, 0}), Arrays.toString(board.toPits()));
+    }
+
+    @Test
+    @DisplayName("Should move the remaining stones to the Kalahs and decide the winner when a side is empty")
+    void moveCompletesGame() {
+        PackedBoard board = PackedBoard.of(new int[]{0, 0, 0, 0, 0, 1, 22, 5, 4, 4, 4, 4, 4, 0}, false, GameStatus.IN_PROGRESS);
+
+        board.move(6, scratch);
+
+        assertEquals(Arrays.toString(new int[]{0, 0, 0, 0, 0, 0, 23, 0, 0, 0, 0, 0, 0, 25}), Arrays.toString(board.toPits()));
+        assertEquals(GameStatus.SECONDPLAYERWON, board.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Should give the turn to the second player when the last stone lands on the second player's side")
+    void moveChangesTurn() {
+        PackedBoard board = PackedBoard.of(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, false, GameStatus.IN_PROGRESS);
+
+        board.move(3, scratch);
+
+        assertEquals(Arrays.toString(new int[]{6, 6, 0, 7, 7, 7, 1, 7, 7, 6, 6, 6, 6, 0}), Arrays.toString(board.toPits()));
+        assertTrue(board.isSecondPlayerMove());
+        assertEquals(GameStatus.IN_PROGRESS, board.getGameStatus());
+    }
+}
@@ -0,0 +1,112 @@
+package nl.backbase.game.kalah.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayoutSimulatorTest {
+
+    private static final long PLAYOUTS_PER_OPENING = 10_000;
+    private static final long SEED = 42;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ForkJoinPool singleThread = new ForkJoinPool(1);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        singleThread.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should play every opening the given number of times and count each game once")
+    void countsEveryPlayout() {
+        //given
+        PlayoutSimulator underTest = new PlayoutSimulator(BoardGeometry.STANDARD);
+
+        //when
+        PlayoutStatistics statistics = underTest.simulate(6, PLAYOUTS_PER_OPENING, SEED, pool);
+
+        //then
+        assertEquals(6, statistics.getStones());
+        for (int opening = 1; opening <= KalahRules.PITS_PER_SIDE; opening++) {
+            assertEquals(PLAYOUTS_PER_OPENING, statistics.getGames(opening));
+            assertEquals(PLAYOUTS_PER_OPENING, statistics.getFirstPlayerWins(opening)
+                    + statistics.getSecondPlayerWins(opening) + statistics.getDraws(opening));
+            long byLength = 0;
+            for (int moves = 0; moves < 1000; moves++) {
+                byLength += statistics.getGames(opening, moves);
+            }
+            assertEquals(PLAYOUTS_PER_OPENING, byLength);
+            assertEquals(0, statistics.getGames(opening, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same statistics for a seed with any parallelism")
+    void isReproducible() throws IOException {
+        //given
+        PlayoutSimulator underTest = new PlayoutSimulator(BoardGeometry.of(4));
+
+        //when
+        PlayoutStatistics parallel = underTest.simulate(3, PLAYOUTS_PER_OPENING, SEED, pool);
+        PlayoutStatistics sequential = underTest.simulate(3, PLAYOUTS_PER_OPENING, SEED, singleThread);
+
+        //then
+        assertEquals(csvOf(sequential), csvOf(parallel));
+    }
+
+    @Test
+    @DisplayName("Should write a row per opening and game length")
+    void writesCsv() throws IOException {
+        //given
+        PlayoutSimulator underTest = new PlayoutSimulator(BoardGeometry.STANDARD);
+        PlayoutStatistics statistics = underTest.simulate(4, 1000, SEED, pool);
+
+        //when
+        String csv = csvOf(statistics);
+
+        //then
+        long games = 0;
+        for (String row : csv.split("\n")) {
+            String[] columns = row.split(",");
+            assertEquals(PlayoutStatistics.CSV_HEADER.split(",").length, columns.length);
+            assertEquals("6", columns[0]);
+            assertEquals("4", columns[1]);
+            long rowGames = Long.parseLong(columns[4]);
+            assertTrue(rowGames > 0);
+            assertEquals(rowGames, Long.parseLong(columns[5]) + Long.parseLong(columns[6]) + Long.parseLong(columns[7]));
+            assertEquals(rowGames, statistics.getGames(Integer.parseInt(columns[2]), Integer.parseInt(columns[3])));
+            games += rowGames;
+        }
+        assertEquals(6 * 1000, games);
+    }
+
+    @Test
+    @DisplayName("Should reject games without stones")
+    void rejectsEmptyBoards() {
+        //given
+        PlayoutSimulator underTest = new PlayoutSimulator(BoardGeometry.STANDARD);
+
+        //when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> underTest.simulate(0, PLAYOUTS_PER_OPENING, SEED, pool));
+
+        //then
+        assertEquals("stones must be at least 1", exception.getMessage());
+    }
+
+    private static String csvOf(PlayoutStatistics statistics) throws IOException {
+        StringWriter writer = new StringWriter();
+        statistics.writeCsv(writer);
+        return writer.toString();
+    }
+}
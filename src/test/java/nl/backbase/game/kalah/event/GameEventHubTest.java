@@ -0,0 +1,136 @@
+package nl.backbase.game.kalah.event;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameEventHubTest {
+
+    private final LocalGameEventBus gameEventBus = new LocalGameEventBus();
+    private final ManualExecutor sender = new ManualExecutor();
+
+    private GameEventHub underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new GameEventHub(gameEventBus, 2, sender);
+    }
+
+    @Test
+    @DisplayName("Should send the events of a game to its subscribers only")
+    void sendsEventsOfSubscribedGame() {
+        //given
+        List<Integer> received = new ArrayList<>();
+        List<Integer> other = new ArrayList<>();
+        underTest.subscribe("12341234", event -> received.add(firstPit(event)));
+        underTest.subscribe("43214321", event -> other.add(firstPit(event)));
+
+        //when
+        gameEventBus.publish(event("12341234", 1));
+        gameEventBus.publish(event("12341234", 2));
+        sender.runAll();
+
+        //then
+        assertEquals("[1, 2]", received.toString());
+        assertTrue(other.isEmpty());
+        assertEquals(2, underTest.subscriberCount());
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest events when a subscriber can not keep up")
+    void dropsOldestEvents() {
+        //given
+        List<Integer> received = new ArrayList<>();
+        underTest.subscribe("12341234", event -> received.add(firstPit(event)));
+
+        //when
+        for (int stones = 1; stones <= 5; stones++) {
+            gameEventBus.publish(event("12341234", stones));
+        }
+        sender.runAll();
+
+        //then
+        assertEquals("[4, 5]", received.toString());
+    }
+
+    @Test
+    @DisplayName("Should skip the initial state when an event arrived since subscribing")
+    void skipsOutdatedInitialState() {
+        //given
+        List<Integer> received = new ArrayList<>();
+        GameSubscription subscription = underTest.subscribe("12341234", event -> received.add(firstPit(event)));
+
+        //when
+        gameEventBus.publish(event("12341234", 2));
+        subscription.offerInitial(event("12341234", 1));
+        sender.runAll();
+
+        //then
+        assertEquals("[2]", received.toString());
+    }
+
+    @Test
+    @DisplayName("Should stop sending after the subscription is cancelled or the subscriber is gone")
+    void stopsAfterCancelOrFailure() {
+        //given
+        List<Integer> received = new ArrayList<>();
+        GameSubscription cancelled = underTest.subscribe("12341234", event -> received.add(firstPit(event)));
+        underTest.subscribe("12341234", event -> {
+            throw new IOException("Broken pipe");
+        });
+
+        //when
+        cancelled.cancel();
+        gameEventBus.publish(event("12341234", 1));
+        sender.runAll();
+        gameEventBus.publish(event("12341234", 2));
+        sender.runAll();
+
+        //then
+        assertTrue(received.isEmpty());
+        assertEquals(0, underTest.subscriberCount());
+    }
+
+    private static GameEvent event(String gameId, int stones) {
+        return GameEvent.of(Game.builder()
+                .id(gameId)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .pits(new int[]{stones, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build());
+    }
+
+    private static int firstPit(GameEvent event) {
+        return event.toGame().getPits()[0];
+    }
+
+    /**
+     * runs the sends when the test asks for it, as if the sender threads were busy until then
+     */
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        private void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
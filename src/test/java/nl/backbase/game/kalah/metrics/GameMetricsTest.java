@@ -0,0 +1,82 @@
+package nl.backbase.game.kalah.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GameMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GameMetrics underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new GameMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should record the latency of the service and repository calls by method")
+    void recordsTimers() {
+        //when
+        underTest.recordMakeMove(System.nanoTime());
+        underTest.recordMakeMove(System.nanoTime());
+        underTest.recordFindById(System.nanoTime());
+
+        //then
+        assertEquals(2, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "makeMove").timer().count());
+        assertEquals(0, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "createGame").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.REPOSITORY_TIMER).tag("method", "findById").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should count created games and status changes, nothing when the status did not change")
+    void countsTransitions() {
+        //when
+        underTest.gamesCreated(3);
+        underTest.transition(GameStatus.CREATED, GameStatus.IN_PROGRESS);
+        underTest.transition(GameStatus.IN_PROGRESS, GameStatus.IN_PROGRESS);
+        underTest.transition(GameStatus.IN_PROGRESS, GameStatus.DRAW);
+
+        //then
+        assertEquals(3, transitions(GameMetrics.NEW_GAME, "CREATED"));
+        assertEquals(1, transitions("CREATED", "IN_PROGRESS"));
+        assertEquals(1, transitions("IN_PROGRESS", "DRAW"));
+        assertNull(meterRegistry.find(GameMetrics.TRANSITION_COUNTER)
+                .tag("from", "IN_PROGRESS").tag("to", "IN_PROGRESS").counter());
+    }
+
+    @Test
+    @DisplayName("Should count the handled exceptions by type")
+    void countsExceptions() {
+        //when
+        underTest.exceptionHandled(GameNotFoundException.class);
+        underTest.exceptionHandled(GameNotFoundException.class);
+
+        //then
+        assertEquals(2, meterRegistry.get(GameMetrics.EXCEPTION_COUNTER)
+                .tag("exception", "GameNotFoundException").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should report the last count of the active games, not a sum of the counts")
+    void reportsLastActiveGamesCount() {
+        //when
+        underTest.activeGamesCounted(5);
+        underTest.activeGamesCounted(2);
+
+        //then
+        assertEquals(2, underTest.getActiveGames());
+        assertEquals(2, meterRegistry.get(GameMetrics.ACTIVE_GAMES_GAUGE).gauge().value());
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.get(GameMetrics.TRANSITION_COUNTER).tag("from", from).tag("to", to).counter().count();
+    }
+}
@@ -0,0 +1,83 @@
+package nl.backbase.game.kalah.repository;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveGamesCounterTest implements WithBDDMockito {
+
+    @Mock
+    private MongoOperations mongoOperations;
+    @Captor
+    private ArgumentCaptor<Query> queryCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GameMetrics gameMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gameMetrics = new GameMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should count the games expiring after now and set the count on the gauge")
+    void countsUnexpiredGames() {
+        //given
+        ActiveGamesCounter underTest = new ActiveGamesCounter(mongoOperations, gameMetrics, true);
+        given(mongoOperations.count(any(Query.class), eq(Game.class))).willReturn(7L, 4L);
+
+        //when
+        underTest.count();
+        long active = underTest.count();
+
+        //then
+        assertEquals(4, active);
+        assertEquals(4, meterRegistry.get(GameMetrics.ACTIVE_GAMES_GAUGE).gauge().value());
+        verify(mongoOperations, times(2)).count(queryCaptor.capture(), eq(Game.class));
+        Document expiresAt = (Document) queryCaptor.getValue().getQueryObject().get("expiresAt");
+        assertTrue(expiresAt.get("$gt") instanceof Date);
+    }
+
+    @Test
+    @DisplayName("Should count every game with an expiry time when games are never abandoned")
+    void countsGamesWithExpiryWhenNeverAbandoned() {
+        //given
+        ActiveGamesCounter underTest = new ActiveGamesCounter(mongoOperations, gameMetrics, false);
+        given(mongoOperations.count(any(Query.class), eq(Game.class))).willReturn(3L);
+
+        //when
+        underTest.count();
+
+        //then
+        assertEquals(3, gameMetrics.getActiveGames());
+        verify(mongoOperations).count(queryCaptor.capture(), eq(Game.class));
+        Document expiresAt = (Document) queryCaptor.getValue().getQueryObject().get("expiresAt");
+        assertEquals(Boolean.TRUE, expiresAt.get("$exists"));
+    }
+
+    @Test
+    @DisplayName("Should reject an interval below one millisecond")
+    void rejectsInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ActiveGamesCounter(mongoOperations, gameMetrics, true, 0));
+    }
+}
@@ -0,0 +1,308 @@
+package nl.backbase.game.kalah.repository;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingGameStoreTest implements WithBDDMockito {
+
+    @Mock
+    private GameRepository gameRepository;
+    @Captor
+    private ArgumentCaptor<List<Game>> batchCaptor;
+    @Captor
+    private ArgumentCaptor<Game> gameCaptor;
+
+    private CachingGameStore underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CachingGameStore(gameRepository, 2, 60_000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    @DisplayName("Should load a game once from the repository and serve copies from memory afterwards")
+    void findByIdCachesGame() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(game("12341234", GameStatus.IN_PROGRESS)));
+
+        //when
+        Game first = underTest.findById("12341234").get();
+        first.getPits()[0] = 0;
+        Game second = underTest.findById("12341234").get();
+
+        //then
+        assertNotSame(first, second);
+        assertEquals(4, second.getPits()[0]);
+        verify(gameRepository).findById("12341234");
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should write dirty games to the repository in one batch on flush")
+    void saveIsWrittenBehind() {
+        //given
+        underTest.save(game("12341234", GameStatus.IN_PROGRESS));
+        underTest.save(game("43214321", GameStatus.IN_PROGRESS));
+        verifyNoMoreInteractions(gameRepository);
+
+        //when
+        underTest.flush();
+        underTest.flush();
+
+        //then
+        verify(gameRepository).saveAll(batchCaptor.capture());
+        assertEquals(2, batchCaptor.getValue().size());
+        assertTrue(underTest.findById("12341234").isPresent());
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should write a finished game at once and evict it")
+    void finishedGameIsWrittenAndEvicted() {
+        //when
+        underTest.save(game("12341234", GameStatus.DRAW));
+
+        //then
+        verify(gameRepository).save(gameCaptor.capture());
+        assertEquals(GameStatus.DRAW, gameCaptor.getValue().getGameStatus());
+        assertEquals(0, underTest.size());
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used clean games above the capacity")
+    void evictsAboveCapacity() {
+        //given
+        underTest.save(game("11111111", GameStatus.IN_PROGRESS));
+        underTest.save(game("22222222", GameStatus.IN_PROGRESS));
+        underTest.findById("11111111");
+        underTest.save(game("33333333", GameStatus.IN_PROGRESS));
+
+        //when
+        underTest.flush();
+
+        //then
+        assertEquals(2, underTest.size());
+        given(gameRepository.findById("22222222")).willReturn(Optional.of(game("22222222", GameStatus.IN_PROGRESS)));
+        underTest.findById("22222222");
+        verify(gameRepository).findById("22222222");
+    }
+
+    @Test
+    @DisplayName("Should evict idle games after they are written")
+    void evictsIdleGames() {
+        //given
+        underTest.close();
+        underTest = new CachingGameStore(gameRepository, 10, 0, 60_000);
+        underTest.save(game("12341234", GameStatus.IN_PROGRESS));
+
+        //when
+        underTest.flush();
+
+        //then
+        verify(gameRepository).saveAll(batchCaptor.capture());
+        assertEquals(Arrays.toString(game("12341234", GameStatus.IN_PROGRESS).getPits()),
+                Arrays.toString(batchCaptor.getValue().get(0).getPits()));
+        assertEquals(0, underTest.size());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored version so the next write compares against it")
+    void tracksStoredVersion() {
+        //given
+        Game loaded = game("12341234", GameStatus.IN_PROGRESS);
+        loaded.setVersion(4L);
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(loaded));
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            game.setVersion(game.getVersion() + 1);
+            return game;
+        });
+        underTest.save(underTest.findById("12341234").get());
+
+        //when
+        underTest.flush();
+        underTest.save(underTest.findById("12341234").get());
+        underTest.flush();
+
+        //then
+        verify(gameRepository, times(2)).save(gameCaptor.capture());
+        assertEquals(Long.valueOf(6), gameCaptor.getValue().getVersion());
+        assertEquals(Long.valueOf(6), underTest.findById("12341234").get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should drop a game changed by another instance instead of overwriting it, publish the stored state as a correction and not run the actions of the lost state")
+    void dropsConflictingGame() {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LocalGameEventBus gameEventBus = new LocalGameEventBus();
+        List<GameEvent> events = new ArrayList<>();
+        gameEventBus.subscribe(events::add);
+        underTest.close();
+        underTest = new CachingGameStore(gameRepository, new GameMetrics(meterRegistry), gameEventBus, 2, 60_000, 60_000);
+        Game loaded = game("12341234", GameStatus.IN_PROGRESS);
+        loaded.setVersion(4L);
+        Game stored = game("12341234", GameStatus.IN_PROGRESS);
+        stored.setVersion(5L);
+        stored.setMoveCount(1);
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(loaded), Optional.of(stored));
+        given(gameRepository.save(any(Game.class))).willThrow(new OptimisticLockingFailureException("changed"));
+        Game moved = underTest.findById("12341234").get();
+        moved.setMoveCount(2);
+        AtomicInteger afterWrite = new AtomicInteger();
+        underTest.save(moved, afterWrite::incrementAndGet);
+
+        //when
+        underTest.flush();
+
+        //then
+        assertEquals(0, underTest.size());
+        assertEquals(0, afterWrite.get());
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).isCorrection());
+        assertEquals(1, events.get(0).getMoveCount());
+        assertEquals(1, meterRegistry.get(GameMetrics.CONFLICT_COUNTER).counter().count());
+        underTest.flush();
+        verify(gameRepository).save(any(Game.class));
+        assertEquals(1, underTest.findById("12341234").get().getMoveCount());
+        verify(gameRepository, times(3)).findById("12341234");
+    }
+
+    @Test
+    @DisplayName("Should run the actions of the saved states once a flush wrote them, in the order of the saves")
+    void runsActionsAfterWrite() {
+        //given
+        given(gameRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+        List<String> actions = new ArrayList<>();
+        Game game = game("12341234", GameStatus.IN_PROGRESS);
+        underTest.save(game, () -> actions.add("first"));
+        underTest.save(game, () -> actions.add("second"));
+
+        //when
+        List<String> beforeFlush = new ArrayList<>(actions);
+        underTest.flush();
+
+        //then
+        assertTrue(beforeFlush.isEmpty());
+        assertEquals(Arrays.asList("first", "second"), actions);
+        underTest.save(underTest.findById("12341234").get(), () -> actions.add("third"));
+        assertEquals(2, actions.size());
+    }
+
+    @Test
+    @DisplayName("Should insert new games one by one when the batch fails, quarantine the game whose id is taken and still write the stored games")
+    void quarantinesGameWithTakenId() {
+        //given
+        underTest.close();
+        underTest = new CachingGameStore(gameRepository, 10, 60_000, 60_000);
+        Game stored = game("33333333", GameStatus.IN_PROGRESS);
+        stored.setVersion(4L);
+        given(gameRepository.findById("33333333")).willReturn(Optional.of(stored));
+        underTest.save(underTest.findById("33333333").get());
+        underTest.save(game("11111111", GameStatus.IN_PROGRESS));
+        underTest.save(game("22222222", GameStatus.IN_PROGRESS));
+        given(gameRepository.saveAll(any())).willThrow(new DuplicateKeyException("E11000"));
+        given(gameRepository.insert(any(Game.class))).willAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            if ("22222222".equals(game.getId())) {
+                throw new DuplicateKeyException("E11000");
+            }
+            game.setVersion(0L);
+            return game;
+        });
+        Game other = game("22222222", GameStatus.IN_PROGRESS);
+        other.getPits()[0] = 0;
+        given(gameRepository.findById("22222222")).willReturn(Optional.of(other));
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        underTest.flush();
+        underTest.flush();
+
+        //then
+        verify(gameRepository).saveAll(any());
+        verify(gameRepository, times(2)).insert(any(Game.class));
+        verify(gameRepository).save(gameCaptor.capture());
+        assertEquals("33333333", gameCaptor.getValue().getId());
+        List<Game> quarantined = underTest.getQuarantined();
+        assertEquals(1, quarantined.size());
+        assertEquals("22222222", quarantined.get(0).getId());
+        assertEquals(4, quarantined.get(0).getPits()[0]);
+    }
+
+    @Test
+    @DisplayName("Should keep the last activity and the expiry time of a game from the save through the flush")
+    void keepsActivityTimes() {
+        //given
+        Date lastActivity = new Date(1_000_000L);
+        Date expiresAt = new Date(9_000_000L);
+        Date stampedExpiresAt = new Date(10_000_000L);
+        Game game = game("12341234", GameStatus.IN_PROGRESS);
+        game.setLastActivity(lastActivity);
+        game.setExpiresAt(expiresAt);
+        List<Date> written = new ArrayList<>();
+        given(gameRepository.saveAll(any())).willAnswer(invocation -> {
+            List<Game> games = invocation.getArgument(0);
+            for (Game stored : games) {
+                written.add(stored.getLastActivity());
+                written.add(stored.getExpiresAt());
+                stored.setVersion(0L);
+                stored.setExpiresAt(stampedExpiresAt);
+            }
+            return games;
+        });
+        underTest.save(game);
+
+        //when
+        Game cached = underTest.findById("12341234").get();
+        underTest.flush();
+
+        //then
+        assertEquals(lastActivity, cached.getLastActivity());
+        assertEquals(expiresAt, cached.getExpiresAt());
+        assertEquals(Arrays.asList(lastActivity, expiresAt), written);
+        assertEquals(stampedExpiresAt, underTest.findById("12341234").get().getExpiresAt());
+    }
+
+    private static Game game(String id, GameStatus gameStatus) {
+        return Game.builder()
+                .id(id)
+                .gameStatus(gameStatus)
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+    }
+}
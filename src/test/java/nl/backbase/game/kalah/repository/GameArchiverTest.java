@@ -0,0 +1,151 @@
+package nl.backbase.game.kalah.repository;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+
+@ExtendWith(MockitoExtension.class)
+class GameArchiverTest implements WithBDDMockito {
+
+    @Mock
+    private MongoOperations mongoOperations;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Captor
+    private ArgumentCaptor<Document> documentArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GameArchiver underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new GameArchiver(mongoOperations, new GameMetrics(meterRegistry), 60_000, 2, false);
+    }
+
+    @Test
+    @DisplayName("Should copy finished games to the archive before deleting them, batch by batch")
+    void archivesFinishedGames() {
+        //given
+        given(mongoOperations.find(any(Query.class), eq(Game.class))).willReturn(
+                Arrays.asList(finishedGame("00000001"), finishedGame("00000002")),
+                Collections.singletonList(finishedGame("00000003")));
+        given(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, GameArchiver.COLLECTION)).willReturn(bulkOperations);
+
+        //when
+        int archived = underTest.archive();
+
+        //then
+        assertEquals(3, archived);
+        verify(bulkOperations, times(3)).replaceOne(any(Query.class), documentArgumentCaptor.capture(),
+                any(FindAndReplaceOptions.class));
+        Document document = documentArgumentCaptor.getAllValues().get(0);
+        assertEquals("00000001", document.get("_id"));
+        assertEquals(2, document.get("board", List.class).size());
+        assertEquals(12L, document.get("moveCount"));
+        assertEquals(new Date(1_000L), document.get("finishedAt"));
+        InOrder inOrder = inOrder(bulkOperations, mongoOperations);
+        inOrder.verify(bulkOperations).execute();
+        inOrder.verify(mongoOperations).remove(queryArgumentCaptor.capture(), eq(Game.class));
+        assertTrue(queryArgumentCaptor.getValue().getQueryObject().toJson().contains("00000002"));
+        assertEquals(3, meterRegistry.get(GameMetrics.ARCHIVED_COUNTER).counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not archive or delete a game that is still played")
+    void keepsActiveGames() {
+        //given
+        Game active = finishedGame("00000001");
+        active.setGameStatus(GameStatus.IN_PROGRESS);
+        given(mongoOperations.find(any(Query.class), eq(Game.class))).willReturn(Collections.singletonList(active));
+        given(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, GameArchiver.COLLECTION)).willReturn(bulkOperations);
+
+        //when
+        int archived = underTest.archive();
+
+        //then
+        assertEquals(0, archived);
+        verify(bulkOperations, never()).execute();
+        verify(mongoOperations, never()).remove(any(Query.class), eq(Game.class));
+    }
+
+    @Test
+    @DisplayName("Should give games still played an expiry time and finished games none")
+    void stampsActivity() {
+        //given
+        GameActivityListener listener = new GameActivityListener(3_600_000);
+        Game active = finishedGame("00000001");
+        active.setGameStatus(GameStatus.CREATED);
+        Game finished = finishedGame("00000002");
+        finished.setExpiresAt(new Date());
+
+        //when
+        listener.onBeforeConvert(new BeforeConvertEvent<>(active, "game"));
+        listener.onBeforeConvert(new BeforeConvertEvent<>(finished, "game"));
+
+        //then
+        assertNotNull(active.getLastActivity());
+        assertEquals(active.getLastActivity().getTime() + 3_600_000, active.getExpiresAt().getTime());
+        assertNotNull(finished.getLastActivity());
+        assertNull(finished.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Should find finished games by their status when games are written in the compact format")
+    void findsCompactGamesByStatus() {
+        //given
+        GameArchiver compactArchiver = new GameArchiver(mongoOperations, new GameMetrics(meterRegistry), 60_000, 2, true);
+        given(mongoOperations.find(any(Query.class), eq(Game.class))).willReturn(Collections.emptyList());
+
+        //when
+        int archived = compactArchiver.archive();
+
+        //then
+        assertEquals(0, archived);
+        verify(mongoOperations).find(queryArgumentCaptor.capture(), eq(Game.class));
+        String query = queryArgumentCaptor.getValue().getQueryObject().toJson();
+        assertTrue(query.contains("\"s\": {\"$in\": [3, 4, 5]}"), query);
+        assertTrue(query.contains("lastActivity"), query);
+    }
+
+    private static Game finishedGame(String gameId) {
+        return Game.builder()
+                .id(gameId)
+                .pits(new int[]{0, 0, 0, 0, 0, 0, 23, 0, 0, 0, 0, 0, 0, 25})
+                .gameStatus(GameStatus.SECONDPLAYERWON)
+                .moveCount(12)
+                .version(12L)
+                .lastActivity(new Date(1_000L))
+                .build();
+    }
+}
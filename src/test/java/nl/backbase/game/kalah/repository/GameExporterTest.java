@@ -0,0 +1,222 @@
+package nl.backbase.game.kalah.repository;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.repository.converter.CompactGameWritingConverter;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class GameExporterTest implements WithBDDMockito {
+
+    private static final int[] FINISHED_PITS = {0, 0, 0, 0, 0, 0, 40, 0, 0, 0, 0, 0, 0, 32};
+
+    @Mock
+    private MongoOperations mongoOperations;
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+
+    private Path directory;
+    private Path file;
+    private GameExporter underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("export");
+        file = directory.resolve("games.bin");
+        underTest = new GameExporter(mongoOperations, "game", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Should write a fixed width record of every finished game, packed or not")
+    void exportsFinishedGames() throws IOException {
+        //given
+        given(mongoOperations.stream(any(Query.class), eq(Document.class), eq("game"))).willReturn(cursor(
+                packedGame("00000001", GameStatus.FIRSTPLAYERWON),
+                mappedGame("00000002", GameStatus.DRAW),
+                packedGame("00000003", GameStatus.IN_PROGRESS),
+                compactGame("00000005", GameStatus.SECONDPLAYERWON),
+                new Document("_id", "00000004").append("pits", Arrays.asList(1, 0, 0, 0, 5, 0, 0, 0, 0, 0))
+                        .append("gameStatus", GameStatus.SECONDPLAYERWON.name())));
+
+        //when
+        long exported = underTest.export(file, false);
+
+        //then
+        assertEquals(3, exported);
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(GameExporter.HEADER_SIZE + 3 * GameExporter.RECORD_SIZE, content.remaining());
+        assertEquals(GameExporter.MAGIC, content.getInt());
+        assertEquals(GameExporter.FORMAT_VERSION, content.getInt());
+        assertEquals(GameExporter.RECORD_SIZE, content.getInt());
+        assertArrayEquals(record(GameStatus.FIRSTPLAYERWON), next(content));
+        assertArrayEquals(record(GameStatus.DRAW), next(content));
+        assertArrayEquals(record(GameStatus.SECONDPLAYERWON), next(content));
+        assertFalse(Files.exists(directory.resolve("games.bin.checkpoint")));
+        verify(mongoOperations).stream(queryArgumentCaptor.capture(), eq(Document.class), eq("game"));
+        assertEquals(Integer.valueOf(2), queryArgumentCaptor.getValue().getMeta().getCursorBatchSize());
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted export after the last checkpointed game")
+    void resumesFromCheckpoint() throws IOException {
+        //given
+        given(mongoOperations.stream(any(Query.class), eq(Document.class), eq("game"))).willReturn(
+                failingCursor(3, packedGame("00000001", GameStatus.FIRSTPLAYERWON),
+                        packedGame("00000002", GameStatus.SECONDPLAYERWON),
+                        packedGame("00000003", GameStatus.DRAW)),
+                cursor(packedGame("00000003", GameStatus.DRAW),
+                        mappedGame("00000004", GameStatus.FIRSTPLAYERWON)));
+        assertThrows(IllegalStateException.class, () -> underTest.export(file, true));
+        assertTrue(Files.exists(directory.resolve("games.bin.checkpoint")));
+
+        //when
+        long exported = underTest.export(file, true);
+
+        //then
+        assertEquals(4, exported);
+        ByteBuffer content = ByteBuffer.wrap(gunzip(file));
+        assertEquals(GameExporter.HEADER_SIZE + 4 * GameExporter.RECORD_SIZE, content.remaining());
+        content.position(GameExporter.HEADER_SIZE);
+        assertArrayEquals(record(GameStatus.FIRSTPLAYERWON), next(content));
+        assertArrayEquals(record(GameStatus.SECONDPLAYERWON), next(content));
+        assertArrayEquals(record(GameStatus.DRAW), next(content));
+        assertArrayEquals(record(GameStatus.FIRSTPLAYERWON), next(content));
+        verify(mongoOperations, times(2)).stream(queryArgumentCaptor.capture(), eq(Document.class), eq("game"));
+        assertTrue(queryArgumentCaptor.getAllValues().get(1).getQueryObject().toJson().contains("00000002"));
+        assertFalse(Files.exists(directory.resolve("games.bin.checkpoint")));
+    }
+
+    @Test
+    @DisplayName("Should not resume an export with another compression")
+    void rejectsOtherCompression() {
+        //given
+        given(mongoOperations.stream(any(Query.class), eq(Document.class), eq("game"))).willReturn(
+                failingCursor(2, packedGame("00000001", GameStatus.FIRSTPLAYERWON),
+                        packedGame("00000002", GameStatus.DRAW)));
+        assertThrows(IllegalStateException.class, () -> underTest.export(file, false));
+
+        //when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> underTest.export(file, true));
+
+        //then
+        assertTrue(exception.getMessage().contains("without gzip"));
+    }
+
+    private static Document packedGame(String gameId, GameStatus gameStatus) {
+        PackedBoard board = PackedBoard.of(FINISHED_PITS, false, gameStatus);
+        return new Document("_id", gameId).append("board", Arrays.asList(board.getLow(), board.getHigh()));
+    }
+
+    private static Document mappedGame(String gameId, GameStatus gameStatus) {
+        List<Integer> pits = new ArrayList<>();
+        for (int stones : FINISHED_PITS) {
+            pits.add(stones);
+        }
+        return new Document("_id", gameId).append("pits", pits).append("gameStatus", gameStatus.name());
+    }
+
+    private static Document compactGame(String gameId, GameStatus gameStatus) {
+        Game game = Game.builder().id(gameId).pits(FINISHED_PITS).gameStatus(gameStatus).build();
+        return new CompactGameWritingConverter().convert(game);
+    }
+
+    private static byte[] record(GameStatus gameStatus) {
+        byte[] record = new byte[GameExporter.RECORD_SIZE];
+        for (int index = 0; index < FINISHED_PITS.length; index++) {
+            record[index] = (byte) FINISHED_PITS[index];
+        }
+        record[FINISHED_PITS.length] = (byte) gameStatus.ordinal();
+        return record;
+    }
+
+    private static byte[] next(ByteBuffer content) {
+        byte[] record = new byte[GameExporter.RECORD_SIZE];
+        content.get(record);
+        return record;
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static CloseableIterator<Document> cursor(Document... documents) {
+        return failingCursor(-1, documents);
+    }
+
+    /**
+     * @param failAt index of the document whose read fails, -1 to read all documents
+     */
+    private static CloseableIterator<Document> failingCursor(int failAt, Document... documents) {
+        Iterator<Document> iterator = Arrays.asList(documents).iterator();
+        return new CloseableIterator<Document>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Document next() {
+                if (read++ == failAt - 1) {
+                    throw new IllegalStateException("Cursor lost");
+                }
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package nl.backbase.game.kalah.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class GameFormatMigrationTest implements WithBDDMockito {
+
+    @Mock
+    private MongoOperations mongoOperations;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<Object> replacementArgumentCaptor;
+
+    @Test
+    @DisplayName("Should rewrite the games in the compact format batch by batch, keeping their version")
+    void rewritesGames() {
+        //given
+        given(mongoOperations.find(any(Query.class), eq(Game.class))).willReturn(
+                Arrays.asList(game("00000001"), game("00000002")),
+                Collections.singletonList(game("00000003")));
+        given(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Game.class)).willReturn(bulkOperations);
+        given(bulkOperations.execute()).willReturn(bulkWriteResult);
+        given(bulkWriteResult.getModifiedCount()).willReturn(2, 0);
+        GameFormatMigration underTest = new GameFormatMigration(mongoOperations, 2);
+
+        //when
+        long migrated = underTest.migrate();
+
+        //then
+        assertEquals(2, migrated);
+        verify(bulkOperations, times(3)).replaceOne(queryArgumentCaptor.capture(), replacementArgumentCaptor.capture());
+        Document replacement = (Document) replacementArgumentCaptor.getAllValues().get(0);
+        assertEquals("00000001", replacement.get("_id"));
+        assertEquals(15, ((Binary) replacement.get("b")).getData().length);
+        assertEquals(GameStatus.IN_PROGRESS.ordinal(), replacement.get("s"));
+        assertEquals(7L, replacement.get("version"));
+        assertEquals(new Date(1_000L), replacement.get("lastActivity"));
+        assertFalse(replacement.containsKey("board"));
+        assertTrue(queryArgumentCaptor.getAllValues().get(0).getQueryObject().toJson().contains("\"version\": 7"));
+
+        verify(mongoOperations, times(2)).find(queryArgumentCaptor.capture(), eq(Game.class));
+        String secondBatch = queryArgumentCaptor.getAllValues().get(4).getQueryObject().toJson();
+        assertTrue(secondBatch.contains("00000002"), secondBatch);
+    }
+
+    private static Game game(String gameId) {
+        return Game.builder()
+                .id(gameId)
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .isSecondPlayerMove(true)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .moveCount(5)
+                .version(7L)
+                .lastActivity(new Date(1_000L))
+                .expiresAt(new Date(2_000L))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package nl.backbase.game.kalah.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import nl.backbase.game.kalah.domain.Game;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class GameVersionMigrationTest implements WithBDDMockito {
+
+    @Mock
+    private MongoOperations mongoOperations;
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<Document> markerArgumentCaptor;
+
+    private GameVersionMigration underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new GameVersionMigration(mongoOperations, 2);
+    }
+
+    @Test
+    @DisplayName("Should set version 0 on the games without version batch by batch and store the marker")
+    void setsVersionInBatches() {
+        //given
+        given(mongoOperations.getCollectionName(Game.class)).willReturn("game");
+        given(mongoOperations.find(any(Query.class), eq(Document.class), eq("game"))).willReturn(
+                Arrays.asList(new Document("_id", "00000001"), new Document("_id", "00000002")),
+                Collections.singletonList(new Document("_id", "00000003")));
+        given(mongoOperations.updateMulti(any(Query.class), any(Update.class), eq("game")))
+                .willReturn(UpdateResult.acknowledged(2, 2L, null), UpdateResult.acknowledged(1, 1L, null));
+
+        //when
+        long updated = underTest.migrate();
+
+        //then
+        assertEquals(3, updated);
+        verify(mongoOperations, times(2)).find(queryArgumentCaptor.capture(), eq(Document.class), eq("game"));
+        String secondBatch = queryArgumentCaptor.getAllValues().get(1).getQueryObject().toJson();
+        assertTrue(secondBatch.contains("00000002"), secondBatch);
+        verify(mongoOperations).save(markerArgumentCaptor.capture(), eq(GameVersionMigration.COLLECTION));
+        assertEquals(GameVersionMigration.MARKER_ID, markerArgumentCaptor.getValue().get("_id"));
+    }
+
+    @Test
+    @DisplayName("Should not look for games without version once the marker is stored")
+    void skipsMigratedGames() {
+        //given
+        given(mongoOperations.findById(GameVersionMigration.MARKER_ID, Document.class, GameVersionMigration.COLLECTION))
+                .willReturn(new Document("_id", GameVersionMigration.MARKER_ID));
+
+        //when
+        long updated = underTest.migrate();
+
+        //then
+        assertEquals(0, updated);
+        verify(mongoOperations, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+}
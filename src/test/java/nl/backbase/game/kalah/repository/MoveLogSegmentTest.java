@@ -0,0 +1,51 @@
+package nl.backbase.game.kalah.repository;
+
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveLogSegmentTest {
+
+    @Test
+    @DisplayName("Should encode a move into one sortable value")
+    void encodesMove() {
+        //given
+        PackedBoard board = PackedBoard.of(new int[]{4, 4, 4, 4, 4, 4, 0, 0, 5, 5, 5, 5, 5, 1}, false, GameStatus.IN_PROGRESS);
+        GameMove move = GameMove.builder()
+                .moveNumber(70)
+                .pitId(8)
+                .secondPlayer(true)
+                .boardLow(board.getLow())
+                .boardHigh(board.getHigh())
+                .build();
+
+        //when
+        long encoded = MoveLogSegment.encode(5, move);
+
+        //then
+        assertEquals(5, MoveLogSegment.offsetOf(encoded));
+        assertEquals(8, MoveLogSegment.pitIdOf(encoded));
+        assertTrue(MoveLogSegment.isSecondPlayer(encoded));
+        assertEquals(board.fingerprint(), MoveLogSegment.fingerprintOf(encoded));
+        assertTrue(encoded < MoveLogSegment.encode(6, move));
+    }
+
+    @Test
+    @DisplayName("Should only keep the moves recorded without a gap")
+    void stopsAtGap() {
+        //given
+        GameMove move = GameMove.builder().moveNumber(1).pitId(1).build();
+        long[] moves = {MoveLogSegment.encode(0, move), MoveLogSegment.encode(1, move), MoveLogSegment.encode(3, move)};
+
+        //when
+        MoveLogSegment segment = new MoveLogSegment(true, 0L, 0L, moves);
+
+        //then
+        assertEquals(2, segment.size());
+    }
+}
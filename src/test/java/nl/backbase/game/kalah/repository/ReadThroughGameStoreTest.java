@@ -0,0 +1,189 @@
+package nl.backbase.game.kalah.repository;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ReadThroughGameStoreTest implements WithBDDMockito {
+
+    @Mock
+    private GameStore gameStore;
+
+    private LocalGameEventBus gameEventBus;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadThroughGameStore underTest;
+
+    @BeforeEach
+    void setUp() {
+        gameEventBus = new LocalGameEventBus(true);
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new ReadThroughGameStore(gameStore, gameEventBus, new GameMetrics(meterRegistry), 2);
+    }
+
+    @Test
+    @DisplayName("Should read a game saved by this instance from memory, as a copy")
+    void readsOwnWrites() {
+        //given
+        Game game = game("12341234", 3, 4L);
+        given(gameStore.save(game)).willReturn(game);
+        underTest.save(game);
+        gameEventBus.publish(GameEvent.of(game));
+
+        //when
+        Game first = underTest.findById("12341234").get();
+        first.getPits()[0] = 0;
+        Game second = underTest.findById("12341234").get();
+
+        //then
+        assertNotSame(first, second);
+        assertEquals(4, second.getPits()[0]);
+        assertEquals(Long.valueOf(4L), second.getVersion());
+        verify(gameStore, never()).findById(anyString());
+        assertEquals(2, gets("hit"));
+        assertEquals(0, gets("miss"));
+    }
+
+    @Test
+    @DisplayName("Should load a game once and evict the least recently used games beyond the capacity")
+    void evictsLeastRecentlyUsed() {
+        //given
+        given(gameStore.findById("00000001")).willReturn(Optional.of(game("00000001", 1, 1L)));
+        given(gameStore.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+        underTest.findById("00000001");
+        underTest.findById("00000001");
+
+        //when
+        underTest.saveAll(Arrays.asList(game("00000002", 0, 1L), game("00000003", 0, 1L)));
+
+        //then
+        assertEquals(2, underTest.size());
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+        assertEquals(1, evictions("size"));
+        underTest.findById("00000001");
+        verify(gameStore, times(2)).findById("00000001");
+    }
+
+    @Test
+    @DisplayName("Should drop a game changed by another instance and load its stored state")
+    void invalidatesGamesChangedElsewhere() {
+        //given
+        given(gameStore.findById("12341234")).willReturn(Optional.of(game("12341234", 3, 4L)),
+                Optional.of(game("12341234", 4, 5L)));
+        underTest.findById("12341234");
+
+        //when
+        gameEventBus.publish(GameEvent.of(game("12341234", 4, 5L)));
+        Game reloaded = underTest.findById("12341234").get();
+
+        //then
+        assertEquals(4, reloaded.getMoveCount());
+        assertEquals(1, evictions("invalidated"));
+        assertEquals(2, gets("miss"));
+    }
+
+    @Test
+    @DisplayName("Should drop a game whose save failed, so the next move loads the stored game")
+    void dropsGameOnFailedSave() {
+        //given
+        Game game = game("12341234", 3, 4L);
+        given(gameStore.findById("12341234")).willReturn(Optional.of(game("12341234", 3, 4L)));
+        given(gameStore.save(any(Game.class))).willThrow(new OptimisticLockingFailureException("changed"));
+        underTest.findById("12341234");
+
+        //when
+        assertThrows(OptimisticLockingFailureException.class, () -> underTest.save(game));
+
+        //then
+        assertEquals(0, underTest.size());
+        assertEquals(1, evictions("invalidated"));
+    }
+
+    @Test
+    @DisplayName("Should cache a loaded game when another game was invalidated during the load")
+    void cachesLoadOverlappingOtherInvalidation() {
+        //given
+        given(gameStore.findById("12341234")).willAnswer(invocation -> {
+            gameEventBus.publish(GameEvent.of(game("43214321", 7, 8L)));
+            return Optional.of(game("12341234", 3, 4L));
+        });
+
+        //when
+        underTest.findById("12341234");
+        Game cached = underTest.findById("12341234").get();
+
+        //then
+        assertEquals(3, cached.getMoveCount());
+        assertEquals(1, underTest.size());
+        assertEquals(1, gets("hit"));
+        verify(gameStore).findById("12341234");
+    }
+
+    @Test
+    @DisplayName("Should not cache a loaded game when the game was invalidated during the load")
+    void skipsLoadOverlappingOwnInvalidation() {
+        //given
+        given(gameStore.findById("12341234")).willAnswer(invocation -> {
+            gameEventBus.publish(GameEvent.of(game("12341234", 4, 5L)));
+            return Optional.of(game("12341234", 3, 4L));
+        }).willReturn(Optional.of(game("12341234", 4, 5L)));
+
+        //when
+        underTest.findById("12341234");
+        Game reloaded = underTest.findById("12341234").get();
+
+        //then
+        assertEquals(4, reloaded.getMoveCount());
+        assertEquals(1, underTest.size());
+        verify(gameStore, times(2)).findById("12341234");
+    }
+
+    @Test
+    @DisplayName("Should not start on a bus that does not reach every instance")
+    void requiresBusReachingAllInstances() {
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new ReadThroughGameStore(gameStore, new LocalGameEventBus(), 2));
+
+        //then
+        assertTrue(exception.getMessage().contains("kalah.events.singleInstance"));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get(GameMetrics.CACHE_GETS_COUNTER).tag("result", result).counter().count();
+    }
+
+    private double evictions(String cause) {
+        return meterRegistry.get(GameMetrics.CACHE_EVICTIONS_COUNTER).tag("cause", cause).counter().count();
+    }
+
+    private static Game game(String gameId, long moveCount, Long version) {
+        return Game.builder()
+                .id(gameId)
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .moveCount(moveCount)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package nl.backbase.game.kalah.repository.converter;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameReadingConverterTest {
+
+    private final GameReadingConverter underTest = new GameReadingConverter();
+
+    @Test
+    @DisplayName("Should read a game written with the packed board")
+    void readPackedGame() {
+        //given
+        Game game = Game.builder()
+                .id("12341234")
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .isSecondPlayerMove(true)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .moveCount(5)
+                .version(3L)
+                .lastActivity(new Date(1_000L))
+                .expiresAt(new Date(2_000L))
+                .build();
+        Document document = new PackedGameWritingConverter().convert(game);
+
+        //when
+        Game result = underTest.convert(document);
+
+        //then
+        assertEquals("12341234", result.getId());
+        assertEquals(Arrays.toString(game.getPits()), Arrays.toString(result.getPits()));
+        assertTrue(result.isSecondPlayerMove());
+        assertEquals(GameStatus.IN_PROGRESS, result.getGameStatus());
+        assertEquals(5, result.getMoveCount());
+        assertEquals(Long.valueOf(3), result.getVersion());
+        assertEquals(new Date(1_000L), result.getLastActivity());
+        assertEquals(new Date(2_000L), result.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Should read a game written with the default mapping")
+    void readDefaultGame() {
+        //given
+        Document document = new Document("_id", "12341234")
+                .append("pits", Arrays.asList(4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0))
+                .append("isSecondPlayerMove", false)
+                .append("gameStatus", "CREATED")
+                .append("_class", "nl.backbase.game.kalah.domain.Game");
+
+        //when
+        Game result = underTest.convert(document);
+
+        //then
+        assertEquals("12341234", result.getId());
+        assertEquals("[4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0]", Arrays.toString(result.getPits()));
+        assertEquals(GameStatus.CREATED, result.getGameStatus());
+        assertEquals(0, result.getMoveCount());
+        assertEquals(Long.valueOf(0), result.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should read a game written in the compact format, on any board size")
+    void readCompactGame() {
+        //given
+        Game game = Game.builder()
+                .id("12341234")
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .isSecondPlayerMove(true)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .moveCount(5)
+                .version(3L)
+                .lastActivity(new Date(1_000L))
+                .expiresAt(new Date(2_000L))
+                .build();
+        Game smallGame = Game.builder()
+                .id("12341235")
+                .pits(new int[]{0, 0, 0, 0, 13, 0, 0, 0, 0, 11})
+                .gameStatus(GameStatus.FIRSTPLAYERWON)
+                .build();
+        CompactGameWritingConverter converter = new CompactGameWritingConverter();
+
+        //when
+        Game result = underTest.convert(converter.convert(game));
+        Game smallResult = underTest.convert(converter.convert(smallGame));
+
+        //then
+        assertEquals("12341234", result.getId());
+        assertEquals(Arrays.toString(game.getPits()), Arrays.toString(result.getPits()));
+        assertTrue(result.isSecondPlayerMove());
+        assertEquals(GameStatus.IN_PROGRESS, result.getGameStatus());
+        assertEquals(5, result.getMoveCount());
+        assertEquals(Long.valueOf(3), result.getVersion());
+        assertEquals(new Date(1_000L), result.getLastActivity());
+        assertEquals(new Date(2_000L), result.getExpiresAt());
+        assertEquals("[0, 0, 0, 0, 13, 0, 0, 0, 0, 11]", Arrays.toString(smallResult.getPits()));
+        assertFalse(smallResult.isSecondPlayerMove());
+        assertEquals(GameStatus.FIRSTPLAYERWON, smallResult.getGameStatus());
+    }
+
+    @Test
+    @DisplayName("Should write a smaller document in the compact format than with the packed board")
+    void compactGameIsSmaller() {
+        //given
+        Game game = Game.builder()
+                .id("12341234")
+                .pits(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .isSecondPlayerMove(true)
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .moveCount(5)
+                .version(3L)
+                .lastActivity(new Date(1_000L))
+                .expiresAt(new Date(2_000L))
+                .build();
+
+        //when
+        int compact = bsonSize(new CompactGameWritingConverter().convert(game));
+        int packed = bsonSize(new PackedGameWritingConverter().convert(game));
+
+        //then
+        assertTrue(compact < packed, () -> compact + " bytes compact, " + packed + " bytes packed");
+    }
+
+    private static int bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+}
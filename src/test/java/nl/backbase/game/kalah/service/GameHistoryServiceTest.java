@@ -0,0 +1,136 @@
+package nl.backbase.game.kalah.service;
+
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.engine.BoardGeometry;
+import nl.backbase.game.kalah.engine.PackedBoard;
+import nl.backbase.game.kalah.repository.MoveLog;
+import nl.backbase.game.kalah.repository.MoveLogSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameHistoryServiceTest {
+
+    private static final int MOVES_PLAYED = 6;
+
+    private final InMemoryMoveLog moveLog = new InMemoryMoveLog(3);
+    private final GameMoves gameMoves = new GameMoves(BoardGeometry.STANDARD, 4);
+    private final List<String> positions = new ArrayList<>();
+
+    private GameHistoryService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new GameHistoryService(moveLog, 4);
+        Game game = gameMoves.newGame("12341234");
+        positions.add(Arrays.toString(game.getPits()));
+        for (int move = 0; move < MOVES_PLAYED; move++) {
+            int pitId = lastPitWithStones(game);
+            PackedBoard before = PackedBoard.of(game.getPits(), game.isSecondPlayerMove(), game.getGameStatus());
+            List<GameMove> recorded = new ArrayList<>();
+            gameMoves.apply(game, pitId, recorded);
+            moveLog.append("12341234", before.getLow(), before.getHigh(), recorded);
+            positions.add(Arrays.toString(game.getPits()));
+        }
+    }
+
+    private static int lastPitWithStones(Game game) {
+        int pitId = game.isSecondPlayerMove() ? 13 : 6;
+        while (game.getPits()[pitId - 1] == 0) {
+            pitId--;
+        }
+        return pitId;
+    }
+
+    @Test
+    @DisplayName("Should rebuild every recorded position from the snapshot of its segment")
+    void rebuildsPositions() {
+        for (int moveNumber = 0; moveNumber <= MOVES_PLAYED; moveNumber++) {
+            //when
+            Game result = underTest.getPosition("12341234", moveNumber);
+
+            //then
+            assertEquals(positions.get(moveNumber), Arrays.toString(result.getPits()));
+            assertEquals(moveNumber, result.getMoveCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw GameNotFoundException for a move that is not played yet")
+    void moveNotRecorded() {
+        assertThrows(GameNotFoundException.class, () -> underTest.getPosition("12341234", MOVES_PLAYED + 1));
+        assertThrows(GameNotFoundException.class, () -> underTest.getPosition("43214321", 0));
+    }
+
+    @Test
+    @DisplayName("Should refuse to replay a move whose board differs from the recorded one")
+    void detectsCorruptedHistory() {
+        //given
+        long[] moves = moveLog.segments.get(1L);
+        moves[1] = moves[1] ^ 1;
+
+        //when
+        assertThrows(IllegalStateException.class, () -> underTest.getPosition("12341234", 5));
+    }
+
+    /**
+     * keeps the segments as the MongoDB move log does, for a single game
+     */
+    private static final class InMemoryMoveLog implements MoveLog {
+        private final int snapshotInterval;
+        private final Map<Long, long[]> snapshots = new HashMap<>();
+        private final Map<Long, long[]> segments = new HashMap<>();
+
+        private InMemoryMoveLog(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+
+        @Override
+        public void append(String gameId, long boardBeforeLow, long boardBeforeHigh, List<GameMove> moves) {
+            long low = boardBeforeLow;
+            long high = boardBeforeHigh;
+            for (GameMove move : moves) {
+                long segment = (move.getMoveNumber() - 1) / snapshotInterval;
+                int offset = (int) ((move.getMoveNumber() - 1) % snapshotInterval);
+                if (offset == 0) {
+                    snapshots.put(segment, new long[]{low, high});
+                }
+                long[] recorded = segments.getOrDefault(segment, new long[0]);
+                recorded = Arrays.copyOf(recorded, recorded.length + 1);
+                recorded[recorded.length - 1] = MoveLogSegment.encode(offset, move);
+                Arrays.sort(recorded);
+                segments.put(segment, recorded);
+                low = move.getBoardLow();
+                high = move.getBoardHigh();
+            }
+        }
+
+        @Override
+        public Optional<MoveLogSegment> findSegment(String gameId, long segment) {
+            if (!"12341234".equals(gameId) || !segments.containsKey(segment)) {
+                return Optional.empty();
+            }
+            long[] snapshot = snapshots.get(segment);
+            return Optional.of(snapshot == null
+                    ? new MoveLogSegment(false, 0L, 0L, segments.get(segment))
+                    : new MoveLogSegment(true, snapshot[0], snapshot[1], segments.get(segment)));
+        }
+
+        @Override
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package nl.backbase.game.kalah.service;
 
 import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.GameMove;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
 import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
 import nl.backbase.game.kalah.domain.exception.GameCompletedException;
 import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
 import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.engine.KalahRules;
+import nl.backbase.game.kalah.event.GameEvent;
+import nl.backbase.game.kalah.event.GameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.CachingGameStore;
 import nl.backbase.game.kalah.repository.GameRepository;
+import nl.backbase.game.kalah.repository.GameStore;
+import nl.backbase.game.kalah.repository.MongoGameStore;
+import nl.backbase.game.kalah.repository.MoveLog;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,27 +28,49 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
 
 @ExtendWith(MockitoExtension.class)
 public class GameServiceImplTest implements WithBDDMockito {
 
+    private static final int INITIAL_NUMBER_OF_STONES = 6;
+    private static final int LOCK_STRIPES = 1;
+    private static final int MAX_MOVE_ATTEMPTS = 3;
+    private static final long LOCK_TIMEOUT_MILLIS = 2000;
+
     @Mock
     private GameRepository gameRepository;
+    @Mock
+    private GameEventBus gameEventBus;
+    @Mock
+    private MoveLog moveLog;
 
     private GameServiceImpl underTest;
     @Captor
     private ArgumentCaptor<Game> gameArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<GameEvent> gameEventArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<List<GameMove>> gameMovesArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<List<Game>> gamesArgumentCaptor;
 
     @BeforeEach
     void setUp() {
-        underTest = new GameServiceImpl(gameRepository, 6);
+        underTest = service().build();
     }
 
     @Test
@@ -52,6 +87,91 @@ public class GameServiceImplTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameRepository);
     }
 
+    @Test
+    @DisplayName("Create new games and insert them in one batch")
+    void createGamesHappy() {
+        //given
+        given(gameRepository.insert(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        List<Game> games = underTest.createGames(3);
+
+        //then
+        verify(gameRepository).insert(gamesArgumentCaptor.capture());
+        assertEquals(3, games.size());
+        assertEquals(games, gamesArgumentCaptor.getValue());
+        assertEquals(3, games.stream().map(Game::getId).distinct().count());
+        assertEquals(GameStatus.CREATED, games.get(0).getGameStatus());
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should hand out a game of the pool and create the missing games in a batch")
+    void createGame_claims_pooled_game() {
+        //given
+        GamePool gamePool = new GamePool(2, 2, Runnable::run);
+        underTest = service().gamePool(gamePool).build();
+        given(gameRepository.insert(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        underTest.fillGamePool();
+
+        //when
+        Game game = underTest.createGame();
+
+        //then
+        verify(gameRepository, times(2)).insert(gamesArgumentCaptor.capture());
+        assertEquals(2, gamesArgumentCaptor.getAllValues().get(0).size());
+        assertEquals(1, gamesArgumentCaptor.getAllValues().get(1).size());
+        assertEquals(game, gamesArgumentCaptor.getAllValues().get(0).get(0));
+        assertEquals(2, gamePool.size());
+        verify(gameRepository, never()).save(any(Game.class));
+    }
+
+    @Test
+    @DisplayName("Should store pooled games with a later expiry and not hand out games that waited too long")
+    void createGame_skips_stale_pooled_game() throws InterruptedException {
+        //given
+        GamePool gamePool = new GamePool(1, 1, 1, TimeUnit.HOURS.toMillis(1), Runnable::run);
+        underTest = service().gamePool(gamePool).build();
+        given(gameRepository.insert(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        underTest.fillGamePool();
+        Thread.sleep(5);
+
+        //when
+        Game game = underTest.createGame();
+
+        //then
+        verify(gameRepository, times(2)).insert(gamesArgumentCaptor.capture());
+        Game pooled = gamesArgumentCaptor.getAllValues().get(0).get(0);
+        assertTrue(pooled.getExpiresAt().getTime() > System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(59));
+        assertNotEquals(pooled.getId(), game.getId());
+        verify(gameRepository).save(game);
+        assertEquals(1, gamePool.size());
+    }
+
+    @Test
+    @DisplayName("Should keep the later expiry of pooled games when the write-behind store flushes them")
+    void createGame_pooled_games_keep_expiry_in_write_behind_store() {
+        //given
+        GamePool gamePool = new GamePool(2, 2, Runnable::run);
+        CachingGameStore gameStore = new CachingGameStore(gameRepository, 10, 60_000, 60_000);
+        underTest = service().gameStore(gameStore).gamePool(gamePool).build();
+        given(gameRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        underTest.fillGamePool();
+
+        //when
+        Game game = underTest.createGame();
+        gameStore.close();
+
+        //then
+        verify(gameRepository).saveAll(gamesArgumentCaptor.capture());
+        assertEquals(3, gamesArgumentCaptor.getValue().size());
+        long pooledExpiry = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(59);
+        for (Game pooled : gamesArgumentCaptor.getValue()) {
+            assertTrue(pooled.getExpiresAt().getTime() > pooledExpiry);
+        }
+        assertTrue(game.getExpiresAt().getTime() > pooledExpiry);
+    }
+
     @Test
     @DisplayName("coins should move to next pits / own kalah")
     void makeMoveHappy() {
@@ -66,6 +186,7 @@ public class GameServiceImplTest implements WithBDDMockito {
 
         //then
         assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(game.getPits()));
+        assertEquals(1, game.getMoveCount());
         verify(gameRepository).findById("12341234");
         verify(gameRepository).save(gameArgumentCaptor.capture());
         assertEquals(result, gameArgumentCaptor.getValue());
@@ -135,6 +256,38 @@ public class GameServiceImplTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameRepository);
     }
 
+    @Test
+    @DisplayName("Should time the calls and count created and finished games")
+    void makeMove_records_metrics() {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GameMetrics gameMetrics = new GameMetrics(meterRegistry);
+        underTest = service()
+                .gameStore(new MongoGameStore(gameRepository, gameMetrics))
+                .gameMetrics(gameMetrics)
+                .build();
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(Game.builder()
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .id("12341234")
+                .pits(new int[]{0, 0, 0, 0, 0, 1, 22, 5, 4, 4, 4, 4, 4, 0})
+                .build()));
+
+        //when
+        underTest.createGame();
+        underTest.createGame();
+        underTest.makeMove("12341234", 6);
+
+        //then
+        assertEquals(2, meterRegistry.get(GameMetrics.TRANSITION_COUNTER)
+                .tag("from", "NONE").tag("to", "CREATED").counter().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.TRANSITION_COUNTER)
+                .tag("from", "IN_PROGRESS").tag("to", "SECONDPLAYERWON").counter().count());
+        assertEquals(2, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "createGame").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "makeMove").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.REPOSITORY_TIMER).tag("method", "findById").timer().count());
+        assertEquals(3, meterRegistry.get(GameMetrics.REPOSITORY_TIMER).tag("method", "save").timer().count());
+    }
+
     @Test
     @DisplayName("Should throw Invalid Pit exception when there are no coins in pit")
     void makeMove_when_pit_empty() {
@@ -177,6 +330,227 @@ public class GameServiceImplTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameRepository);
     }
 
+    @Test
+    @DisplayName("Should apply the move again on the stored game when it was changed concurrently")
+    void makeMove_retries_when_game_changed_concurrently() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})),
+                Optional.of(versionedGame(2L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+        given(gameRepository.save(any(Game.class)))
+                .willThrow(new OptimisticLockingFailureException("changed"))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        Game result = underTest.makeMove("12341234", 1);
+
+        //then
+        assertEquals(Long.valueOf(2), result.getVersion());
+        assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(result.getPits()));
+        verify(gameRepository, times(2)).findById("12341234");
+        verify(gameRepository, times(2)).save(any(Game.class));
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw ConcurrentMoveException when the game keeps changing concurrently")
+    void makeMove_when_game_keeps_changing_concurrently() {
+        //given
+        given(gameRepository.findById("12341234")).willAnswer(invocation ->
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+        given(gameRepository.save(any(Game.class))).willThrow(new OptimisticLockingFailureException("changed"));
+
+        //when
+        assertThrows(ConcurrentMoveException.class, () -> underTest.makeMove("12341234", 1));
+
+        //then
+        verify(gameRepository, times(3)).findById("12341234");
+        verify(gameRepository, times(3)).save(any(Game.class));
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should apply all moves of a batch with one load and one save")
+    void makeMovesHappy() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+
+        //when
+        MoveBatchResult result = underTest.makeMoves("12341234", new int[]{3, 6, 8});
+
+        //then
+        assertEquals(3, result.getAppliedMoves());
+        assertNull(result.getRejectedMoveIndex());
+        assertEquals(Arrays.toString(new int[]{4, 4, 0, 5, 5, 0, 2, 0, 6, 6, 6, 5, 5, 0}), Arrays.toString(result.getGame().getPits()));
+        verify(gameRepository).findById("12341234");
+        verify(gameRepository).save(result.getGame());
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the moves before the first rejected move of a batch")
+    void makeMoves_stops_at_first_rejected_move() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+
+        //when
+        MoveBatchResult result = underTest.makeMoves("12341234", new int[]{1, 8, 2});
+
+        //then
+        assertEquals(1, result.getAppliedMoves());
+        assertEquals(Integer.valueOf(1), result.getRejectedMoveIndex());
+        assertEquals("Player two is not allowed to move", result.getRejectionMessage());
+        assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(result.getGame().getPits()));
+        verify(gameRepository).save(result.getGame());
+    }
+
+    @Test
+    @DisplayName("Should not save the game when the first move of a batch is rejected")
+    void makeMoves_when_first_move_rejected() {
+        //given
+        Game game = Game.builder()
+                .gameStatus(GameStatus.CREATED)
+                .id("12341234")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .build();
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(game));
+
+        //when
+        MoveBatchResult result = underTest.makeMoves("12341234", new int[]{7, 1});
+
+        //then
+        assertEquals(0, result.getAppliedMoves());
+        assertEquals(Integer.valueOf(0), result.getRejectedMoveIndex());
+        assertEquals(GameStatus.CREATED, result.getGame().getGameStatus());
+        verify(gameRepository).findById("12341234");
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should publish the state of the game once the move is saved")
+    void makeMove_publishes_saved_game() {
+        //given
+        underTest = service().build();
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+
+        //when
+        underTest.makeMove("12341234", 3);
+
+        //then
+        verify(gameEventBus).publish(gameEventArgumentCaptor.capture());
+        Game published = gameEventArgumentCaptor.getValue().toGame();
+        assertEquals("12341234", published.getId());
+        assertEquals(Arrays.toString(new int[]{4, 4, 0, 5, 5, 5, 1, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(published.getPits()));
+        assertEquals(GameStatus.IN_PROGRESS, published.getGameStatus());
+        verifyNoMoreInteractions(gameEventBus);
+    }
+
+    @Test
+    @DisplayName("Should not publish anything when the move is rejected")
+    void makeMove_rejected_publishes_nothing() {
+        //given
+        underTest = service().build();
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 0, 5, 5, 5, 1, 4, 4, 4, 4, 4, 4, 0})));
+
+        //when
+        assertThrows(InvalidPitException.class, () -> underTest.makeMove("12341234", 3));
+
+        //then
+        verify(gameEventBus, never()).publish(any(GameEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should create and play games on a board with four pits per side, without history")
+    void makeMove_on_board_with_four_pits_per_side() {
+        //given
+        underTest = service().moveLog(moveLog).board(4, 4).build();
+        Game created = underTest.createGame();
+        given(gameRepository.findById("12341234")).willReturn(Optional.of(versionedGame(1L, created.getPits().clone())));
+
+        //when
+        Game game = underTest.makeMove("12341234", 2);
+
+        //then
+        assertEquals(Arrays.toString(new int[]{4, 4, 4, 4, 0, 4, 4, 4, 4, 0}), Arrays.toString(created.getPits()));
+        assertEquals(Arrays.toString(new int[]{4, 0, 5, 5, 1, 5, 4, 4, 4, 0}), Arrays.toString(game.getPits()));
+        assertTrue(game.isSecondPlayerMove());
+        InvalidPitException kalahMove = assertThrows(InvalidPitException.class, () -> underTest.makeMove("12341234", 10));
+        assertTrue(kalahMove.getMessage().startsWith("Coins from house"));
+        verifyNoMoreInteractions(moveLog);
+    }
+
+    @Test
+    @DisplayName("Should only limit the initial stones to what a packed pit holds on the standard board")
+    void createGame_limits_stones_on_packed_board_only() {
+        //given
+        underTest = service().board(20, 8).build();
+
+        //when
+        Game game = underTest.createGame();
+
+        //then
+        assertEquals(20, game.getPits()[0]);
+        assertThrows(IllegalArgumentException.class, () -> service().board(22, 6).build());
+    }
+
+    @Test
+    @DisplayName("Should add the applied moves of a batch to the history once the game is saved")
+    void makeMoves_appends_history() {
+        //given
+        underTest = service().moveLog(moveLog).build();
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})));
+
+        //when
+        underTest.makeMoves("12341234", new int[]{3, 6, 7});
+
+        //then
+        verify(moveLog).append(eq("12341234"), any(Long.class), any(Long.class), gameMovesArgumentCaptor.capture());
+        List<GameMove> recorded = gameMovesArgumentCaptor.getValue();
+        assertEquals(2, recorded.size());
+        assertEquals(1, recorded.get(0).getMoveNumber());
+        assertEquals(3, recorded.get(0).getPitId());
+        assertEquals(2, recorded.get(1).getMoveNumber());
+        assertEquals(6, recorded.get(1).getPitId());
+    }
+
+    @Test
+    @DisplayName("Should make the move chosen by the server for the player to move")
+    void makeAiMoveHappy() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{1, 0, 0, 0, 0, 3, 0, 4, 10, 4, 4, 4, 4, 0})));
+
+        //when
+        Game result = underTest.makeAiMove("12341234");
+
+        //then
+        assertEquals(1, result.getMoveCount());
+        verify(gameRepository, times(2)).findById("12341234");
+        verify(gameRepository).save(result);
+    }
+
+    @Test
+    @DisplayName("Should not make the chosen move when the game was changed while it was chosen")
+    void makeAiMoveUnHappy_when_game_changed() {
+        //given
+        Game moved = versionedGame(2L, new int[]{0, 1, 0, 0, 0, 3, 0, 4, 10, 4, 4, 4, 4, 0});
+        moved.setMoveCount(1);
+        given(gameRepository.findById("12341234")).willReturn(
+                Optional.of(versionedGame(1L, new int[]{1, 0, 0, 0, 0, 3, 0, 4, 10, 4, 4, 4, 4, 0})),
+                Optional.of(moved));
+
+        //when
+        assertThrows(ConcurrentMoveException.class, () -> underTest.makeAiMove("12341234"));
+
+        //then
+        verify(gameRepository, never()).save(any(Game.class));
+    }
+
     @Test
     @DisplayName("Should return game based on gameId")
     void getGameHappy() {
@@ -211,5 +585,60 @@ public class GameServiceImplTest implements WithBDDMockito {
         verifyNoMoreInteractions(gameRepository);
     }
 
-}
+    private static Game versionedGame(Long version, int[] pits) {
+        return Game.builder()
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .id("12341234")
+                .pits(pits)
+                .version(version)
+                .build();
+    }
+
+    private ServiceBuilder service() {
+        return new ServiceBuilder();
+    }
 
+    /**
+     * Game service on the mocked repository and bus with the defaults of the tests, a test only sets what it is about
+     */
+    private final class ServiceBuilder {
+        private GameStore gameStore = new MongoGameStore(gameRepository);
+        private Optional<MoveLog> moveLog = Optional.empty();
+        private Optional<GamePool> gamePool = Optional.empty();
+        private GameMetrics gameMetrics = GameMetrics.disabled();
+        private int initialNumberOfStones = INITIAL_NUMBER_OF_STONES;
+        private int pitsPerSide = KalahRules.PITS_PER_SIDE;
+
+        private ServiceBuilder gameStore(GameStore gameStore) {
+            this.gameStore = gameStore;
+            return this;
+        }
+
+        private ServiceBuilder moveLog(MoveLog moveLog) {
+            this.moveLog = Optional.of(moveLog);
+            return this;
+        }
+
+        private ServiceBuilder gamePool(GamePool gamePool) {
+            this.gamePool = Optional.of(gamePool);
+            return this;
+        }
+
+        private ServiceBuilder gameMetrics(GameMetrics gameMetrics) {
+            this.gameMetrics = gameMetrics;
+            return this;
+        }
+
+        private ServiceBuilder board(int initialNumberOfStones, int pitsPerSide) {
+            this.initialNumberOfStones = initialNumberOfStones;
+            this.pitsPerSide = pitsPerSide;
+            return this;
+        }
+
+        private GameServiceImpl build() {
+            return new GameServiceImpl(gameStore, new GameLocks(LOCK_STRIPES), gameEventBus,
+                    new SequentialIdGenerator(0), moveLog, AiPlayer.withDefaults(), gamePool, gameMetrics,
+                    initialNumberOfStones, pitsPerSide, MAX_MOVE_ATTEMPTS, LOCK_TIMEOUT_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package nl.backbase.game.kalah.service;
+
+import info.solidsoft.mockito.java8.api.WithBDDMockito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.backbase.game.kalah.domain.Game;
+import nl.backbase.game.kalah.domain.MoveBatchResult;
+import nl.backbase.game.kalah.domain.enums.GameStatus;
+import nl.backbase.game.kalah.domain.exception.ConcurrentMoveException;
+import nl.backbase.game.kalah.domain.exception.GameNotFoundException;
+import nl.backbase.game.kalah.domain.exception.InvalidPitException;
+import nl.backbase.game.kalah.event.LocalGameEventBus;
+import nl.backbase.game.kalah.metrics.GameMetrics;
+import nl.backbase.game.kalah.repository.ReactiveGameRepository;
+import nl.backbase.game.kalah.utils.RandomIdGenerator;
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveGameServiceImplTest implements WithBDDMockito {
+
+    @Mock
+    private ReactiveGameRepository gameRepository;
+
+    private ReactiveGameServiceImpl underTest;
+    @Captor
+    private ArgumentCaptor<Game> gameArgumentCaptor;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveGameServiceImpl(gameRepository, 6, 3);
+    }
+
+    @Test
+    @DisplayName("Create a new game and save in database")
+    void createGameHappy() {
+        //given
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        Game game = underTest.createGame().block();
+
+        //then
+        verify(gameRepository).save(gameArgumentCaptor.capture());
+        assertNotNull(game.getId());
+        assertEquals(GameStatus.CREATED, gameArgumentCaptor.getValue().getGameStatus());
+        assertEquals("[6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0]", Arrays.toString(gameArgumentCaptor.getValue().getPits()));
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should check random ids against the stored games off the calling thread")
+    void createGame_checks_random_ids_on_bounded_elastic() {
+        //given
+        List<String> checkingThreads = new CopyOnWriteArrayList<>();
+        underTest = new ReactiveGameServiceImpl(gameRepository, new LocalGameEventBus(), new RandomIdGenerator(gameId -> {
+            checkingThreads.add(Thread.currentThread().getName());
+            return false;
+        }, 3), AiPlayer.withDefaults(), GameMetrics.disabled(), 6, 6, 3);
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        Game game = underTest.createGame().block();
+
+        //then
+        assertNotNull(game.getId());
+        assertEquals(1, checkingThreads.size());
+        assertTrue(checkingThreads.get(0).startsWith("boundedElastic"), checkingThreads.get(0));
+    }
+
+    @Test
+    @DisplayName("coins should move to next pits / own kalah")
+    void makeMoveHappy() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(Mono.just(game(1L)));
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        Game result = underTest.makeMove("12341234", 1).block();
+
+        //then
+        assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(result.getPits()));
+        assertEquals(GameStatus.IN_PROGRESS, result.getGameStatus());
+        verify(gameRepository).findById("12341234");
+        verify(gameRepository).save(result);
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should apply the move again on the stored game when it was changed concurrently")
+    void makeMove_retries_when_game_changed_concurrently() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(Mono.just(game(1L)), Mono.just(game(2L)));
+        given(gameRepository.save(any(Game.class)))
+                .willReturn(Mono.error(new OptimisticLockingFailureException("changed")))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        Game result = underTest.makeMove("12341234", 1).block();
+
+        //then
+        assertEquals(Long.valueOf(2), result.getVersion());
+        assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(result.getPits()));
+        verify(gameRepository, times(2)).findById("12341234");
+        verify(gameRepository, times(2)).save(any(Game.class));
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw ConcurrentMoveException when the game keeps changing concurrently")
+    void makeMove_when_game_keeps_changing_concurrently() {
+        //given
+        given(gameRepository.findById("12341234")).willAnswer(invocation -> Mono.just(game(1L)));
+        given(gameRepository.save(any(Game.class))).willReturn(Mono.error(new OptimisticLockingFailureException("changed")));
+
+        //when
+        assertThrows(ConcurrentMoveException.class, () -> underTest.makeMove("12341234", 1).block());
+
+        //then
+        verify(gameRepository, times(3)).findById("12341234");
+        verify(gameRepository, times(3)).save(any(Game.class));
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the moves before the first rejected move of a batch")
+    void makeMoves_stops_at_first_rejected_move() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(Mono.just(game(1L)));
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when
+        MoveBatchResult result = underTest.makeMoves("12341234", new int[]{1, 8, 2}).block();
+
+        //then
+        assertEquals(1, result.getAppliedMoves());
+        assertEquals(Integer.valueOf(1), result.getRejectedMoveIndex());
+        assertEquals(Arrays.toString(new int[]{0, 5, 5, 5, 5, 4, 0, 4, 4, 4, 4, 4, 4, 0}), Arrays.toString(result.getGame().getPits()));
+        verify(gameRepository).findById("12341234");
+        verify(gameRepository).save(result.getGame());
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw Invalid Pit exception when there are no coins in pit")
+    void makeMove_when_pit_empty() {
+        //given
+        Game game = game(1L);
+        game.getPits()[2] = 0;
+        given(gameRepository.findById("12341234")).willReturn(Mono.just(game));
+
+        //when
+        assertThrows(InvalidPitException.class, () -> underTest.makeMove("12341234", 3).block());
+
+        //then
+        verify(gameRepository).findById("12341234");
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw GameNotFoundException when game is is not found")
+    void makeMove_when_game_not_found() {
+        //given
+        given(gameRepository.findById("12341234")).willReturn(Mono.empty());
+
+        //when
+        assertThrows(GameNotFoundException.class, () -> underTest.makeMove("12341234", 3).block());
+
+        //then
+        verify(gameRepository).findById("12341234");
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    @Test
+    @DisplayName("Should record the latency and the status changes of the calls")
+    void records_metrics() {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        underTest = new ReactiveGameServiceImpl(gameRepository, new LocalGameEventBus(), new SequentialIdGenerator(0),
+                AiPlayer.withDefaults(), new GameMetrics(meterRegistry), 6, 6, 3);
+        given(gameRepository.save(any(Game.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        given(gameRepository.findById("12341234")).willReturn(Mono.just(Game.builder()
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .id("12341234")
+                .pits(new int[]{0, 0, 0, 0, 0, 1, 22, 5, 4, 4, 4, 4, 4, 0})
+                .build()));
+
+        //when
+        underTest.createGame().block();
+        underTest.makeMove("12341234", 6).block();
+
+        //then
+        assertEquals(1, meterRegistry.get(GameMetrics.TRANSITION_COUNTER)
+                .tag("from", "NONE").tag("to", "CREATED").counter().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.TRANSITION_COUNTER)
+                .tag("from", "IN_PROGRESS").tag("to", "SECONDPLAYERWON").counter().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "createGame").timer().count());
+        assertEquals(1, meterRegistry.get(GameMetrics.SERVICE_TIMER).tag("method", "makeMove").timer().count());
+    }
+
+    private static Game game(Long version) {
+        return Game.builder()
+                .gameStatus(GameStatus.IN_PROGRESS)
+                .id("12341234")
+                .pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0})
+                .version(version)
+                .build();
+    }
+}
@@ -21,7 +21,10 @@ class IdGeneratorUtilTest {
     @Test
     @DisplayName("Should generate unique id 8 character alphanumeric requestId")
     void generateGameId() {
-        assertNotNull(IdGeneratorUtil.generateGameId());
+        String generated = IdGeneratorUtil.generateGameId();
+        assertNotNull(generated);
+        assertEquals(8, generated.length());
+        assertTrue(generated.matches("[0-9A-Za-z]*"));
     }
 
 }
\ No newline at end of file
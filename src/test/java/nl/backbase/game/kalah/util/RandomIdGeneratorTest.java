@@ -0,0 +1,40 @@
+package nl.backbase.game.kalah.util;
+
+import nl.backbase.game.kalah.utils.RandomIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomIdGeneratorTest {
+
+    @Test
+    @DisplayName("Should draw another id when the generated id is used already")
+    void generateGameId_when_id_exists() {
+        List<String> checked = new ArrayList<>();
+        RandomIdGenerator underTest = new RandomIdGenerator(gameId -> {
+            checked.add(gameId);
+            return checked.size() == 1;
+        }, 3);
+
+        String gameId = underTest.generateGameId();
+
+        assertEquals(2, checked.size());
+        assertEquals(checked.get(1), gameId);
+        assertEquals(8, gameId.length());
+        assertTrue(gameId.matches("[0-9A-Za-z]*"));
+    }
+
+    @Test
+    @DisplayName("Should give up when every drawn id is used already")
+    void generateGameId_when_all_ids_exist() {
+        RandomIdGenerator underTest = new RandomIdGenerator(gameId -> true, 3);
+
+        assertThrows(IllegalStateException.class, underTest::generateGameId);
+    }
+}
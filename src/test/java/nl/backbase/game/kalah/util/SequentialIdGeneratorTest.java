@@ -0,0 +1,53 @@
+package nl.backbase.game.kalah.util;
+
+import nl.backbase.game.kalah.utils.SequentialIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequentialIdGeneratorTest {
+
+    private final SequentialIdGenerator underTest = new SequentialIdGenerator(42);
+
+    @Test
+    @DisplayName("Should generate increasing 8 character alphanumeric game ids")
+    void generateGameId() {
+        Set<String> generated = new HashSet<>();
+        String previous = underTest.generateGameId();
+        for (int i = 0; i < 100_000; i++) {
+            String gameId = underTest.generateGameId();
+            assertEquals(8, gameId.length());
+            assertTrue(gameId.matches("[0-9A-Za-z]*"));
+            assertTrue(gameId.compareTo(previous) > 0, () -> gameId + " is not after the previous id");
+            assertTrue(generated.add(gameId));
+            previous = gameId;
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the node id in the game id, so nodes never generate the same id")
+    void nodeIdOf() {
+        SequentialIdGenerator otherNode = new SequentialIdGenerator(43);
+
+        String gameId = underTest.generateGameId();
+        String otherGameId = otherNode.generateGameId();
+
+        assertEquals(42, SequentialIdGenerator.nodeIdOf(gameId));
+        assertEquals(43, SequentialIdGenerator.nodeIdOf(otherGameId));
+        assertNotEquals(gameId, otherGameId);
+    }
+
+    @Test
+    @DisplayName("Should reject node ids that do not fit in the game id")
+    void invalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SequentialIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SequentialIdGenerator(256));
+    }
+}